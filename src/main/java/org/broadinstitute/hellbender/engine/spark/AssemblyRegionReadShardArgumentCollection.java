@@ -9,10 +9,25 @@ public class AssemblyRegionReadShardArgumentCollection implements Serializable {
 
     public static final int DEFAULT_READSHARD_SIZE = 5000;
     public static final int DEFAULT_READSHARD_PADDING_SIZE = 100;
+    public static final double DEFAULT_ADAPTIVE_READSHARD_SAMPLE_FRACTION = 0.01;
+    public static final double DEFAULT_ADAPTIVE_READSHARD_HOT_FACTOR = 2.0;
+    public static final int DEFAULT_ADAPTIVE_READSHARD_MIN_SIZE = 500;
 
     @Argument(fullName="read-shard-size", shortName="read-shard-size", doc = "Maximum size of each read shard, in bases. For good performance, this should be much larger than the maximum assembly region size.", optional = true)
     public int readShardSize = DEFAULT_READSHARD_SIZE;
 
     @Argument(fullName="read-shard-padding", shortName="read-shard-padding", doc = "Each read shard has this many bases of extra context on each side. Read shards must have as much or more padding than assembly regions.", optional = true)
     public int readShardPadding = DEFAULT_READSHARD_PADDING_SIZE;
+
+    @Argument(fullName="adaptive-read-shards", doc = "Split read shards in regions of high read density into smaller shards of roughly equal read count, and spread them across tasks. Read density is estimated from a sample of read starts.", optional = true)
+    public boolean adaptiveReadShards = false;
+
+    @Argument(fullName="adaptive-read-shard-sample-fraction", doc = "Fraction of reads to sample when estimating read density for adaptive read shards.", optional = true, minValue = 0.0, maxValue = 1.0)
+    public double adaptiveReadShardSampleFraction = DEFAULT_ADAPTIVE_READSHARD_SAMPLE_FRACTION;
+
+    @Argument(fullName="adaptive-read-shard-hot-factor", doc = "A read shard is split if its estimated number of reads exceeds this multiple of the median over all shards.", optional = true, minValue = 1.0)
+    public double adaptiveReadShardHotFactor = DEFAULT_ADAPTIVE_READSHARD_HOT_FACTOR;
+
+    @Argument(fullName="adaptive-read-shard-min-size", doc = "Minimum size of a read shard produced by splitting, in bases. This is also the resolution at which read density is estimated.", optional = true, minValue = 1)
+    public int adaptiveReadShardMinSize = DEFAULT_ADAPTIVE_READSHARD_MIN_SIZE;
 }
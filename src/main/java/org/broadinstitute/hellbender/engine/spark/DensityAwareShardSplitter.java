@@ -0,0 +1,222 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.Locatable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.spark.api.java.JavaRDD;
+import org.broadinstitute.hellbender.engine.ShardBoundary;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits fixed-size read shards in regions of high read density (centromeric pileups, high-coverage exons, etc.)
+ * into smaller shards of roughly equal read count, so that a handful of shards do not dominate the runtime of a stage.
+ *
+ * <p>Read density is estimated by sampling read starts and counting them in fixed-size bins along the genome. The
+ * estimated work for a shard is the (scaled) number of sampled read starts that fall within it. A shard is considered
+ * hot if its work exceeds a multiple of the median work over all non-empty shards; hot shards are split at bin
+ * boundaries into pieces that each carry approximately the median amount of work. Shards that are not hot are
+ * returned unchanged, and every new shard is padded in the same way as the fixed-size shards it replaces.</p>
+ */
+public final class DensityAwareShardSplitter {
+    private static final Logger logger = LogManager.getLogger(DensityAwareShardSplitter.class);
+
+    private static final long SAMPLING_SEED = 0L;
+
+    private DensityAwareShardSplitter() {}
+
+    /**
+     * Estimate read density from a sample of the given reads, and split any hot shards.
+     * @param reads the reads to be sharded, must be coordinate sorted
+     * @param shards the fixed-size shards, must be coordinate sorted
+     * @param sequenceDictionary the sequence dictionary for the reads
+     * @param shardingArgs the sharding arguments, which control sampling, splitting and padding
+     * @param <L> the {@link Locatable} type
+     * @return the shards, with any hot shards replaced by smaller shards covering the same bases
+     */
+    public static <L extends Locatable> List<ShardBoundary> splitHotShards(final JavaRDD<L> reads,
+                                                                           final List<ShardBoundary> shards,
+                                                                           final SAMSequenceDictionary sequenceDictionary,
+                                                                           final AssemblyRegionReadShardArgumentCollection shardingArgs) {
+        Utils.nonNull(reads);
+        Utils.nonNull(shards);
+        Utils.nonNull(sequenceDictionary);
+        Utils.validateArg(shardingArgs.adaptiveReadShardSampleFraction > 0.0 && shardingArgs.adaptiveReadShardSampleFraction <= 1.0,
+                "adaptive read shard sample fraction must be in (0, 1]");
+        final Map<Long, Long> binCounts = countSampledReadStarts(reads, sequenceDictionary,
+                shardingArgs.adaptiveReadShardSampleFraction, shardingArgs.adaptiveReadShardMinSize);
+        return splitHotShards(shards, binCounts, shardingArgs.adaptiveReadShardSampleFraction, shardingArgs.adaptiveReadShardMinSize,
+                shardingArgs.adaptiveReadShardHotFactor, shardingArgs.readShardPadding, sequenceDictionary);
+    }
+
+    /**
+     * Count the starts of a sample of the reads in bins of size {@code binSize}.
+     * @return a map from bin key (see {@link #binKey(int, int)}) to the number of sampled reads starting in that bin
+     */
+    static <L extends Locatable> Map<Long, Long> countSampledReadStarts(final JavaRDD<L> reads,
+                                                                       final SAMSequenceDictionary sequenceDictionary,
+                                                                       final double sampleFraction,
+                                                                       final int binSize) {
+        final JavaRDD<L> sampled = sampleFraction < 1.0 ? reads.sample(false, sampleFraction, SAMPLING_SEED) : reads;
+        return sampled
+                .filter(read -> read.getContig() != null)
+                .mapToPair(read -> new Tuple2<>(binKey(sequenceDictionary.getSequenceIndex(read.getContig()), (read.getStart() - 1) / binSize), 1L))
+                .reduceByKey(Long::sum)
+                .collectAsMap();
+    }
+
+    /**
+     * Split hot shards using previously computed bin counts.
+     * @param shards the fixed-size shards, must be coordinate sorted
+     * @param binCounts counts of sampled read starts per bin
+     * @param sampleFraction the fraction of reads that were sampled to produce {@code binCounts}
+     * @param binSize the size of each bin, in bases; this is also the minimum size of a shard produced by splitting
+     * @param hotShardFactor a shard is split if its work exceeds this multiple of the median work per shard
+     * @param shardPadding the padding to add to each new shard
+     * @param sequenceDictionary the sequence dictionary for the shards
+     * @return the shards, with any hot shards replaced by smaller shards covering the same bases
+     */
+    static List<ShardBoundary> splitHotShards(final List<ShardBoundary> shards,
+                                              final Map<Long, Long> binCounts,
+                                              final double sampleFraction,
+                                              final int binSize,
+                                              final double hotShardFactor,
+                                              final int shardPadding,
+                                              final SAMSequenceDictionary sequenceDictionary) {
+        Utils.validateArg(binSize >= 1, "bin size must be >= 1");
+        Utils.validateArg(hotShardFactor >= 1.0, "hot shard factor must be >= 1");
+        Utils.validateArg(shardPadding >= 0, "shard padding must be >= 0");
+
+        final double[] work = new double[shards.size()];
+        for (int i = 0; i < shards.size(); i++) {
+            work[i] = estimateWork(shards.get(i).getInterval(), binCounts, sampleFraction, binSize, sequenceDictionary);
+        }
+        final double medianWork = median(Arrays.stream(work).filter(w -> w > 0.0).toArray());
+        logShardWorkHistogram("Fixed-size read shards", work);
+        if (medianWork == 0.0) {
+            return shards;
+        }
+
+        final double hotThreshold = hotShardFactor * medianWork;
+        final List<ShardBoundary> result = new ArrayList<>(shards.size());
+        final List<Double> resultWork = new ArrayList<>(shards.size());
+        int hotShards = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            final ShardBoundary shard = shards.get(i);
+            if (work[i] <= hotThreshold) {
+                result.add(shard);
+                resultWork.add(work[i]);
+                continue;
+            }
+            hotShards++;
+            for (final SimpleInterval piece : splitInterval(shard.getInterval(), binCounts, sampleFraction, work[i], medianWork, binSize, sequenceDictionary)) {
+                result.add(new ShardBoundary(piece, piece.expandWithinContig(shardPadding, sequenceDictionary)));
+                resultWork.add(estimateWork(piece, binCounts, sampleFraction, binSize, sequenceDictionary));
+            }
+        }
+        logger.info(String.format("Split %d of %d read shards with estimated work above %.0f reads, producing %d shards",
+                hotShards, shards.size(), hotThreshold, result.size()));
+        logShardWorkHistogram("Density-aware read shards", resultWork.stream().mapToDouble(Double::doubleValue).toArray());
+        return result;
+    }
+
+    /**
+     * Split an interval at bin boundaries into pieces that each have approximately {@code targetWork} work.
+     * No piece is smaller than {@code binSize} bases, except possibly the last one if the interval is not an exact
+     * multiple of the bin size.
+     */
+    private static List<SimpleInterval> splitInterval(final SimpleInterval interval, final Map<Long, Long> binCounts,
+                                                      final double sampleFraction, final double totalWork,
+                                                      final double targetWork, final int binSize,
+                                                      final SAMSequenceDictionary sequenceDictionary) {
+        final int contigIndex = sequenceDictionary.getSequenceIndex(interval.getContig());
+        final int numPieces = (int) Math.ceil(totalWork / targetWork);
+        final double workPerPiece = totalWork / numPieces;
+        final List<SimpleInterval> pieces = new ArrayList<>(numPieces);
+        int pieceStart = interval.getStart();
+        double accumulated = 0.0;
+        for (int bin = (interval.getStart() - 1) / binSize; bin <= (interval.getEnd() - 1) / binSize; bin++) {
+            final int binStart = bin * binSize + 1;
+            final int binEnd = binStart + binSize - 1;
+            accumulated += overlapFraction(interval, binStart, binEnd, binSize) * binCounts.getOrDefault(binKey(contigIndex, bin), 0L) / sampleFraction;
+            final int pieceEnd = Math.min(binEnd, interval.getEnd());
+            if (accumulated >= workPerPiece && pieceEnd - pieceStart + 1 >= binSize && pieceEnd < interval.getEnd()) {
+                pieces.add(new SimpleInterval(interval.getContig(), pieceStart, pieceEnd));
+                pieceStart = pieceEnd + 1;
+                accumulated = 0.0;
+            }
+        }
+        pieces.add(new SimpleInterval(interval.getContig(), pieceStart, interval.getEnd()));
+        return pieces;
+    }
+
+    /**
+     * @return the estimated number of reads starting in the given interval
+     */
+    static double estimateWork(final SimpleInterval interval, final Map<Long, Long> binCounts, final double sampleFraction,
+                               final int binSize, final SAMSequenceDictionary sequenceDictionary) {
+        final int contigIndex = sequenceDictionary.getSequenceIndex(interval.getContig());
+        double sampledReads = 0.0;
+        for (int bin = (interval.getStart() - 1) / binSize; bin <= (interval.getEnd() - 1) / binSize; bin++) {
+            final Long count = binCounts.get(binKey(contigIndex, bin));
+            if (count != null) {
+                final int binStart = bin * binSize + 1;
+                sampledReads += overlapFraction(interval, binStart, binStart + binSize - 1, binSize) * count;
+            }
+        }
+        return sampledReads / sampleFraction;
+    }
+
+    private static double overlapFraction(final SimpleInterval interval, final int binStart, final int binEnd, final int binSize) {
+        final int overlap = Math.min(interval.getEnd(), binEnd) - Math.max(interval.getStart(), binStart) + 1;
+        return (double) overlap / binSize;
+    }
+
+    static long binKey(final int contigIndex, final int bin) {
+        return ((long) contigIndex << 32) | bin;
+    }
+
+    /**
+     * Log a summary of the distribution of estimated work per shard, including a histogram with power-of-two buckets.
+     */
+    static void logShardWorkHistogram(final String label, final double[] work) {
+        if (work.length == 0) {
+            return;
+        }
+        final double[] sorted = work.clone();
+        Arrays.sort(sorted);
+        logger.info(String.format("%s: n=%d, min=%.0f, median=%.0f, p90=%.0f, p99=%.0f, max=%.0f (estimated reads per shard)",
+                label, sorted.length, sorted[0], quantile(sorted, 0.5), quantile(sorted, 0.9), quantile(sorted, 0.99),
+                sorted[sorted.length - 1]));
+        final int[] buckets = new int[65];
+        for (final double w : sorted) {
+            buckets[w < 1.0 ? 0 : 64 - Long.numberOfLeadingZeros((long) w)]++;
+        }
+        for (int b = 0; b < buckets.length; b++) {
+            if (buckets[b] > 0) {
+                final long lower = b == 0 ? 0 : 1L << (b - 1);
+                logger.info(String.format("%s: [%d, %d) reads: %d shards", label, lower, 1L << b, buckets[b]));
+            }
+        }
+    }
+
+    private static double median(final double[] values) {
+        if (values.length == 0) {
+            return 0.0;
+        }
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return quantile(sorted, 0.5);
+    }
+
+    private static double quantile(final double[] sorted, final double q) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.floor(q * sorted.length))];
+    }
+}
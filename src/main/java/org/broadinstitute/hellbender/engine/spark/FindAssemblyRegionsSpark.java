@@ -4,6 +4,8 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.Locatable;
+import org.apache.spark.Partitioner;
 import org.apache.spark.SparkFiles;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
@@ -67,12 +69,97 @@ public class FindAssemblyRegionsSpark {
             final AssemblyRegionArgumentCollection assemblyRegionArgs,
             final boolean includeReadsWithDeletionsInIsActivePileups,
             final boolean shuffle) {
-        JavaRDD<Shard<GATKRead>> shardedReads = SparkSharder.shard(ctx, reads, GATKRead.class, sequenceDictionary, intervalShards, shardingArgs.readShardSize, shuffle);
+        final List<ShardBoundary> readShards = getReadShards(reads, intervalShards, sequenceDictionary, shardingArgs);
+        JavaRDD<Shard<GATKRead>> shardedReads = SparkSharder.shard(ctx, reads, GATKRead.class, sequenceDictionary, readShards, shardingArgs.readShardSize, shuffle);
+        if (shardingArgs.adaptiveReadShards) {
+            // shards are processed in the partition they start in, so redistribute them so that the pieces of a hot shard run in different tasks
+            shardedReads = distributeShardsInOrder(shardedReads, readShards, sequenceDictionary);
+        }
         Broadcast<FeatureManager> bFeatureManager = features == null ? null : ctx.broadcast(features);
         return shardedReads.mapPartitions(getAssemblyRegionsFunctionFast(referenceFileName, bFeatureManager, header,
                 assemblyRegionEvaluatorSupplierBroadcast, assemblyRegionArgs, includeReadsWithDeletionsInIsActivePileups));
     }
 
+    /**
+     * @return the given interval shards, or if adaptive read shards are enabled, the interval shards with shards in
+     * regions of high read density split into smaller shards (see {@link DensityAwareShardSplitter})
+     */
+    private static List<ShardBoundary> getReadShards(
+            final JavaRDD<GATKRead> reads,
+            final List<ShardBoundary> intervalShards,
+            final SAMSequenceDictionary sequenceDictionary,
+            final AssemblyRegionReadShardArgumentCollection shardingArgs) {
+        return shardingArgs.adaptiveReadShards ?
+                DensityAwareShardSplitter.splitHotShards(reads, intervalShards, sequenceDictionary, shardingArgs) :
+                intervalShards;
+    }
+
+    /**
+     * Move the given shards so that each partition gets a run of consecutive shards, with about the same number of
+     * shards in each partition. Since the shards produced by {@link DensityAwareShardSplitter} carry roughly the same
+     * amount of work, this spreads the pieces of a hot shard over as many tasks as it needs, and unlike a hash
+     * repartition it keeps the partitions in coordinate order (so ordered partition output still applies).
+     * @param shardedReads the sharded reads
+     * @param readShards the boundaries of the shards in {@code shardedReads}, in coordinate order
+     * @param sequenceDictionary the sequence dictionary for the reads
+     * @param <L> the {@link Locatable} type
+     * @return the shards in the same number of partitions, in coordinate order within and across partitions
+     */
+    static <L extends Locatable> JavaRDD<Shard<L>> distributeShardsInOrder(
+            final JavaRDD<Shard<L>> shardedReads,
+            final List<ShardBoundary> readShards,
+            final SAMSequenceDictionary sequenceDictionary) {
+        final int numPartitions = shardedReads.getNumPartitions();
+        final long[] partitionStartKeys = new long[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            partitionStartKeys[i] = readShards.isEmpty() ? Long.MIN_VALUE :
+                    shardKey(readShards.get((int) ((long) i * readShards.size() / numPartitions)).getInterval(), sequenceDictionary);
+        }
+        return shardedReads
+                .mapToPair(shard -> new Tuple2<>(shardKey(shard.getInterval(), sequenceDictionary), shard))
+                .repartitionAndSortWithinPartitions(new ShardRangePartitioner(partitionStartKeys))
+                .values();
+    }
+
+    private static long shardKey(final Locatable interval, final SAMSequenceDictionary sequenceDictionary) {
+        return ((long) sequenceDictionary.getSequenceIndex(interval.getContig()) << 32) | interval.getStart();
+    }
+
+    /**
+     * Assigns shards, keyed by {@link #shardKey(Locatable, SAMSequenceDictionary)}, to the last partition that starts
+     * at or before them.
+     */
+    private static final class ShardRangePartitioner extends Partitioner {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] partitionStartKeys;
+
+        ShardRangePartitioner(final long[] partitionStartKeys) {
+            this.partitionStartKeys = partitionStartKeys;
+        }
+
+        @Override
+        public int numPartitions() {
+            return partitionStartKeys.length;
+        }
+
+        @Override
+        public int getPartition(final Object key) {
+            final long shardKey = (Long) key;
+            int lo = 0;
+            int hi = partitionStartKeys.length - 1;
+            while (lo < hi) {
+                final int mid = (lo + hi + 1) >>> 1;
+                if (partitionStartKeys[mid] <= shardKey) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return lo;
+        }
+    }
+
     private static FlatMapFunction<Iterator<Shard<GATKRead>>, AssemblyRegionWalkerContext> getAssemblyRegionsFunctionFast(
             final String referenceFileName,
             final Broadcast<FeatureManager> bFeatureManager,
@@ -137,7 +224,7 @@ public class FindAssemblyRegionsSpark {
             final AssemblyRegionArgumentCollection assemblyRegionArgs,
             final boolean includeReadsWithDeletionsInIsActivePileups,
             final boolean shuffle) {
-        JavaRDD<Shard<GATKRead>> shardedReads = SparkSharder.shard(ctx, reads, GATKRead.class, sequenceDictionary, intervalShards, shardingArgs.readShardSize, shuffle);
+        JavaRDD<Shard<GATKRead>> shardedReads = SparkSharder.shard(ctx, reads, GATKRead.class, sequenceDictionary, getReadShards(reads, intervalShards, sequenceDictionary, shardingArgs), shardingArgs.readShardSize, shuffle);
         Broadcast<FeatureManager> bFeatureManager = features == null ? null : ctx.broadcast(features);
 
         // 1. Calculate activity for each locus in the desired intervals, in parallel.
@@ -35,6 +35,11 @@ import java.util.Comparator;
 /**
  * ReadsSparkSink writes GATKReads to a file. This code lifts from the HadoopGenomics/Hadoop-BAM
  * read writing code as well as from bigdatagenomics/adam.
+ *
+ * <p>For {@link ReadsWriteFormat#SINGLE} output each Spark task writes its partition as a headerless BAM part, and
+ * computes the BAI and SBI index fragments for that part as it goes. The driver then concatenates the header and the
+ * parts, and merges the index fragments by shifting their virtual file offsets by the position of each part in the
+ * final file, so neither the BAM nor its indexes need a second serial pass over the reads.</p>
  */
 public final class ReadsSparkSink {
 
@@ -1,8 +1,11 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
+import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -17,6 +20,8 @@ import org.disq_bio.disq.TabixIndexWriteOption;
 import scala.Tuple2;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -25,6 +30,8 @@ import java.util.List;
  * VariantsSparkSink writes variants to a VCF file in parallel using Hadoop-BAM. BCF is not supported.
  */
 public final class VariantsSparkSink {
+    private static final Logger logger = LogManager.getLogger(VariantsSparkSink.class);
+
     /**
      * Write variants to the given output file in VCF format with the given header. Note that writing sharded output is not supported.
      * @param ctx the JavaSparkContext
@@ -75,20 +82,58 @@ public final class VariantsSparkSink {
             final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
             final VCFHeader header, final boolean writeGvcf, final List<Number> gqPartitions, final int defaultPloidy,
             final int numReducers, final boolean writeTabixIndex) throws IOException {
+        writeVariants(ctx, outputFile, variants, header, writeGvcf, gqPartitions, defaultPloidy, numReducers, writeTabixIndex, false);
+    }
+
+    /**
+     * Write variants to the given output file in VCF format with the given header. Note that writing sharded output is not supported.
+     * <p>
+     * If {@code orderedPartitions} is true, the variants are not globally sorted. Instead, the variants in each
+     * partition are sorted, and if the partitions are then in coordinate order and do not overlap each other, each
+     * partition is written (and GVCF blocks are combined) as one coordinate-contiguous BGZF part of the output file.
+     * The parts are concatenated and their tabix index fragments merged without re-reading any records. If the
+     * partitions are found to overlap, a global sort is done. Since the partition extents are found with a separate
+     * Spark job, callers should cache {@code variants} when using this option.
+     * </p>
+     * @param ctx the JavaSparkContext
+     * @param outputFile path to the output VCF
+     * @param variants variants to write
+     * @param header the header to put at the top of the output file
+     * @param numReducers the number of reducers to use when writing a single file. A value of zero indicates that the default
+     *                    should be used.
+     * @param writeTabixIndex whether to write a tabix index (bgzipped VCF only)
+     * @param orderedPartitions whether the partitions of {@code variants} are expected to be in coordinate order
+     * @throws IOException if an error occurs while writing
+     */
+    public static void writeVariants(
+            final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
+            final VCFHeader header, final boolean writeGvcf, final List<Number> gqPartitions, final int defaultPloidy,
+            final int numReducers, final boolean writeTabixIndex, final boolean orderedPartitions) throws IOException {
         String absoluteOutputFile = BucketUtils.makeFilePathAbsolute(outputFile);
-        writeVariantsSingle(ctx, absoluteOutputFile, variants, header, writeGvcf, gqPartitions, defaultPloidy, numReducers, writeTabixIndex);
+        writeVariantsSingle(ctx, absoluteOutputFile, variants, header, writeGvcf, gqPartitions, defaultPloidy, numReducers, writeTabixIndex, orderedPartitions);
     }
 
     private static void writeVariantsSingle(
             final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
             final VCFHeader header, final boolean writeGvcf, final List<Number> gqPartitions, final int defaultPloidy,
-            final int numReducers, final boolean writeTabixIndex) throws IOException {
+            final int numReducers, final boolean writeTabixIndex, final boolean orderedPartitions) throws IOException {
 
         //TODO remove me when https://github.com/broadinstitute/gatk/issues/4303 is fixed
         if (outputFile.endsWith(IOUtil.BCF_FILE_EXTENSION) || outputFile.endsWith(IOUtil.BCF_FILE_EXTENSION + ".gz")) {
             throw new UserException.UnimplementedFeature("It is currently not possible to write a BCF file on spark.  See https://github.com/broadinstitute/gatk/issues/4303 for more details .");
         }
-        final JavaRDD<VariantContext> sortedVariants = sortVariants(variants, header, numReducers);
+        final JavaRDD<VariantContext> sortedVariants;
+        if (orderedPartitions) {
+            final JavaRDD<VariantContext> partitionSortedVariants = sortVariantsWithinPartitions(variants, header);
+            if (partitionsAreOrdered(partitionSortedVariants, header)) {
+                sortedVariants = partitionSortedVariants;
+            } else {
+                logger.warn("Variant partitions overlap or are out of order, falling back to a global sort before writing " + outputFile);
+                sortedVariants = sortVariants(variants, header, numReducers);
+            }
+        } else {
+            sortedVariants = sortVariants(variants, header, numReducers);
+        }
         final JavaRDD<VariantContext> variantsToSave;
         if (writeGvcf) {
             GVCFBlockCombiner gvcfBlockCombiner = new GVCFBlockCombiner(gqPartitions, defaultPloidy);
@@ -121,4 +166,48 @@ public final class VariantsSparkSink {
 
         return variantVoidPairs.map(Tuple2::_1);
     }
+
+    private static JavaRDD<VariantContext> sortVariantsWithinPartitions(final JavaRDD<VariantContext> variants, final VCFHeader header) {
+        final Comparator<VariantContext> comparator = header.getVCFRecordComparator();
+        if (comparator == null) {
+            return variants; //no sort
+        }
+        return variants.mapPartitions((FlatMapFunction<Iterator<VariantContext>, VariantContext>) it -> {
+            final List<VariantContext> partitionVariants = new ArrayList<>();
+            it.forEachRemaining(partitionVariants::add);
+            partitionVariants.sort(comparator);
+            return partitionVariants.iterator();
+        }, true);
+    }
+
+    /**
+     * @return true if, for each pair of consecutive non-empty partitions, the last variant in the first partition
+     * sorts before the first variant in the second partition. The variants within each partition must be sorted.
+     */
+    @VisibleForTesting
+    public static boolean partitionsAreOrdered(final JavaRDD<VariantContext> partitionSortedVariants, final VCFHeader header) {
+        final Comparator<VariantContext> comparator = header.getVCFRecordComparator();
+        if (comparator == null) {
+            return true; // no order to check against
+        }
+        final List<Tuple2<VariantContext, VariantContext>> extents = partitionSortedVariants
+                .mapPartitions((FlatMapFunction<Iterator<VariantContext>, Tuple2<VariantContext, VariantContext>>) it -> {
+                    if (!it.hasNext()) {
+                        return Collections.emptyIterator();
+                    }
+                    final VariantContext first = it.next();
+                    VariantContext last = first;
+                    while (it.hasNext()) {
+                        last = it.next();
+                    }
+                    return Collections.singletonList(new Tuple2<>(first, last)).iterator();
+                })
+                .collect();
+        for (int i = 1; i < extents.size(); i++) {
+            if (comparator.compare(extents.get(i - 1)._2(), extents.get(i)._1()) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -77,10 +77,20 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
     private static final long serialVersionUID = 1L;
 
     public static final int DEFAULT_READSHARD_SIZE = 5000;
+    public static final String ORDERED_PARTITION_OUTPUT_LONG_NAME = "ordered-partition-output";
 
     @Argument(fullName= StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc = "Single file to which variants should be written")
     public String output;
 
+    /**
+     * In the default (fast) mode, assembly regions are processed in the partition that their reads come from, so the
+     * variants in each partition are already close to coordinate order. This option writes each partition as a part
+     * of the output and concatenates the parts, rather than globally sorting all variants first. If the partitions
+     * turn out to overlap, variants are globally sorted as usual.
+     */
+    @Argument(fullName = ORDERED_PARTITION_OUTPUT_LONG_NAME, doc = "Write variants partition by partition without a global sort, if the partitions are in coordinate order", optional = true)
+    public boolean orderedPartitionOutput = false;
+
     public static class HaplotypeCallerAssemblyRegionArgumentCollection extends AssemblyRegionArgumentCollection {
         private static final long serialVersionUID = 1L;
 
@@ -159,7 +169,7 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
 
     @Override
     protected void processAssemblyRegions(JavaRDD<AssemblyRegionWalkerContext> rdd, JavaSparkContext ctx) {
-        processAssemblyRegions(rdd, ctx, getHeaderForReads(), referenceArguments.getReferenceFileName(), hcArgs, output, makeVariantAnnotations(), logger, createOutputVariantIndex);
+        processAssemblyRegions(rdd, ctx, getHeaderForReads(), referenceArguments.getReferenceFileName(), hcArgs, output, makeVariantAnnotations(), logger, createOutputVariantIndex, orderedPartitionOutput);
     }
 
     private static void processAssemblyRegions(
@@ -171,7 +181,8 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
             final String output,
             final Collection<Annotation> annotations,
             final Logger logger,
-            final boolean createOutputVariantIndex) {
+            final boolean createOutputVariantIndex,
+            final boolean orderedPartitionOutput) {
 
         final VariantAnnotatorEngine variantannotatorEngine = new VariantAnnotatorEngine(annotations,  hcArgs.dbsnp.dbsnp, hcArgs.comps, hcArgs.emitReferenceConfidence != ReferenceConfidenceMode.NONE, false);
 
@@ -184,11 +195,11 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
 
         final JavaRDD<VariantContext> variants = rdd.mapPartitions(assemblyFunction(header, referenceFileName, hcArgsBroadcast, annotatorEngineBroadcast));
 
-        variants.cache(); // without caching, computations are run twice as a side effect of finding partition boundaries for sorting
+        variants.cache(); // without caching, computations are run twice as a side effect of finding partition boundaries for sorting, or partition extents for ordered partition output
         try {
             VariantsSparkSink.writeVariants(ctx, output, variants, hcEngine.makeVCFHeader(header.getSequenceDictionary(), new HashSet<>()),
                     hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF, new ArrayList<Number>(hcArgs.GVCFGQBands), hcArgs.standardArgs.genotypeArgs.samplePloidy,
-                    0, createOutputVariantIndex);
+                    0, createOutputVariantIndex, orderedPartitionOutput);
         } catch (IOException e) {
             throw new UserException.CouldNotCreateOutputFile(output, "writing failed", e);
         }
@@ -281,6 +292,7 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
      * @param logger
      * @param strict whether to use the strict implementation (slower) for finding assembly regions to match walker version
      * @param createOutputVariantIndex create a variant index (tabix for bgzipped VCF only)
+     * @param orderedPartitionOutput write variants partition by partition without a global sort, if the partitions are in coordinate order
      */
     public static void callVariantsWithHaplotypeCallerAndWriteOutput(
             final JavaSparkContext ctx,
@@ -297,7 +309,8 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
             final Collection<Annotation> annotations,
             final Logger logger,
             final boolean strict,
-            final boolean createOutputVariantIndex) {
+            final boolean createOutputVariantIndex,
+            final boolean orderedPartitionOutput) {
 
         final Path referencePath = IOUtils.getPath(reference);
         final String referenceFileName = referencePath.getFileName().toString();
@@ -305,6 +318,6 @@ public final class HaplotypeCallerSpark extends AssemblyRegionWalkerSpark {
         JavaRDD<AssemblyRegionWalkerContext> assemblyRegions = strict ?
                 FindAssemblyRegionsSpark.getAssemblyRegionsStrict(ctx, reads, header, sequenceDictionary, referenceFileName, null, intervalShards, assemblyRegionEvaluatorSupplierBroadcast, shardingArgs, assemblyRegionArgs, includeReadsWithDeletionsInIsActivePileups, false) :
                 FindAssemblyRegionsSpark.getAssemblyRegionsFast(ctx, reads, header, sequenceDictionary, referenceFileName, null, intervalShards, assemblyRegionEvaluatorSupplierBroadcast, shardingArgs, assemblyRegionArgs, includeReadsWithDeletionsInIsActivePileups, false);
-        processAssemblyRegions(assemblyRegions, ctx, header, reference, hcArgs, output, annotations, logger, createOutputVariantIndex);
+        processAssemblyRegions(assemblyRegions, ctx, header, reference, hcArgs, output, annotations, logger, createOutputVariantIndex, orderedPartitionOutput);
     }
 }
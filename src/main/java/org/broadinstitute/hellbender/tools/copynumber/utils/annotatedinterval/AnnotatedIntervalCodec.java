@@ -63,9 +63,10 @@ public class AnnotatedIntervalCodec extends AsciiFeatureCodec<AnnotatedInterval>
         }
 
         final List<String> annotationFields = header.getAnnotations();
+        final List<String> annotationValues = feature.getValuesWithoutLocationColumns();
         final SortedMap<String, String> annotations = new TreeMap<>();
         IntStream.range(0, annotationFields.size()).boxed()
-                .forEach(i -> annotations.put(annotationFields.get(i), feature.getValuesWithoutLocationColumns().get(i)));
+                .forEach(i -> annotations.put(annotationFields.get(i), annotationValues.get(i)));
 
         return new AnnotatedInterval(
                 new SimpleInterval(feature.getContig(), feature.getStart(), feature.getEnd()),
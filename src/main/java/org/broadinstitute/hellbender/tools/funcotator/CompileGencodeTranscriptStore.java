@@ -0,0 +1,96 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeTranscriptStore;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.io.File;
+
+/**
+ * {@link CompileGencodeTranscriptStore} compiles the GENCODE GTF file and GENCODE transcript FASTA file of a
+ * <b><i>{@link Funcotator}</i></b> GENCODE data source into a single binary
+ * {@link GencodeTranscriptStore}.
+ *
+ * <h3>General Information</h3>
+ * <p>
+ * At startup, and for every variant, Funcotator's GENCODE data source parses gene models out of the GTF file and
+ * looks up transcript sequences in the transcript FASTA file.  A compiled transcript store holds the same gene models
+ * and transcript sequences in a compact binary form that Funcotator memory-maps and reads directly.  Compiling the
+ * store takes about as long as reading the GTF file once, and needs to be done only once per data source.
+ * </p>
+ *
+ * <p>
+ * To use a compiled store, write it next to the GTF file in the GENCODE data source folder, with the name of the GTF
+ * file followed by {@code .transcripts.bin} (as in the example below).  Funcotator will then read the store in place
+ * of the GTF file and the transcript FASTA file, as long as the store is not older than either of them.
+ * A store with any other name or location can be used by adding a line giving its path (relative to the folder, like
+ * the other paths in the config file) to the data source's config file:
+ * <pre>{@code gencode_transcript_store_path = gencode.v19.transcripts.bin}</pre>
+ * </p>
+ *
+ * <h3>Usage Example</h3>
+ * <pre>{@code
+ * ./gatk CompileGencodeTranscriptStore \
+ *     --gtf gencode.v19.annotation.REORDERED.gtf \
+ *     --transcript-fasta gencode.v19.pc_transcripts.fa \
+ *     -O gencode.v19.annotation.REORDERED.gtf.transcripts.bin
+ * }</pre>
+ *
+ * <h3>Notes</h3>
+ * <ul>
+ *     <li>The store must be recompiled whenever the GTF file or the transcript FASTA file changes.</li>
+ *     <li>The transcript FASTA file must be indexed and have a sequence dictionary, as for Funcotator itself.</li>
+ * </ul>
+ */
+@CommandLineProgramProperties(
+        summary = "Compile the GTF file and transcript FASTA file of a GENCODE data source for Funcotator into a binary transcript store.",
+        oneLineSummary = "Compile a GENCODE transcript store for Funcotator.",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+public class CompileGencodeTranscriptStore extends CommandLineProgram {
+
+    private static final Logger logger = LogManager.getLogger(CompileGencodeTranscriptStore.class);
+
+    //==================================================================================================================
+    // Public Static Members:
+
+    public static final String GTF_ARG_LONG_NAME              = "gtf";
+    public static final String TRANSCRIPT_FASTA_ARG_LONG_NAME = "transcript-fasta";
+
+    //==================================================================================================================
+    // Private Members:
+
+    @Argument(fullName = GTF_ARG_LONG_NAME,
+            doc = "GENCODE GTF file of the data source.")
+    private String gtfPath;
+
+    @Argument(fullName = TRANSCRIPT_FASTA_ARG_LONG_NAME,
+            doc = "GENCODE transcript FASTA file of the data source (the file given as " +
+                    DataSourceUtils.CONFIG_FILE_FIELD_NAME_GENCODE_FASTA_PATH + " in its config file).")
+    private String transcriptFastaPath;
+
+    @Argument(
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            fullName  = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            doc = "Output file for the compiled transcript store.")
+    private File outputFile;
+
+    //==================================================================================================================
+    // Override Methods:
+
+    @Override
+    protected Object doWork() {
+        logger.info("Compiling GENCODE transcript store from " + gtfPath + " and " + transcriptFastaPath);
+        GencodeTranscriptStore.compile(gtfPath, IOUtils.getPath(transcriptFastaPath), outputFile.toPath());
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvIndex;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.io.File;
+
+/**
+ * {@link CompileSimpleKeyXsvIndex} compiles the data file of a <b><i>{@link Funcotator}</i></b> simple XSV data source
+ * (a table keyed by gene name or transcript ID) into a {@link SimpleKeyXsvIndex}.
+ *
+ * <h3>General Information</h3>
+ * <p>
+ * At startup, Funcotator reads the whole data file of a simple XSV data source into memory.  For large tables this
+ * takes a lot of time and memory.  A compiled index holds the same rows in a binary form, sorted by key, that Funcotator
+ * memory-maps and searches for each lookup, so the memory Funcotator uses no longer depends on the size of the table.
+ * The index needs to be compiled only once per data source.
+ * </p>
+ *
+ * <p>
+ * The arguments must match the data source's config file:  {@code xsv_delimiter}, {@code xsv_key_column},
+ * {@code xsv_key}, and {@code xsv_permissive_cols}.  To use a compiled index, put it into the data source folder and add
+ * a line giving its path (relative to the folder, like the other paths in the config file) to the config file:
+ * <pre>{@code xsv_index_path = simple_uniprot_Dec012014.idx}</pre>
+ * Funcotator will then look up rows in the index in place of reading the data file.
+ * </p>
+ *
+ * <h3>Usage Example</h3>
+ * <pre>{@code
+ * ./gatk CompileSimpleKeyXsvIndex \
+ *     --xsv simple_uniprot_Dec012014.tsv \
+ *     --delimiter $'\t' \
+ *     --key-column 0 \
+ *     --key-type GENE_NAME \
+ *     -O simple_uniprot_Dec012014.idx
+ * }</pre>
+ *
+ * <h3>Notes</h3>
+ * <ul>
+ *     <li>The index must be recompiled whenever the data file changes.</li>
+ *     <li>Funcotator checks that the index was compiled with the delimiter, key column, and key type of the data source.</li>
+ * </ul>
+ */
+@CommandLineProgramProperties(
+        summary = "Compile the data file of a simple XSV data source for Funcotator into a binary index sorted by key.",
+        oneLineSummary = "Compile a simple XSV data source index for Funcotator.",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+public class CompileSimpleKeyXsvIndex extends CommandLineProgram {
+
+    private static final Logger logger = LogManager.getLogger(CompileSimpleKeyXsvIndex.class);
+
+    //==================================================================================================================
+    // Public Static Members:
+
+    public static final String XSV_ARG_LONG_NAME             = "xsv";
+    public static final String DELIMITER_ARG_LONG_NAME       = "delimiter";
+    public static final String KEY_COLUMN_ARG_LONG_NAME      = "key-column";
+    public static final String KEY_TYPE_ARG_LONG_NAME        = "key-type";
+    public static final String PERMISSIVE_COLS_ARG_LONG_NAME = "permissive-cols";
+
+    //==================================================================================================================
+    // Private Members:
+
+    @Argument(fullName = XSV_ARG_LONG_NAME,
+            doc = "Data file of the simple XSV data source (the file given as " +
+                    DataSourceUtils.CONFIG_FILE_FIELD_NAME_SRC_FILE + " in its config file).")
+    private String xsvPath;
+
+    @Argument(fullName = DELIMITER_ARG_LONG_NAME,
+            doc = "Delimiter between the columns of the data file (" + DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_DELIMITER + " in the config file).")
+    private String delimiter;
+
+    @Argument(fullName = KEY_COLUMN_ARG_LONG_NAME,
+            minValue = 0,
+            doc = "Column (0-based) of the data file containing the key of each row (" + DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_KEY_COLUMN + " in the config file).")
+    private int keyColumn;
+
+    @Argument(fullName = KEY_TYPE_ARG_LONG_NAME,
+            doc = "Type of the keys (" + DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_KEY + " in the config file).")
+    private SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType;
+
+    @Argument(fullName = PERMISSIVE_COLS_ARG_LONG_NAME,
+            optional = true,
+            doc = "Pad or truncate rows that have a different number of columns from the header (" + DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_PERMISSIVE_COLS + " in the config file).")
+    private boolean permissiveColumns = false;
+
+    @Argument(
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            fullName  = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            doc = "Output file for the compiled index.")
+    private File outputFile;
+
+    //==================================================================================================================
+    // Override Methods:
+
+    @Override
+    protected Object doWork() {
+        logger.info("Compiling simple key XSV index from " + xsvPath);
+        SimpleKeyXsvIndex.compile(IOUtils.getPath(xsvPath), delimiter, keyColumn, keyType, permissiveColumns, outputFile.toPath());
+        return null;
+    }
+}
@@ -171,18 +171,49 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
      */
     public List<Funcotation> createFuncotations(final VariantContext variant, final ReferenceContext referenceContext, final FeatureContext featureContext, final List<GencodeFuncotation> gencodeFuncotations) {
 
-        Utils.nonNull(variant);
-        Utils.nonNull(referenceContext);
         Utils.nonNull(featureContext);
 
-        final List<Funcotation> outputFuncotations;
+        return createFuncotationsFromFeatures(variant, referenceContext, getFeaturesForVariant(featureContext), gencodeFuncotations);
+    }
+
+    /**
+     * Gets the features from this {@link DataSourceFuncotationFactory}'s data source that overlap the given {@code featureContext}.
+     * These can be gathered up front (on the thread that owns the {@link FeatureContext}) and annotated later with
+     * {@link #createFuncotationsFromFeatures}.
+     * @param featureContext {@link FeatureContext} corresponding to a variant.  Never {@code null}.
+     * @return The {@link List} of {@link Feature}s overlapping the given {@code featureContext}, or an empty {@link List} if this {@link DataSourceFuncotationFactory} does not require features.
+     */
+    public List<Feature> getFeaturesForVariant(final FeatureContext featureContext) {
+
+        Utils.nonNull(featureContext);
 
         // Query this funcotation factory to get the list of overlapping features.
         // NOTE: This will only get features that are LOCATABLE!
         //       This corresponds to requiresFeatures() returning `True`.
-        final List<Feature> featureList = requiresFeatures() ?
+        return requiresFeatures() ?
                 queryFeaturesFromFeatureContext(featureContext) :
                 Collections.emptyList();
+    }
+
+    /**
+     * Creates a {@link List} of {@link Funcotation} for the given {@code variant}, {@code referenceContext}, and {@code gencodeFuncotations}
+     * from features that have already been retrieved with {@link #getFeaturesForVariant}.
+     * Accounts for override values passed into the constructor as well.
+     * Does not touch any {@link FeatureContext}, so it may be called from a different thread than the one that retrieved the features.
+     * @param variant {@link VariantContext} to annotate.  Never {@code null}.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variant}.  Never {@code null}.
+     * @param featureList {@link List} of {@link Feature}s from {@link #getFeaturesForVariant} for the given {@code variant}.  Never {@code null}.
+     * @param gencodeFuncotations {@link List} of {@link GencodeFuncotation} that have already been created for the given {@code variant}/{@code referenceContext}.
+     *   {@code null} is acceptable if there are no corresponding gencode funcotations.
+     * @return {@link List} of {@link Funcotation} given the {@code variant}, {@code referenceContext}, and {@code featureList}.  This should never be empty.
+     */
+    public List<Funcotation> createFuncotationsFromFeatures(final VariantContext variant, final ReferenceContext referenceContext, final List<Feature> featureList, final List<GencodeFuncotation> gencodeFuncotations) {
+
+        Utils.nonNull(variant);
+        Utils.nonNull(referenceContext);
+        Utils.nonNull(featureList);
+
+        final List<Funcotation> outputFuncotations;
 
         // If our featureList is compatible with this DataSourceFuncotationFactory, then we make our funcotations:
         if ( isFeatureListCompatible(featureList) ) {
@@ -247,10 +278,7 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
      * @param featureContext the FeatureContext to query
      * @return Features from our FeatureInput {@link #mainSourceFileAsFeatureInput} queried from the FeatureContext
      */
-    @SuppressWarnings("unchecked")
     private List<Feature> queryFeaturesFromFeatureContext(final FeatureContext featureContext) {
-        final List<Feature> features;
-
         SimpleInterval queryInterval = featureContext.getInterval();
 
         // Do we need to do a fuzzy hg19 / b37 conversion for querying our features:
@@ -266,6 +294,22 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
         // Perform extra transformations on the query interval:
         queryInterval = transformFeatureQueryInterval(queryInterval);
 
+        return queryFeatures(featureContext, queryInterval);
+    }
+
+    /**
+     * Gets the Features that overlap the given (already transformed) query interval.
+     * The default implementation gets them from our FeatureInput {@link #mainSourceFileAsFeatureInput} through the
+     * given FeatureContext, but subclasses that keep their own index of features may override this.
+     *
+     * @param featureContext the FeatureContext to query
+     * @param queryInterval the interval over which to query, after any contig conversion and transformation
+     * @return Features that overlap {@code queryInterval}
+     */
+    @SuppressWarnings("unchecked")
+    protected List<Feature> queryFeatures(final FeatureContext featureContext, final SimpleInterval queryInterval) {
+        final List<Feature> features;
+
         // If the interval has not changed, we should use the original one:
         if ( queryInterval.equals(featureContext.getInterval() ) ) {    // Get the features:
             features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput);
@@ -212,6 +212,11 @@ import java.util.*;
  *         # Required field for locatableXSV files.
  *         # The 0-based index of the column containing the end position for each row
  *         end_column = 3
+ *
+ *         # Optional field for locatableXSV files.
+ *         # Comma-separated names of the columns to use for annotations.  All other columns are ignored.
+ *         # If absent, all columns are used.
+ *         xsv_output_columns = Villain,Bond
  *     </pre>
  * </p>
  *
@@ -727,6 +732,8 @@ public class Funcotator extends VariantWalker {
 
     private FuncotatorEngine funcotatorEngine;
 
+    private OrderedParallelFuncotator parallelFuncotator;
+
     //==================================================================================================================
 
     /**
@@ -801,6 +808,20 @@ public class Funcotator extends VariantWalker {
                 getDefaultToolVCFHeaderLines(),
                 this
         );
+
+        if ( funcotatorArgs.annotationThreads > 1 ) {
+            logger.info("Annotating variants with " + funcotatorArgs.annotationThreads + " threads...");
+            parallelFuncotator = new OrderedParallelFuncotator(
+                    funcotatorEngine,
+                    outputRenderer,
+                    referenceArguments.getReferencePath(),
+                    funcotatorArgs.annotationThreads,
+                    funcotatorArgs.annotationBatchSize
+            );
+        }
+        if ( funcotatorArgs.dataSourceThreads > 1 ) {
+            logger.info("Annotating each variant with " + funcotatorArgs.dataSourceThreads + " data source threads...");
+        }
     }
 
     /**
@@ -854,6 +875,11 @@ public class Funcotator extends VariantWalker {
     @Override
     public Object onTraversalSuccess() {
 
+        // Write out any variants still being annotated:
+        if ( parallelFuncotator != null ) {
+            parallelFuncotator.finish();
+        }
+
         // If we only saw IGRs, we most likely have a configuration issue.
         // Make sure the user knows this by making a HUGE stink about it.
         if ( funcotatorEngine.onlyProducedIGRs() ) {
@@ -875,6 +901,10 @@ public class Funcotator extends VariantWalker {
 
     @Override
     public void closeTool() {
+        if ( parallelFuncotator != null ) {
+            parallelFuncotator.close();
+        }
+
         if ( funcotatorEngine != null) {
             funcotatorEngine.close();
         }
@@ -895,6 +925,12 @@ public class Funcotator extends VariantWalker {
      */
     private void enqueueAndHandleVariant(final VariantContext variant, final ReferenceContext referenceContext, final FeatureContext featureContext) {
 
+        // When annotating on multiple threads the variant will be written later, in order:
+        if ( parallelFuncotator != null ) {
+            parallelFuncotator.submit(variant, referenceContext, featureContext);
+            return;
+        }
+
         final FuncotationMap funcotationMap = funcotatorEngine.createFuncotationMapForVariant(variant, referenceContext, featureContext);
 
         // At this point there is only one transcript ID in the funcotation map if canonical or best effect are selected
@@ -107,6 +107,31 @@ public class FuncotatorArgumentCollection implements Serializable {
     )
     public int lookaheadFeatureCachingInBp = FuncotatorArgumentDefinitions.LOOKAHEAD_CACHE_IN_BP_DEFAULT_VALUE;
 
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.ANNOTATION_THREADS_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of threads to use to annotate variants.  Output is written in the same order as the input regardless of this setting."
+    )
+    public int annotationThreads = FuncotatorArgumentDefinitions.ANNOTATION_THREADS_DEFAULT_VALUE;
+
+    @Advanced
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.ANNOTATION_BATCH_SIZE_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of variants given to an annotation thread at a time.  Only used when " + FuncotatorArgumentDefinitions.ANNOTATION_THREADS_NAME + " is greater than 1."
+    )
+    public int annotationBatchSize = FuncotatorArgumentDefinitions.ANNOTATION_BATCH_SIZE_DEFAULT_VALUE;
+
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.DATA_SOURCE_THREADS_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of threads to use to annotate each variant with the data sources other than GENCODE at the same time.  This lowers the time taken for each variant when there are many data sources, and can be combined with " + FuncotatorArgumentDefinitions.ANNOTATION_THREADS_NAME + "."
+    )
+    public int dataSourceThreads = FuncotatorArgumentDefinitions.DATA_SOURCE_THREADS_DEFAULT_VALUE;
+
     @Advanced
     @Hidden
     @Argument(
@@ -66,6 +66,15 @@ public class FuncotatorArgumentDefinitions {
     public static final String LOOKAHEAD_CACHE_IN_BP_NAME = "lookahead-cache-bp";
     public static final int LOOKAHEAD_CACHE_IN_BP_DEFAULT_VALUE = VariantWalkerBase.DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES;
 
+    public static final String ANNOTATION_THREADS_NAME = "annotation-threads";
+    public static final int ANNOTATION_THREADS_DEFAULT_VALUE = 1;
+
+    public static final String ANNOTATION_BATCH_SIZE_NAME = "annotation-batch-size";
+    public static final int ANNOTATION_BATCH_SIZE_DEFAULT_VALUE = 1000;
+
+    public static final String DATA_SOURCE_THREADS_NAME = "data-source-threads";
+    public static final int DATA_SOURCE_THREADS_DEFAULT_VALUE = 1;
+
     public static final String FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION = "force-b37-to-hg19-reference-contig-conversion";
 
     // ------------------------------------------------------------
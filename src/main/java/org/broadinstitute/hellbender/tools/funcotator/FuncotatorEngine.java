@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.tribble.Feature;
 import htsjdk.tribble.util.ParsingUtils;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -29,6 +30,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -73,7 +75,13 @@ public final class FuncotatorEngine implements AutoCloseable {
      * Whether this {@link FuncotatorEngine} has only produced annotations on variants that have been labeled by the
      * {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationFactory} as {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation.VariantClassification#IGR}.
      */
-    private boolean onlyProducedIGRs = true;
+    private volatile boolean onlyProducedIGRs = true;
+
+    /**
+     * Threads on which the non-GENCODE {@link DataSourceFuncotationFactory}s annotate each variant at the same time,
+     * or {@code null} if they annotate it one after another (see {@link FuncotatorArgumentCollection#dataSourceThreads}).
+     */
+    private volatile ExecutorService dataSourceExecutor;
 
     /**
      * Create a {@link FuncotatorEngine} using the given {@code metadata} and {@code funcotationFactories} representing
@@ -100,6 +108,14 @@ public final class FuncotatorEngine implements AutoCloseable {
 
         // Determine whether we have to convert given variants from B37 to HG19:
         mustConvertInputContigsToHg19 = determineReferenceAndDatasourceCompatibility();
+
+        if ( funcotatorArgs.dataSourceThreads > 1 ) {
+            dataSourceExecutor = Executors.newFixedThreadPool(funcotatorArgs.dataSourceThreads, runnable -> {
+                final Thread thread = new Thread(runnable, "FuncotatorDataSource");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
     /**
@@ -121,9 +137,50 @@ public final class FuncotatorEngine implements AutoCloseable {
                                                          final ReferenceContext referenceContext,
                                                          final FeatureContext featureContext) {
 
+        Utils.nonNull(featureContext);
+
+        return createFuncotationMapForVariant(variantContext, referenceContext, getFeaturesForVariant(featureContext));
+    }
+
+    /**
+     * Gets the features overlapping a variant from each of our data sources, so that the variant can be annotated
+     * later (perhaps on another thread) by {@link #createFuncotationMapForVariant(VariantContext, ReferenceContext, List)}.
+     * @param featureContext {@link FeatureContext} corresponding to the variant.  Never {@code null}.
+     * @return The features for each of the data sources in {@link #getFuncotationFactories()}, in the same order.
+     */
+    public List<List<Feature>> getFeaturesForVariant(final FeatureContext featureContext) {
+
+        Utils.nonNull(featureContext);
+
+        final List<List<Feature>> featuresByDataSource = new ArrayList<>(dataSourceFactories.size());
+        for ( final DataSourceFuncotationFactory funcotationFactory : dataSourceFactories ) {
+            featuresByDataSource.add(funcotationFactory.getFeaturesForVariant(featureContext));
+        }
+        return featuresByDataSource;
+    }
+
+    /**
+     * Creates a {@link FuncotationMap} for the given {@code variantContext} from features that have already been
+     * retrieved by {@link #getFeaturesForVariant}.
+     * This does not use any {@link FeatureContext}, so it is safe to call from multiple threads at once, as long as
+     * each thread has its own {@link ReferenceContext}.
+     * If {@link FuncotatorArgumentCollection#dataSourceThreads} is greater than 1, the non-GENCODE data sources annotate
+     * the variant at the same time.  They do not read the {@link ReferenceContext} (only GENCODE does), and their
+     * funcotations are added to the {@link FuncotationMap} in the same order either way.
+     *
+     * @param variantContext   {@link VariantContext} to annotate.  Never {@code null}.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variantContext}.  Never {@code null}.
+     * @param featuresByDataSource The features for the given {@code variantContext} from {@link #getFeaturesForVariant}.  Never {@code null}.
+     * @return an instance of FuncotationMap that maps transcript IDs to lists of funcotations for the given variantContext context.
+     */
+    public FuncotationMap createFuncotationMapForVariant(final VariantContext variantContext,
+                                                         final ReferenceContext referenceContext,
+                                                         final List<List<Feature>> featuresByDataSource) {
+
         Utils.nonNull(variantContext);
         Utils.nonNull(referenceContext);
-        Utils.nonNull(featureContext);
+        Utils.nonNull(featuresByDataSource);
+        Utils.validateArg(featuresByDataSource.size() == dataSourceFactories.size(), "Must have features for every data source.");
 
         //==============================================================================================================
         // First create only the transcript (Gencode) funcotations:
@@ -132,18 +189,19 @@ public final class FuncotatorEngine implements AutoCloseable {
             logger.warn("Attempting to annotate with more than one GENCODE datasource.  If these have overlapping transcript IDs, errors may occur.");
         }
 
-        final List<GencodeFuncotation> transcriptFuncotations = retrieveGencodeFuncotationFactoryStream()
-                .map(gf -> gf.createFuncotations(variantContext, referenceContext, featureContext))
-                .flatMap(List::stream)
-                .map(f -> {
-                        final GencodeFuncotation gf = (GencodeFuncotation) f;
-                        if (onlyProducedIGRs && (gf.getVariantClassification() != GencodeFuncotation.VariantClassification.IGR)) {
-                            onlyProducedIGRs = false;
-                        }
-                        return gf;
+        final List<GencodeFuncotation> transcriptFuncotations = new ArrayList<>();
+        for ( int i = 0; i < dataSourceFactories.size(); ++i ) {
+            final DataSourceFuncotationFactory funcotationFactory = dataSourceFactories.get(i);
+            if ( funcotationFactory.getType().equals(FuncotatorArgumentDefinitions.DataSourceType.GENCODE) ) {
+                for ( final Funcotation f : funcotationFactory.createFuncotationsFromFeatures(variantContext, referenceContext, featuresByDataSource.get(i), null) ) {
+                    final GencodeFuncotation gf = (GencodeFuncotation) f;
+                    if (onlyProducedIGRs && (gf.getVariantClassification() != GencodeFuncotation.VariantClassification.IGR)) {
+                        onlyProducedIGRs = false;
                     }
-                )
-                .collect(Collectors.toList());
+                    transcriptFuncotations.add(gf);
+                }
+            }
+        }
 
         //==============================================================================================================
         // Create the funcotations for non-Gencode data sources:
@@ -152,18 +210,25 @@ public final class FuncotatorEngine implements AutoCloseable {
         final FuncotationMap funcotationMap = FuncotationMap.createFromGencodeFuncotations(transcriptFuncotations);
 
         // Perform the rest of the annotation.  Note that this code manually excludes the Gencode Funcotations.
-        for (final DataSourceFuncotationFactory funcotationFactory : dataSourceFactories ) {
-
-            // Note that this guarantees that we do not add GencodeFuncotations a second time.
-            if (!funcotationFactory.getType().equals(FuncotatorArgumentDefinitions.DataSourceType.GENCODE)) {
-                final List<String> txIds = funcotationMap.getTranscriptList();
-
-                for (final String txId: txIds) {
-                    funcotationMap.add(txId, funcotationFactory.createFuncotations(variantContext, referenceContext,
-                            featureContext, funcotationMap.getGencodeFuncotations(txId)));
+        final ExecutorService executor = dataSourceExecutor;
+        if ( executor == null ) {
+            for ( int i = 0; i < dataSourceFactories.size(); ++i ) {
+                final DataSourceFuncotationFactory funcotationFactory = dataSourceFactories.get(i);
+
+                // Note that this guarantees that we do not add GencodeFuncotations a second time.
+                if (!funcotationFactory.getType().equals(FuncotatorArgumentDefinitions.DataSourceType.GENCODE)) {
+                    final List<String> txIds = funcotationMap.getTranscriptList();
+
+                    for (final String txId: txIds) {
+                        funcotationMap.add(txId, funcotationFactory.createFuncotationsFromFeatures(variantContext, referenceContext,
+                                featuresByDataSource.get(i), funcotationMap.getGencodeFuncotations(txId)));
+                    }
                 }
             }
         }
+        else {
+            addFuncotationsFromDataSourcesConcurrently(executor, variantContext, referenceContext, featuresByDataSource, funcotationMap);
+        }
 
         //==============================================================================================================
         // Create the funcotations for the input and add to all txID mappings.
@@ -177,6 +242,74 @@ public final class FuncotatorEngine implements AutoCloseable {
         return funcotationMap;
     }
 
+    /**
+     * Creates the funcotations of each non-GENCODE data source for every transcript in the given {@code funcotationMap}
+     * on the given {@code executor}, one task per data source, and then adds them to {@code funcotationMap} in the
+     * order of {@link #dataSourceFactories}.
+     * The tasks never read {@code funcotationMap}:  the GENCODE funcotations of each transcript are copied out of it
+     * before any task is submitted, since it is modified here while later tasks may still be running.
+     */
+    private void addFuncotationsFromDataSourcesConcurrently(final ExecutorService executor,
+                                                            final VariantContext variantContext,
+                                                            final ReferenceContext referenceContext,
+                                                            final List<List<Feature>> featuresByDataSource,
+                                                            final FuncotationMap funcotationMap) {
+
+        final List<String> txIds = funcotationMap.getTranscriptList();
+        final Map<String, List<GencodeFuncotation>> gencodeFuncotationsByTranscript = new HashMap<>(txIds.size());
+        for (final String txId: txIds) {
+            gencodeFuncotationsByTranscript.put(txId, funcotationMap.getGencodeFuncotations(txId));
+        }
+
+        final List<Future<List<List<Funcotation>>>> funcotationsByDataSource = new ArrayList<>(dataSourceFactories.size());
+        for ( int i = 0; i < dataSourceFactories.size(); ++i ) {
+            final DataSourceFuncotationFactory funcotationFactory = dataSourceFactories.get(i);
+
+            // Note that this guarantees that we do not add GencodeFuncotations a second time.
+            if (!funcotationFactory.getType().equals(FuncotatorArgumentDefinitions.DataSourceType.GENCODE)) {
+                final List<Feature> features = featuresByDataSource.get(i);
+                funcotationsByDataSource.add(executor.submit(() -> {
+                    final List<List<Funcotation>> funcotationsByTranscript = new ArrayList<>(txIds.size());
+                    for (final String txId: txIds) {
+                        // Each data source gets its own list, as it would when annotating sequentially:
+                        funcotationsByTranscript.add(funcotationFactory.createFuncotationsFromFeatures(variantContext, referenceContext,
+                                features, new ArrayList<>(gencodeFuncotationsByTranscript.get(txId))));
+                    }
+                    return funcotationsByTranscript;
+                }));
+            }
+        }
+
+        try {
+            for ( final Future<List<List<Funcotation>>> future : funcotationsByDataSource ) {
+                final List<List<Funcotation>> funcotationsByTranscript = getDataSourceResult(future);
+                for ( int txNum = 0; txNum < txIds.size(); ++txNum ) {
+                    funcotationMap.add(txIds.get(txNum), funcotationsByTranscript.get(txNum));
+                }
+            }
+        }
+        finally {
+            // Don't leave tasks for this variant running if one of them failed:
+            for ( final Future<List<List<Funcotation>>> future : funcotationsByDataSource ) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static <T> T getDataSourceResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for Funcotator data source threads", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Funcotator data source thread failed", e.getCause());
+        }
+    }
+
     /**
      * Create an output renderer for the data created by this instance of {@link FuncotatorEngine}.
      * @param annotationDefaultsMap {@link LinkedHashMap<String, String>} of annotation names and their default values.
@@ -267,9 +400,22 @@ public final class FuncotatorEngine implements AutoCloseable {
     }
 
     /**
-     * Shutdown the engine.  Closes all datasource factories.
+     * Stop the threads on which the data sources annotate each variant (see {@link FuncotatorArgumentCollection#dataSourceThreads}),
+     * without closing the data source factories.  Variants can still be annotated afterwards, one data source at a time.
+     */
+    public void shutdownDataSourceThreads() {
+        final ExecutorService executor = dataSourceExecutor;
+        if ( executor != null ) {
+            dataSourceExecutor = null;
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Shutdown the engine.  Stops the data source threads and closes all datasource factories.
      */
     public void close() {
+        shutdownDataSourceThreads();
         for ( final DataSourceFuncotationFactory factory : dataSourceFactories ) {
             if ( factory != null ) {
                 factory.close();
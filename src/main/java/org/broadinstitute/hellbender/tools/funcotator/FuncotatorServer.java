@@ -0,0 +1,402 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.*;
+import org.broadinstitute.hellbender.engine.filters.VariantFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.metadata.VcfFuncotationMetadata;
+import org.broadinstitute.hellbender.utils.SequenceDictionaryUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link FuncotatorServer} is a long-running <b><i>{@link Funcotator}</i></b> that annotates each VCF file placed into
+ * a job directory, so that the data sources only have to be set up once for many input files.
+ *
+ * <h3>General Information</h3>
+ * <p>
+ * Each run of Funcotator parses the data source config files, opens the data source files and their indices, and
+ * creates a factory for each data source before it annotates the first variant.  When the same data sources are used to
+ * annotate many small VCF files, this setup takes much longer than the annotation itself.  {@link FuncotatorServer} does
+ * this setup once, and then keeps the data sources, the reference, and the caches of the data sources open while it
+ * annotates one input file after another.
+ * </p>
+ *
+ * <p>
+ * To annotate a VCF file, write a job file with the extension {@value #JOB_FILE_EXTENSION} into the job directory
+ * (given by {@code --job-directory}) containing the path to the VCF file on its first line.  To avoid the server
+ * reading a partly written job file, write it under another name and then move it to its final name.  The server picks
+ * up job files in order of their names and, for each:
+ * <ol>
+ *     <li>renames the job file to {@code <job name>}{@value #RUNNING_FILE_EXTENSION},</li>
+ *     <li>annotates the VCF file, writing the output to {@code <job name>.vcf} or {@code <job name>.maf} (depending on
+ *     {@code --output-file-format}) in the output directory given by {@code -O},</li>
+ *     <li>renames the job file to {@code <job name>}{@value #DONE_FILE_EXTENSION}, or, if the job failed,
+ *     to {@code <job name>}{@value #FAILED_FILE_EXTENSION} with the error message added to the end of it.</li>
+ * </ol>
+ * The server stops once a file called {@value #STOP_FILE_NAME} appears in the job directory (the file is removed), or,
+ * if {@code --exit-when-idle} is given, once there are no job files left.
+ * </p>
+ *
+ * <p>
+ * All other arguments have the same meaning as in <b><i>{@link Funcotator}</i></b>, and apply to every job.
+ * </p>
+ *
+ * <h3>Usage Example</h3>
+ * <pre>{@code
+ * ./gatk FuncotatorServer \
+ *     -R reference.fasta \
+ *     --data-sources-path dataSourcesFolder/ \
+ *     --ref-version hg19 \
+ *     --output-file-format MAF \
+ *     --job-directory funcotator_jobs/ \
+ *     -O funcotator_output/
+ *
+ * echo variants.vcf > funcotator_jobs/sample1.tmp && mv funcotator_jobs/sample1.tmp funcotator_jobs/sample1.job
+ * }</pre>
+ *
+ * <h3>Notes</h3>
+ * <ul>
+ *     <li>Only one {@link FuncotatorServer} may use a job directory at a time.</li>
+ *     <li>Intervals ({@code -L}) are ignored: all variants in each input file are annotated.</li>
+ * </ul>
+ */
+@CommandLineProgramProperties(
+        summary = "Keep Funcotator data sources open and functionally annotate each VCF file placed into a job directory.",
+        oneLineSummary = "Functional Annotator for many input files",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+public class FuncotatorServer extends GATKTool {
+    private static final Logger logger = LogManager.getLogger(FuncotatorServer.class);
+
+    //==================================================================================================================
+    // Public Static Members:
+
+    public static final String JOB_DIRECTORY_LONG_NAME  = "job-directory";
+    public static final String POLL_INTERVAL_LONG_NAME  = "poll-interval-ms";
+    public static final String EXIT_WHEN_IDLE_LONG_NAME = "exit-when-idle";
+
+    public static final String JOB_FILE_EXTENSION     = ".job";
+    public static final String RUNNING_FILE_EXTENSION = ".running";
+    public static final String DONE_FILE_EXTENSION    = ".done";
+    public static final String FAILED_FILE_EXTENSION  = ".failed";
+    public static final String STOP_FILE_NAME         = "STOP";
+
+    //==================================================================================================================
+    // Arguments:
+
+    @ArgumentCollection
+    private final FuncotatorArgumentCollection funcotatorArgs = new FuncotatorArgumentCollection();
+
+    @Argument(fullName = JOB_DIRECTORY_LONG_NAME,
+            doc = "Directory into which job files (containing the path of a VCF file to annotate) are placed.")
+    private File jobDirectory;
+
+    @Argument(fullName = POLL_INTERVAL_LONG_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of milliseconds to wait before looking for new job files when there are none.")
+    private long pollIntervalMs = 1000;
+
+    @Argument(fullName = EXIT_WHEN_IDLE_LONG_NAME,
+            optional = true,
+            doc = "Stop once there are no job files left, rather than waiting for new ones.")
+    private boolean exitWhenIdle = false;
+
+    //==================================================================================================================
+
+    private List<DataSourceFuncotationFactory> dataSourceFuncotationFactories;
+
+    private LinkedHashMap<String, String> annotationDefaultsMap;
+
+    private LinkedHashMap<String, String> annotationOverridesMap;
+
+    private OrderedParallelFuncotator parallelFuncotator;
+
+    //==================================================================================================================
+
+    @Override
+    public boolean requiresReference() {
+        return true;
+    }
+
+    @Override
+    public void onTraversalStart() {
+
+        if ( !jobDirectory.isDirectory() ) {
+            throw new UserException.BadInput("Job directory does not exist: " + jobDirectory);
+        }
+        if ( !funcotatorArgs.outputFile.isDirectory() ) {
+            throw new UserException.BadInput("Output directory does not exist: " + funcotatorArgs.outputFile);
+        }
+
+        logger.info("Processing user transcripts/defaults/overrides...");
+        final Set<String> finalUserTranscriptIdSet = FuncotatorEngine.processTranscriptList(funcotatorArgs.userTranscriptIdSet);
+        annotationDefaultsMap = FuncotatorEngine.splitAnnotationArgsIntoMap(funcotatorArgs.annotationDefaults);
+        annotationOverridesMap = FuncotatorEngine.splitAnnotationArgsIntoMap(funcotatorArgs.annotationOverrides);
+
+        // We have no feature inputs of our own, so we must create the FeatureManager for the data sources:
+        if ( features == null ) {
+            features = new FeatureManager(this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    referenceArguments.getReferencePath());
+        }
+
+        logger.info("Initializing data sources...");
+        funcotatorArgs.dataSourceDirectories.sort(Comparator.naturalOrder());
+        final Map<Path, Properties> configData = DataSourceUtils.getAndValidateDataSourcesFromPaths(funcotatorArgs.referenceVersion, funcotatorArgs.dataSourceDirectories);
+
+        logger.info("Finalizing data sources (this step can be long if data sources are cloud-based)...");
+        dataSourceFuncotationFactories = DataSourceUtils.createDataSourceFuncotationFactoriesForDataSources(
+                configData,
+                annotationOverridesMap,
+                funcotatorArgs.transcriptSelectionMode,
+                finalUserTranscriptIdSet,
+                this,
+                funcotatorArgs.lookaheadFeatureCachingInBp,
+                new FlankSettings(funcotatorArgs.fivePrimeFlankSize, funcotatorArgs.threePrimeFlankSize)
+        );
+    }
+
+    @Override
+    public void traverse() {
+        logger.info("Waiting for jobs in " + jobDirectory.toURI());
+        final Path jobDirectoryPath = jobDirectory.toPath();
+        final Path stopFile = jobDirectoryPath.resolve(STOP_FILE_NAME);
+
+        while ( true ) {
+            if ( Files.exists(stopFile) ) {
+                logger.info("Found " + stopFile + ", stopping.");
+                deleteFile(stopFile);
+                return;
+            }
+
+            final List<Path> jobFiles = getJobFiles(jobDirectoryPath);
+            if ( jobFiles.isEmpty() ) {
+                if ( exitWhenIdle ) {
+                    logger.info("No jobs left, stopping.");
+                    return;
+                }
+                try {
+                    Thread.sleep(pollIntervalMs);
+                }
+                catch ( final InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            for ( final Path jobFile : jobFiles ) {
+                runJob(jobFile);
+            }
+        }
+    }
+
+    @Override
+    public void closeTool() {
+        if ( parallelFuncotator != null ) {
+            parallelFuncotator.close();
+        }
+
+        if ( dataSourceFuncotationFactories != null ) {
+            for ( final DataSourceFuncotationFactory factory : dataSourceFuncotationFactories ) {
+                factory.close();
+            }
+        }
+    }
+
+    //==================================================================================================================
+
+    /**
+     * @return The job files in the given directory, in order of their names.
+     */
+    private static List<Path> getJobFiles(final Path jobDirectoryPath) {
+        try ( final Stream<Path> files = Files.list(jobDirectoryPath) ) {
+            return files.filter(p -> p.getFileName().toString().endsWith(JOB_FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(jobDirectoryPath, e);
+        }
+    }
+
+    /**
+     * Annotate the VCF file given in the given job file, and mark the job as done or failed.
+     * A job that fails does not stop the server.
+     * @param jobFile The job file to run.
+     */
+    private void runJob(final Path jobFile) {
+        final String fileName = jobFile.getFileName().toString();
+        final String jobName = fileName.substring(0, fileName.length() - JOB_FILE_EXTENSION.length());
+        final Path runningFile = jobFile.resolveSibling(jobName + RUNNING_FILE_EXTENSION);
+
+        // Claim the job:
+        try {
+            Files.move(jobFile, runningFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch ( final IOException e ) {
+            logger.warn("Could not start job " + jobName + " (it may have been removed): " + e.getMessage());
+            return;
+        }
+
+        final long startTime = System.currentTimeMillis();
+        try {
+            final List<String> lines = Files.readAllLines(runningFile, StandardCharsets.UTF_8);
+            final Optional<String> variantPath = lines.stream().map(String::trim).filter(l -> !l.isEmpty()).findFirst();
+            if ( !variantPath.isPresent() ) {
+                throw new UserException.BadInput("Job file does not contain the path of a VCF file: " + jobFile);
+            }
+
+            final File outputFile = new File(funcotatorArgs.outputFile,
+                    jobName + "." + funcotatorArgs.outputFormatType.toString().toLowerCase());
+            logger.info("Starting job " + jobName + ": annotating " + variantPath.get() + " into " + outputFile);
+
+            annotateVariants(variantPath.get(), outputFile);
+
+            Files.move(runningFile, runningFile.resolveSibling(jobName + DONE_FILE_EXTENSION), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Finished job " + jobName + " in " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+        }
+        catch ( final IOException | RuntimeException e ) {
+            logger.error("Job " + jobName + " failed: " + e.getMessage(), e);
+            final Path failedFile = runningFile.resolveSibling(jobName + FAILED_FILE_EXTENSION);
+            try {
+                Files.move(runningFile, failedFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.write(failedFile, Collections.singletonList(String.valueOf(e.getMessage())), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            }
+            catch ( final IOException ex ) {
+                throw new UserException.CouldNotCreateOutputFile(failedFile.toString(), "Could not mark job " + jobName + " as failed", ex);
+            }
+        }
+    }
+
+    /**
+     * Annotate the variants in the given VCF file with our data sources, as {@link Funcotator} would.
+     * @param variantPath Path to the VCF file to annotate.
+     * @param outputFile File to which to write the annotated variants.
+     */
+    private void annotateVariants(final String variantPath, final File outputFile) {
+        try ( final FeatureDataSource<VariantContext> variants = new FeatureDataSource<>(variantPath) ) {
+            final Object header = variants.getHeader();
+            if ( !(header instanceof VCFHeader) ) {
+                throw new UserException.BadInput("Input is not a VCF file: " + variantPath);
+            }
+            final VCFHeader vcfHeader = (VCFHeader) header;
+            final SAMSequenceDictionary variantDictionary = vcfHeader.getSequenceDictionary();
+
+            if ( seqValidationArguments.performSequenceDictionaryValidation() ) {
+                checkReferenceDictionaryIsSupersetOfVariantDictionary(variantDictionary);
+            }
+
+            // Each job gets its own engine and output, but they share our data source factories.
+            // The engine is not closed, since that would close the factories, but its data source threads are stopped.
+            final FuncotatorArgumentCollection jobArgs = SerializationUtils.clone(funcotatorArgs);
+            jobArgs.outputFile = outputFile;
+            final FuncotatorEngine funcotatorEngine = new FuncotatorEngine(
+                    jobArgs,
+                    variantDictionary,
+                    VcfFuncotationMetadata.create(new ArrayList<>(vcfHeader.getInfoHeaderLines())),
+                    dataSourceFuncotationFactories
+            );
+
+            try ( final OutputRenderer outputRenderer = funcotatorEngine.createOutputRenderer(
+                    annotationDefaultsMap,
+                    annotationOverridesMap,
+                    vcfHeader,
+                    getDefaultToolVCFHeaderLines(),
+                    this) ) {
+
+                if ( funcotatorArgs.annotationThreads > 1 ) {
+                    if ( parallelFuncotator == null ) {
+                        parallelFuncotator = new OrderedParallelFuncotator(
+                                funcotatorEngine,
+                                outputRenderer,
+                                referenceArguments.getReferencePath(),
+                                funcotatorArgs.annotationThreads,
+                                funcotatorArgs.annotationBatchSize
+                        );
+                    }
+                    else {
+                        parallelFuncotator.reset(funcotatorEngine, outputRenderer);
+                    }
+                }
+
+                final VariantFilter variantFilter = funcotatorEngine.makeVariantFilter();
+                for ( final VariantContext rawVariant : variants ) {
+                    if ( !variantFilter.test(rawVariant) ) {
+                        continue;
+                    }
+                    final VariantContext variant = funcotatorEngine.getCorrectVariantContextForReference(rawVariant);
+                    final SimpleInterval variantInterval = new SimpleInterval(variant);
+                    final ReferenceContext referenceContext = funcotatorEngine.getCorrectReferenceContext(variant,
+                            new ReferenceContext(directlyAccessEngineReferenceDataSource(), variantInterval));
+                    final FeatureContext featureContext = new FeatureContext(features, variantInterval);
+
+                    if ( parallelFuncotator != null ) {
+                        parallelFuncotator.submit(variant, referenceContext, featureContext);
+                    }
+                    else {
+                        outputRenderer.write(variant, funcotatorEngine.createFuncotationMapForVariant(variant, referenceContext, featureContext));
+                    }
+                }
+
+                if ( parallelFuncotator != null ) {
+                    parallelFuncotator.finish();
+                }
+            }
+            finally {
+                funcotatorEngine.shutdownDataSourceThreads();
+            }
+
+            if ( funcotatorEngine.onlyProducedIGRs() ) {
+                logger.warn("Only IGRs were produced for " + variantPath + ".  This STRONGLY indicates that this job was misconfigured.");
+            }
+        }
+    }
+
+    /**
+     * Checks to see that the reference's sequence dictionary is a superset of the given variant file's dictionary,
+     * as in {@link Funcotator}.
+     */
+    private void checkReferenceDictionaryIsSupersetOfVariantDictionary(final SAMSequenceDictionary variantDictionary) {
+        if ( variantDictionary == null ) {
+            throw new UserException.BadInput("Funcotator by default requires that the variant input have a sequence dictionary in its header. To disable this safety check, use argument --" + StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME);
+        }
+
+        SequenceDictionaryUtils.validateDictionaries(
+                "Reference", getReferenceDictionary(),
+                "Driving Variants", variantDictionary,
+                true,
+                false
+        );
+    }
+
+    private static void deleteFile(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        }
+        catch ( final IOException e ) {
+            throw new GATKException("Could not delete " + path, e);
+        }
+    }
+}
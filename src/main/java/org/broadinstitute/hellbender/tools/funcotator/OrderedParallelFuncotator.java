@@ -0,0 +1,246 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import htsjdk.tribble.Feature;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Annotates variants with a {@link FuncotatorEngine} on a pool of worker threads, and writes them to an
+ * {@link OutputRenderer} in the order in which they were submitted.
+ *
+ * Variants are collected into batches on the traversal thread.  The features overlapping each variant are retrieved
+ * from its {@link FeatureContext} at that time (feature queries are not thread-safe), and each full batch is then
+ * annotated on a worker thread.  Each worker thread reads reference bases through its own {@link ReferenceDataSource}.
+ * At most two batches per thread are in flight at once; after that, {@link #submit} blocks on the oldest batch and
+ * writes it out.
+ *
+ * The worker threads can be reused to annotate several inputs one after another (see {@link #reset}).
+ */
+final class OrderedParallelFuncotator implements AutoCloseable {
+
+    //==================================================================================================================
+    // Private Members:
+
+    private FuncotatorEngine funcotatorEngine;
+    private OutputRenderer outputRenderer;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+
+    private final ExecutorService executor;
+    private final ThreadLocal<ReferenceDataSource> workerReference;
+    private final Queue<ReferenceDataSource> workerReferences = new ConcurrentLinkedQueue<>();
+
+    private List<PendingVariant> currentBatch;
+    private final Deque<Future<List<AnnotatedVariant>>> batchesInFlight = new ArrayDeque<>();
+
+    //==================================================================================================================
+    // Constructors:
+
+    /**
+     * @param funcotatorEngine The {@link FuncotatorEngine} with which to annotate variants.
+     * @param outputRenderer The {@link OutputRenderer} to which to write annotated variants.
+     * @param referencePath Path to the reference FASTA file, which each worker thread opens for itself.
+     * @param nThreads Number of worker threads.
+     * @param batchSize Number of variants annotated by a worker thread at a time.
+     */
+    OrderedParallelFuncotator(final FuncotatorEngine funcotatorEngine,
+                              final OutputRenderer outputRenderer,
+                              final Path referencePath,
+                              final int nThreads,
+                              final int batchSize) {
+        Utils.nonNull(funcotatorEngine);
+        Utils.nonNull(outputRenderer);
+        Utils.nonNull(referencePath);
+        Utils.validateArg(nThreads > 0, "Number of threads must be positive.");
+        Utils.validateArg(batchSize > 0, "Batch size must be positive.");
+
+        this.funcotatorEngine = funcotatorEngine;
+        this.outputRenderer = outputRenderer;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = 2 * nThreads;
+        this.currentBatch = new ArrayList<>(batchSize);
+
+        executor = Executors.newFixedThreadPool(nThreads);
+        workerReference = ThreadLocal.withInitial(() -> {
+            final ReferenceDataSource reference = ReferenceDataSource.of(referencePath);
+            workerReferences.add(reference);
+            return reference;
+        });
+    }
+
+    //==================================================================================================================
+    // Public Methods:
+
+    /**
+     * Queue the given {@code variant} for annotation.  Annotated variants that are ready (and whose predecessors have
+     * all been written) may be written to the {@link OutputRenderer} during this call.
+     * @param variant {@link VariantContext} to annotate.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variant}.
+     * @param featureContext {@link FeatureContext} corresponding to the given {@code variant}.
+     */
+    void submit(final VariantContext variant, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        currentBatch.add(new PendingVariant(variant,
+                referenceContext.getInterval(),
+                referenceContext.numWindowLeadingBases(),
+                referenceContext.numWindowTrailingBases(),
+                funcotatorEngine.getFeaturesForVariant(featureContext)));
+
+        if ( currentBatch.size() == batchSize ) {
+            submitCurrentBatch();
+        }
+    }
+
+    /**
+     * Annotate any remaining queued variants, and write all annotated variants to the {@link OutputRenderer}.
+     */
+    void finish() {
+        submitCurrentBatch();
+        while ( !batchesInFlight.isEmpty() ) {
+            writeOldestBatch();
+        }
+    }
+
+    /**
+     * Discard any variants that have not been written yet, and annotate the variants submitted from now on with the given
+     * {@link FuncotatorEngine}, writing them to the given {@link OutputRenderer}.  The worker threads and their
+     * reference readers are kept.
+     * @param funcotatorEngine The {@link FuncotatorEngine} with which to annotate variants.
+     * @param outputRenderer The {@link OutputRenderer} to which to write annotated variants.
+     */
+    void reset(final FuncotatorEngine funcotatorEngine, final OutputRenderer outputRenderer) {
+        Utils.nonNull(funcotatorEngine);
+        Utils.nonNull(outputRenderer);
+
+        // Let the workers finish what they have (interrupting them could close their reference readers):
+        currentBatch.clear();
+        while ( !batchesInFlight.isEmpty() ) {
+            try {
+                getResult(batchesInFlight.removeFirst());
+            }
+            catch ( final RuntimeException e ) {
+                // These variants are being discarded anyway.
+            }
+        }
+
+        this.funcotatorEngine = funcotatorEngine;
+        this.outputRenderer = outputRenderer;
+    }
+
+    /**
+     * Stop the worker threads and close their reference readers.  Does not close the {@link OutputRenderer}.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        for ( final ReferenceDataSource reference : workerReferences ) {
+            reference.close();
+        }
+        workerReferences.clear();
+    }
+
+    //==================================================================================================================
+    // Private Methods:
+
+    private void submitCurrentBatch() {
+        if ( currentBatch.isEmpty() ) {
+            return;
+        }
+        final List<PendingVariant> batch = currentBatch;
+        currentBatch = new ArrayList<>(batchSize);
+
+        if ( batchesInFlight.size() >= maxBatchesInFlight ) {
+            writeOldestBatch();
+        }
+        final FuncotatorEngine engine = funcotatorEngine;
+        batchesInFlight.addLast(executor.submit(() -> annotateBatch(engine, batch)));
+    }
+
+    private List<AnnotatedVariant> annotateBatch(final FuncotatorEngine funcotatorEngine, final List<PendingVariant> batch) {
+        final ReferenceDataSource reference = workerReference.get();
+        final List<AnnotatedVariant> annotatedVariants = new ArrayList<>(batch.size());
+        for ( final PendingVariant pendingVariant : batch ) {
+            final ReferenceContext referenceContext = new ReferenceContext(reference, pendingVariant.referenceInterval,
+                    pendingVariant.windowLeadingBases, pendingVariant.windowTrailingBases);
+            annotatedVariants.add(new AnnotatedVariant(pendingVariant.variant,
+                    funcotatorEngine.createFuncotationMapForVariant(pendingVariant.variant, referenceContext, pendingVariant.featuresByDataSource)));
+        }
+        return annotatedVariants;
+    }
+
+    private void writeOldestBatch() {
+        for ( final AnnotatedVariant annotatedVariant : getResult(batchesInFlight.removeFirst()) ) {
+            outputRenderer.write(annotatedVariant.variant, annotatedVariant.funcotationMap);
+        }
+    }
+
+    private static <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for Funcotator annotation threads", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Funcotator annotation thread failed", e.getCause());
+        }
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * A variant waiting to be annotated, with everything from the traversal that is needed to annotate it.
+     */
+    private static final class PendingVariant {
+        private final VariantContext variant;
+        private final SimpleInterval referenceInterval;
+        private final int windowLeadingBases;
+        private final int windowTrailingBases;
+        private final List<List<Feature>> featuresByDataSource;
+
+        private PendingVariant(final VariantContext variant,
+                               final SimpleInterval referenceInterval,
+                               final int windowLeadingBases,
+                               final int windowTrailingBases,
+                               final List<List<Feature>> featuresByDataSource) {
+            this.variant = variant;
+            this.referenceInterval = referenceInterval;
+            this.windowLeadingBases = windowLeadingBases;
+            this.windowTrailingBases = windowTrailingBases;
+            this.featuresByDataSource = featuresByDataSource;
+        }
+    }
+
+    /**
+     * A variant and its annotations, ready to be written.
+     */
+    private static final class AnnotatedVariant {
+        private final VariantContext variant;
+        private final FuncotationMap funcotationMap;
+
+        private AnnotatedVariant(final VariantContext variant, final FuncotationMap funcotationMap) {
+            this.variant = variant;
+            this.funcotationMap = funcotationMap;
+        }
+    }
+}
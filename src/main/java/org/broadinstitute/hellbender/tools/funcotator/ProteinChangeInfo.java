@@ -42,6 +42,7 @@ public final class ProteinChangeInfo {
                                final int codingSequenceAlleleStart,
                                final int alignedCodingSequenceAlleleStart,
                                final String codingSequence,
+                               final String knownReferenceProteinSequence,
                                final Strand strand,
                                final boolean isMitochondria) {
 
@@ -49,7 +50,7 @@ public final class ProteinChangeInfo {
         final boolean isFrameshift =  GATKVariantContextUtils.isFrameshift( refAllele, altAllele );
 
         // Get our protein sequences:
-        final Pair<String, String> proteinSequences = createProteinSequences(refAllele, altAllele, codingSequenceAlleleStart, codingSequence, isFrameshift, isMitochondria);
+        final Pair<String, String> proteinSequences = createProteinSequences(refAllele, altAllele, codingSequenceAlleleStart, codingSequence, knownReferenceProteinSequence, isFrameshift, isMitochondria);
         final String referenceProteinSequence = proteinSequences.getLeft();
         final String alternateProteinSequence = proteinSequences.getRight();
 
@@ -104,13 +105,15 @@ public final class ProteinChangeInfo {
                                                         final Allele altAllele,
                                                         final int codingSequenceAlleleStart,
                                                         final String codingSequence,
+                                                        final String knownReferenceProteinSequence,
                                                         final boolean isFrameshift,
                                                         final boolean isMitochondria) {
         final String referenceProteinSequence;
         final String alternateProteinSequence;
         if ( isMitochondria ) {
             // Mitochondrial protein sequences differ from the Standard Code, so we must treat them separately:
-            referenceProteinSequence = FuncotatorUtils.createMitochondrialAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ", ref allele: " + refAllele.getBaseString() + ")");
+            referenceProteinSequence = (knownReferenceProteinSequence != null) ? knownReferenceProteinSequence :
+                    FuncotatorUtils.createMitochondrialAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ", ref allele: " + refAllele.getBaseString() + ")");
             alternateProteinSequence = FuncotatorUtils.createMitochondrialAminoAcidSequence(
                     // Subtract 1 to account for 1-based genomic positions:
                     codingSequence.substring(0, codingSequenceAlleleStart - 1) +
@@ -122,7 +125,8 @@ public final class ProteinChangeInfo {
         }
         else {
             // Create a protein sequence using the Standard Code:
-            referenceProteinSequence = FuncotatorUtils.createAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ", ref allele: " + refAllele.getBaseString() + ")");
+            referenceProteinSequence = (knownReferenceProteinSequence != null) ? knownReferenceProteinSequence :
+                    FuncotatorUtils.createAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ", ref allele: " + refAllele.getBaseString() + ")");
             alternateProteinSequence = FuncotatorUtils.createAminoAcidSequence(
                     // Subtract 1 to account for 1-based genomic positions:
                     codingSequence.substring(0, codingSequenceAlleleStart - 1) +
@@ -363,12 +367,55 @@ public final class ProteinChangeInfo {
                                             final String codingSequence,
                                             final Strand strand,
                                             final boolean isMitochondria) {
+        return create(refAllele, altAllele, codingSequenceAlleleStart, alignedCodingSequenceAlleleStart, codingSequence, null, strand, isMitochondria);
+    }
+
+    /**
+     * Create a {@link ProteinChangeInfo} object which will represent the change in the protein sequence
+     * which would be caused by a variant, given the already-translated reference protein sequence.
+     * Translating the whole coding sequence of a transcript is the most expensive part of creating a {@link ProteinChangeInfo},
+     * so callers annotating many variants in the same transcript can translate it once with {@link #createReferenceProteinSequence}.
+     * @param refAllele The strand-corrected (i.e. if on the - strand, it has been reverse-complemented) reference {@link Allele} for the variant.  Must not be {@code null}.
+     * @param altAllele The strand-corrected (i.e. if on the - strand, it has been reverse-complemented) alternate {@link Allele} for the variant.  Must not be {@code null}.
+     * @param codingSequenceAlleleStart The position (1-based, inclusive) in the _coding sequence_ at which the variant begins.
+     * @param alignedCodingSequenceAlleleStart The codon-aligned position (1-based, inclusive) in the _coding sequence_ at which the variant begins.
+     * @param codingSequence The strand-corrected sequence of bases containing the _coding sequence_ for a particular transcript of a gene.  Must not be {@code null}.
+     * @param referenceProteinSequence The translation of {@code codingSequence} as given by {@link #createReferenceProteinSequence}, or {@code null} to translate it here.
+     * @param strand The {@link Strand} on which the transcript for this protein change occurs.  Must not be {@link Strand#NONE}.  Must not be {@code null}.
+     * @param isMitochondria If {@code true}, will use Mitochondrial protein decoding, rather than the standard eukaryotic amino acid decoding.
+     * @return A new {@link ProteinChangeInfo} object representing the change in the protein sequence for the given input data.
+     */
+    public static ProteinChangeInfo create( final Allele refAllele,
+                                            final Allele altAllele,
+                                            final int codingSequenceAlleleStart,
+                                            final int alignedCodingSequenceAlleleStart,
+                                            final String codingSequence,
+                                            final String referenceProteinSequence,
+                                            final Strand strand,
+                                            final boolean isMitochondria) {
         Utils.nonNull(refAllele);
         Utils.nonNull(altAllele);
         Utils.nonNull(codingSequence);
         Utils.nonNull(strand);
 
-        return new ProteinChangeInfo(refAllele, altAllele, codingSequenceAlleleStart, alignedCodingSequenceAlleleStart, codingSequence, strand, isMitochondria);
+        return new ProteinChangeInfo(refAllele, altAllele, codingSequenceAlleleStart, alignedCodingSequenceAlleleStart, codingSequence, referenceProteinSequence, strand, isMitochondria);
+    }
+
+    /**
+     * Translate the given reference coding sequence into the protein sequence that {@link ProteinChangeInfo} compares against.
+     * @param codingSequence The strand-corrected sequence of bases containing the _coding sequence_ for a particular transcript of a gene.  Must not be {@code null}.
+     * @param isMitochondria If {@code true}, will use Mitochondrial protein decoding, rather than the standard eukaryotic amino acid decoding.
+     * @return The reference protein sequence for the given {@code codingSequence}.
+     */
+    public static String createReferenceProteinSequence( final String codingSequence, final boolean isMitochondria ) {
+        Utils.nonNull(codingSequence);
+
+        if ( isMitochondria ) {
+            return FuncotatorUtils.createMitochondrialAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ")");
+        }
+        else {
+            return FuncotatorUtils.createAminoAcidSequence(codingSequence, false, "(size=" + codingSequence.length() + ")");
+        }
     }
 
     /**
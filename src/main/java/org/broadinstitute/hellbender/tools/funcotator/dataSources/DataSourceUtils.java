@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.funcotator.*;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.cosmic.CosmicFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationFactory;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeTranscriptStore;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.vcf.VcfFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.LocatableXsvFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
@@ -23,6 +24,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -88,6 +90,7 @@ final public class DataSourceUtils {
     public static final String CONFIG_FILE_FIELD_NAME_XSV_KEY_COLUMN       = "xsv_key_column";
     public static final String CONFIG_FILE_FIELD_NAME_XSV_DELIMITER        = "xsv_delimiter";
     public static final String CONFIG_FILE_FIELD_NAME_XSV_PERMISSIVE_COLS  = "xsv_permissive_cols";
+    public static final String CONFIG_FILE_FIELD_NAME_XSV_OUTPUT_COLUMNS   = "xsv_output_columns";
     public static final String CONFIG_FILE_FIELD_NAME_CONTIG_COLUMN        = "contig_column";
     public static final String CONFIG_FILE_FIELD_NAME_START_COLUMN         = "start_column";
     public static final String CONFIG_FILE_FIELD_NAME_END_COLUMN           = "end_column";
@@ -96,6 +99,8 @@ final public class DataSourceUtils {
     // Optional config options:
     public static final String CONFIG_FILE_FIELD_NAME_IS_B37_DATA_SOURCE   = "isB37DataSource";
     public static final String CONFIG_FILE_FIELD_NAME_LOOKAHEAD_CACHE_BP   = "lookAheadCacheBp";
+    public static final String CONFIG_FILE_FIELD_NAME_GENCODE_TRANSCRIPT_STORE_PATH = "gencode_transcript_store_path";
+    public static final String CONFIG_FILE_FIELD_NAME_XSV_INDEX_PATH       = "xsv_index_path";
 
     //==================================================================================================================
     // Public Static Methods:
@@ -284,9 +289,12 @@ final public class DataSourceUtils {
                     funcotationFactory = DataSourceUtils.createCosmicDataSource(path, properties, annotationOverridesMap);
                     break;
                 case GENCODE:
-                    featureInput = createAndRegisterFeatureInputs(path, properties, gatkToolInstance, lookaheadFeatureCachingInBp, GencodeGtfFeature.class, false);
+                    // A compiled transcript store replaces the GTF file, so we only need a FeatureInput without one:
+                    final Path transcriptStorePath = getGencodeTranscriptStorePath(path, properties);
+                    featureInput = transcriptStorePath != null ? null :
+                            createAndRegisterFeatureInputs(path, properties, gatkToolInstance, lookaheadFeatureCachingInBp, GencodeGtfFeature.class, false);
                     funcotationFactory = DataSourceUtils.createGencodeDataSource(path, properties, annotationOverridesMap, transcriptSelectionMode,
-                            userTranscriptIdSet, featureInput, flankSettings);
+                            userTranscriptIdSet, featureInput, flankSettings, transcriptStorePath);
                     break;
                 case VCF:
                     featureInput = createAndRegisterFeatureInputs(path, properties, gatkToolInstance, lookaheadFeatureCachingInBp, VariantContext.class, false);
@@ -427,6 +435,7 @@ final public class DataSourceUtils {
         Utils.nonNull(annotationOverridesMap);
 
         final boolean isB37 = getIsB37PropertyValue(dataSourceProperties);
+        final String xsvIndexPath = dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_XSV_INDEX_PATH);
 
         // Create our SimpleKeyXsvFuncotationFactory:
         return new SimpleKeyXsvFuncotationFactory(
@@ -439,7 +448,8 @@ final public class DataSourceUtils {
                         annotationOverridesMap,
                         0,
                         Boolean.valueOf(dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_XSV_PERMISSIVE_COLS)),
-                        isB37
+                        isB37,
+                        xsvIndexPath == null ? null : resolveFilePathStringFromKnownPath(xsvIndexPath, dataSourceFile)
                 );
     }
 
@@ -475,8 +485,9 @@ final public class DataSourceUtils {
      * @param annotationOverridesMap {@link LinkedHashMap}{@code <String->String>} containing any annotation overrides to be included in the resulting data source.  Must not be {@code null}.
      * @param transcriptSelectionMode {@link TranscriptSelectionMode} to use when choosing the transcript for detailed reporting.  Must not be {@code null}.
      * @param userTranscriptIdSet {@link Set} of {@link String}s containing transcript IDs of interest to be selected for first.  Must not be {@code null}.
-     * @param featureInput The {@link FeatureInput<? extends Feature>} object for the Gencode data source we are creating.
+     * @param featureInput The {@link FeatureInput<? extends Feature>} object for the Gencode data source we are creating.  May be {@code null} if {@code transcriptStorePath} is given.
      * @param flankSettings Settings object containing our 5'/3' flank sizes
+     * @param transcriptStorePath {@link Path} to the compiled transcript store to read in place of the GTF and transcript FASTA files (see {@link #getGencodeTranscriptStorePath(Path, Properties)}).  May be {@code null}.
      * @return A new {@link GencodeFuncotationFactory} based on the given data source file information, field overrides map, and transcript information.
      */
     private static GencodeFuncotationFactory createGencodeDataSource(final Path dataSourceFile,
@@ -485,7 +496,8 @@ final public class DataSourceUtils {
                                                                      final TranscriptSelectionMode transcriptSelectionMode,
                                                                      final Set<String> userTranscriptIdSet,
                                                                      final FeatureInput<? extends Feature> featureInput,
-                                                                     final FlankSettings flankSettings) {
+                                                                     final FlankSettings flankSettings,
+                                                                     final Path transcriptStorePath) {
 
         Utils.nonNull(dataSourceFile);
         Utils.nonNull(dataSourceProperties);
@@ -499,7 +511,6 @@ final public class DataSourceUtils {
         final String version   = dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_VERSION);
         final String name      = dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_NAME);
         final String ncbiBuildVersion = dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_NCBI_BUILD_VERSION);
-
         final boolean isB37    = getIsB37PropertyValue(dataSourceProperties);
 
         // Create our gencode factory:
@@ -513,10 +524,50 @@ final public class DataSourceUtils {
                 featureInput,
                 flankSettings,
                 isB37,
-                ncbiBuildVersion
+                ncbiBuildVersion,
+                transcriptStorePath
             );
     }
 
+    /**
+     * Get the compiled {@link GencodeTranscriptStore} to read in place of the GTF and transcript FASTA files of a
+     * GENCODE data source.  This is the store given in the data source's config file, if any.  Otherwise it's the
+     * store at {@link GencodeTranscriptStore#getDefaultStorePath(Path)} next to the GTF file, if there is one and it
+     * isn't older than the GTF file or the transcript FASTA file.
+     * @param dataSourceFile {@link Path} to the data source file.  Must not be {@code null}.
+     * @param dataSourceProperties {@link Properties} consisting of the contents of the config file for the data source.  Must not be {@code null}.
+     * @return {@link Path} to the transcript store for the data source, or {@code null} if it has none.
+     */
+    public static Path getGencodeTranscriptStorePath(final Path dataSourceFile, final Properties dataSourceProperties) {
+        Utils.nonNull(dataSourceFile);
+        Utils.nonNull(dataSourceProperties);
+
+        final String transcriptStorePath = dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_GENCODE_TRANSCRIPT_STORE_PATH);
+        if ( transcriptStorePath != null ) {
+            return resolveFilePathStringFromKnownPath( transcriptStorePath, dataSourceFile );
+        }
+
+        final Path gtfPath = resolveFilePathStringFromKnownPath( dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_SRC_FILE), dataSourceFile );
+        final Path fastaPath = resolveFilePathStringFromKnownPath( dataSourceProperties.getProperty(CONFIG_FILE_FIELD_NAME_GENCODE_FASTA_PATH), dataSourceFile );
+        final Path defaultStorePath = GencodeTranscriptStore.getDefaultStorePath(gtfPath);
+        if ( !Files.exists(defaultStorePath) ) {
+            return null;
+        }
+        try {
+            final FileTime storeTime = Files.getLastModifiedTime(defaultStorePath);
+            if ( storeTime.compareTo(Files.getLastModifiedTime(gtfPath)) < 0 || storeTime.compareTo(Files.getLastModifiedTime(fastaPath)) < 0 ) {
+                logger.warn("Not using GENCODE transcript store " + defaultStorePath.toUri().toString() +
+                        " because it is older than the data source's GTF or transcript FASTA file.  Recompile it with CompileGencodeTranscriptStore to use it.");
+                return null;
+            }
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(defaultStorePath, "Unable to compare the modification times of the GENCODE transcript store and its data source files.", ex);
+        }
+        logger.info("Using GENCODE transcript store " + defaultStorePath.toUri().toString() + " in place of the GTF file " + gtfPath.toUri().toString());
+        return defaultStorePath;
+    }
+
     /**
      * Create a {@link VcfFuncotationFactory} from filesystem resources and field overrides.
      * @param dataSourceFile {@link Path} to the data source file.  Must not be {@code null}.
@@ -95,10 +95,16 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     private static final String FIELD_NAME_QUERY = "SELECT * FROM " + TABLE_NAME + " LIMIT 1;";
 
     /**
-     * Template for results query for matching genes in the database.
+     * Query for the records of a gene in the database, to be used as a {@link PreparedStatement} with the gene name as its parameter.
      */
-    private static final String RESULT_QUERY_TEMPLATE = "SELECT * FROM " + TABLE_NAME + " WHERE \""
-            + GENE_NAME_COLUMN + "\" == ";
+    private static final String GENE_RECORDS_QUERY = "SELECT \"" + GENOME_POSITION_COLUMN_NAME + "\", \"" + PROTEIN_POSITION_COLUMN_NAME
+            + "\" FROM " + TABLE_NAME + " WHERE \"" + GENE_NAME_COLUMN + "\" = ?;";
+
+    /**
+     * The maximum number of genes for which the parsed records are kept in {@link #cosmicRecordsByGene}.
+     */
+    @VisibleForTesting
+    static final int MAX_CACHED_GENES = 100;
 
     //==================================================================================================================
     // Private Members:
@@ -121,6 +127,31 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private final Connection dbConnection;
 
+    /**
+     * The prepared {@link #GENE_RECORDS_QUERY} on {@link #dbConnection}.
+     * Only used while holding the lock on this {@link CosmicFuncotationFactory}.
+     */
+    private final PreparedStatement geneRecordsStatement;
+
+    /**
+     * The parsed records of the genes most recently queried, so that each gene is queried only once for all the variants
+     * in it rather than once per variant.  Only used while holding the lock on this {@link CosmicFuncotationFactory}.
+     */
+    private final Map<String, List<CosmicRecord>> cosmicRecordsByGene = new LinkedHashMap<String, List<CosmicRecord>>(MAX_CACHED_GENES, 0.75f, true) {
+        static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, List<CosmicRecord>> eldest) {
+            return size() > MAX_CACHED_GENES;
+        }
+    };
+
+    @VisibleForTesting
+    int cacheHits = 0;
+    @VisibleForTesting
+    int cacheMisses = 0;
+    private long queryTimeNanos = 0;
+
     /**
      * The ordered set of fields that this {@link CosmicFuncotationFactory} supports.
      */
@@ -160,6 +191,8 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
             logger.debug("Connecting to SQLite database at: " + this.pathToCosmicDb.toUri().toString());
             dbConnection = DriverManager.getConnection("jdbc:sqlite:" + this.pathToCosmicDb.toUri().toString(), config.toProperties());
             logger.debug("Connected to SQLite database!");
+
+            geneRecordsStatement = dbConnection.prepareStatement(GENE_RECORDS_QUERY);
         }
         catch (final SQLException ex) {
             throw new UserException("Unable to open SQLite DB for COSMIC at: " + this.pathToCosmicDb.toUri().toString(), ex);
@@ -187,8 +220,12 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
 
     @Override
     public void close() {
+        logger.info(getName() + " " + getVersion() + " cache hits/total: " + cacheHits + "/" + (cacheMisses + cacheHits) +
+                ", time spent querying: " + String.format("%.3f", queryTimeNanos / 1e9) + "s");
+
         if (dbConnection != null) {
             try {
+                geneRecordsStatement.close();
                 dbConnection.close();
             }
             catch (final SQLException ex) {
@@ -256,7 +293,7 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
         final Map<String, Integer> proteinChangeCounts = new LinkedHashMap<>();
 
         // If we have gencodeFuncotations we go through them and get the gene name
-        // Then query our DB for matches on the gene name.
+        // Then get the records for the gene name (our DB is queried only once per gene).
         // Then grab Genome position / Protein position and see if we overlap.
         // If any do, we create our CosmicFuncotation
         for ( final GencodeFuncotation gencodeFuncotation : gencodeFuncotations ) {
@@ -272,41 +309,23 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
                 proteinPosition = null;
             }
 
-            try {
-                try ( final Statement statement = dbConnection.createStatement() ) {
-                    try ( final ResultSet resultSet = statement.executeQuery(RESULT_QUERY_TEMPLATE + "\"" + geneName + "\";") ) {
-                        // iterate through our results:
-                        while ( resultSet.next() ) {
-
-                            // Get the genome position:
-                            final SimpleInterval cosmicGenomePosition = getGenomePositionFromResults(resultSet);
-
-                            // Try to match on genome position first:
-                            if ( cosmicGenomePosition != null ) {
-                                if ( genomePosition.overlaps(cosmicGenomePosition) ) {
-                                    // If we overlap the records, we get the protein change and add it to the map:
-                                    updateProteinChangeCountMap(proteinChangeCounts, resultSet);
-                                    continue;
-                                }
-                            }
-
-                            // Get the protein position:
-                            final SimpleInterval cosmicProteinPosition = getProteinPositionFromResults(resultSet);
-
-                            // Now try to match on protein position:
-                            if ( proteinPosition != null ) {
-                                // If we overlap the records, we update the counter:
-                                if ( proteinPosition.overlaps(cosmicProteinPosition) ) {
-                                    updateProteinChangeCountMap(proteinChangeCounts, resultSet);
-                                }
-                            }
-                            // NOTE: We can't annotate if the protein position is null.
-                        }
+            for ( final CosmicRecord cosmicRecord : getCosmicRecordsForGene(geneName) ) {
+
+                // Try to match on genome position first:
+                if ( genomePosition.overlaps(cosmicRecord.genomePosition) ) {
+                    // If we overlap the records, we get the protein change and add it to the map:
+                    updateProteinChangeCountMap(proteinChangeCounts, cosmicRecord.proteinChange);
+                    continue;
+                }
+
+                // Now try to match on protein position:
+                if ( proteinPosition != null ) {
+                    // If we overlap the records, we update the counter:
+                    if ( proteinPosition.overlaps(cosmicRecord.proteinPosition) ) {
+                        updateProteinChangeCountMap(proteinChangeCounts, cosmicRecord.proteinChange);
                     }
                 }
-            }
-            catch (final SQLException ex) {
-                throw new GATKException("Unable to query the database for geneName: " + geneName, ex);
+                // NOTE: We can't annotate if the protein position is null.
             }
         }
 
@@ -327,8 +346,7 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
         return outputFuncotations;
     }
 
-    private void updateProteinChangeCountMap(final Map<String, Integer> proteinChangeCounts, final ResultSet resultSet) {
-        final String proteinChange = getProteinChangeStringFromResults(resultSet);
+    private void updateProteinChangeCountMap(final Map<String, Integer> proteinChangeCounts, final String proteinChange) {
         if ( !proteinChange.isEmpty() ) {
             final int count = proteinChangeCounts.getOrDefault(proteinChange, 0);
             proteinChangeCounts.put(proteinChange, count + 1);
@@ -374,6 +392,45 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
         return localCosmicDbFilePath;
     }
 
+    /**
+     * Get the records for the given gene, querying the database only if they are not already cached.
+     * Genome and protein positions are parsed once here, when the records are read.
+     * @param geneName The name of the gene for which to get the records.
+     * @return The records in the database for the given {@code geneName}, in database order.  Will not be {@code null}.
+     */
+    private synchronized List<CosmicRecord> getCosmicRecordsForGene(final String geneName) {
+        if ( geneName == null ) {
+            return Collections.emptyList();
+        }
+
+        final List<CosmicRecord> cachedRecords = cosmicRecordsByGene.get(geneName);
+        if ( cachedRecords != null ) {
+            ++cacheHits;
+            return cachedRecords;
+        }
+        ++cacheMisses;
+
+        final long startTimeNanos = System.nanoTime();
+        final List<CosmicRecord> cosmicRecords = new ArrayList<>();
+        try {
+            geneRecordsStatement.setString(1, geneName);
+            try ( final ResultSet resultSet = geneRecordsStatement.executeQuery() ) {
+                // iterate through our results:
+                while ( resultSet.next() ) {
+                    final String proteinChange = getProteinChangeStringFromResults(resultSet);
+                    cosmicRecords.add(new CosmicRecord(getGenomePositionFromResults(resultSet), parseProteinString(proteinChange), proteinChange));
+                }
+            }
+        }
+        catch (final SQLException ex) {
+            throw new GATKException("Unable to query the database for geneName: " + geneName, ex);
+        }
+        queryTimeNanos += System.nanoTime() - startTimeNanos;
+
+        cosmicRecordsByGene.put(geneName, cosmicRecords);
+        return cosmicRecords;
+    }
+
     /**
      * Get the genome position of the current record in the given {@link ResultSet}.
      * @param resultSet The results of a query on the database with a current row (must not be {@code null}).
@@ -416,15 +473,6 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
         return null;
     }
 
-    /**
-     * Pulls a protein change / protein position out of the current record in the given {@link ResultSet}.
-     * @param resultSet The results of a query on the database with a current row (must not be {@code null}).
-     * @return A {@link SimpleInterval} representing the extents of the protein position in the current record in the given {@link ResultSet} or {@code null}.
-     */
-    private SimpleInterval getProteinPositionFromResults(final ResultSet resultSet) {
-        return parseProteinString( getProteinChangeStringFromResults(resultSet) );
-    }
-
     /**
      * Pulls a protein change string out of the current record in the given {@link ResultSet}.
      * @param resultSet The results of a query on the database with a current row (must not be {@code null}).
@@ -500,4 +548,21 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Helper Data Types:
 
+    /**
+     * The parsed fields of a single record in the COSMIC database that are used to match variants.
+     */
+    private static final class CosmicRecord {
+        /** The genome position of this record, or {@code null} if it has none. */
+        final SimpleInterval genomePosition;
+        /** The protein position of this record, or {@code null} if it has none. */
+        final SimpleInterval proteinPosition;
+        /** The protein change of this record.  Will not be {@code null}. */
+        final String proteinChange;
+
+        CosmicRecord(final SimpleInterval genomePosition, final SimpleInterval proteinPosition, final String proteinChange) {
+            this.genomePosition = genomePosition;
+            this.proteinPosition = proteinPosition;
+            this.proteinChange = proteinChange;
+        }
+    }
 }
@@ -106,6 +106,13 @@ public class GencodeFuncotation implements Funcotation {
     private String otherTranscriptsSerializedOverride     = null;
 
     private FuncotationMetadata metadata;
+
+    /**
+     * The names of the fields, as given by {@link #getFieldNames()}.  Created when first needed, and cleared when the
+     * data source name or version changes.  Volatile so that a set created by one thread is seen fully populated by
+     * the others.
+     */
+    private volatile LinkedHashSet<String> fieldNames = null;
     //==================================================================================================================
 
     /**
@@ -230,7 +237,17 @@ public class GencodeFuncotation implements Funcotation {
 
     @Override
     public LinkedHashSet<String> getFieldNames() {
-        return new LinkedHashSet<>(
+        return new LinkedHashSet<>(getCachedFieldNames());
+    }
+
+    /**
+     * @return The names of the fields of this {@link GencodeFuncotation}, which depend on its data source name and version.
+     *         Must not be modified.
+     */
+    private LinkedHashSet<String> getCachedFieldNames() {
+        LinkedHashSet<String> names = fieldNames;
+        if ( names == null ) {
+            names = new LinkedHashSet<>(
                 Arrays.asList(
                         getDataSourceName() + "_" + version + "_hugoSymbol",
                         getDataSourceName() + "_" + version + "_ncbiBuild",
@@ -255,7 +272,10 @@ public class GencodeFuncotation implements Funcotation {
                         getDataSourceName() + "_" + version + "_referenceContext",
                         getDataSourceName() + "_" + version + "_otherTranscripts"
                 )
-        );
+            );
+            fieldNames = names;
+        }
+        return names;
     }
 
     @Override
@@ -264,7 +284,7 @@ public class GencodeFuncotation implements Funcotation {
         // Allow a user to specify the name of the field, or the fully-qualified name of the field
         // with GencodeFuncotationFactory.DATA_SOURCE_NAME + "_" + version + "_" at the start.
         final String altFieldName = getDataSourceName() + "_" + version + "_" + fieldName;
-        final LinkedHashSet<String> fieldNames = getFieldNames();
+        final LinkedHashSet<String> fieldNames = getCachedFieldNames();
 
         if ( fieldNames.contains(fieldName) || fieldNames.contains(altFieldName) ) {
             switch(fieldName.replace(getDataSourceName() + "_" + version + "_", "")) {
@@ -320,7 +340,7 @@ public class GencodeFuncotation implements Funcotation {
 
     @Override
     public boolean hasField(final String fieldName) {
-        final LinkedHashSet<String> fieldNames = getFieldNames();
+        final LinkedHashSet<String> fieldNames = getCachedFieldNames();
         final String altFieldName = getDataSourceName() + "_" + version + "_" + fieldName;
         return ( fieldNames.contains(fieldName) || fieldNames.contains(altFieldName) );
     }
@@ -692,6 +712,7 @@ public class GencodeFuncotation implements Funcotation {
 
     public void setVersion(final String version) {
         this.version = version;
+        this.fieldNames = null;
     }
 
     public GencodeGtfFeature.GeneTranscriptType getGeneTranscriptType() {
@@ -704,6 +725,7 @@ public class GencodeFuncotation implements Funcotation {
 
     public void setDataSourceName(final String dataSourceName) {
         this.dataSourceName = dataSourceName;
+        this.fieldNames = null;
     }
 
     public void setMetadata(final FuncotationMetadata metadata) {
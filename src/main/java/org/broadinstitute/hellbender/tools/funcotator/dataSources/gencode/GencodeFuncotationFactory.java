@@ -11,6 +11,7 @@ import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
@@ -62,6 +63,8 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
     private static final String LOCAL_GENCODE_TRANSCRIPT_TMP_DIR_PREFIX = "localGencodeTranscriptFastaFolder";
     private static final String LOCAL_GENCODE_TRANSCRIPT_FILE_BASE_NAME = "gencodeTranscriptFastaFile";
+    private static final String LOCAL_GENCODE_TRANSCRIPT_STORE_TMP_DIR_PREFIX = "localGencodeTranscriptStoreFolder";
+    private static final String LOCAL_GENCODE_TRANSCRIPT_STORE_FILE_NAME = "gencodeTranscriptStore.bin";
 
     /**
      * The window around splice sites to mark variants as {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation.VariantClassification#SPLICE_SITE}.
@@ -147,15 +150,21 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     private final String name;
 
     /**
-     * ReferenceSequenceFile for the transcript reference file.
+     * Source of the sequences of the transcripts:  either the transcript FASTA file, or {@link #transcriptStore}.
      */
-    private final ReferenceDataSource transcriptFastaReferenceDataSource;
+    private final TranscriptSequenceSource transcriptSequenceSource;
 
     /**
-     * Map between transcript IDs and the IDs from the FASTA file to look up the transcript.
-     * This is necessary because of the way the FASTA file contigs are named.
+     * Compiled store of the gene models and transcript sequences for this data source, or {@code null} if we read
+     * the genes from our GTF {@link FeatureInput} and the sequences from the transcript FASTA file.
      */
-    private final Map<String, MappedTranscriptIdInfo> transcriptIdMap;
+    private final GencodeTranscriptStore transcriptStore;
+
+    /**
+     * Per-transcript coding regions, coding sequences, and protein sequences for the transcripts near the variants
+     * most recently annotated on each thread.
+     */
+    private final ThreadLocal<TranscriptCodingSequenceCache> codingSequenceCache;
 
     /**
      * The mode to select the "best" transcript (i.e. the transcript with detailed information) from the list of
@@ -175,6 +184,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
     /**
      * The {@link Path} from which we will read the sequences for the coding regions in given transcripts.
+     * {@code null} if we read them from {@link #transcriptStore}.
      */
     private final Path gencodeTranscriptFastaFile;
 
@@ -270,17 +280,59 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                                      final FlankSettings flankSettings,
                                      final boolean isDataSourceB37,
                                      final String ncbiBuildVersion) {
+        this(gencodeTranscriptFastaFilePath, version, name, transcriptSelectionMode, userRequestedTranscripts, annotationOverrides, mainFeatureInput, flankSettings, isDataSourceB37, ncbiBuildVersion, null);
+    }
+
+    /**
+     * Create a {@link GencodeFuncotationFactory}.
+     *
+     * @param gencodeTranscriptFastaFilePath {@link Path} to the FASTA file containing the sequences of all transcripts in the Gencode data source.  Not read if {@code gencodeTranscriptStorePath} is given.
+     * @param version The version {@link String} of Gencode from which {@link Funcotation}s will be made.
+     * @param name A {@link String} containing the name of this {@link GencodeFuncotationFactory}.
+     * @param transcriptSelectionMode The {@link TranscriptSelectionMode} by which representative/verbose transcripts will be chosen for overlapping variants.
+     * @param userRequestedTranscripts A {@link Set<String>} containing Gencode TranscriptIDs that the user requests to be annotated with priority over all other transcripts for overlapping variants.
+     * @param annotationOverrides A {@link LinkedHashMap<String, String>} containing user-specified overrides for specific {@link Funcotation}s.
+     * @param mainFeatureInput The backing {@link FeatureInput} for this {@link GencodeFuncotationFactory}, from which all {@link Funcotation}s will be created.  Not used (and may be {@code null}) if {@code gencodeTranscriptStorePath} is given.
+     * @param flankSettings Settings object containing our 5'/3' flank sizes
+     * @param isDataSourceB37 If {@code true}, indicates that the data source behind this {@link GencodeFuncotationFactory} contains B37 data.
+     * @param ncbiBuildVersion The NCBI build version for this {@link GencodeFuncotationFactory} (can be found in the datasource config file)
+     * @param gencodeTranscriptStorePath {@link Path} to a {@link GencodeTranscriptStore} compiled from the Gencode data source, from which to read both the genes and the transcript sequences.  May be {@code null}.
+     */
+    public GencodeFuncotationFactory(final Path gencodeTranscriptFastaFilePath,
+                                     final String version,
+                                     final String name,
+                                     final TranscriptSelectionMode transcriptSelectionMode,
+                                     final Set<String> userRequestedTranscripts,
+                                     final LinkedHashMap<String, String> annotationOverrides,
+                                     final FeatureInput<? extends Feature> mainFeatureInput,
+                                     final FlankSettings flankSettings,
+                                     final boolean isDataSourceB37,
+                                     final String ncbiBuildVersion,
+                                     final Path gencodeTranscriptStorePath) {
 
         super(mainFeatureInput);
 
-        // Set up our local transcript fasta file.
-        // We must localize it (if not on disk) to make read times fast enough to be manageable:
-        gencodeTranscriptFastaFile = localizeGencodeTranscriptFastaFile( gencodeTranscriptFastaFilePath );
         this.flankSettings = flankSettings;
 
-        // Initialize our transcript data source and ID map:
-        transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
-        transcriptIdMap = createTranscriptIdMap(transcriptFastaReferenceDataSource);
+        if ( gencodeTranscriptStorePath != null ) {
+            // The store has everything we need from both the GTF and the transcript FASTA file.
+            // It's memory-mapped, so it must be on local disk:
+            gencodeTranscriptFastaFile = null;
+            transcriptStore = GencodeTranscriptStore.open( localizeGencodeTranscriptStore(gencodeTranscriptStorePath) );
+            transcriptSequenceSource = transcriptStore;
+        }
+        else {
+            // Set up our local transcript fasta file.
+            // We must localize it (if not on disk) to make read times fast enough to be manageable:
+            gencodeTranscriptFastaFile = localizeGencodeTranscriptFastaFile( gencodeTranscriptFastaFilePath );
+
+            // Initialize our transcript data source and ID map:
+            final ReferenceDataSource transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
+            transcriptStore = null;
+            transcriptSequenceSource = new TranscriptFastaSequenceSource(
+                    createTranscriptIdMap(transcriptFastaReferenceDataSource), transcriptFastaReferenceDataSource);
+        }
+        codingSequenceCache = ThreadLocal.withInitial(() -> new TranscriptCodingSequenceCache(transcriptSequenceSource));
 
         this.transcriptSelectionMode = transcriptSelectionMode;
 
@@ -345,6 +397,25 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         return localGencodeTranscriptFastaFilePath;
     }
 
+    private Path localizeGencodeTranscriptStore( final Path gencodeTranscriptStorePath ) {
+
+        // Is the path local or in the cloud:
+        if ( gencodeTranscriptStorePath.getFileSystem().equals(FileSystems.getDefault()) ) {
+            // local path, just return it:
+            return gencodeTranscriptStorePath;
+        }
+
+        // Not a local path!  We must localize it!
+        final File tmpDir = IOUtils.createTempDir(LOCAL_GENCODE_TRANSCRIPT_STORE_TMP_DIR_PREFIX);
+        tmpDir.deleteOnExit();
+        final Path localGencodeTranscriptStorePath = tmpDir.toPath().resolve(LOCAL_GENCODE_TRANSCRIPT_STORE_FILE_NAME);
+        localGencodeTranscriptStorePath.toFile().deleteOnExit();
+
+        NioFileCopierWithProgressMeter.create(gencodeTranscriptStorePath, localGencodeTranscriptStorePath, true).initiateCopy();
+
+        return localGencodeTranscriptStorePath;
+    }
+
     //==================================================================================================================
     // Override Methods:
 
@@ -360,7 +431,15 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
     @Override
     public void close() {
-        transcriptFastaReferenceDataSource.close();
+        transcriptSequenceSource.close();
+    }
+
+    @Override
+    protected List<Feature> queryFeatures(final FeatureContext featureContext, final SimpleInterval queryInterval) {
+        if ( transcriptStore == null ) {
+            return super.queryFeatures(featureContext, queryInterval);
+        }
+        return new ArrayList<>(transcriptStore.getOverlappingGenes(queryInterval));
     }
 
     @Override
@@ -621,13 +700,11 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      * @param transcriptId The ID of the transcript to get from the FASTA file.
      * @param transcriptIdMap A map from transcriptId to MappedTranscriptIdInfo, which tells us how to pull information for the given {@code transcriptId} out of the given {@code transcriptFastaReferenceDataSource}.
      * @param transcriptFastaReferenceDataSource A {@link ReferenceDataSource} for the GENCODE transcript FASTA file.
-     * @param transcriptTailPaddingBaseString Bases to add to the end of the transcript base string to enable processing variants that overrrun the end of the transcript.
      * @return The coding sequence for the given {@code transcriptId} as represented in the GENCODE transcript FASTA file.
      */
     private static String getCodingSequenceFromTranscriptFasta( final String transcriptId,
                                                                 final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
-                                                                final ReferenceDataSource transcriptFastaReferenceDataSource,
-                                                                final String transcriptTailPaddingBaseString) {
+                                                                final ReferenceDataSource transcriptFastaReferenceDataSource) {
 
         final MappedTranscriptIdInfo transcriptMapIdAndMetadata = transcriptIdMap.get(transcriptId);
 
@@ -641,7 +718,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 transcriptMapIdAndMetadata.codingSequenceEnd
         );
 
-        return transcriptFastaReferenceDataSource.queryAndPrefetch( transcriptInterval ).getBaseString() + transcriptTailPaddingBaseString;
+        return transcriptFastaReferenceDataSource.queryAndPrefetch( transcriptInterval ).getBaseString();
     }
 
     /**
@@ -893,8 +970,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         }
 
         // Make sure the sub-regions in the transcript actually contain the variant:
-        // TODO: this is slow, and repeats work that is done later in the process (we call getSortedCdsAndStartStopPositions when creating the sequence comparison)
-        final int startPosInTranscript =  FuncotatorUtils.getStartPositionInTranscript(variant, getSortedCdsAndStartStopPositions(transcript), transcript.getGenomicStrand() );
+        final int startPosInTranscript = codingSequenceCache.get().get(transcript, variant).getStartPositionInCodingSequence(variant);
 
         if ( GencodeGtfExonFeature.class.isAssignableFrom(containingSubfeature.getClass()) ) {
 
@@ -997,7 +1073,8 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Get the list of exons by their locations so we can use them to determine our location in the transcript and get
         // the transcript code itself:
-        final List<? extends Locatable> exonPositionList = getSortedCdsAndStartStopPositions(transcript);
+        final TranscriptCodingSequenceCache.CachedTranscript cachedTranscript = codingSequenceCache.get().get(transcript, variant);
+        final List<? extends Locatable> exonPositionList = cachedTranscript.getCodingRegions();
 
         // Setup the "trivial" fields of the gencodeFuncotation:
         final GencodeFuncotationBuilder gencodeFuncotationBuilder = createGencodeFuncotationBuilderWithTrivialFieldsPopulated(variant, altAllele, gtfFeature, transcript);
@@ -1027,7 +1104,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                 .setGcContent(calculateGcContent(variant.getReference(), altAllele, reference, gcContentWindowSizeBases))
                 .setcDnaChange(
                     FuncotatorUtils.getCodingSequenceChangeString(
-                        FuncotatorUtils.getStartPositionInTranscript(variant, exonPositionList, transcript.getGenomicStrand()),
+                        cachedTranscript.getStartPositionInCodingSequence(variant),
                         (exon.getGenomicStrand() == Strand.FORWARD ? variant.getReference().getBaseString() : ReadUtils.getBasesReverseComplement(variant.getReference().getBases())),
                         (exon.getGenomicStrand() == Strand.FORWARD ? altAllele.getBaseString() : ReadUtils.getBasesReverseComplement(altAllele.getBases())),
                         exon.getGenomicStrand(),
@@ -1109,7 +1186,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Get the list of exons by their locations so we can use them to determine our location in the transcript and get
         // the transcript code itself:
-        final List<? extends Locatable> exonPositionList = getSortedCdsAndStartStopPositions(transcript);
+        final TranscriptCodingSequenceCache.CachedTranscript cachedTranscript = codingSequenceCache.get().get(transcript, variant);
 
         // NOTE: Regardless of strandedness, we always report the alleles as if they appeared in the forward direction.
         final GencodeFuncotation.VariantType variantType =
@@ -1127,7 +1204,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Set up our SequenceComparison object so we can calculate some useful fields more easily
         // These fields can all be set without knowing the alternate allele:
-        final SequenceComparison sequenceComparison = createSequenceComparison(variant, altAllele, reference, transcript, exonPositionList, transcriptIdMap, transcriptFastaReferenceDataSource, true);
+        final SequenceComparison sequenceComparison = createSequenceComparison(variant, altAllele, reference, transcript, cachedTranscript, true);
 
         // Set our transcript positions:
         setTranscriptPosition(variant, altAllele, sequenceComparison.getTranscriptAlleleStart(), gencodeFuncotationBuilder);
@@ -1197,11 +1274,13 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     @VisibleForTesting
     static List<? extends Locatable> getSortedCdsAndStartStopPositions(final GencodeGtfTranscriptFeature transcript) {
 
-        // Sort by exon number first:
-        transcript.getExons().sort((lhs, rhs) -> lhs.getExonNumber() < rhs.getExonNumber() ? -1 : (lhs.getExonNumber() > rhs.getExonNumber() ) ? 1 : 0 );
+        // Sort by exon number first.
+        // The transcript may be shared with other annotation threads, so we sort a copy of its exons:
+        final List<GencodeGtfExonFeature> sortedExons = new ArrayList<>(transcript.getExons());
+        sortedExons.sort((lhs, rhs) -> lhs.getExonNumber() < rhs.getExonNumber() ? -1 : (lhs.getExonNumber() > rhs.getExonNumber() ) ? 1 : 0 );
 
-        final List<Locatable> regionList = new ArrayList<>(transcript.getExons().size());
-        for ( final GencodeGtfExonFeature exon : transcript.getExons() ) {
+        final List<Locatable> regionList = new ArrayList<>(sortedExons.size());
+        for ( final GencodeGtfExonFeature exon : sortedExons ) {
 
             // Add in a CDS region:
             if ( exon.getCds() != null ) {
@@ -1497,14 +1576,14 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
             // Now we can check for de novo starts:
 
             // Only try to get the sequence if our transcript occurs in the FASTA file:
-            if ( transcriptIdMap.containsKey(transcript.getTranscriptId()) ) {
+            if ( transcriptSequenceSource.hasTranscriptSequence(transcript.getTranscriptId()) ) {
 
                 // Get the 5' UTR sequence here.
                 // Note: We grab 3 extra bases at the end (from the coding sequence) so that we can check for denovo starts
                 //       even if the variant occurs in the last base of the UTR.
                 final int numExtraTrailingBases = variant.getReference().length() < defaultNumTrailingBasesForUtrAnnotationSequenceConstruction ? defaultNumTrailingBasesForUtrAnnotationSequenceConstruction : variant.getReference().length() + 1;
                 final String fivePrimeUtrCodingSequence =
-                        getFivePrimeUtrSequenceFromTranscriptFasta( transcript.getTranscriptId(), transcriptIdMap, transcriptFastaReferenceDataSource, numExtraTrailingBases);
+                        transcriptSequenceSource.getFivePrimeUtrSequence( transcript.getTranscriptId(), numExtraTrailingBases);
 
                 // Get our start position in our coding sequence:
                 final int codingStartPos = FuncotatorUtils.getStartPositionInTranscript(variant, transcript.getExons(), strand);
@@ -1788,6 +1867,30 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                                                        final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
                                                        final ReferenceDataSource transcriptFastaReferenceDataSource,
                                                        final boolean processSequenceInformation) {
+        return createSequenceComparison(variant, alternateAllele, reference, transcript,
+                new TranscriptCodingSequenceCache.CachedTranscript(transcript, exonPositionList,
+                        new TranscriptFastaSequenceSource(transcriptIdMap, transcriptFastaReferenceDataSource)),
+                processSequenceInformation);
+    }
+
+    /**
+     * Creates a {@link org.broadinstitute.hellbender.tools.funcotator.SequenceComparison} object with the fields populated.
+     * @param variant The {@link VariantContext} for the current variant.
+     * @param alternateAllele The current alternate {@link Allele} for the variant.
+     * @param reference The {@link ReferenceContext} for the current sample set.
+     * @param transcript The {@link GencodeGtfTranscriptFeature} for the current gene feature / alt allele.
+     * @param cachedTranscript The {@link TranscriptCodingSequenceCache.CachedTranscript} holding the exon positions and sequence information for the given {@code transcript}.
+     * @param processSequenceInformation If {@code true} will attempt to process and create sequence information for the given {@code variant}.
+     * @return A populated {@link org.broadinstitute.hellbender.tools.funcotator.SequenceComparison} object.
+     */
+    private static SequenceComparison createSequenceComparison(final VariantContext variant,
+                                                               final Allele alternateAllele,
+                                                               final ReferenceContext reference,
+                                                               final GencodeGtfTranscriptFeature transcript,
+                                                               final TranscriptCodingSequenceCache.CachedTranscript cachedTranscript,
+                                                               final boolean processSequenceInformation) {
+
+        final List<? extends htsjdk.samtools.util.Locatable> exonPositionList = cachedTranscript.getCodingRegions();
 
         // TODO: Somewhere down the line we should adjust the positions at creation-time to account for the leading bases in VCF input files.  (issue 5349 - https://github.com/broadinstitute/gatk/issues/5349)
         // This will have ramifications down the line for all fields that get rendered.
@@ -1830,7 +1933,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         // Get the coding region start position (in the above computed transcript coding region):
         sequenceComparison.setCodingSequenceAlleleStart(
-                FuncotatorUtils.getStartPositionInTranscript(variant, exonPositionList, transcript.getGenomicStrand())
+                cachedTranscript.getStartPositionInCodingSequence(variant)
         );
 
         // Get the overlapping exon start / stop as an interval from the given variant:
@@ -1888,18 +1991,14 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         // Get the coding sequence for the transcript if we have a transcript sequence for this variant:
 
         if ( processSequenceInformation ) {
-            if ( transcriptIdMap.containsKey(transcript.getTranscriptId()) ) {
+            if ( cachedTranscript.hasCodingSequence() ) {
 
                 // Get padding bases just in case this variant is an indel and trails off the end of our transcript:
                 final String transcriptTailPaddingBaseString = getTranscriptEndPaddingBases(variant, altAllele, exonPositionList, reference);
 
                 // NOTE: This can't be null because of the Funcotator input args.
-                final String rawCodingSequence = getCodingSequenceFromTranscriptFasta(
-                        transcript.getTranscriptId(),
-                        transcriptIdMap,
-                        transcriptFastaReferenceDataSource,
-                        transcriptTailPaddingBaseString
-                );
+                final String rawCodingSequence =
+                        cachedTranscript.getCodingSequence() + transcriptTailPaddingBaseString;
 
                 // Now that we have our transcript sequence, we must make sure that our reference allele is in it
                 // correctly.
@@ -1941,16 +2040,24 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
                                 sequenceComparison.getStrand())
                 );
 
+                // Figure out if we are in a mitochondrial contig:
+                // TODO: Make this more robust by detecting the mito contig based on the reference used.  (issue https://github.com/broadinstitute/gatk/issues/5364).
+                final boolean isMitochondria = FuncotatorConstants.MITOCHONDRIAL_CONTIG_NAMES.contains(variant.getContig());
+
+                // If the corrected coding sequence is just the coding sequence of the transcript, we can reuse its
+                // protein sequence rather than translating it again:
+                final boolean isTranscriptCodingSequence = transcriptTailPaddingBaseString.isEmpty() &&
+                        rawCodingSequence.regionMatches(sequenceComparison.getCodingSequenceAlleleStart() - 1, refAllele.getBaseString(), 0, refAllele.length());
+
                 final ProteinChangeInfo proteinChangeInfo = ProteinChangeInfo.create(
                         refAllele,
                         altAllele,
                         sequenceComparison.getCodingSequenceAlleleStart(),
                         sequenceComparison.getAlignedCodingSequenceAlleleStart(),
                         correctedCodingSequence,
+                        isTranscriptCodingSequence ? cachedTranscript.getReferenceProteinSequence(isMitochondria) : null,
                         sequenceComparison.getStrand(),
-                        // Figure out if we are in a mitochondrial contig:
-                        // TODO: Make this more robust by detecting the mito contig based on the reference used.  (issue https://github.com/broadinstitute/gatk/issues/5364).
-                        FuncotatorConstants.MITOCHONDRIAL_CONTIG_NAMES.contains(variant.getContig())
+                        isMitochondria
                 );
 
                 // Set our protein change:
@@ -2708,6 +2815,49 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Helper Data Types:
 
+    /**
+     * A {@link TranscriptSequenceSource} that reads the sequences from the GENCODE transcript FASTA file.
+     */
+    private static final class TranscriptFastaSequenceSource implements TranscriptSequenceSource {
+
+        /**
+         * Map between transcript IDs and the IDs from the FASTA file to look up the transcript.
+         * This is necessary because of the way the FASTA file contigs are named.
+         */
+        private final Map<String, MappedTranscriptIdInfo> transcriptIdMap;
+
+        /**
+         * ReferenceSequenceFile for the transcript reference file.
+         */
+        private final ReferenceDataSource transcriptFastaReferenceDataSource;
+
+        TranscriptFastaSequenceSource( final Map<String, MappedTranscriptIdInfo> transcriptIdMap,
+                                       final ReferenceDataSource transcriptFastaReferenceDataSource ) {
+            this.transcriptIdMap = transcriptIdMap;
+            this.transcriptFastaReferenceDataSource = transcriptFastaReferenceDataSource;
+        }
+
+        @Override
+        public boolean hasTranscriptSequence( final String transcriptId ) {
+            return transcriptIdMap.containsKey(transcriptId);
+        }
+
+        @Override
+        public synchronized String getCodingSequence( final String transcriptId ) {
+            return getCodingSequenceFromTranscriptFasta(transcriptId, transcriptIdMap, transcriptFastaReferenceDataSource);
+        }
+
+        @Override
+        public synchronized String getFivePrimeUtrSequence( final String transcriptId, final int extraBases ) {
+            return getFivePrimeUtrSequenceFromTranscriptFasta(transcriptId, transcriptIdMap, transcriptFastaReferenceDataSource, extraBases);
+        }
+
+        @Override
+        public void close() {
+            transcriptFastaReferenceDataSource.close();
+        }
+    }
+
     /**
      * A simple data object class to hold information about the transcripts in the
      * GENCODE transcript FASTA file.
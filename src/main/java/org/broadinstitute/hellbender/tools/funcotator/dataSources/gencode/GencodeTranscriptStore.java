@@ -0,0 +1,945 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.annotation.Strand;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.codecs.gencode.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compiled, memory-mapped store of everything {@link GencodeFuncotationFactory} reads from a GENCODE data source:
+ * the gene models (genes, transcripts, exons, CDS, codons, UTRs) from the GENCODE GTF file, and the spliced sequences
+ * and coding/UTR coordinates of the transcripts from the GENCODE transcript FASTA file.
+ *
+ * Reading the GTF file means parsing text into a tree of features for every gene in every query, and reading the
+ * transcript FASTA file means building a map of all its sequence names at startup.  The store does that work once,
+ * when it's compiled by {@link #compile}, so that a factory opening it has only to map the file and read a small
+ * index, and queries decode compact binary records straight out of the mapped file.
+ *
+ * The file is laid out as:
+ * <ul>
+ *     <li>a header (a magic number and format version),</li>
+ *     <li>a record for each gene (with its whole feature tree), in GTF order,</li>
+ *     <li>a record for each transcript sequence (its coding sequence and 5' UTR coordinates, and its spliced bases),</li>
+ *     <li>the index:  for each contig, the offset and extent of each gene sorted by start, and the offset of each
+ *     transcript's sequence record,</li>
+ *     <li>and a trailer giving the offset of the index.</li>
+ * </ul>
+ * Records are laid out so that none straddles a {@link #SEGMENT_SIZE} boundary, so that each can be read from a
+ * single mapped segment.  When the store is opened, the genes on each contig are binned so that an overlap query can
+ * start scanning at the first gene that overlaps the query's bin.
+ *
+ * Each gene record starts with a directory giving the extent and encoded length of each of the gene's transcripts, and
+ * each transcript is encoded separately from the others, so that a query decodes only the transcripts that overlap it.
+ * This matters for large genes like TTN, which have hundreds of exons in each of many transcripts.
+ */
+public final class GencodeTranscriptStore implements TranscriptSequenceSource, Closeable {
+
+    /** Standard Logger.  */
+    private static final Logger logger = LogManager.getLogger(GencodeTranscriptStore.class);
+
+    /**
+     * Appended to the file name of the GTF file of a GENCODE data source to give the file name of the store that's used
+     * in place of the GTF file (and transcript FASTA file) when the data source's config file doesn't name one.
+     */
+    public static final String DEFAULT_STORE_FILE_EXTENSION = ".transcripts.bin";
+
+    private static final byte[] MAGIC = "GCTXSTOR".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_OFFSET_MASK = SEGMENT_SIZE - 1;
+
+    private static final int BIN_SHIFT = 14;
+
+    // Types of the values of optional fields:
+    private static final int OPTIONAL_VALUE_STRING = 0;
+    private static final int OPTIONAL_VALUE_LONG = 1;
+    private static final int OPTIONAL_VALUE_FEATURE_TAG = 2;
+    private static final int OPTIONAL_VALUE_TRANSCRIPT_SUPPORT_LEVEL = 3;
+    private static final int OPTIONAL_VALUE_REMAP_STATUS = 4;
+    private static final int OPTIONAL_VALUE_REMAP_TARGET_STATUS = 5;
+
+    // Flags for the sub-features of an exon:
+    private static final int EXON_HAS_CDS = 1;
+    private static final int EXON_HAS_START_CODON = 2;
+    private static final int EXON_HAS_STOP_CODON = 4;
+
+    private final Path storePath;
+    private final ByteBuffer[] segments;
+    private final Map<String, ContigIndex> contigIndices;
+    private final Map<String, Long> transcriptSequenceOffsets;
+
+    /**
+     * The genes decoded for the last query, by record offset.
+     * Consecutive variants usually hit the same transcripts, so this saves decoding them over and over.
+     */
+    private Map<Long, DecodedGene> lastQueryGenes = Collections.emptyMap();
+
+    //==================================================================================================================
+    // Constructors:
+
+    private GencodeTranscriptStore( final Path storePath ) {
+        this.storePath = storePath;
+        try ( final FileChannel channel = FileChannel.open(storePath, StandardOpenOption.READ) ) {
+            final long fileSize = channel.size();
+            if ( fileSize < HEADER_SIZE + Long.BYTES ) {
+                throw new UserException.MalformedFile(storePath, "File is too short to be a GENCODE transcript store.");
+            }
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            final byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if ( !Arrays.equals(magic, MAGIC) ) {
+                throw new UserException.MalformedFile(storePath, "File is not a GENCODE transcript store.");
+            }
+            final int formatVersion = header.getInt();
+            if ( formatVersion != FORMAT_VERSION ) {
+                throw new UserException.MalformedFile(storePath, "GENCODE transcript store has format version " +
+                        formatVersion + ", but this version of GATK reads version " + FORMAT_VERSION +
+                        ".  Please recompile it.");
+            }
+
+            final ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+            readFully(channel, trailer, fileSize - Long.BYTES);
+            final long indexOffset = trailer.getLong();
+
+            // Map the records:
+            final int nSegments = (int)((indexOffset + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            segments = new ByteBuffer[nSegments];
+            for ( int segment = 0; segment != nSegments; ++segment ) {
+                final long segmentStart = (long)segment << SEGMENT_BITS;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                        Math.min(SEGMENT_SIZE, indexOffset - segmentStart));
+            }
+
+            // Read the index:
+            channel.position(indexOffset);
+            final DataInputStream indexStream =
+                    new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            final int nContigs = readVarInt(indexStream);
+            contigIndices = new HashMap<>(2 * nContigs);
+            for ( int contigNum = 0; contigNum != nContigs; ++contigNum ) {
+                final String contig = indexStream.readUTF();
+                contigIndices.put(contig, ContigIndex.read(indexStream));
+            }
+            final int nTranscripts = readVarInt(indexStream);
+            transcriptSequenceOffsets = new HashMap<>(2 * nTranscripts);
+            for ( int transcriptNum = 0; transcriptNum != nTranscripts; ++transcriptNum ) {
+                final String transcriptId = indexStream.readUTF();
+                transcriptSequenceOffsets.put(transcriptId, indexStream.readLong());
+            }
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotReadInputFile(storePath, "Unable to read GENCODE transcript store.", ex);
+        }
+    }
+
+    /**
+     * Open a GENCODE transcript store created by {@link #compile}.
+     * @param storePath {@link Path} to a GENCODE transcript store on the local file system.  Must not be {@code null}.
+     * @return The {@link GencodeTranscriptStore} in the given file.
+     */
+    public static GencodeTranscriptStore open( final Path storePath ) {
+        Utils.nonNull(storePath);
+        return new GencodeTranscriptStore(storePath);
+    }
+
+    /**
+     * @param gtfPath {@link Path} to the GTF file of a GENCODE data source.  Must not be {@code null}.
+     * @return {@link Path} to the store that's used in place of the GTF file if the data source's config file doesn't
+     *         name one:  the file next to the GTF file with {@link #DEFAULT_STORE_FILE_EXTENSION} appended to its name.
+     */
+    public static Path getDefaultStorePath( final Path gtfPath ) {
+        Utils.nonNull(gtfPath);
+        return gtfPath.resolveSibling(gtfPath.getFileName().toString() + DEFAULT_STORE_FILE_EXTENSION);
+    }
+
+    //==================================================================================================================
+    // Compiling:
+
+    /**
+     * Compile a GENCODE transcript store from a GENCODE GTF file and the matching GENCODE transcript FASTA file.
+     * Only the sequences of the transcripts in the GTF file are stored.
+     * @param gtfPath The path to the GENCODE GTF file.  Must not be {@code null}.
+     * @param transcriptFastaPath {@link Path} to the GENCODE transcript FASTA file.  Must not be {@code null}.
+     * @param outputPath {@link Path} to which to write the store.  Must not be {@code null}.
+     */
+    public static void compile( final String gtfPath, final Path transcriptFastaPath, final Path outputPath ) {
+        Utils.nonNull(gtfPath);
+        Utils.nonNull(transcriptFastaPath);
+        Utils.nonNull(outputPath);
+
+        try ( final FeatureDataSource<GencodeGtfFeature> gtfSource = new FeatureDataSource<>(gtfPath);
+              final ReferenceDataSource transcriptFasta = ReferenceDataSource.of(transcriptFastaPath);
+              final StoreWriter writer = new StoreWriter(outputPath) ) {
+
+            // Write the genes, keeping track of the transcripts we'll need sequences for:
+            final Set<String> transcriptIds = new LinkedHashSet<>();
+            for ( final GencodeGtfFeature feature : gtfSource ) {
+                final GencodeGtfGeneFeature gene = (GencodeGtfGeneFeature)feature;
+                writer.addGene(gene);
+                for ( final GencodeGtfTranscriptFeature transcript : gene.getTranscripts() ) {
+                    transcriptIds.add(transcript.getTranscriptId());
+                }
+            }
+
+            // Write the sequences:
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap =
+                    GencodeFuncotationFactory.createTranscriptIdMap(transcriptFasta);
+            for ( final String transcriptId : transcriptIds ) {
+                final GencodeFuncotationFactory.MappedTranscriptIdInfo transcriptInfo = transcriptIdMap.get(transcriptId);
+                if ( transcriptInfo != null ) {
+                    final int sequenceLength =
+                            transcriptFasta.getSequenceDictionary().getSequence(transcriptInfo.mapKey).getSequenceLength();
+                    final byte[] bases =
+                            transcriptFasta.queryAndPrefetch(transcriptInfo.mapKey, 1, sequenceLength).getBases();
+                    writer.addTranscriptSequence(transcriptId, transcriptInfo, bases);
+                }
+            }
+
+            writer.writeIndex();
+            logger.info("Compiled " + writer.getNGenes() + " genes and " + writer.getNTranscriptSequences() +
+                    " transcript sequences into " + outputPath.toUri());
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotCreateOutputFile("Unable to write GENCODE transcript store to " + outputPath.toUri(), ex);
+        }
+    }
+
+    //==================================================================================================================
+    // Queries:
+
+    /**
+     * Get the genes that overlap an interval.
+     * Only the transcripts that overlap the interval are decoded, so each gene has only those transcripts (and may have
+     * none, if the interval falls between its transcripts).
+     * @param interval The interval to query.  Must not be {@code null}.
+     * @return The genes that overlap {@code interval}, in order of their starts.
+     */
+    public synchronized List<GencodeGtfGeneFeature> getOverlappingGenes( final Locatable interval ) {
+        Utils.nonNull(interval);
+        final ContigIndex contigIndex = contigIndices.get(interval.getContig());
+        if ( contigIndex == null ) {
+            return Collections.emptyList();
+        }
+
+        final List<GencodeGtfGeneFeature> genes = new ArrayList<>();
+        final Map<Long, DecodedGene> queryGenes = new HashMap<>();
+        for ( int geneNum = contigIndex.getFirstCandidate(interval.getStart());
+              geneNum < contigIndex.starts.length && contigIndex.starts[geneNum] <= interval.getEnd();
+              ++geneNum ) {
+            if ( contigIndex.ends[geneNum] >= interval.getStart() ) {
+                final long offset = contigIndex.offsets[geneNum];
+                final ByteBuffer record = getRecord(offset);
+                final TranscriptDirectory transcriptDirectory = new TranscriptDirectory(record);
+                final BitSet transcripts = transcriptDirectory.getOverlappingTranscripts(interval);
+
+                DecodedGene decodedGene = lastQueryGenes.get(offset);
+                if ( (decodedGene == null) || !decodedGene.transcripts.equals(transcripts) ) {
+                    decodedGene = new DecodedGene(readGene(record, transcriptDirectory, transcripts), transcripts);
+                }
+                queryGenes.put(offset, decodedGene);
+                genes.add(decodedGene.gene);
+            }
+        }
+        lastQueryGenes = queryGenes;
+        return genes;
+    }
+
+    @Override
+    public boolean hasTranscriptSequence( final String transcriptId ) {
+        return transcriptSequenceOffsets.containsKey(transcriptId);
+    }
+
+    @Override
+    public String getCodingSequence( final String transcriptId ) {
+        final TranscriptSequenceRecord record = getTranscriptSequenceRecord(transcriptId, "coding sequence");
+        return record.getBases(record.codingSequenceStart, record.codingSequenceEnd);
+    }
+
+    @Override
+    public String getFivePrimeUtrSequence( final String transcriptId, final int extraBases ) {
+        final TranscriptSequenceRecord record = getTranscriptSequenceRecord(transcriptId, "5'UTR");
+        if ( !record.has5pUtr ) {
+            return "";
+        }
+        return record.getBases(record.fivePrimeUtrStart, record.fivePrimeUtrEnd + extraBases);
+    }
+
+    @Override
+    public void close() {
+        // There's no way to unmap the segments, but they'll be released when they're garbage collected.
+        lastQueryGenes = Collections.emptyMap();
+    }
+
+    @Override
+    public String toString() {
+        return "GencodeTranscriptStore(" + storePath.toUri() + ")";
+    }
+
+    //==================================================================================================================
+    // Private Methods:
+
+    private TranscriptSequenceRecord getTranscriptSequenceRecord( final String transcriptId, final String purpose ) {
+        final Long offset = transcriptSequenceOffsets.get(transcriptId);
+        if ( offset == null ) {
+            throw new UserException.BadInput( "Unable to find the given Transcript ID in our transcript list for our " + purpose + " (not in given transcript store): " + transcriptId );
+        }
+        return new TranscriptSequenceRecord(getRecord(offset));
+    }
+
+    /** @return A buffer positioned at the start of the record at the given offset. */
+    private ByteBuffer getRecord( final long offset ) {
+        final ByteBuffer record = segments[(int)(offset >>> SEGMENT_BITS)].duplicate();
+        record.position((int)(offset & SEGMENT_OFFSET_MASK));
+        return record;
+    }
+
+    private static void readFully( final FileChannel channel, final ByteBuffer buffer, final long position ) throws IOException {
+        long filePosition = position;
+        while ( buffer.hasRemaining() ) {
+            final int nRead = channel.read(buffer, filePosition);
+            if ( nRead < 0 ) {
+                throw new EOFException();
+            }
+            filePosition += nRead;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Decode a gene with some of its transcripts.
+     * @param record A buffer positioned just after the gene's {@link TranscriptDirectory}.
+     * @param transcriptDirectory The gene's {@link TranscriptDirectory}.
+     * @param transcripts The indices of the transcripts to decode.
+     * @return The gene, with the given transcripts.
+     */
+    private static GencodeGtfGeneFeature readGene( final ByteBuffer record,
+                                                   final TranscriptDirectory transcriptDirectory,
+                                                   final BitSet transcripts ) {
+        final RecordReader reader = new RecordReader(record);
+        final GencodeGtfGeneFeature gene = (GencodeGtfGeneFeature)reader.readFeature();
+
+        // Each transcript may refer to the strings of the gene, but not to those of other transcripts:
+        final int nGeneStrings = reader.getNStrings();
+        int transcriptPosition = record.position();
+        for ( int transcriptNum = 0; transcriptNum != transcriptDirectory.lengths.length; ++transcriptNum ) {
+            if ( transcripts.get(transcriptNum) ) {
+                record.position(transcriptPosition);
+                reader.truncateStrings(nGeneStrings);
+                gene.addTranscript(readTranscript(reader));
+            }
+            transcriptPosition += transcriptDirectory.lengths[transcriptNum];
+        }
+        return gene;
+    }
+
+    private static GencodeGtfTranscriptFeature readTranscript( final RecordReader reader ) {
+        final GencodeGtfTranscriptFeature transcript = (GencodeGtfTranscriptFeature)reader.readFeature();
+        final int nExons = reader.readVarInt();
+        for ( int exonNum = 0; exonNum != nExons; ++exonNum ) {
+            final GencodeGtfExonFeature exon = (GencodeGtfExonFeature)reader.readFeature();
+            final int exonFlags = reader.readVarInt();
+            if ( (exonFlags & EXON_HAS_CDS) != 0 ) {
+                exon.setCds((GencodeGtfCDSFeature)reader.readFeature());
+            }
+            if ( (exonFlags & EXON_HAS_START_CODON) != 0 ) {
+                exon.setStartCodon((GencodeGtfStartCodonFeature)reader.readFeature());
+            }
+            if ( (exonFlags & EXON_HAS_STOP_CODON) != 0 ) {
+                exon.setStopCodon((GencodeGtfStopCodonFeature)reader.readFeature());
+            }
+            transcript.addExon(exon);
+        }
+        final int nSelenocysteines = reader.readVarInt();
+        for ( int selenocysteineNum = 0; selenocysteineNum != nSelenocysteines; ++selenocysteineNum ) {
+            transcript.addSelenocysteine((GencodeGtfSelenocysteineFeature)reader.readFeature());
+        }
+        final int nUtrs = reader.readVarInt();
+        for ( int utrNum = 0; utrNum != nUtrs; ++utrNum ) {
+            transcript.addUtr((GencodeGtfUTRFeature)reader.readFeature());
+        }
+        return transcript;
+    }
+
+    /**
+     * Encode a gene:  its {@link TranscriptDirectory}, then the gene itself, then each of its transcripts.
+     * @return The encoded gene.
+     */
+    private static byte[] writeGene( final GencodeGtfGeneFeature gene ) throws IOException {
+        final RecordWriter geneWriter = new RecordWriter();
+        geneWriter.writeFeature(gene);
+
+        final List<byte[]> encodedTranscripts = new ArrayList<>(gene.getTranscripts().size());
+        for ( final GencodeGtfTranscriptFeature transcript : gene.getTranscripts() ) {
+            final RecordWriter transcriptWriter = new RecordWriter(geneWriter);
+            writeTranscript(transcriptWriter, transcript);
+            encodedTranscripts.add(transcriptWriter.toByteArray());
+        }
+
+        final RecordWriter recordWriter = new RecordWriter();
+        recordWriter.writeVarInt(gene.getTranscripts().size());
+        for ( int transcriptNum = 0; transcriptNum != encodedTranscripts.size(); ++transcriptNum ) {
+            final GencodeGtfTranscriptFeature transcript = gene.getTranscripts().get(transcriptNum);
+            recordWriter.writeVarInt(transcript.getStart());
+            recordWriter.writeVarInt(transcript.getEnd() - transcript.getStart());
+            recordWriter.writeVarInt(encodedTranscripts.get(transcriptNum).length);
+        }
+        recordWriter.writeBytes(geneWriter.toByteArray());
+        for ( final byte[] encodedTranscript : encodedTranscripts ) {
+            recordWriter.writeBytes(encodedTranscript);
+        }
+        return recordWriter.toByteArray();
+    }
+
+    private static void writeTranscript( final RecordWriter writer, final GencodeGtfTranscriptFeature transcript ) throws IOException {
+        writer.writeFeature(transcript);
+        writer.writeVarInt(transcript.getExons().size());
+        for ( final GencodeGtfExonFeature exon : transcript.getExons() ) {
+            writer.writeFeature(exon);
+            writer.writeVarInt((exon.getCds() != null ? EXON_HAS_CDS : 0) |
+                               (exon.getStartCodon() != null ? EXON_HAS_START_CODON : 0) |
+                               (exon.getStopCodon() != null ? EXON_HAS_STOP_CODON : 0));
+            if ( exon.getCds() != null ) {
+                writer.writeFeature(exon.getCds());
+            }
+            if ( exon.getStartCodon() != null ) {
+                writer.writeFeature(exon.getStartCodon());
+            }
+            if ( exon.getStopCodon() != null ) {
+                writer.writeFeature(exon.getStopCodon());
+            }
+        }
+        writer.writeVarInt(transcript.getSelenocysteines().size());
+        for ( final GencodeGtfSelenocysteineFeature selenocysteine : transcript.getSelenocysteines() ) {
+            writer.writeFeature(selenocysteine);
+        }
+        writer.writeVarInt(transcript.getUtrs().size());
+        for ( final GencodeGtfUTRFeature utr : transcript.getUtrs() ) {
+            writer.writeFeature(utr);
+        }
+    }
+
+    // Variable-length ints are zig-zag encoded, so that small negative values (like NO_EXON_NUMBER) stay short.
+
+    private static void writeVarInt( final DataOutput out, final int value ) throws IOException {
+        int bits = (value << 1) ^ (value >> 31);
+        while ( (bits & ~0x7F) != 0 ) {
+            out.writeByte((bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        out.writeByte(bits);
+    }
+
+    private static int readVarInt( final DataInput in ) throws IOException {
+        int bits = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            bits |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ( b < 0 );
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+
+    private static int readVarInt( final ByteBuffer in ) {
+        int bits = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            bits |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ( b < 0 );
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * The index of the genes on one contig:  their record offsets and extents, sorted by start, and for each bin the
+     * index of the first gene that overlaps it (or that starts after it, if none does).
+     */
+    private static final class ContigIndex {
+        final long[] offsets;
+        final int[] starts;
+        final int[] ends;
+        final int[] binFirstGene;
+
+        ContigIndex( final long[] offsets, final int[] starts, final int[] ends ) {
+            this.offsets = offsets;
+            this.starts = starts;
+            this.ends = ends;
+
+            int maxEnd = 0;
+            for ( final int end : ends ) {
+                maxEnd = Math.max(maxEnd, end);
+            }
+            final int nGenes = starts.length;
+            binFirstGene = new int[nGenes == 0 ? 0 : (maxEnd >> BIN_SHIFT) + 1];
+            Arrays.fill(binFirstGene, nGenes);
+            for ( int geneNum = 0; geneNum != nGenes; ++geneNum ) {
+                for ( int bin = starts[geneNum] >> BIN_SHIFT; bin <= ends[geneNum] >> BIN_SHIFT; ++bin ) {
+                    if ( binFirstGene[bin] == nGenes ) {
+                        binFirstGene[bin] = geneNum;
+                    }
+                }
+            }
+            for ( int bin = binFirstGene.length - 2; bin >= 0; --bin ) {
+                binFirstGene[bin] = Math.min(binFirstGene[bin], binFirstGene[bin + 1]);
+            }
+        }
+
+        static ContigIndex read( final DataInput in ) throws IOException {
+            final int nGenes = readVarInt(in);
+            final long[] offsets = new long[nGenes];
+            final int[] starts = new int[nGenes];
+            final int[] ends = new int[nGenes];
+            for ( int geneNum = 0; geneNum != nGenes; ++geneNum ) {
+                offsets[geneNum] = in.readLong();
+                starts[geneNum] = readVarInt(in);
+                ends[geneNum] = starts[geneNum] + readVarInt(in);
+            }
+            return new ContigIndex(offsets, starts, ends);
+        }
+
+        /** @return The index of the first gene that might overlap an interval starting at the given position. */
+        int getFirstCandidate( final int start ) {
+            final int bin = Math.max(0, start) >> BIN_SHIFT;
+            return bin < binFirstGene.length ? binFirstGene[bin] : starts.length;
+        }
+    }
+
+    /** The extents and encoded lengths of the transcripts of a gene, from the start of the gene's record. */
+    private static final class TranscriptDirectory {
+        final int[] starts;
+        final int[] ends;
+        final int[] lengths;
+
+        TranscriptDirectory( final ByteBuffer record ) {
+            final int nTranscripts = readVarInt(record);
+            starts = new int[nTranscripts];
+            ends = new int[nTranscripts];
+            lengths = new int[nTranscripts];
+            for ( int transcriptNum = 0; transcriptNum != nTranscripts; ++transcriptNum ) {
+                starts[transcriptNum] = readVarInt(record);
+                ends[transcriptNum] = starts[transcriptNum] + readVarInt(record);
+                lengths[transcriptNum] = readVarInt(record);
+            }
+        }
+
+        /** @return The indices of the transcripts that overlap the given interval. */
+        BitSet getOverlappingTranscripts( final Locatable interval ) {
+            final BitSet transcripts = new BitSet(starts.length);
+            for ( int transcriptNum = 0; transcriptNum != starts.length; ++transcriptNum ) {
+                if ( (starts[transcriptNum] <= interval.getEnd()) && (ends[transcriptNum] >= interval.getStart()) ) {
+                    transcripts.set(transcriptNum);
+                }
+            }
+            return transcripts;
+        }
+    }
+
+    /** A gene decoded with some of its transcripts. */
+    private static final class DecodedGene {
+        final GencodeGtfGeneFeature gene;
+
+        /** The indices of the transcripts of {@link #gene} that were decoded. */
+        final BitSet transcripts;
+
+        DecodedGene( final GencodeGtfGeneFeature gene, final BitSet transcripts ) {
+            this.gene = gene;
+            this.transcripts = transcripts;
+        }
+    }
+
+    /** The decoded header of a transcript sequence record, and the position of its bases. */
+    private static final class TranscriptSequenceRecord {
+        final int codingSequenceStart;
+        final int codingSequenceEnd;
+        final boolean has5pUtr;
+        final int fivePrimeUtrStart;
+        final int fivePrimeUtrEnd;
+        final int sequenceLength;
+        final ByteBuffer bases;
+
+        TranscriptSequenceRecord( final ByteBuffer record ) {
+            codingSequenceStart = readVarInt(record);
+            codingSequenceEnd = readVarInt(record);
+            has5pUtr = record.get() != 0;
+            fivePrimeUtrStart = readVarInt(record);
+            fivePrimeUtrEnd = readVarInt(record);
+            sequenceLength = readVarInt(record);
+            bases = record;
+        }
+
+        /** @return The bases from start to end (1-based, inclusive), clipped to the end of the transcript. */
+        String getBases( final int start, final int end ) {
+            final int clippedEnd = Math.min(end, sequenceLength);
+            final byte[] subsequence = new byte[Math.max(0, clippedEnd - start + 1)];
+            final ByteBuffer basesView = bases.duplicate();
+            basesView.position(bases.position() + start - 1);
+            basesView.get(subsequence);
+            return new String(subsequence, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Writes a record.
+     * Strings (including enum names) are written once per record, and repeats refer back to the first occurrence,
+     * since most of the values in a gene's features are repeated from feature to feature.
+     */
+    private static final class RecordWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> stringIndices;
+
+        RecordWriter() {
+            stringIndices = new HashMap<>();
+        }
+
+        /**
+         * Create a {@link RecordWriter} for a part of a record that follows the part written by {@code previousPart},
+         * and so may refer back to its strings.
+         */
+        RecordWriter( final RecordWriter previousPart ) {
+            stringIndices = new HashMap<>(previousPart.stringIndices);
+        }
+
+        void writeVarInt( final int value ) throws IOException {
+            GencodeTranscriptStore.writeVarInt(out, value);
+        }
+
+        void writeByte( final int value ) throws IOException {
+            out.writeByte(value);
+        }
+
+        void writeBytes( final byte[] values ) throws IOException {
+            out.write(values);
+        }
+
+        // Strings are written as 0 for null, 1 followed by the length and bytes for a new string, or 2 plus the
+        // index of a string that's already been written.
+        void writeString( final String value ) throws IOException {
+            if ( value == null ) {
+                writeVarInt(0);
+                return;
+            }
+            final Integer stringIndex = stringIndices.get(value);
+            if ( stringIndex != null ) {
+                writeVarInt(stringIndex + 2);
+                return;
+            }
+            stringIndices.put(value, stringIndices.size());
+            final byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(1);
+            writeVarInt(valueBytes.length);
+            out.write(valueBytes);
+        }
+
+        void writeEnum( final Enum<?> value ) throws IOException {
+            writeString(value == null ? null : value.name());
+        }
+
+        void writeFeature( final GencodeGtfFeature feature ) throws IOException {
+            writeEnum(feature.getFeatureType());
+            writeVarInt(feature.getFeatureOrderNumber());
+            writeString(feature.getContig());
+            writeVarInt(feature.getStart());
+            writeVarInt(feature.getEnd() - feature.getStart());
+            writeEnum(feature.getAnnotationSource());
+            writeEnum(feature.getGenomicStrand());
+            writeEnum(feature.getGenomicPhase());
+            writeString(feature.getGeneId());
+            writeString(feature.getTranscriptId());
+            writeEnum(feature.getGeneStatus());
+            writeEnum(feature.getGeneType());
+            writeString(feature.getGeneName());
+            writeEnum(feature.getTranscriptType());
+            writeEnum(feature.getTranscriptStatus());
+            writeString(feature.getTranscriptName());
+            writeVarInt(feature.getExonNumber());
+            writeString(feature.getExonId());
+            writeEnum(feature.getLocusLevel());
+
+            writeVarInt(feature.getOptionalFields().size());
+            for ( final GencodeGtfFeature.OptionalField<?> optionalField : feature.getOptionalFields() ) {
+                writeString(optionalField.getName());
+                final Object value = optionalField.getValue();
+                if ( value instanceof GencodeGtfFeature.FeatureTag ) {
+                    writeVarInt(OPTIONAL_VALUE_FEATURE_TAG);
+                    writeEnum((Enum<?>)value);
+                }
+                else if ( value instanceof GencodeGtfFeature.TranscriptSupportLevel ) {
+                    writeVarInt(OPTIONAL_VALUE_TRANSCRIPT_SUPPORT_LEVEL);
+                    writeEnum((Enum<?>)value);
+                }
+                else if ( value instanceof GencodeGtfFeature.RemapStatus ) {
+                    writeVarInt(OPTIONAL_VALUE_REMAP_STATUS);
+                    writeEnum((Enum<?>)value);
+                }
+                else if ( value instanceof GencodeGtfFeature.RemapTargetStatus ) {
+                    writeVarInt(OPTIONAL_VALUE_REMAP_TARGET_STATUS);
+                    writeEnum((Enum<?>)value);
+                }
+                else if ( value instanceof Long ) {
+                    writeVarInt(OPTIONAL_VALUE_LONG);
+                    out.writeLong((Long)value);
+                }
+                else if ( value instanceof String ) {
+                    writeVarInt(OPTIONAL_VALUE_STRING);
+                    writeString((String)value);
+                }
+                else {
+                    throw new GATKException("Unexpected type of value for optional field " + optionalField.getName() +
+                            " in GENCODE feature: " + (value == null ? "null" : value.getClass().getName()));
+                }
+            }
+            writeString(feature.getAnonymousOptionalFields());
+            writeString(feature.getUcscGenomeVersion());
+        }
+
+        byte[] toByteArray() throws IOException {
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+
+    /** Reads a record written by a {@link RecordWriter}. */
+    private static final class RecordReader {
+        private final ByteBuffer in;
+        private final List<String> strings = new ArrayList<>();
+
+        RecordReader( final ByteBuffer in ) {
+            this.in = in;
+        }
+
+        /** @return The number of strings read so far. */
+        int getNStrings() {
+            return strings.size();
+        }
+
+        /** Forget all but the first {@code nStrings} strings read, to read a part written by a separate {@link RecordWriter}. */
+        void truncateStrings( final int nStrings ) {
+            strings.subList(nStrings, strings.size()).clear();
+        }
+
+        int readVarInt() {
+            return GencodeTranscriptStore.readVarInt(in);
+        }
+
+        String readString() {
+            final int code = readVarInt();
+            if ( code == 0 ) {
+                return null;
+            }
+            if ( code > 1 ) {
+                return strings.get(code - 2);
+            }
+            final byte[] valueBytes = new byte[readVarInt()];
+            in.get(valueBytes);
+            final String value = new String(valueBytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        <E extends Enum<E>> E readEnum( final Class<E> enumClass ) {
+            final String name = readString();
+            return name == null ? null : Enum.valueOf(enumClass, name);
+        }
+
+        GencodeGtfFeature readFeature() {
+            final GencodeGtfFeatureBaseData baseData = new GencodeGtfFeatureBaseData();
+            baseData.featureType = readEnum(GencodeGtfFeature.FeatureType.class);
+            baseData.featureOrderNumber = readVarInt();
+            final String contig = readString();
+            final int start = readVarInt();
+            baseData.genomicPosition = new SimpleInterval(contig, start, start + readVarInt());
+            baseData.annotationSource = readEnum(GencodeGtfFeature.AnnotationSource.class);
+            baseData.genomicStrand = readEnum(Strand.class);
+            baseData.genomicPhase = readEnum(GencodeGtfFeature.GenomicPhase.class);
+            baseData.geneId = readString();
+            baseData.transcriptId = readString();
+            baseData.geneStatus = readEnum(GencodeGtfFeature.GeneTranscriptStatus.class);
+            baseData.geneType = readEnum(GencodeGtfFeature.GeneTranscriptType.class);
+            baseData.geneName = readString();
+            baseData.transcriptType = readEnum(GencodeGtfFeature.GeneTranscriptType.class);
+            baseData.transcriptStatus = readEnum(GencodeGtfFeature.GeneTranscriptStatus.class);
+            baseData.transcriptName = readString();
+            baseData.exonNumber = readVarInt();
+            baseData.exonId = readString();
+            baseData.locusLevel = readEnum(GencodeGtfFeature.LocusLevel.class);
+
+            final int nOptionalFields = readVarInt();
+            for ( int fieldNum = 0; fieldNum != nOptionalFields; ++fieldNum ) {
+                final String name = readString();
+                final int valueType = readVarInt();
+                switch ( valueType ) {
+                    case OPTIONAL_VALUE_FEATURE_TAG:
+                        baseData.optionalFields.add(new GencodeGtfFeature.OptionalField<>(name, readEnum(GencodeGtfFeature.FeatureTag.class)));
+                        break;
+                    case OPTIONAL_VALUE_TRANSCRIPT_SUPPORT_LEVEL:
+                        baseData.optionalFields.add(new GencodeGtfFeature.OptionalField<>(name, readEnum(GencodeGtfFeature.TranscriptSupportLevel.class)));
+                        break;
+                    case OPTIONAL_VALUE_REMAP_STATUS:
+                        baseData.optionalFields.add(new GencodeGtfFeature.OptionalField<>(name, readEnum(GencodeGtfFeature.RemapStatus.class)));
+                        break;
+                    case OPTIONAL_VALUE_REMAP_TARGET_STATUS:
+                        baseData.optionalFields.add(new GencodeGtfFeature.OptionalField<>(name, readEnum(GencodeGtfFeature.RemapTargetStatus.class)));
+                        break;
+                    case OPTIONAL_VALUE_LONG:
+                        baseData.optionalFields.add(new GencodeGtfFeature.OptionalField<>(name, in.getLong()));
+                        break;
+                    case OPTIONAL_VALUE_STRING:
+                        baseData.optionalFields.add(new GencodeGtfFeature.OptionalField<>(name, readString()));
+                        break;
+                    default:
+                        throw new GATKException("Unknown type of optional field value in GENCODE transcript store: " + valueType);
+                }
+            }
+            baseData.anonymousOptionalFields = readString();
+
+            final GencodeGtfFeature feature = GencodeGtfFeature.create(baseData);
+            feature.setUcscGenomeVersion(readString());
+            return feature;
+        }
+    }
+
+    /** Writes a store, keeping track of the offsets of the records it writes so that it can write the index. */
+    private static final class StoreWriter implements Closeable {
+        private final DataOutputStream out;
+        private long position;
+
+        private final Map<String, ContigGenes> contigGenes = new LinkedHashMap<>();
+        private final Map<String, Long> transcriptSequenceOffsets = new LinkedHashMap<>();
+        private int nGenes = 0;
+
+        StoreWriter( final Path outputPath ) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath)));
+            out.write(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            position = HEADER_SIZE;
+        }
+
+        int getNGenes() { return nGenes; }
+
+        int getNTranscriptSequences() { return transcriptSequenceOffsets.size(); }
+
+        void addGene( final GencodeGtfGeneFeature gene ) throws IOException {
+            final long offset = writeRecord(writeGene(gene));
+            contigGenes.computeIfAbsent(gene.getContig(), contig -> new ContigGenes())
+                    .add(offset, gene.getStart(), gene.getEnd());
+            nGenes += 1;
+        }
+
+        void addTranscriptSequence( final String transcriptId,
+                                    final GencodeFuncotationFactory.MappedTranscriptIdInfo transcriptInfo,
+                                    final byte[] bases ) throws IOException {
+            final RecordWriter recordWriter = new RecordWriter();
+            recordWriter.writeVarInt(transcriptInfo.codingSequenceStart);
+            recordWriter.writeVarInt(transcriptInfo.codingSequenceEnd);
+            recordWriter.writeByte(transcriptInfo.has5pUtr ? 1 : 0);
+            recordWriter.writeVarInt(transcriptInfo.fivePrimeUtrStart);
+            recordWriter.writeVarInt(transcriptInfo.fivePrimeUtrEnd);
+            recordWriter.writeVarInt(bases.length);
+            recordWriter.writeBytes(bases);
+            transcriptSequenceOffsets.put(transcriptId, writeRecord(recordWriter.toByteArray()));
+        }
+
+        void writeIndex() throws IOException {
+            final long indexOffset = position;
+            writeVarInt(out, contigGenes.size());
+            for ( final Map.Entry<String, ContigGenes> entry : contigGenes.entrySet() ) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+            writeVarInt(out, transcriptSequenceOffsets.size());
+            for ( final Map.Entry<String, Long> entry : transcriptSequenceOffsets.entrySet() ) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.writeLong(indexOffset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        /** Writes a record, padding first if necessary so that it doesn't straddle a segment boundary. */
+        private long writeRecord( final byte[] record ) throws IOException {
+            if ( record.length > SEGMENT_SIZE ) {
+                throw new GATKException("GENCODE transcript store record is too large: " + record.length + " bytes");
+            }
+            final long segmentOffset = position & SEGMENT_OFFSET_MASK;
+            if ( segmentOffset + record.length > SEGMENT_SIZE ) {
+                final long padding = SEGMENT_SIZE - segmentOffset;
+                for ( long padNum = 0; padNum != padding; ++padNum ) {
+                    out.writeByte(0);
+                }
+                position += padding;
+            }
+            final long offset = position;
+            out.write(record);
+            position += record.length;
+            return offset;
+        }
+    }
+
+    /** The genes on one contig, as they're written. */
+    private static final class ContigGenes {
+        private long[] offsets = new long[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int size = 0;
+
+        void add( final long offset, final int start, final int end ) {
+            if ( size == offsets.length ) {
+                offsets = Arrays.copyOf(offsets, 2 * size);
+                starts = Arrays.copyOf(starts, 2 * size);
+                ends = Arrays.copyOf(ends, 2 * size);
+            }
+            offsets[size] = offset;
+            starts[size] = start;
+            ends[size] = end;
+            size += 1;
+        }
+
+        /** Writes the genes in order of their starts. */
+        void write( final DataOutputStream out ) throws IOException {
+            final Integer[] order = new Integer[size];
+            for ( int geneNum = 0; geneNum != size; ++geneNum ) {
+                order[geneNum] = geneNum;
+            }
+            Arrays.sort(order, Comparator.comparingInt((Integer geneNum) -> starts[geneNum]).thenComparingInt(geneNum -> ends[geneNum]));
+            writeVarInt(out, size);
+            for ( final int geneNum : order ) {
+                out.writeLong(offsets[geneNum]);
+                writeVarInt(out, starts[geneNum]);
+                writeVarInt(out, ends[geneNum] - starts[geneNum]);
+            }
+        }
+    }
+}
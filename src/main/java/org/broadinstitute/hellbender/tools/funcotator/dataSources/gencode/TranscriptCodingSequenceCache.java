@@ -0,0 +1,223 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.annotation.Strand;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
+import org.broadinstitute.hellbender.tools.funcotator.ProteinChangeInfo;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfTranscriptFeature;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of the per-transcript data that {@link GencodeFuncotationFactory} needs to annotate variants in coding regions:
+ * the sorted coding regions of the transcript, the cumulative offsets of those regions in the coding sequence,
+ * the coding sequence itself, and its translation into a protein.
+ *
+ * Neighboring variants often fall in the same transcripts, so these are computed once per transcript rather than once
+ * per variant.  Because variants are annotated in order of position, transcripts that end before the most recent variant
+ * are evicted from the cache, as are all transcripts when the contig changes.
+ *
+ * This class is not thread-safe.
+ */
+final class TranscriptCodingSequenceCache {
+
+    /**
+     * The maximum number of transcripts to keep, in case the variants are not sorted by position.
+     */
+    static final int MAX_CACHED_TRANSCRIPTS = 10000;
+
+    private final TranscriptSequenceSource transcriptSequenceSource;
+
+    private final Map<String, CachedTranscript> cachedTranscripts = new HashMap<>();
+
+    /** The contig of the variants for which the transcripts in {@link #cachedTranscripts} were requested. */
+    private String currentContig = null;
+
+    /** The lowest end position of the transcripts in {@link #cachedTranscripts}. */
+    private int minCachedTranscriptEnd = Integer.MAX_VALUE;
+
+    TranscriptCodingSequenceCache( final TranscriptSequenceSource transcriptSequenceSource ) {
+        this.transcriptSequenceSource = transcriptSequenceSource;
+    }
+
+    /**
+     * Get the cached data for the given {@code transcript}, evicting any transcripts that end before the given {@code variant}.
+     * @param transcript The {@link GencodeGtfTranscriptFeature} in which the given {@code variant} occurs.
+     * @param variant The variant currently being annotated.
+     * @return The {@link CachedTranscript} for the given {@code transcript}.
+     */
+    CachedTranscript get( final GencodeGtfTranscriptFeature transcript, final Locatable variant ) {
+        evictTranscriptsBefore(variant);
+
+        CachedTranscript cachedTranscript = cachedTranscripts.get(transcript.getTranscriptId());
+        if ( (cachedTranscript == null) || !cachedTranscript.isFor(transcript) ) {
+            if ( cachedTranscripts.size() >= MAX_CACHED_TRANSCRIPTS ) {
+                clear();
+            }
+            if ( currentContig == null ) {
+                currentContig = variant.getContig();
+            }
+            cachedTranscript = new CachedTranscript(transcript, GencodeFuncotationFactory.getSortedCdsAndStartStopPositions(transcript), transcriptSequenceSource);
+            cachedTranscripts.put(transcript.getTranscriptId(), cachedTranscript);
+            minCachedTranscriptEnd = Math.min(minCachedTranscriptEnd, transcript.getEnd());
+        }
+        return cachedTranscript;
+    }
+
+    /**
+     * @return The number of transcripts in this cache.
+     */
+    int size() {
+        return cachedTranscripts.size();
+    }
+
+    private void evictTranscriptsBefore( final Locatable variant ) {
+        if ( currentContig == null ) {
+            return;
+        }
+
+        if ( !currentContig.equals(variant.getContig()) ) {
+            clear();
+        }
+        else if ( variant.getStart() > minCachedTranscriptEnd ) {
+            minCachedTranscriptEnd = Integer.MAX_VALUE;
+            final Iterator<CachedTranscript> it = cachedTranscripts.values().iterator();
+            while ( it.hasNext() ) {
+                final int transcriptEnd = it.next().transcriptEnd;
+                if ( transcriptEnd < variant.getStart() ) {
+                    it.remove();
+                }
+                else {
+                    minCachedTranscriptEnd = Math.min(minCachedTranscriptEnd, transcriptEnd);
+                }
+            }
+        }
+    }
+
+    private void clear() {
+        cachedTranscripts.clear();
+        currentContig = null;
+        minCachedTranscriptEnd = Integer.MAX_VALUE;
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * The per-transcript data for a single transcript.  The coding sequence and protein are computed when first requested.
+     */
+    static final class CachedTranscript {
+        private final String transcriptId;
+        private final String contig;
+        private final int transcriptStart;
+        private final int transcriptEnd;
+        private final Strand strand;
+
+        private final List<? extends Locatable> codingRegions;
+        private final int[] codingRegionStarts;
+        private final int[] codingRegionEnds;
+
+        /** The number of coding bases in all the coding regions before each coding region. */
+        private final int[] codingRegionOffsets;
+
+        private final TranscriptSequenceSource transcriptSequenceSource;
+        private String codingSequence = null;
+        private String referenceProteinSequence = null;
+        private boolean referenceProteinSequenceIsMitochondrial = false;
+
+        CachedTranscript( final GencodeGtfTranscriptFeature transcript,
+                          final List<? extends Locatable> codingRegions,
+                          final TranscriptSequenceSource transcriptSequenceSource ) {
+            this.transcriptId = transcript.getTranscriptId();
+            this.contig = transcript.getContig();
+            this.transcriptStart = transcript.getStart();
+            this.transcriptEnd = transcript.getEnd();
+            this.strand = transcript.getGenomicStrand();
+            this.codingRegions = codingRegions;
+            this.transcriptSequenceSource = transcriptSequenceSource;
+
+            codingRegionStarts = new int[codingRegions.size()];
+            codingRegionEnds = new int[codingRegions.size()];
+            codingRegionOffsets = new int[codingRegions.size()];
+            int offset = 0;
+            for ( int i = 0; i < codingRegions.size(); ++i ) {
+                final Locatable codingRegion = codingRegions.get(i);
+                codingRegionStarts[i] = codingRegion.getStart();
+                codingRegionEnds[i] = codingRegion.getEnd();
+                codingRegionOffsets[i] = offset;
+                // Add 1 because of inclusive positions:
+                offset += codingRegion.getEnd() - codingRegion.getStart() + 1;
+            }
+        }
+
+        /**
+         * @return The start codon, CDS, and stop codon regions of the transcript, as given by {@link GencodeFuncotationFactory#getSortedCdsAndStartStopPositions}.
+         */
+        List<? extends Locatable> getCodingRegions() {
+            return codingRegions;
+        }
+
+        /**
+         * Get the position of the given {@code variant} in the coding sequence of this transcript.
+         * Equivalent to {@link FuncotatorUtils#getStartPositionInTranscript} with the {@link #getCodingRegions()} of this transcript.
+         * @param variant The variant for which to get the position.
+         * @return The position (1-based, inclusive) of the given {@code variant} in the coding sequence, or -1 if the variant does not start in a coding region.
+         */
+        int getStartPositionInCodingSequence( final Locatable variant ) {
+            if ( (strand == Strand.NONE) || (!codingRegions.isEmpty() && !contig.equals(variant.getContig())) ) {
+                // Let FuncotatorUtils report the problem:
+                return FuncotatorUtils.getStartPositionInTranscript(variant, codingRegions, strand);
+            }
+
+            final int variantStartLocus = (strand == Strand.POSITIVE) ? variant.getStart() : variant.getEnd();
+            for ( int i = 0; i < codingRegionStarts.length; ++i ) {
+                if ( (codingRegionStarts[i] <= variantStartLocus) && (variantStartLocus <= codingRegionEnds[i]) ) {
+                    if ( strand == Strand.POSITIVE ) {
+                        return 1 + codingRegionOffsets[i] + variantStartLocus - codingRegionStarts[i];
+                    }
+                    else {
+                        return 1 + codingRegionOffsets[i] + codingRegionEnds[i] - variantStartLocus;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return {@code true} if we have a coding sequence for this transcript.
+         */
+        boolean hasCodingSequence() {
+            return transcriptSequenceSource.hasTranscriptSequence(transcriptId);
+        }
+
+        /**
+         * @return The coding sequence of this transcript.  Must only be called if {@link #hasCodingSequence()} is {@code true}.
+         */
+        String getCodingSequence() {
+            if ( codingSequence == null ) {
+                codingSequence = transcriptSequenceSource.getCodingSequence(transcriptId);
+            }
+            return codingSequence;
+        }
+
+        /**
+         * @param isMitochondria If {@code true}, will use Mitochondrial protein decoding, rather than the standard eukaryotic amino acid decoding.
+         * @return The translation of the coding sequence of this transcript, as given by {@link ProteinChangeInfo#createReferenceProteinSequence}.
+         */
+        String getReferenceProteinSequence( final boolean isMitochondria ) {
+            if ( (referenceProteinSequence == null) || (referenceProteinSequenceIsMitochondrial != isMitochondria) ) {
+                referenceProteinSequence = ProteinChangeInfo.createReferenceProteinSequence(getCodingSequence(), isMitochondria);
+                referenceProteinSequenceIsMitochondrial = isMitochondria;
+            }
+            return referenceProteinSequence;
+        }
+
+        private boolean isFor( final GencodeGtfTranscriptFeature transcript ) {
+            return transcriptId.equals(transcript.getTranscriptId()) && contig.equals(transcript.getContig()) &&
+                    (transcriptStart == transcript.getStart()) && (transcriptEnd == transcript.getEnd());
+        }
+    }
+}
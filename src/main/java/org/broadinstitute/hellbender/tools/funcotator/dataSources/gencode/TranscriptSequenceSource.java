@@ -0,0 +1,35 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+/**
+ * A source of the sequences of GENCODE transcripts, looked up by transcript ID.
+ * {@link GencodeFuncotationFactory} gets these either from the GENCODE transcript FASTA file or from a compiled
+ * {@link GencodeTranscriptStore}.
+ */
+interface TranscriptSequenceSource {
+
+    /**
+     * @param transcriptId The ID of a transcript (including its version number).
+     * @return {@code true} if we have a sequence for the given transcript.
+     */
+    boolean hasTranscriptSequence( final String transcriptId );
+
+    /**
+     * Get ONLY the coding sequence of the given transcript (no UTRs).
+     * @param transcriptId The ID of a transcript for which {@link #hasTranscriptSequence} is {@code true}.
+     * @return The coding sequence of the given transcript.
+     */
+    String getCodingSequence( final String transcriptId );
+
+    /**
+     * Get ONLY the 5' UTR sequence of the given transcript, followed by {@code extraBases} bases of its coding sequence.
+     * @param transcriptId The ID of a transcript for which {@link #hasTranscriptSequence} is {@code true}.
+     * @param extraBases The number of extra bases from the coding region to include after the 5' UTR.
+     * @return The 5' UTR sequence of the given transcript, or an empty {@link String} if it has no 5' UTR.
+     */
+    String getFivePrimeUtrSequence( final String transcriptId, final int extraBases );
+
+    /**
+     * Release any resources held by this {@link TranscriptSequenceSource}.
+     */
+    void close();
+}
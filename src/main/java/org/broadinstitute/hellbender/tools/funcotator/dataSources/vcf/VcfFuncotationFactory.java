@@ -73,8 +73,10 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
 
     /**
      * Cache for speed.  Please note that the cache is done on the reference.
+     * Each thread annotating variants gets its own cache, since {@link LRUCache} is not thread-safe.
      */
-    private final LRUCache<Triple<VariantContext, ReferenceContext, List<Feature>>, List<Funcotation>> cache = new LRUCache<>();
+    private final ThreadLocal<LRUCache<Triple<VariantContext, ReferenceContext, List<Feature>>, List<Funcotation>>> cache =
+            ThreadLocal.withInitial(LRUCache::new);
 
     /**
      * If the VCF has multiple lines with the same position, ref, and alt.
@@ -262,9 +264,11 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
 
         // TODO: Caching logic can be refactored and shared in other funcotation factories:  https://github.com/broadinstitute/gatk/issues/4974
         final Triple<VariantContext, ReferenceContext, List<Feature>> cacheKey = createCacheKey(variant, referenceContext, featureList);
-        final List<Funcotation> cacheResult = cache.get(cacheKey);
+        final List<Funcotation> cacheResult = cache.get().get(cacheKey);
         if (cacheResult != null) {
-            cacheHits++;
+            synchronized (this) {
+                cacheHits++;
+            }
             return cacheResult;
         }
 
@@ -313,8 +317,10 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
             }
             variant.getAlternateAlleles().forEach(a -> outputFuncotations.add(outputOrderedMap.computeIfAbsent(a, allele -> createDefaultFuncotation(allele))));
         }
-        cacheMisses++;
-        cache.put(cacheKey, outputFuncotations);
+        synchronized (this) {
+            cacheMisses++;
+        }
+        cache.get().put(cacheKey, outputFuncotations);
 
         // The output number of funcotations should equal to the variant.getAlternateAlleles().size()
         return outputFuncotations;
@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
+import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
@@ -14,8 +15,12 @@ import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.nio.NioFileCopierWithProgressMeter;
 import org.broadinstitute.hellbender.utils.nio.PathLineIterator;
 
+import java.io.File;
+import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -35,6 +40,8 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     //==================================================================================================================
     // Private Static Members:
 
+    private static final String LOCAL_XSV_INDEX_TMP_DIR_PREFIX = "localSimpleKeyXsvIndexFolder";
+
     //==================================================================================================================
     // Private Members:
 
@@ -85,6 +92,11 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
      */
     private final Map<String, List<String>> annotationMap;
 
+    /**
+     * Compiled index of the rows of our XSV file, or {@code null} if we read all the rows into {@link #annotationMap}.
+     */
+    private final SimpleKeyXsvIndex xsvIndex;
+
     //==================================================================================================================
     // Constructors:
 
@@ -122,6 +134,25 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
                                           final int numHeaderLinesToIgnore,
                                           final boolean permissiveColumns,
                                           final boolean isDataSourceB37) {
+        this(name, filePath, version, delim, keyColumn, keyType, annotationOverrides, numHeaderLinesToIgnore, permissiveColumns, isDataSourceB37, null);
+    }
+
+    /**
+     * @param xsvIndexPath {@link Path} to a {@link SimpleKeyXsvIndex} compiled from the file at {@code filePath}, or
+     *                     {@code null} to read the rows of that file into memory.  If given, the rows are looked up
+     *                     in the index and the file itself is not read.
+     */
+    public SimpleKeyXsvFuncotationFactory(final String name,
+                                          final Path filePath,
+                                          final String version,
+                                          final String delim,
+                                          final int keyColumn,
+                                          final XsvDataKeyType keyType,
+                                          final LinkedHashMap<String, String> annotationOverrides,
+                                          final int numHeaderLinesToIgnore,
+                                          final boolean permissiveColumns,
+                                          final boolean isDataSourceB37,
+                                          final Path xsvIndexPath) {
 
         this.name = name;
 
@@ -138,6 +169,29 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
 
         this.dataSourceIsB37 = isDataSourceB37;
 
+        if ( xsvIndexPath != null ) {
+            // The index has already parsed our file, so we need only check that it was parsed the way we would:
+            xsvIndex = SimpleKeyXsvIndex.open( localizeXsvIndex(xsvIndexPath) );
+            if ( !xsvIndex.getDelimiter().equals(delimiter) || (xsvIndex.getKeyColumn() != keyColumn) ||
+                    (xsvIndex.getKeyType() != keyType) || (xsvIndex.isPermissiveColumns() != permissiveColumns) ||
+                    (numHeaderLinesToIgnore != 0) ) {
+                throw new UserException.BadInput("Simple key XSV index " + xsvIndexPath.toUri() +
+                        " was not compiled with the settings of data source " + name +
+                        " (delimiter, key column, key type, permissive columns, and no header lines to ignore).  Please recompile it.");
+            }
+
+            annotationMap = Collections.emptyMap();
+            annotationColumnNames = xsvIndex.getColumnNames().stream()
+                    .map(this::formatColumnName)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            emptyAnnotationList = new ArrayList<>(Collections.nCopies(annotationColumnNames.size(), ""));
+
+            // Initialize overrides / defaults:
+            initializeAnnotationOverrides( annotationOverrides );
+            return;
+        }
+        xsvIndex = null;
+
         // Initialize our annotations map:
         annotationMap = new HashMap<>();
 
@@ -242,7 +296,7 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Get our annotations:
-            final List<String> annotations = annotationMap.get( key );
+            final List<String> annotations = (xsvIndex != null) ? xsvIndex.get( key ) : annotationMap.get( key );
             if ( annotations != null ) {
                 // Create 1 annotation for each alt allele and add our annotations to the list:
                 for ( final Allele altAllele : variant.getAlternateAlleles() ) {
@@ -266,6 +320,13 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
         return FuncotatorArgumentDefinitions.DataSourceType.SIMPLE_XSV;
     }
 
+    @Override
+    public void close() {
+        if ( xsvIndex != null ) {
+            xsvIndex.close();
+        }
+    }
+
     //==================================================================================================================
     // Static Methods:
 
@@ -303,8 +364,7 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
         // And fix the column headers to not contain any spaces:
         final List<String> annotationColumnNames =
                 Utils.split(lineIterator.next(), delimiter).stream()
-                        .map(n -> n.replaceAll("^\\s+", "").replaceAll("\\s+$", ""))
-                        .map(n -> getName() + "_" + n.replaceAll(" ", "_"))
+                        .map(this::formatColumnName)
                         .collect(Collectors.toCollection(ArrayList::new));
 
         // If the number of columns is < 2, we don't have any data (because we don't add in the column containing
@@ -319,6 +379,38 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
         return annotationColumnNames;
     }
 
+    /**
+     * @param rawColumnName The name of a column as it appears in the header of the XSV file.
+     * @return The name of the annotation for the given column (without surrounding whitespace or spaces, and prefixed with our name).
+     */
+    private String formatColumnName(final String rawColumnName) {
+        final String trimmedColumnName = rawColumnName.replaceAll("^\\s+", "").replaceAll("\\s+$", "");
+        return getName() + "_" + trimmedColumnName.replaceAll(" ", "_");
+    }
+
+    /**
+     * A {@link SimpleKeyXsvIndex} is memory-mapped, so it must be on the local file system.
+     * @param xsvIndexPath {@link Path} to a {@link SimpleKeyXsvIndex}.
+     * @return A {@link Path} to a local copy of the given index (or the index itself if it is already local).
+     */
+    private static Path localizeXsvIndex(final Path xsvIndexPath) {
+
+        // Is the path local or in the cloud:
+        if ( xsvIndexPath.getFileSystem().equals(FileSystems.getDefault()) ) {
+            return xsvIndexPath;
+        }
+
+        // Not a local path!  We must localize it!
+        final File tmpDir = IOUtils.createTempDir(LOCAL_XSV_INDEX_TMP_DIR_PREFIX);
+        tmpDir.deleteOnExit();
+        final Path localXsvIndexPath = tmpDir.toPath().resolve(xsvIndexPath.getFileName().toString());
+        localXsvIndexPath.toFile().deleteOnExit();
+
+        NioFileCopierWithProgressMeter.create(xsvIndexPath, localXsvIndexPath, true).initiateCopy();
+
+        return localXsvIndexPath;
+    }
+
     /**
      * Populates {@link SimpleKeyXsvFuncotationFactory#annotationMap} with data from the given iterator.
      * Assumes that {@link SimpleKeyXsvFuncotationFactory#annotationColumnNames} is populated.
@@ -330,59 +422,13 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     private void populateAnnotationMap(final Iterator<String> it,
                                        final boolean permissiveColumnNumbers) {
 
-        boolean emptyLineFlag = false;
-
-        int dataRowNum = numHeaderLinesToIgnore + 2;
-
-        // Parse the rest of the data:
-        while ( it.hasNext() ) {
-
-            final String rawRow = it.next();
-
-            // Check for an empty line.
-            // The only permissible place is at the end of the file.
-            if ( rawRow.length() == 0 ) {
-                if ( !emptyLineFlag ) {
-                    emptyLineFlag = true;
-                    continue;
-                }
-            }
-            if ( emptyLineFlag ) {
-                    throw new UserException.MalformedFile("File contains an empty line (" + dataRowNum + ").  All lines must have data.");
-            }
-
-            // The use of Utils.split is NECESSARY here because delimiter could potentially evaluate
-            // as a regular expression (as in the case of '|').
-            final List<String> dataRow = Utils.split(rawRow, delimiter);
-
-            // Remove the key column:
-            String rowKey = dataRow.remove(keyColumn);
-            if ( keyType == XsvDataKeyType.TRANSCRIPT_ID ) {
-                // If the key is a transcript ID, strip off the transcript version so that we don't consider it when
-                // matching on transcript ID:
-                rowKey = FuncotatorUtils.getTranscriptIdWithoutVersionNumber(rowKey);
-            }
-
-            // Make sure we have the same number of columns:
-            if ( (dataRow.size() != annotationColumnNames.size()) ) {
-                if ( !permissiveColumnNumbers ) {
-                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + annotationColumnNames.size() + ")!");
-                }
-                else if ( dataRow.size() > annotationColumnNames.size() ) {
-                    dataRow.remove(dataRow.size()-1);
-                }
-                else {
-                    while ( dataRow.size() < annotationColumnNames.size() ) {
-                        dataRow.add( "" );
-                    }
-                }
-            }
-
-            // Store this in our map:
-            annotationMap.put(rowKey, dataRow);
+        final SimpleKeyXsvRowIterator rowIterator = new SimpleKeyXsvRowIterator(it, xsvInputPath, delimiter, keyColumn,
+                keyType, annotationColumnNames.size(), permissiveColumnNumbers, numHeaderLinesToIgnore + 2);
 
-            // Increment our row counter:
-            ++dataRowNum;
+        // Store each row in our map:
+        while ( rowIterator.hasNext() ) {
+            final Pair<String, List<String>> row = rowIterator.next();
+            annotationMap.put(row.getKey(), row.getValue());
         }
     }
 
@@ -0,0 +1,472 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.nio.PathLineIterator;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compiled, memory-mapped index of the rows of a {@link SimpleKeyXsvFuncotationFactory} data file, sorted by key.
+ *
+ * {@link SimpleKeyXsvFuncotationFactory} normally reads its whole data file into a map at startup, which for large
+ * tables takes a lot of time and heap.  An index holds the same rows, already split into columns, in a binary file that
+ * the factory maps into memory:  a lookup binary-searches the sorted keys in the mapped file and decodes only the row
+ * it finds.  Opening an index reads only its header, so the memory used does not depend on the size of the data file.
+ *
+ * The file is laid out as:
+ * <ul>
+ *     <li>a header (a magic number, format version, and the settings the data file was parsed with:  its delimiter,
+ *     key column, key type, whether rows may have a different number of columns than the header, and column names),</li>
+ *     <li>a record for each row (its column values, without the key), in file order,</li>
+ *     <li>a record for each distinct key, in sorted order,</li>
+ *     <li>the directory:  for each key, in sorted order, the offset of its key record and of its row record,</li>
+ *     <li>and a trailer giving the offset of the directory and the number of keys.</li>
+ * </ul>
+ * As in the factory, a key that appears on more than one row gets the last of those rows.
+ * Records are laid out so that none straddles a {@link #SEGMENT_SIZE} boundary, so that each can be read from a
+ * single mapped segment.
+ */
+public final class SimpleKeyXsvIndex implements Closeable {
+
+    /** Standard Logger.  */
+    private static final Logger logger = LogManager.getLogger(SimpleKeyXsvIndex.class);
+
+    private static final byte[] MAGIC = "SKXSVIDX".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_OFFSET_MASK = SEGMENT_SIZE - 1;
+
+    /** Size of a directory entry:  the offsets of a key record and of a row record. */
+    private static final int DIRECTORY_ENTRY_SIZE = 2 * Long.BYTES;
+
+    private static final int TRAILER_SIZE = 2 * Long.BYTES;
+
+    private final Path indexPath;
+    private final String delimiter;
+    private final int keyColumn;
+    private final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType;
+    private final boolean permissiveColumns;
+    private final List<String> columnNames;
+
+    private final ByteBuffer[] segments;
+    private final long directoryOffset;
+    private final long nKeys;
+
+    //==================================================================================================================
+    // Constructors:
+
+    private SimpleKeyXsvIndex( final Path indexPath ) {
+        this.indexPath = indexPath;
+        try ( final FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ) ) {
+            final long fileSize = channel.size();
+            if ( fileSize < MAGIC.length + Integer.BYTES + TRAILER_SIZE ) {
+                throw new UserException.MalformedFile(indexPath, "File is too short to be a simple key XSV index.");
+            }
+
+            // Read the header:
+            final DataInputStream headerStream =
+                    new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            final byte[] magic = new byte[MAGIC.length];
+            headerStream.readFully(magic);
+            if ( !Arrays.equals(magic, MAGIC) ) {
+                throw new UserException.MalformedFile(indexPath, "File is not a simple key XSV index.");
+            }
+            final int formatVersion = headerStream.readInt();
+            if ( formatVersion != FORMAT_VERSION ) {
+                throw new UserException.MalformedFile(indexPath, "Simple key XSV index has format version " +
+                        formatVersion + ", but this version of GATK reads version " + FORMAT_VERSION +
+                        ".  Please recompile it.");
+            }
+            delimiter = headerStream.readUTF();
+            keyColumn = headerStream.readInt();
+            keyType = SimpleKeyXsvFuncotationFactory.XsvDataKeyType.valueOf(headerStream.readUTF());
+            permissiveColumns = headerStream.readBoolean();
+            final int nColumns = headerStream.readInt();
+            final List<String> columns = new ArrayList<>(nColumns);
+            for ( int columnNum = 0; columnNum != nColumns; ++columnNum ) {
+                columns.add(headerStream.readUTF());
+            }
+            columnNames = Collections.unmodifiableList(columns);
+
+            final ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            long trailerPosition = fileSize - TRAILER_SIZE;
+            while ( trailer.hasRemaining() ) {
+                final int nRead = channel.read(trailer, trailerPosition);
+                if ( nRead < 0 ) {
+                    throw new EOFException();
+                }
+                trailerPosition += nRead;
+            }
+            trailer.flip();
+            directoryOffset = trailer.getLong();
+            nKeys = trailer.getLong();
+
+            // Map everything but the trailer:
+            final long mappedSize = fileSize - TRAILER_SIZE;
+            final int nSegments = (int)((mappedSize + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            segments = new ByteBuffer[nSegments];
+            for ( int segment = 0; segment != nSegments; ++segment ) {
+                final long segmentStart = (long)segment << SEGMENT_BITS;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                        Math.min(SEGMENT_SIZE, mappedSize - segmentStart));
+            }
+        }
+        catch ( final IllegalArgumentException ex ) {
+            throw new UserException.MalformedFile(indexPath, "Simple key XSV index has an unknown key type.", ex);
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "Unable to read simple key XSV index.", ex);
+        }
+    }
+
+    /**
+     * Open a simple key XSV index created by {@link #compile}.
+     * @param indexPath {@link Path} to a simple key XSV index on the local file system.  Must not be {@code null}.
+     * @return The {@link SimpleKeyXsvIndex} in the given file.
+     */
+    public static SimpleKeyXsvIndex open( final Path indexPath ) {
+        Utils.nonNull(indexPath);
+        return new SimpleKeyXsvIndex(indexPath);
+    }
+
+    //==================================================================================================================
+    // Compiling:
+
+    /**
+     * Compile a simple key XSV index from an XSV data file.
+     * The data file is parsed by the same {@link SimpleKeyXsvRowIterator} as in {@link SimpleKeyXsvFuncotationFactory}.
+     * @param xsvPath {@link Path} to the XSV data file.  Must not be {@code null}.
+     * @param delimiter The delimiter between the columns of the data file.  Must not be {@code null}.
+     * @param keyColumn The column (0-based) containing the key of each row.
+     * @param keyType The type of the keys in {@code keyColumn}.  Must not be {@code null}.
+     * @param permissiveColumns If {@code true}, rows with more columns than the header are truncated, and rows with fewer are padded.
+     * @param outputPath {@link Path} to which to write the index.  Must not be {@code null}.
+     */
+    public static void compile( final Path xsvPath,
+                                final String delimiter,
+                                final int keyColumn,
+                                final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType,
+                                final boolean permissiveColumns,
+                                final Path outputPath ) {
+        Utils.nonNull(xsvPath);
+        Utils.nonNull(delimiter);
+        Utils.nonNull(keyType);
+        Utils.nonNull(outputPath);
+
+        try ( final PathLineIterator pathLineIterator = new PathLineIterator(xsvPath);
+              final IndexWriter writer = new IndexWriter(outputPath) ) {
+
+            final Iterator<String> it = pathLineIterator.iterator();
+            if ( !it.hasNext() ) {
+                throw new UserException.MalformedFile(xsvPath, "Data Source contains no header.");
+            }
+
+            final List<String> columnNames = Utils.split(it.next(), delimiter);
+            if ( columnNames.size() < 2 ) {
+                throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvPath.toUri().toString() + ") - contains too few columns (" + columnNames.size() + ")!  Is the delimiter specified incorrectly?");
+            }
+            if ( (keyColumn < 0) || (keyColumn >= columnNames.size()) ) {
+                throw new UserException.BadInput("Key column " + keyColumn + " is not one of the " + columnNames.size() + " columns of " + xsvPath.toUri());
+            }
+            columnNames.remove(keyColumn);
+            writer.writeHeader(delimiter, keyColumn, keyType, permissiveColumns, columnNames);
+
+            // Write the rows, keeping track of the last row for each key:
+            final Map<String, Long> rowOffsets = new HashMap<>();
+            final SimpleKeyXsvRowIterator rowIterator = new SimpleKeyXsvRowIterator(it, xsvPath, delimiter, keyColumn,
+                    keyType, columnNames.size(), permissiveColumns, 2);
+            long nRows = 0;
+            while ( rowIterator.hasNext() ) {
+                final Pair<String, List<String>> row = rowIterator.next();
+                rowOffsets.put(row.getKey(), writer.writeRow(row.getValue()));
+                ++nRows;
+            }
+
+            writer.writeKeysAndDirectory(rowOffsets);
+            logger.info("Indexed " + nRows + " rows with " + rowOffsets.size() + " distinct keys into " + outputPath.toUri());
+        }
+        catch ( final IOException ex ) {
+            throw new UserException.CouldNotCreateOutputFile("Unable to write simple key XSV index to " + outputPath.toUri(), ex);
+        }
+    }
+
+    //==================================================================================================================
+    // Queries:
+
+    /**
+     * @return The delimiter of the data file this index was compiled from.
+     */
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * @return The column (0-based) of the data file containing the keys.
+     */
+    public int getKeyColumn() {
+        return keyColumn;
+    }
+
+    /**
+     * @return The type of the keys.
+     */
+    public SimpleKeyXsvFuncotationFactory.XsvDataKeyType getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * @return Whether rows of the data file with a different number of columns than its header were padded or truncated.
+     */
+    public boolean isPermissiveColumns() {
+        return permissiveColumns;
+    }
+
+    /**
+     * @return The names of the columns of the data file (as they appear in its header), without the key column.
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * @return The number of distinct keys in this index.
+     */
+    public long getNKeys() {
+        return nKeys;
+    }
+
+    /**
+     * Get the row for a key.  This method is thread-safe.
+     * @param key The key to look up (for {@link SimpleKeyXsvFuncotationFactory.XsvDataKeyType#TRANSCRIPT_ID} keys,
+     *            without the version number).  Must not be {@code null}.
+     * @return The values in the columns given by {@link #getColumnNames()} of the row with the given key, or {@code null} if there is no such row.
+     */
+    public List<String> get( final String key ) {
+        Utils.nonNull(key);
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        long low = 0;
+        long high = nKeys - 1;
+        while ( low <= high ) {
+            final long mid = (low + high) >>> 1;
+            final ByteBuffer entry = getRecord(directoryOffset + mid * DIRECTORY_ENTRY_SIZE);
+            final long keyOffset = entry.getLong();
+            final long rowOffset = entry.getLong();
+
+            final int cmp = compareKey(getRecord(keyOffset), keyBytes);
+            if ( cmp < 0 ) {
+                low = mid + 1;
+            }
+            else if ( cmp > 0 ) {
+                high = mid - 1;
+            }
+            else {
+                return readRow(getRecord(rowOffset));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // There's no way to unmap the segments, but they'll be released when they're garbage collected.
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleKeyXsvIndex(" + indexPath.toUri() + ")";
+    }
+
+    //==================================================================================================================
+    // Private Methods:
+
+    /** @return A buffer positioned at the start of the record at the given offset. */
+    private ByteBuffer getRecord( final long offset ) {
+        final ByteBuffer record = segments[(int)(offset >>> SEGMENT_BITS)].duplicate();
+        record.position((int)(offset & SEGMENT_OFFSET_MASK));
+        return record;
+    }
+
+    /** Compares the key in the given key record to the given key, as unsigned bytes. */
+    private static int compareKey( final ByteBuffer keyRecord, final byte[] key ) {
+        final int keyLength = readVarInt(keyRecord);
+        final int commonLength = Math.min(keyLength, key.length);
+        for ( int i = 0; i < commonLength; ++i ) {
+            final int cmp = Integer.compare(keyRecord.get() & 0xFF, key[i] & 0xFF);
+            if ( cmp != 0 ) {
+                return cmp;
+            }
+        }
+        return Integer.compare(keyLength, key.length);
+    }
+
+    private static List<String> readRow( final ByteBuffer rowRecord ) {
+        final int nValues = readVarInt(rowRecord);
+        final List<String> values = new ArrayList<>(nValues);
+        for ( int valueNum = 0; valueNum != nValues; ++valueNum ) {
+            final int length = readVarInt(rowRecord);
+            final byte[] bytes = new byte[length];
+            rowRecord.get(bytes);
+            values.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static int compareUnsigned( final byte[] lhs, final byte[] rhs ) {
+        final int commonLength = Math.min(lhs.length, rhs.length);
+        for ( int i = 0; i < commonLength; ++i ) {
+            final int cmp = Integer.compare(lhs[i] & 0xFF, rhs[i] & 0xFF);
+            if ( cmp != 0 ) {
+                return cmp;
+            }
+        }
+        return Integer.compare(lhs.length, rhs.length);
+    }
+
+    //==================================================================================================================
+    // Variable-length ints (lengths and counts, so never negative):
+
+    private static void writeVarInt( final DataOutput out, final int value ) throws IOException {
+        int bits = value;
+        while ( (bits & ~0x7F) != 0 ) {
+            out.writeByte((bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        out.writeByte(bits);
+    }
+
+    private static int readVarInt( final ByteBuffer in ) {
+        int bits = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            bits |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ( b < 0 );
+        return bits;
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /** Writes an index, keeping track of the position in the file so that it can record the offsets of its records. */
+    private static final class IndexWriter implements Closeable {
+        private final DataOutputStream out;
+        private long position = 0;
+
+        IndexWriter( final Path outputPath ) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath)));
+        }
+
+        void writeHeader( final String delimiter,
+                          final int keyColumn,
+                          final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType,
+                          final boolean permissiveColumns,
+                          final List<String> columnNames ) throws IOException {
+            final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            final DataOutputStream header = new DataOutputStream(headerBytes);
+            header.write(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeUTF(delimiter);
+            header.writeInt(keyColumn);
+            header.writeUTF(keyType.name());
+            header.writeBoolean(permissiveColumns);
+            header.writeInt(columnNames.size());
+            for ( final String columnName : columnNames ) {
+                header.writeUTF(columnName);
+            }
+            header.flush();
+            writeRecord(headerBytes.toByteArray());
+        }
+
+        long writeRow( final List<String> values ) throws IOException {
+            final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+            final DataOutputStream record = new DataOutputStream(recordBytes);
+            writeVarInt(record, values.size());
+            for ( final String value : values ) {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(record, bytes.length);
+                record.write(bytes);
+            }
+            record.flush();
+            return writeRecord(recordBytes.toByteArray());
+        }
+
+        void writeKeysAndDirectory( final Map<String, Long> rowOffsets ) throws IOException {
+            final List<byte[]> keys = new ArrayList<>(rowOffsets.size());
+            final Map<byte[], Long> keyRowOffsets = new IdentityHashMap<>(rowOffsets.size());
+            for ( final Map.Entry<String, Long> entry : rowOffsets.entrySet() ) {
+                final byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                keys.add(key);
+                keyRowOffsets.put(key, entry.getValue());
+            }
+            keys.sort(SimpleKeyXsvIndex::compareUnsigned);
+
+            // Write the keys:
+            final long[] keyOffsets = new long[keys.size()];
+            for ( int keyNum = 0; keyNum != keys.size(); ++keyNum ) {
+                final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+                final DataOutputStream record = new DataOutputStream(recordBytes);
+                writeVarInt(record, keys.get(keyNum).length);
+                record.write(keys.get(keyNum));
+                record.flush();
+                keyOffsets[keyNum] = writeRecord(recordBytes.toByteArray());
+            }
+
+            // Align the directory so that no entry straddles a segment boundary:
+            while ( position % DIRECTORY_ENTRY_SIZE != 0 ) {
+                out.writeByte(0);
+                ++position;
+            }
+            final long directoryOffset = position;
+            for ( int keyNum = 0; keyNum != keys.size(); ++keyNum ) {
+                out.writeLong(keyOffsets[keyNum]);
+                out.writeLong(keyRowOffsets.get(keys.get(keyNum)));
+                position += DIRECTORY_ENTRY_SIZE;
+            }
+
+            out.writeLong(directoryOffset);
+            out.writeLong(keys.size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        /** Writes a record, padding first if necessary so that it doesn't straddle a segment boundary. */
+        private long writeRecord( final byte[] record ) throws IOException {
+            if ( record.length > SEGMENT_SIZE ) {
+                throw new GATKException("Simple key XSV index record is too large: " + record.length + " bytes");
+            }
+            final long segmentOffset = position & SEGMENT_OFFSET_MASK;
+            if ( segmentOffset + record.length > SEGMENT_SIZE ) {
+                final long padding = SEGMENT_SIZE - segmentOffset;
+                for ( long padNum = 0; padNum != padding; ++padNum ) {
+                    out.writeByte(0);
+                }
+                position += padding;
+            }
+            final long offset = position;
+            out.write(record);
+            position += record.length;
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses the data rows of a simple key XSV file into a key and the values of the other columns.
+ * This is the one place that rows are parsed, both by {@link SimpleKeyXsvFuncotationFactory} when it reads a data file
+ * into memory and by {@link SimpleKeyXsvIndex} when it compiles one, so that both see exactly the same rows.
+ */
+final class SimpleKeyXsvRowIterator implements Iterator<Pair<String, List<String>>> {
+
+    private final Iterator<String> lineIterator;
+    private final Path xsvPath;
+    private final String delimiter;
+    private final int keyColumn;
+    private final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType;
+    private final int nColumns;
+    private final boolean permissiveColumns;
+
+    /** The row number (1-based, counting from the start of the file) of the next line. */
+    private int dataRowNum;
+
+    private Pair<String, List<String>> nextRow;
+
+    /**
+     * @param lineIterator An {@link Iterator} of the lines of the data file, starting at the first data row.  Must not be {@code null}.
+     * @param xsvPath {@link Path} to the data file, for error messages.  Must not be {@code null}.
+     * @param delimiter The delimiter between the columns of the data file.  Must not be {@code null}.
+     * @param keyColumn The column (0-based) containing the key of each row.
+     * @param keyType The type of the keys in {@code keyColumn}.  Must not be {@code null}.
+     * @param nColumns The number of columns in the header, without the key column.
+     * @param permissiveColumns A flag which if true indicates to allow mismatches between the number of columns in the header row and data rows.
+     *                          In the event of a mismatch, the data row with either be padded to the number of columns in the header
+     *                          or it will be truncated to match the number of columns in the header.
+     * @param firstDataRowNum The row number (1-based, counting from the start of the file) of the first data row.
+     */
+    SimpleKeyXsvRowIterator(final Iterator<String> lineIterator,
+                            final Path xsvPath,
+                            final String delimiter,
+                            final int keyColumn,
+                            final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType,
+                            final int nColumns,
+                            final boolean permissiveColumns,
+                            final int firstDataRowNum) {
+        this.lineIterator = Utils.nonNull(lineIterator);
+        this.xsvPath = Utils.nonNull(xsvPath);
+        this.delimiter = Utils.nonNull(delimiter);
+        this.keyColumn = keyColumn;
+        this.keyType = Utils.nonNull(keyType);
+        this.nColumns = nColumns;
+        this.permissiveColumns = permissiveColumns;
+        this.dataRowNum = firstDataRowNum;
+        nextRow = parseNextRow();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextRow != null;
+    }
+
+    /**
+     * @return The key of the next row (for {@link SimpleKeyXsvFuncotationFactory.XsvDataKeyType#TRANSCRIPT_ID} keys,
+     *         without the version number), and the values in the other columns of that row.
+     */
+    @Override
+    public Pair<String, List<String>> next() {
+        if ( nextRow == null ) {
+            throw new NoSuchElementException("No more rows in " + xsvPath.toUri());
+        }
+        final Pair<String, List<String>> row = nextRow;
+        nextRow = parseNextRow();
+        return row;
+    }
+
+    private Pair<String, List<String>> parseNextRow() {
+        boolean emptyLineFlag = false;
+
+        while ( lineIterator.hasNext() ) {
+
+            final String rawRow = lineIterator.next();
+
+            // Check for an empty line.
+            // The only permissible place is at the end of the file.
+            if ( rawRow.length() == 0 ) {
+                if ( !emptyLineFlag ) {
+                    emptyLineFlag = true;
+                    continue;
+                }
+            }
+            if ( emptyLineFlag ) {
+                throw new UserException.MalformedFile("File contains an empty line (" + dataRowNum + ").  All lines must have data.");
+            }
+
+            // The use of Utils.split is NECESSARY here because delimiter could potentially evaluate
+            // as a regular expression (as in the case of '|').
+            final List<String> dataRow = Utils.split(rawRow, delimiter);
+
+            // Remove the key column:
+            String rowKey = dataRow.remove(keyColumn);
+            if ( keyType == SimpleKeyXsvFuncotationFactory.XsvDataKeyType.TRANSCRIPT_ID ) {
+                // If the key is a transcript ID, strip off the transcript version so that we don't consider it when
+                // matching on transcript ID:
+                rowKey = FuncotatorUtils.getTranscriptIdWithoutVersionNumber(rowKey);
+            }
+
+            // Make sure we have the same number of columns:
+            if ( dataRow.size() != nColumns ) {
+                if ( !permissiveColumns ) {
+                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + nColumns + ")!");
+                }
+                else if ( dataRow.size() > nColumns ) {
+                    dataRow.remove(dataRow.size()-1);
+                }
+                else {
+                    while ( dataRow.size() < nColumns ) {
+                        dataRow.add( "" );
+                    }
+                }
+            }
+
+            ++dataRowNum;
+            return Pair.of(rowKey, dataRow);
+        }
+        return null;
+    }
+}
@@ -92,6 +92,30 @@ public class MafOutputRenderer extends OutputRenderer {
         MafOutputRendererConstants.VariantClassificationMap.get(GencodeFuncotation.VariantClassification.LINCRNA.toString())
     ));
 
+    /**
+     * The fields that are changed for INDELs by {@link #adjustIndelAlleleInformationForMafOutput(String[])}, in the
+     * order in which that method expects them.
+     */
+    private static final List<String> INDEL_ADJUSTMENT_FIELDS = Arrays.asList(
+            MafOutputRendererConstants.FieldName_Variant_Type,
+            MafOutputRendererConstants.FieldName_Reference_Allele,
+            MafOutputRendererConstants.FieldName_Tumor_Seq_Allele1,
+            MafOutputRendererConstants.FieldName_Tumor_Seq_Allele2,
+            MafOutputRendererConstants.FieldName_Start_Position,
+            MafOutputRendererConstants.FieldName_End_Position
+    );
+    private static final int INDEL_VARIANT_TYPE     = 0;
+    private static final int INDEL_REF_ALLELE       = 1;
+    private static final int INDEL_TUMOR_ALLELE_1   = 2;
+    private static final int INDEL_TUMOR_ALLELE_2   = 3;
+    private static final int INDEL_START_POSITION   = 4;
+    private static final int INDEL_END_POSITION     = 5;
+
+    /**
+     * The maximum number of {@link MafRowLayout}s to keep.  Rows only have a few different layouts in practice.
+     */
+    private static final int MAX_ROW_LAYOUTS = 1000;
+
     //==================================================================================================================
     // Private Members:
 
@@ -148,6 +172,18 @@ public class MafOutputRenderer extends OutputRenderer {
     /** Fields that should be removed in the final MAF file. */
     private final Set<String> excludedOutputFields;
 
+    /**
+     * The {@link MafRowLayout}s of the rows written so far, keyed by the names of the funcotation fields (in order)
+     * from which each row was made.
+     */
+    private final Map<List<String>, MafRowLayout> rowLayouts = new HashMap<>();
+
+    /** Buffer into which each row is rendered before it is written. */
+    private final StringBuilder rowBuffer = new StringBuilder();
+
+    /** Characters of {@link #rowBuffer} to be written to {@link #writer}. */
+    private char[] rowChars = new char[0];
+
     //==================================================================================================================
     // Constructors:
 
@@ -287,10 +323,8 @@ public class MafOutputRenderer extends OutputRenderer {
     @Override
     public void close() {
         if (!hasWrittenHeader) {
-            // The alt allele can be anything here.  We just need to write the header, not any actual funcotations.
-            final String dummyAltAllele = "AT";
-            final LinkedHashMap<String, String> dummyMafCompliantOutputMap = createMafCompliantOutputMap(Allele.create(dummyAltAllele), Collections.emptyList());
-            writeHeader(new ArrayList<>(dummyMafCompliantOutputMap.keySet()));
+            // There are no funcotations here.  We just need to write the header.
+            writeHeader(getMafRowLayout(Collections.emptyList()).getOutputColumnNames());
         }
         if ( writer != null ) {
             try {
@@ -333,22 +367,32 @@ public class MafOutputRenderer extends OutputRenderer {
 
             for (final String txId : txToFuncotationMap.getTranscriptList()) {
 
-                final List<Funcotation> funcotations = txToFuncotationMap.get(txId);
-                final LinkedHashMap<String, String> mafCompliantOutputMap = createMafCompliantOutputMap(altAllele, funcotations);
+                // Get the fields of our funcotations for this allele:
+                final List<String> fieldNames = new ArrayList<>();
+                final List<String> fieldValues = new ArrayList<>();
+                for (final Funcotation funcotation : txToFuncotationMap.get(txId)) {
+                    if (funcotation.getAltAllele().equals(altAllele)) {
+                        for (final String field : funcotation.getFieldNames()) {
+                            final String value = funcotation.getField(field);
+                            fieldNames.add(field);
+                            fieldValues.add(value != null ? value : MafOutputRendererConstants.UNKNOWN_VALUE_STRING);
+                        }
+                    }
+                }
+
+                final MafRowLayout rowLayout = getMafRowLayout(fieldNames);
 
                 // Write our header if we have to:
                 if (!hasWrittenHeader) {
-                    // Please note that we are implicitly using the ordering of a LinkedHashMap under the hood.
-                    writeHeader(new ArrayList<>(mafCompliantOutputMap.keySet()));
+                    writeHeader(rowLayout.getOutputColumnNames());
                 }
 
                 try {
                     // Write the output (with manual annotations at the end):
-                    for (final Map.Entry<String, String> entry : mafCompliantOutputMap.entrySet()) {
-                        writeString(entry.getValue());
-                        writeString(MafOutputRendererConstants.FIELD_DELIMITER);
-                    }
-                    writeLine("");
+                    rowBuffer.setLength(0);
+                    rowLayout.renderRow(fieldValues, rowBuffer);
+                    rowBuffer.append(System.lineSeparator());
+                    writeRowBuffer();
                 } catch (IOException e){
                     throw new UserException.CouldNotCreateOutputFile("Error while writing maf file, cause by: " + e.getMessage(), e);
                 }
@@ -358,8 +402,6 @@ public class MafOutputRenderer extends OutputRenderer {
 
     @VisibleForTesting
     LinkedHashMap<String, String> createMafCompliantOutputMap(final Allele altAllele, final List<Funcotation> funcotations) {
-        // Create our output maps:
-        final LinkedHashMap<String, Object> outputMap = new LinkedHashMap<>(defaultMap);
         final LinkedHashMap<String, Object> extraFieldOutputMap = new LinkedHashMap<>();
 
         // Get our funcotations for this allele and add them to the output maps:
@@ -372,6 +414,36 @@ public class MafOutputRenderer extends OutputRenderer {
             }
         }
 
+        final LinkedHashMap<String, Object> outputMap = createOutputMap(extraFieldOutputMap);
+
+        // Now translate fields/values to the field names/values that MAF likes:
+        final LinkedHashMap<String, String> mafCompliantMap = replaceFuncotationValuesWithMafCompliantValues(outputMap);
+
+        // Remove any fields that are excluded and sanitize any field values.
+        return mafCompliantMap.keySet().stream()
+            .filter(k -> !excludedOutputFields.contains(k))
+            .collect(Collectors.toMap(
+                    Function.identity(), k -> FuncotatorUtils.sanitizeFuncotationFieldForMaf(mafCompliantMap.get(k)),
+                    (u, v) -> {
+                        throw new GATKException.ShouldNeverReachHereException("Found duplicate keys for MAF output");
+                        },
+                    LinkedHashMap::new));
+    }
+
+    //==================================================================================================================
+    // Instance Methods:
+
+    /**
+     * Put the given funcotation fields into the output columns, in the order in which they are written.
+     * Funcotation fields are moved to the output columns they are aliased to (see {@link #outputFieldNameMap}), and
+     * those that are not aliased are added after the default columns.
+     * @param extraFieldOutputMap {@link LinkedHashMap} of funcotation field names to values.  Will be modified.
+     * @return A {@link LinkedHashMap} of output columns to the values (not yet MAF-compliant) to write in them.
+     */
+    private LinkedHashMap<String, Object> createOutputMap(final LinkedHashMap<String, Object> extraFieldOutputMap) {
+        // Create our output map:
+        final LinkedHashMap<String, Object> outputMap = new LinkedHashMap<>(defaultMap);
+
         // Now add in our annotation overrides so they can be aliased correctly with the outputFieldNameMap:
         extraFieldOutputMap.putAll(overrideAnnotations);
 
@@ -389,23 +461,46 @@ public class MafOutputRenderer extends OutputRenderer {
 
         // Merge our output maps together:
         outputMap.putAll(extraFieldOutputMap);
+        return outputMap;
+    }
 
-        // Now translate fields/values to the field names/values that MAF likes:
-        final LinkedHashMap<String, String> mafCompliantMap = replaceFuncotationValuesWithMafCompliantValues(outputMap);
+    /**
+     * Get the {@link MafRowLayout} for rows made from funcotations with the given field names, creating it if this is
+     * the first such row.
+     * @param fieldNames The names of the fields of the funcotations from which the row is made, in order.
+     * @return The {@link MafRowLayout} for the given {@code fieldNames}.
+     */
+    private MafRowLayout getMafRowLayout(final List<String> fieldNames) {
+        MafRowLayout rowLayout = rowLayouts.get(fieldNames);
+        if ( rowLayout == null ) {
+            if ( rowLayouts.size() >= MAX_ROW_LAYOUTS ) {
+                rowLayouts.clear();
+            }
 
-        // Remove any fields that are excluded and sanitize any field values.
-        return mafCompliantMap.keySet().stream()
-            .filter(k -> !excludedOutputFields.contains(k))
-            .collect(Collectors.toMap(
-                    Function.identity(), k -> FuncotatorUtils.sanitizeFuncotationFieldForMaf(mafCompliantMap.get(k)),
-                    (u, v) -> {
-                        throw new GATKException.ShouldNeverReachHereException("Found duplicate keys for MAF output");
-                        },
-                    LinkedHashMap::new));
+            // Lay out the row with the index of each field in place of its value:
+            final LinkedHashMap<String, Object> extraFieldOutputMap = new LinkedHashMap<>();
+            for ( int i = 0; i < fieldNames.size(); ++i ) {
+                extraFieldOutputMap.put(fieldNames.get(i), i);
+            }
+            rowLayout = new MafRowLayout(createOutputMap(extraFieldOutputMap));
+            rowLayouts.put(fieldNames, rowLayout);
+        }
+        return rowLayout;
     }
 
-    //==================================================================================================================
-    // Instance Methods:
+    /**
+     * Transforms the given {@code value} for the given output column into its MAF-compliant value.
+     * @param key The name of the output column.
+     * @param value The value to transform.
+     * @return The MAF-compliant value for the given {@code key}.
+     */
+    private String mafCompliantValue(final String key, final String value) {
+        final String transformedValue = mafTransform(key, value, referenceVersion);
+        if ( key.equals(MafOutputRendererConstants.FieldName_Other_Transcripts) ) {
+            return transformedValue.replaceAll(VcfOutputRenderer.OTHER_TRANSCRIPT_DELIMITER, MafOutputRendererConstants.OTHER_TRANSCRIPT_DELIMITER);
+        }
+        return transformedValue;
+    }
 
     /**
      * @return The {@link #defaultMap} with currently populated fields.
@@ -425,17 +520,9 @@ public class MafOutputRenderer extends OutputRenderer {
 
         final LinkedHashMap<String, String> finalOutMap = new LinkedHashMap<>(outputMap.size());
 
-        // Massage individual Key/Value pairs:
+        // Massage individual Key/Value pairs (including the OtherTranscripts field):
         for ( final String key : outputMap.keySet() ) {
-            finalOutMap.put(key, mafTransform(key, outputMap.get(key).toString(), referenceVersion) );
-        }
-
-        // Massage the OtherTranscripts field:
-        if ( finalOutMap.containsKey(MafOutputRendererConstants.FieldName_Other_Transcripts) ) {
-            finalOutMap.put(
-                    MafOutputRendererConstants.FieldName_Other_Transcripts, finalOutMap.get(MafOutputRendererConstants.FieldName_Other_Transcripts)
-                            .replaceAll(VcfOutputRenderer.OTHER_TRANSCRIPT_DELIMITER, MafOutputRendererConstants.OTHER_TRANSCRIPT_DELIMITER)
-            );
+            finalOutMap.put(key, mafCompliantValue(key, outputMap.get(key).toString()) );
         }
 
         // Fix the alleles in the case of INDELS:
@@ -451,14 +538,31 @@ public class MafOutputRenderer extends OutputRenderer {
      */
     @VisibleForTesting
     void adjustIndelAlleleInformationForMafOutput(final LinkedHashMap<String, String> outputMap) {
+        if ( outputMap.containsKey(MafOutputRendererConstants.FieldName_Variant_Type) ) {
+            final String[] alleleInformation = INDEL_ADJUSTMENT_FIELDS.stream().map(outputMap::get).toArray(String[]::new);
+            if ( adjustIndelAlleleInformationForMafOutput(alleleInformation) ) {
+                for ( int i = 0; i < alleleInformation.length; ++i ) {
+                    outputMap.put(INDEL_ADJUSTMENT_FIELDS.get(i), alleleInformation[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes the given allele information to MAF-correct values if it is for an INDEL.
+     * NOTE: The given array is modified in place.
+     * @param alleleInformation The values of the {@link #INDEL_ADJUSTMENT_FIELDS}, in that order.
+     * @return {@code true} if the given {@code alleleInformation} was changed.
+     */
+    private static boolean adjustIndelAlleleInformationForMafOutput(final String[] alleleInformation) {
         // Massage the start/end/alleles in the case of INDELs
         // (Because MAF has different conventions from VCF for start/end positions of INDELs)
-        if ( outputMap.containsKey(MafOutputRendererConstants.FieldName_Variant_Type) &&
-            (outputMap.get(MafOutputRendererConstants.FieldName_Variant_Type).equals(MafOutputRendererConstants.FieldValue_Variant_Type_Insertion) ||
-             outputMap.get(MafOutputRendererConstants.FieldName_Variant_Type).equals(MafOutputRendererConstants.FieldValue_Variant_Type_Deletion)) ) {
+        if ( alleleInformation[INDEL_VARIANT_TYPE] != null &&
+            (alleleInformation[INDEL_VARIANT_TYPE].equals(MafOutputRendererConstants.FieldValue_Variant_Type_Insertion) ||
+             alleleInformation[INDEL_VARIANT_TYPE].equals(MafOutputRendererConstants.FieldValue_Variant_Type_Deletion)) ) {
 
-            final int refAlleleLength = outputMap.get(MafOutputRendererConstants.FieldName_Reference_Allele).length();
-            final int altAlleleLength = outputMap.get(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele2).length();
+            final int refAlleleLength = alleleInformation[INDEL_REF_ALLELE].length();
+            final int altAlleleLength = alleleInformation[INDEL_TUMOR_ALLELE_2].length();
 
             // TODO: port these changes to GencodeFuncotationFactory (issue: https://github.com/broadinstitute/gatk/issues/4378)
             // Check to see if it's an insertion:
@@ -468,10 +572,11 @@ public class MafOutputRenderer extends OutputRenderer {
                 //    Replace the ref_allele with "-"
                 //    Replace the Tumor_Seq_Allele1 with "-"
                 //    Set the End_Position to be Start_Position + 1 (All Insertions should have length 1 to represent the bases between which the insertion occurs).
-                outputMap.put(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele2, outputMap.get(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele2).substring(refAlleleLength));
-                outputMap.put(MafOutputRendererConstants.FieldName_Reference_Allele,  MafOutputRendererConstants.EmptyAllele);
-                outputMap.put(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele1, MafOutputRendererConstants.EmptyAllele);
-                outputMap.put(MafOutputRendererConstants.FieldName_End_Position, String.valueOf(Integer.valueOf(outputMap.get(MafOutputRendererConstants.FieldName_Start_Position)) + 1));
+                alleleInformation[INDEL_TUMOR_ALLELE_2] = alleleInformation[INDEL_TUMOR_ALLELE_2].substring(refAlleleLength);
+                alleleInformation[INDEL_REF_ALLELE]     = MafOutputRendererConstants.EmptyAllele;
+                alleleInformation[INDEL_TUMOR_ALLELE_1] = MafOutputRendererConstants.EmptyAllele;
+                alleleInformation[INDEL_END_POSITION]   = String.valueOf(Integer.valueOf(alleleInformation[INDEL_START_POSITION]) + 1);
+                return true;
             }
             // Check to see if it's a deletion:
             else if ( refAlleleLength > altAlleleLength ) {
@@ -481,18 +586,20 @@ public class MafOutputRenderer extends OutputRenderer {
                 //    Replace the alt_allele with "-"
                 //    Increment the Start_Position by 1 (start position should be inclusive of the first base deleted)
                 //    Set the End_Position to Start_Position + M - 2, where M = length(ref_allele) (end position should be inclusive of the last base deleted, explanation below)
-                outputMap.put(MafOutputRendererConstants.FieldName_Reference_Allele,  outputMap.get(MafOutputRendererConstants.FieldName_Reference_Allele).substring(altAlleleLength));
-                outputMap.put(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele1, outputMap.get(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele1).substring(altAlleleLength));
-                outputMap.put(MafOutputRendererConstants.FieldName_Tumor_Seq_Allele2, MafOutputRendererConstants.EmptyAllele);
-                outputMap.put(MafOutputRendererConstants.FieldName_Start_Position, String.valueOf(Integer.valueOf(outputMap.get(MafOutputRendererConstants.FieldName_Start_Position)) + 1));
+                alleleInformation[INDEL_REF_ALLELE]     = alleleInformation[INDEL_REF_ALLELE].substring(altAlleleLength);
+                alleleInformation[INDEL_TUMOR_ALLELE_1] = alleleInformation[INDEL_TUMOR_ALLELE_1].substring(altAlleleLength);
+                alleleInformation[INDEL_TUMOR_ALLELE_2] = MafOutputRendererConstants.EmptyAllele;
+                alleleInformation[INDEL_START_POSITION] = String.valueOf(Integer.valueOf(alleleInformation[INDEL_START_POSITION]) + 1);
 
                 // Use the new start position we just calculated for this end position.
                 // Then subtract 2 from ref allele length:
                 //    -1 for the removed first base
                 //    -1 for the inclusive nature of positions
-                outputMap.put(MafOutputRendererConstants.FieldName_End_Position, String.valueOf(Integer.valueOf(outputMap.get(MafOutputRendererConstants.FieldName_Start_Position)) + refAlleleLength - 2));
+                alleleInformation[INDEL_END_POSITION]   = String.valueOf(Integer.valueOf(alleleInformation[INDEL_START_POSITION]) + refAlleleLength - 2);
+                return true;
             }
         }
+        return false;
     }
 
     /**
@@ -626,6 +733,17 @@ public class MafOutputRenderer extends OutputRenderer {
         writer.write(s);
     }
 
+    /**
+     * Write the contents of {@link #rowBuffer} to the {@link #writer}.
+     */
+    private void writeRowBuffer() throws IOException {
+        if ( rowChars.length < rowBuffer.length() ) {
+            rowChars = new char[Math.max(rowBuffer.length(), 2 * rowChars.length)];
+        }
+        rowBuffer.getChars(0, rowBuffer.length(), rowChars, 0);
+        writer.write(rowChars, 0, rowBuffer.length());
+    }
+
     /**
      * Write the header to the output file.
      * @param outputFields Ordered list of the header columns.  These will be written as presented.
@@ -879,6 +997,106 @@ public class MafOutputRenderer extends OutputRenderer {
     //==================================================================================================================
     // Helper Data Types:
 
+    /**
+     * The layout of the rows of the MAF file that are made from funcotations with the same field names, worked out
+     * once so that each row can be rendered straight from the field values, without building maps of the output columns.
+     * Rows rendered by a {@link MafRowLayout} are the same as those given by {@link #createMafCompliantOutputMap}.
+     */
+    private final class MafRowLayout {
+
+        /** The names of all output columns (including excluded columns), in order. */
+        private final String[] columnNames;
+
+        /** For each output column, the index of the funcotation field from which its value comes, or -1 if it has a fixed value. */
+        private final int[] fieldIndices;
+
+        /** For each output column with a fixed value, its MAF-compliant value. */
+        private final String[] fixedValues;
+
+        /** For each output column, whether it is excluded from the output. */
+        private final boolean[] isExcluded;
+
+        /** The indices in {@link #columnNames} of the {@link #INDEL_ADJUSTMENT_FIELDS}, or -1 for missing fields. */
+        private final int[] indelAdjustmentColumns;
+
+        /** The names of the output columns that are written. */
+        private final List<String> outputColumnNames = new ArrayList<>();
+
+        /** The values of the current row, reused across rows. */
+        private final String[] rowValues;
+        private final String[] alleleInformation = new String[INDEL_ADJUSTMENT_FIELDS.size()];
+
+        /**
+         * @param outputMap {@link LinkedHashMap} of the output columns to either the index of the funcotation field
+         *                  ({@link Integer}) or the fixed value ({@link String}) for each column.
+         */
+        MafRowLayout(final LinkedHashMap<String, Object> outputMap) {
+            columnNames = outputMap.keySet().toArray(new String[0]);
+            fieldIndices = new int[columnNames.length];
+            fixedValues = new String[columnNames.length];
+            isExcluded = new boolean[columnNames.length];
+            rowValues = new String[columnNames.length];
+
+            for ( int i = 0; i < columnNames.length; ++i ) {
+                final Object value = outputMap.get(columnNames[i]);
+                if ( value instanceof Integer ) {
+                    fieldIndices[i] = (Integer) value;
+                }
+                else {
+                    fieldIndices[i] = -1;
+                    fixedValues[i] = mafCompliantValue(columnNames[i], value.toString());
+                }
+
+                isExcluded[i] = excludedOutputFields.contains(columnNames[i]);
+                if ( !isExcluded[i] ) {
+                    outputColumnNames.add(columnNames[i]);
+                }
+            }
+
+            final List<String> columnNameList = Arrays.asList(columnNames);
+            indelAdjustmentColumns = INDEL_ADJUSTMENT_FIELDS.stream().mapToInt(columnNameList::indexOf).toArray();
+        }
+
+        /**
+         * @return The names of the output columns written in each row, in order.
+         */
+        List<String> getOutputColumnNames() {
+            return outputColumnNames;
+        }
+
+        /**
+         * Render a row with the given values of the funcotation fields, followed by a {@link MafOutputRendererConstants#FIELD_DELIMITER}.
+         * @param fieldValues The values of the funcotation fields for which this {@link MafRowLayout} was created, in order.
+         * @param output The {@link StringBuilder} to which to append the row.
+         */
+        void renderRow(final List<String> fieldValues, final StringBuilder output) {
+            for ( int i = 0; i < columnNames.length; ++i ) {
+                rowValues[i] = (fieldIndices[i] < 0) ? fixedValues[i] : mafCompliantValue(columnNames[i], fieldValues.get(fieldIndices[i]));
+            }
+
+            // Fix the alleles in the case of INDELS:
+            if ( indelAdjustmentColumns[INDEL_VARIANT_TYPE] >= 0 ) {
+                for ( int i = 0; i < alleleInformation.length; ++i ) {
+                    alleleInformation[i] = (indelAdjustmentColumns[i] < 0) ? null : rowValues[indelAdjustmentColumns[i]];
+                }
+                if ( adjustIndelAlleleInformationForMafOutput(alleleInformation) ) {
+                    for ( int i = 0; i < alleleInformation.length; ++i ) {
+                        if ( indelAdjustmentColumns[i] >= 0 ) {
+                            rowValues[indelAdjustmentColumns[i]] = alleleInformation[i];
+                        }
+                    }
+                }
+            }
+
+            for ( int i = 0; i < columnNames.length; ++i ) {
+                if ( !isExcluded[i] ) {
+                    output.append(FuncotatorUtils.sanitizeFuncotationFieldForMaf(rowValues[i]));
+                    output.append(MafOutputRendererConstants.FIELD_DELIMITER);
+                }
+            }
+        }
+    }
+
     //------------------------------------------------------------------------------------------------------------------
     // Columns:
     
@@ -15,6 +15,7 @@ public class BwaArgumentCollection implements Serializable {
     public static final String SINGLE_END_ALIGNMENT_SHORT_NAME = "se";
     public static final String BWA_MEM_INDEX_IMAGE_FULL_NAME = "bwa-mem-index-image";
     public static final String BWA_MEM_INDEX_IMAGE_SHORT_NAME = "image";
+    public static final String BWA_MEM_INDEX_IMAGE_STAGING_DIR_FULL_NAME = "bwa-mem-index-image-staging-dir";
 
     /**
      * The BWA-MEM index image file name that you've distributed to each executor. The image file can be generated using
@@ -27,6 +28,15 @@ public class BwaArgumentCollection implements Serializable {
             optional = true)
     public String indexImageFile;
 
+    /**
+     * Executors on the same node open the copy of the image in this directory, so they share a single copy of the
+     * index in memory. This allows the image to reside on a shared file system such as HDFS or GCS.
+     */
+    @Argument(doc = "Node-local directory to copy the BWA-MEM index image file to before loading it. If not specified, the image file is loaded in place.",
+            fullName = BWA_MEM_INDEX_IMAGE_STAGING_DIR_FULL_NAME,
+            optional = true)
+    public String indexImageStagingDirectory = null;
+
     /**
      * Run single-end instead of paired-end alignment.
      */
@@ -33,6 +33,7 @@ public final class BwaSparkEngine implements AutoCloseable {
     private final JavaSparkContext ctx;
     private final String indexFileName;
     private final boolean resolveIndexFileName;
+    private final String indexImageStagingDirectory;
     private final Broadcast<SAMFileHeader> broadcastHeader;
 
     /**
@@ -48,9 +49,29 @@ public final class BwaSparkEngine implements AutoCloseable {
                           final String indexFileName,
                           SAMFileHeader inputHeader,
                           final SAMSequenceDictionary refDictionary) {
+        this(ctx, referenceFile, indexFileName, null, inputHeader, refDictionary);
+    }
+
+    /**
+     * @param ctx           the Spark context
+     * @param referenceFile the path to the reference file named <i>_prefix_.fa</i>, which is used to find the image file with name <i>_prefix_.fa.img</i>.
+     *                      Can be <code>null</code> if the indexFileName is provided.
+     * @param indexFileName the index image file name that already exists, or <code>null</code> to have the image file automatically distributed.
+     * @param indexImageStagingDirectory a node-local directory that executors copy the image file to before loading it,
+     *                      so that all executors on a node share one copy of the index, or <code>null</code> to load the image file in place.
+     * @param inputHeader   the SAM file header to use for reads
+     * @param refDictionary the sequence dictionary to use for reads if the SAM file header doesn't have one (or it's empty)
+     */
+    public BwaSparkEngine(final JavaSparkContext ctx,
+                          final String referenceFile,
+                          final String indexFileName,
+                          final String indexImageStagingDirectory,
+                          SAMFileHeader inputHeader,
+                          final SAMSequenceDictionary refDictionary) {
         Utils.nonNull(referenceFile);
         Utils.nonNull(inputHeader);
         this.ctx = ctx;
+        this.indexImageStagingDirectory = indexImageStagingDirectory;
         if (indexFileName != null) {
             this.indexFileName = indexFileName;
             this.resolveIndexFileName = false;
@@ -100,8 +121,9 @@ public final class BwaSparkEngine implements AutoCloseable {
         final Broadcast<SAMFileHeader> broadcastHeader = this.broadcastHeader;
         final String indexFileName = this.indexFileName;
         final boolean resolveIndexFileName = this.resolveIndexFileName;
+        final String indexImageStagingDirectory = this.indexImageStagingDirectory;
         return unalignedReads.mapPartitions(itr ->
-                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment).apply(itr));
+                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, indexImageStagingDirectory, broadcastHeader.value(), pairedAlignment).apply(itr));
     }
 
     @Override
@@ -118,8 +140,9 @@ public final class BwaSparkEngine implements AutoCloseable {
         // assumes 128Mb partitions, with reads needing about 100bytes each when BAM compressed
         private static final int READS_PER_PARTITION_GUESS = 1500000;
 
-        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs) {
-            this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName);
+        ReadAligner( final String indexFileName, final String indexImageStagingDirectory, final SAMFileHeader readsHeader, final boolean alignsPairs) {
+            // the index stays loaded for the lifetime of the executor, until close() closes all distributed instances
+            this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName, indexImageStagingDirectory);
             this.readsHeader = readsHeader;
             this.alignsPairs = alignsPairs;
             if ( alignsPairs && readsHeader.getSortOrder() != SAMFileHeader.SortOrder.queryname ) {
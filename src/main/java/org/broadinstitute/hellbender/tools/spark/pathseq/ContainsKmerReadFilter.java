@@ -3,8 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVPrimitiveKmerizer;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 /**
@@ -34,16 +33,11 @@ public class ContainsKmerReadFilter extends ReadFilter {
 
     @Override
     public boolean test(final GATKRead read) {
-        final SVKmerizer kmers = new SVKmerizer(read.getBases(), kSize, 1, new SVKmerShort(kSize));
-        int numKmersFound = 0;
-        while (kmers.hasNext()) {
-            if (kmerLib.contains(((SVKmerShort)kmers.next()))) {
-                if (++numKmersFound >= kmerCountThreshold) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        final PSKmerCollection lib = kmerLib;
+        final int[] numKmersFound = {0};
+        // the kmerizer stops, returning false, once enough kmers have been found
+        return SVPrimitiveKmerizer.forEachCanonicalKmer(read.getBases(), kSize,
+                kmer -> !lib.containsCanonical(kmer) || ++numKmersFound[0] < kmerCountThreshold);
     }
 
     //Static variables can't be garbage collected until the object is unloaded
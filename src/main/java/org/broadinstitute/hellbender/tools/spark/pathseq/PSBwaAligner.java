@@ -15,16 +15,16 @@ import java.util.List;
 /**
  * Loads Bwa index and aligns reads. This is not a general Bwa aligner because it only retrieves primary alignments.
  * If preserveAlignments is set, existing alignment data in each read is not overwritten, and any new alignments
- * are added to the SA tag.
+ * are added to the SA tag. Closing the aligner releases its reference to the index.
  */
-public final class PSBwaAligner {
+public final class PSBwaAligner implements AutoCloseable {
 
     private final BwaMemIndex bwaIndex;
     private final PSBwaArgumentCollection bwaArgs;
     private final boolean pairedAlignment;
 
     public PSBwaAligner(final PSBwaArgumentCollection bwaArgs, final boolean pairedAlignment) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(bwaArgs.bwaImage);
+        this.bwaIndex = BwaMemIndexCache.acquireInstance(bwaArgs.bwaImage, bwaArgs.bwaImageStagingDirectory);
         this.bwaArgs = bwaArgs;
         this.pairedAlignment = pairedAlignment;
     }
@@ -89,4 +89,9 @@ public final class PSBwaAligner {
         }
         return reads.iterator();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void close() {
+        BwaMemIndexCache.releaseInstance(bwaArgs.bwaImage);
+    }
+}
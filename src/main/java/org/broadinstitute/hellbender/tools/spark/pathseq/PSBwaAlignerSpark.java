@@ -24,7 +24,14 @@ public final class PSBwaAlignerSpark implements AutoCloseable {
                                             final boolean pairedAlignment,
                                             final Broadcast<SAMFileHeader> header) {
         final PSBwaArgumentCollection bwaArgsLocal = bwaArgs;
-        return reads.mapPartitions(itr -> (new PSBwaAligner(bwaArgsLocal, pairedAlignment)).apply(itr, header.value()));
+        // The index is also obtained without a reference count, so that it stays loaded for the lifetime of the
+        // executor when each partition's aligner releases its reference. It is closed by close() once all alignment is done.
+        return reads.mapPartitions(itr -> {
+            BwaMemIndexCache.getInstance(bwaArgsLocal.bwaImage, bwaArgsLocal.bwaImageStagingDirectory);
+            try ( final PSBwaAligner aligner = new PSBwaAligner(bwaArgsLocal, pairedAlignment) ) {
+                return aligner.apply(itr, header.value());
+            }
+        });
     }
 
     //Run this after invoking a Spark action on all RDDs returned from doBwaAlignment()
@@ -9,6 +9,7 @@ public final class PSBwaArgumentCollection implements Serializable {
 
     public static final String MICROBE_BWA_IMAGE_LONG_NAME = "microbe-bwa-image";
     public static final String MICROBE_BWA_IMAGE_SHORT_NAME = "MI";
+    public static final String MICROBE_BWA_IMAGE_STAGING_DIR_LONG_NAME = "microbe-bwa-image-staging-dir";
     public static final String MICROBE_FASTA_LONG_NAME = "microbe-fasta";
     public static final String MICROBE_FASTA_SHORT_NAME = "MF";
     public static final String MICROBE_MIN_SEED_LENGTH_LONG_NAME = "microbe-min-seed-length";
@@ -23,6 +24,15 @@ public final class PSBwaArgumentCollection implements Serializable {
             shortName = MICROBE_BWA_IMAGE_SHORT_NAME)
     public String bwaImage;
 
+    /**
+     * Executors on the same node open the copy of the image in this directory, so they share a single copy of the
+     * index in memory. This allows the image to reside on a shared file system such as HDFS or GCS.
+     */
+    @Argument(doc = "Node-local directory to copy the microbe BWA image file to before loading it. If not specified, the image file is loaded in place.",
+            fullName = MICROBE_BWA_IMAGE_STAGING_DIR_LONG_NAME,
+            optional = true)
+    public String bwaImageStagingDirectory = null;
+
     @Argument(doc = "Reference corresponding to the microbe reference image file",
             fullName = MICROBE_FASTA_LONG_NAME,
             shortName = MICROBE_FASTA_SHORT_NAME)
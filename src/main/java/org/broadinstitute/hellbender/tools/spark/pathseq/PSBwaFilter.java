@@ -16,9 +16,11 @@ import java.util.List;
 /**
  * Aligns using BWA and filters out reads above the minimum coverage and identity.
  * Reads are NOT otherwise modified, i.e. the alignments are not copied to the reads.
+ * Closing the filter releases its reference to the index.
  */
-public class PSBwaFilter {
+public class PSBwaFilter implements AutoCloseable {
 
+    private final String indexFileName;
     private final BwaMemIndex bwaIndex;
     private final int minIdent;
     private final int minSeedLength, numThreads;
@@ -26,7 +28,17 @@ public class PSBwaFilter {
 
     public PSBwaFilter(final String indexFileName, final int minIdent,
                        final int minSeedLength, final int numThreads, final boolean bPaired) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(indexFileName);
+        this(indexFileName, null, minIdent, minSeedLength, numThreads, bPaired);
+    }
+
+    /**
+     * @param localStagingDirectory node-local directory to copy the index image to before loading it, or {@code null}
+     *                              to load the image in place (see {@link BwaMemIndexCache#acquireInstance})
+     */
+    public PSBwaFilter(final String indexFileName, final String localStagingDirectory, final int minIdent,
+                       final int minSeedLength, final int numThreads, final boolean bPaired) {
+        this.indexFileName = indexFileName;
+        this.bwaIndex = BwaMemIndexCache.acquireInstance(indexFileName, localStagingDirectory);
         this.minIdent = minIdent;
         this.minSeedLength = minSeedLength;
         this.numThreads = numThreads;
@@ -84,4 +96,9 @@ public class PSBwaFilter {
         }
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void close() {
+        BwaMemIndexCache.releaseInstance(indexFileName);
+    }
+}
@@ -47,7 +47,25 @@ public final class PSBwaUtils {
     static SAMFileHeader removeUnmappedHeaderSequences(final SAMFileHeader header,
                                                        final JavaRDD<GATKRead> reads,
                                                        final Logger logger) {
-        final List<String> usedSequences = PSBwaUtils.getAlignedSequenceNames(reads);
+        return setHeaderSequences(header, PSBwaUtils.getAlignedSequenceNames(reads), logger);
+    }
+
+    /**
+     * Returns header with sequences that were aligned to at least once in reads held in memory
+     */
+    static SAMFileHeader removeUnmappedHeaderSequences(final SAMFileHeader header,
+                                                       final Collection<GATKRead> reads,
+                                                       final Logger logger) {
+        final Set<String> usedSequences = new LinkedHashSet<>();
+        for (final GATKRead read : reads) {
+            getSequenceNames(read).forEachRemaining(usedSequences::add);
+        }
+        return setHeaderSequences(header, usedSequences, logger);
+    }
+
+    private static SAMFileHeader setHeaderSequences(final SAMFileHeader header,
+                                                    final Collection<String> usedSequences,
+                                                    final Logger logger) {
         final List<SAMSequenceRecord> usedSequenceRecords = usedSequences.stream()
                 .map(seqName -> header.getSequence(seqName))
                 .filter(seq -> {
@@ -10,6 +10,7 @@ import org.apache.spark.HashPartitioner;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.hellbender.engine.filters.AmbiguousBaseReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadLengthReadFilter;
 import org.broadinstitute.hellbender.tools.spark.pathseq.loggers.PSFilterLogger;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
@@ -71,7 +72,7 @@ public final class PSFilter implements AutoCloseable {
     /**
      * Returns input read with alignment-related info cleared
      */
-    private static GATKRead clearReadAlignment(final GATKRead read, final SAMFileHeader header) {
+    static GATKRead clearReadAlignment(final GATKRead read, final SAMFileHeader header) {
         final GATKRead newRead = new SAMRecordToGATKReadAdapter(new SAMRecord(header));
         newRead.setName(read.getName());
         newRead.setBases(read.getBases());
@@ -170,6 +171,36 @@ public final class PSFilter implements AutoCloseable {
                 });
     }
 
+    /**
+     * Sets proper pairedness flags on reads held in memory, returning the paired reads followed by the unpaired reads
+     */
+    static List<GATKRead> setPairFlags(final List<GATKRead> reads) {
+        final Tuple2<List<GATKRead>, List<GATKRead>> lists = getPairedAndUnpairedLists(reads.iterator(), reads.size());
+        final List<GATKRead> newReadsList = new ArrayList<>(reads.size());
+        newReadsList.addAll(lists._1);
+        for (final GATKRead unpairedRead : lists._2) {
+            unpairedRead.setIsPaired(false);
+            newReadsList.add(unpairedRead);
+        }
+        return newReadsList;
+    }
+
+    /**
+     * Filters duplicate sequences from reads held in memory, keeping the first read with each sequence unless a
+     * later one is unpaired. Like the Spark version, assumes reads have pairedness flags set properly.
+     */
+    static List<GATKRead> filterDuplicateSequences(final List<GATKRead> reads) {
+        final Map<Long, GATKRead> uniqueReads = new LinkedHashMap<>(SVUtils.hashMapCapacity(reads.size()));
+        for (final GATKRead read : reads) {
+            final Tuple2<Long, GATKRead> keyedRead = canonicalizeRead(read);
+            final GATKRead keptRead = uniqueReads.putIfAbsent(keyedRead._1, read);
+            if (keptRead != null && keptRead.isPaired() && !read.isPaired()) {
+                uniqueReads.put(keyedRead._1, read);
+            }
+        }
+        return new ArrayList<>(uniqueReads.values());
+    }
+
     /**
      * Pairs reads with canonical Long ID using the lesser 64-bit hash of the sequence and its reverse complement
      */
@@ -194,8 +225,52 @@ public final class PSFilter implements AutoCloseable {
                                          final String indexFileName,
                                          final int minSeedLength, final int numThreads,
                                          final int minIdentity) {
+        return doBwaFilter(reads, indexFileName, null, minSeedLength, numThreads, minIdentity);
+    }
 
-        return reads.mapPartitions(itr -> (new PSBwaFilter(indexFileName, minIdentity, minSeedLength, numThreads, false)).apply(itr));
+    // The index is also obtained without a reference count, so that it stays loaded for the lifetime of the executor
+    // when each partition's filter releases its reference. It is closed by BwaMemIndexCache.closeAllDistributedInstances()
+    // when filtering is complete.
+    private static JavaRDD<GATKRead> doBwaFilter(final JavaRDD<GATKRead> reads,
+                                                 final String indexFileName,
+                                                 final String indexStagingDirectory,
+                                                 final int minSeedLength, final int numThreads,
+                                                 final int minIdentity) {
+
+        return reads.mapPartitions(itr -> {
+            BwaMemIndexCache.getInstance(indexFileName, indexStagingDirectory);
+            try ( final PSBwaFilter filter = new PSBwaFilter(indexFileName, indexStagingDirectory, minIdentity, minSeedLength, numThreads, false) ) {
+                return filter.apply(itr);
+            }
+        });
+    }
+
+    /**
+     * Returns the transformations of the quality and complexity filtering step: adapter trimming, low-complexity
+     * masking, and base quality clipping and masking. Reads must then be tested with makeQualityFilter().
+     */
+    static ReadTransformer makeQualityTransformer(final PSFilterArgumentCollection filterArgs) {
+        //Adapter trimming
+        return new AdapterTrimTransformer(filterArgs.maxAdapterMismatches, filterArgs.minAdapterLength, ADAPTER_SEQUENCES)
+                //Apply simple repeat masking
+                //See "Low-complexity DNA and simple repeats" at http://www.repeatmasker.org/webrepeatmaskerhelp.html
+                .andThen(new SimpleRepeatMaskTransformer(MAX_AT_CONTENT_1, MAX_GC_CONTENT_1, REPEAT_WINDOW_SIZE_1))
+                .andThen(new SimpleRepeatMaskTransformer(MAX_AT_CONTENT_2, MAX_GC_CONTENT_2, REPEAT_WINDOW_SIZE_2))
+                //Apply DUST masking
+                .andThen(new DUSTReadTransformer(filterArgs.dustMask, filterArgs.dustW, filterArgs.dustT))
+                //Apply base quality hard clipping
+                .andThen(new BaseQualityClipReadTransformer(filterArgs.readTrimThresh))
+                //Change low-quality bases to 'N' (this doesn't change the read length, so it can precede the length filter)
+                .andThen(new BaseQualityReadTransformer(filterArgs.qualPhredThresh));
+    }
+
+    /**
+     * Returns the read filters of the quality and complexity filtering step, to be applied after makeQualityTransformer().
+     */
+    static ReadFilter makeQualityFilter(final PSFilterArgumentCollection filterArgs) {
+        //Filter reads with less than minReadLength bases, then reads with too many 'N's
+        return new ReadLengthReadFilter(filterArgs.minReadLength, Integer.MAX_VALUE)
+                .and(new AmbiguousBaseReadFilter(filterArgs.maxAmbiguousBases));
     }
 
     /**
@@ -221,29 +296,8 @@ public final class PSFilter implements AutoCloseable {
         reads = reads.map(new ReadTransformerSparkifier(new StripMateNumberTransformer()));
 
         if (!filterArgs.skipFilters) {
-
-            //Adapter trimming
-            reads = reads.map(new ReadTransformerSparkifier(new AdapterTrimTransformer(filterArgs.maxAdapterMismatches, filterArgs.minAdapterLength, ADAPTER_SEQUENCES)));
-
-            //Apply simple repeat masking
-            //See "Low-complexity DNA and simple repeats" at http://www.repeatmasker.org/webrepeatmaskerhelp.html
-            reads = reads.map(new ReadTransformerSparkifier(new SimpleRepeatMaskTransformer(MAX_AT_CONTENT_1, MAX_GC_CONTENT_1, REPEAT_WINDOW_SIZE_1)));
-            reads = reads.map(new ReadTransformerSparkifier(new SimpleRepeatMaskTransformer(MAX_AT_CONTENT_2, MAX_GC_CONTENT_2, REPEAT_WINDOW_SIZE_2)));
-
-            //Apply DUST masking
-            reads = reads.map(new ReadTransformerSparkifier(new DUSTReadTransformer(filterArgs.dustMask, filterArgs.dustW, filterArgs.dustT)));
-
-            //Apply base quality hard clipping
-            reads = reads.map(new ReadTransformerSparkifier(new BaseQualityClipReadTransformer(filterArgs.readTrimThresh)));
-
-            //Filter reads with less than minReadLength bases
-            reads = reads.filter(new ReadFilterSparkifier(new ReadLengthReadFilter(filterArgs.minReadLength, Integer.MAX_VALUE)));
-
-            //Change low-quality bases to 'N'
-            reads = reads.map(new ReadTransformerSparkifier(new BaseQualityReadTransformer(filterArgs.qualPhredThresh)));
-
-            //Filter reads with too many 'N's
-            reads = reads.filter(new ReadFilterSparkifier(new AmbiguousBaseReadFilter(filterArgs.maxAmbiguousBases)));
+            reads = reads.map(new ReadTransformerSparkifier(makeQualityTransformer(filterArgs)));
+            reads = reads.filter(new ReadFilterSparkifier(makeQualityFilter(filterArgs)));
         }
         filterLogger.logReadsAfterQualityFilter(reads);
 
@@ -259,7 +313,7 @@ public final class PSFilter implements AutoCloseable {
 
         //Bwa host alignment filtering
         if (filterArgs.indexImageFile != null) {
-            reads = doBwaFilter(reads, filterArgs.indexImageFile, filterArgs.minSeedLength,
+            reads = doBwaFilter(reads, filterArgs.indexImageFile, filterArgs.indexImageStagingDirectory, filterArgs.minSeedLength,
                     filterArgs.bwaThreads, filterArgs.minIdentity);
         }
         filterLogger.logReadsAfterHostFilter(reads);
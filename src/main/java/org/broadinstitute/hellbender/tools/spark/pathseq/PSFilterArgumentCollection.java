@@ -22,6 +22,7 @@ public final class PSFilterArgumentCollection implements Serializable {
     public static final String FILTER_METRICS_FILE_SHORT_NAME = "FM";
     public static final String FILTER_BWA_IMAGE_LONG_NAME = "filter-bwa-image";
     public static final String FILTER_BWA_IMAGE_SHORT_NAME = "FI";
+    public static final String FILTER_BWA_IMAGE_STAGING_DIR_LONG_NAME = "filter-bwa-image-staging-dir";
 
     public static final String IS_HOST_ALIGNED_LONG_NAME = "is-host-aligned";
     public static final String IS_HOST_ALIGNED_SHORT_NAME = IS_HOST_ALIGNED_LONG_NAME;
@@ -210,6 +211,15 @@ public final class PSFilterArgumentCollection implements Serializable {
             optional = true)
     public String indexImageFile = null;
 
+    /**
+     * Executors on the same node open the copy of the image in this directory, so they share a single copy of the
+     * index in memory. This allows the image to reside on a shared file system such as HDFS or GCS.
+     */
+    @Argument(doc = "Node-local directory to copy the host BWA image file to before loading it. If not specified, the image file is loaded in place.",
+            fullName = FILTER_BWA_IMAGE_STAGING_DIR_LONG_NAME,
+            optional = true)
+    public String indexImageStagingDirectory = null;
+
     /**
      * Controls the sensitivity of BWA alignment to the host reference. Shorter seed lengths will enhance detection of
      * host reads during the subtraction phase but will also increase run time.
@@ -0,0 +1,139 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBlockedBloomFilter;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Kmer blocked Bloom filter class that encapsulates the filter, kmer size, and kmer mask.
+ *
+ * Serialized filters begin with a negative format version, which distinguishes them from the original
+ * (PSKmerBloomFilter) Bloom filter format that begins with the (positive) kmer size. Both are written with the
+ * Bloom filter file extension, and PSKmerUtils.readKmerFilter reads either.
+ */
+@DefaultSerializer(PSKmerBlockedBloomFilter.Serializer.class)
+public final class PSKmerBlockedBloomFilter extends PSKmerCollection {
+
+    public static final int FORMAT_VERSION = 2;
+
+    private final LongBlockedBloomFilter kmerSet;
+    private final int kmerSize;
+    private final SVKmerShort kmerMask;
+    private final double falsePositiveProbability;
+
+    /**
+     * Note values in the Bloom filter should have been run through PSKmerCollection's canonicalizeAndMask()
+     */
+    public PSKmerBlockedBloomFilter(final LongBlockedBloomFilter maskedKmerBloomFilter, final int kmerSize,
+                                    final SVKmerShort kmerMask, final long numElements) {
+        Utils.nonNull(maskedKmerBloomFilter);
+        Utils.nonNull(kmerMask);
+        this.kmerSet = maskedKmerBloomFilter;
+        this.kmerSize = kmerSize;
+        this.kmerMask = kmerMask;
+        this.falsePositiveProbability = kmerSet.getTheoreticalFPP(numElements);
+    }
+
+    private PSKmerBlockedBloomFilter(final Kryo kryo, final Input input) {
+        final int version = -input.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new UserException.BadInput("Unsupported blocked Bloom filter format version " + version);
+        }
+        this.kmerSize = input.readInt();
+        this.kmerMask = new SVKmerShort(input.readLong());
+        this.kmerSet = kryo.readObject(input, LongBlockedBloomFilter.class);
+        this.falsePositiveProbability = input.readDouble();
+    }
+
+    /**
+     * Checks whether a serialized Bloom filter is in this class's format, leaving the stream where it was.
+     * The stream must support mark/reset.
+     */
+    public static boolean isBlockedBloomFilter(final InputStream stream) throws IOException {
+        Utils.validateArg(stream.markSupported(), "Stream must support mark/reset");
+        stream.mark(Integer.BYTES);
+        // Kryo writes fixed-length ints big-endian, as DataInputStream reads them
+        final int firstInt = new DataInputStream(stream).readInt();
+        stream.reset();
+        return firstInt == -FORMAT_VERSION;
+    }
+
+    /**
+     * Input should not be canonicalized/masked
+     */
+    @Override
+    public boolean contains(final SVKmerShort rawKmer) {
+        return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+    }
+
+    @Override
+    public boolean containsCanonical(final long canonicalKmer) {
+        return kmerSet.contains(canonicalKmer & kmerMask.getLong());
+    }
+
+    @Override
+    public int kmerSize() {
+        return kmerSize;
+    }
+
+    @Override
+    public SVKmerShort getMask() {
+        return kmerMask;
+    }
+
+    @Override
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    private void serialize(final Kryo kryo, final Output output) {
+        output.writeInt(-FORMAT_VERSION);
+        output.writeInt(kmerSize);
+        output.writeLong(kmerMask.getLong());
+        kryo.writeObject(output, kmerSet);
+        output.writeDouble(falsePositiveProbability);
+        output.close();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PSKmerBlockedBloomFilter)) return false;
+
+        final PSKmerBlockedBloomFilter psKmerSet = (PSKmerBlockedBloomFilter) o;
+
+        if (kmerSize != psKmerSet.kmerSize) return false;
+        if (!kmerSet.equals(psKmerSet.kmerSet)) return false;
+        return kmerMask.equals(psKmerSet.kmerMask);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = kmerSet.hashCode();
+        result = 31 * result + kmerSize;
+        result = 31 * result + kmerMask.hashCode();
+        return result;
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<PSKmerBlockedBloomFilter> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final PSKmerBlockedBloomFilter kmerSet) {
+            kmerSet.serialize(kryo, output);
+        }
+
+        @Override
+        public PSKmerBlockedBloomFilter read(final Kryo kryo, final Input input, final Class<PSKmerBlockedBloomFilter> klass) {
+            return new PSKmerBlockedBloomFilter(kryo, input);
+        }
+    }
+
+}
@@ -47,6 +47,11 @@ public final class PSKmerBloomFilter extends PSKmerCollection {
         return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
     }
 
+    @Override
+    public boolean containsCanonical(final long canonicalKmer) {
+        return kmerSet.contains(canonicalKmer & kmerMask.getLong());
+    }
+
     @Override
     public int kmerSize() {
         return kmerSize;
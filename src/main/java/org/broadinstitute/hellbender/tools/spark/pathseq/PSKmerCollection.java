@@ -8,6 +8,10 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 public abstract class PSKmerCollection {
 
     abstract boolean contains(final SVKmerShort val);
+    /**
+     * Like contains(), but takes a kmer that has already been canonicalized (but not masked)
+     */
+    abstract boolean containsCanonical(final long canonicalKmer);
     abstract int kmerSize();
     abstract SVKmerShort getMask();
     abstract double getFalsePositiveProbability();
@@ -44,6 +44,11 @@ public final class PSKmerSet extends PSKmerCollection {
         return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
     }
 
+    @Override
+    public boolean containsCanonical(final long canonicalKmer) {
+        return kmerSet.contains(canonicalKmer & kmerMask.getLong());
+    }
+
     public LongIterator iterator() {
         return kmerSet.iterator();
     }
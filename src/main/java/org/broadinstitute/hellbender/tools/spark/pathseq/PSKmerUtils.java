@@ -11,14 +11,18 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBlockedBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Random;
+import java.util.function.LongPredicate;
 
 /**
  * PathSeq utilities for kmer libraries
@@ -101,6 +105,34 @@ public class PSKmerUtils {
         return bloomFilter;
     }
 
+    /**
+     * Converts a Collection of Lists of Longs's into a blocked Bloom filter
+     */
+    protected static LongBlockedBloomFilter longArrayCollectionToBlockedBloomFilter(final Collection<long[]> longs, final long numLongs, final double bloomFpp) {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(numLongs, bloomFpp);
+        final ProgressCounter counter = new ProgressCounter(numLongs, 1e6, "million kmers", logger);
+        for (final long[] array : longs) {
+            bloomFilter.addAll(array);
+            counter.update(array.length);
+        }
+        return bloomFilter;
+    }
+
+    /**
+     * Measures the false positive rate of a filter by querying it with random values that cannot be kmers.
+     * Kmers use at most 62 bits, so values with the top bit set are never in the set.
+     */
+    public static double measureFalsePositiveRate(final LongPredicate filter, final int numQueries, final long seed) {
+        final Random rand = new Random(seed);
+        long numFalsePositives = 0;
+        for (int i = 0; i < numQueries; i++) {
+            if (filter.test(rand.nextLong() | Long.MIN_VALUE)) {
+                numFalsePositives++;
+            }
+        }
+        return numFalsePositives / (double) numQueries;
+    }
+
     /**
      * Writes an object to a URI using Kryo serialization.
      */
@@ -119,7 +151,7 @@ public class PSKmerUtils {
         writeKryoObject(set, filePath);
     }
 
-    public static void writeKmerBloomFilter(final String uri, final PSKmerBloomFilter bloomFilter) {
+    public static void writeKmerBloomFilter(final String uri, final PSKmerCollection bloomFilter) {
         String filePath = uri;
         if (!uri.toLowerCase().endsWith(BLOOM_FILTER_EXTENSION.toLowerCase())) {
             filePath = filePath + BLOOM_FILTER_EXTENSION;
@@ -128,12 +160,19 @@ public class PSKmerUtils {
     }
 
     public static PSKmerCollection readKmerFilter(final String uri) {
-        final Input input = new Input(BucketUtils.openFile(uri));
+        final BufferedInputStream stream = new BufferedInputStream(BucketUtils.openFile(uri));
         final Kryo kryo = new Kryo();
         if (uri.endsWith(HOPSCOTCH_SET_EXTENSION)) {
-            return kryo.readObject(input, PSKmerSet.class);
+            return kryo.readObject(new Input(stream), PSKmerSet.class);
         } else if (uri.endsWith(BLOOM_FILTER_EXTENSION)) {
-            return kryo.readObject(input, PSKmerBloomFilter.class);
+            //Both kinds of Bloom filter share an extension, so look at the format version
+            final boolean isBlocked;
+            try {
+                isBlocked = PSKmerBlockedBloomFilter.isBlockedBloomFilter(stream);
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile("Could not read kmer filter " + uri, e);
+            }
+            return kryo.readObject(new Input(stream), isBlocked ? PSKmerBlockedBloomFilter.class : PSKmerBloomFilter.class);
         }
         throw new UserException.BadInput("Unknown kmer set extension in file name " + uri);
     }
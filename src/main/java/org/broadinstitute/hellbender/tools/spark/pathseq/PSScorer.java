@@ -77,6 +77,51 @@ public final class PSScorer {
         return readsFinal;
     }
 
+    /**
+     * Scores reads held in memory, without Spark. Paired reads must be queryname-sorted. Equivalent to the Spark
+     * version, and likewise returns the reads with their pathseq hit tags set.
+     */
+    public List<GATKRead> scoreReads(final List<GATKRead> pairedReads,
+                                     final List<GATKRead> unpairedReads,
+                                     final SAMFileHeader header) {
+
+        //Load taxonomy database, created by running PathSeqBuildReferenceTaxonomy with this reference
+        final PSTaxonomyDatabase taxDB = readTaxonomyDatabase(scoreArgs.taxonomyDatabasePath);
+
+        //Check header against database
+        if (scoreArgs.headerWarningFile != null) {
+            writeMissingReferenceAccessions(scoreArgs.headerWarningFile, header, taxDB, logger);
+        }
+
+        //Group reads into pairs, and find the alignment hits of each group (also setting the hit tags on the reads)
+        final List<PSPathogenAlignmentHit> alignmentHits = new ArrayList<>(pairedReads.size() / 2 + unpairedReads.size());
+        final Iterator<Iterable<GATKRead>> pairs = groupPairedReadsPartition(pairedReads.iterator(), pairedReads.size());
+        while (pairs.hasNext()) {
+            alignmentHits.add(getAlignmentHit(pairs.next(), scoreArgs.minIdentity, scoreArgs.identityMargin, taxDB));
+        }
+        for (final GATKRead read : unpairedReads) {
+            alignmentHits.add(getAlignmentHit(Collections.singletonList(read), scoreArgs.minIdentity, scoreArgs.identityMargin, taxDB));
+        }
+
+        //Compute taxonomic scores from the alignment hits, which are all in one "partition" so need no reduction
+        Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>();
+        final Iterator<Tuple2<Integer, PSPathogenTaxonScore>> taxScores =
+                computeTaxScores(alignmentHits.iterator(), taxDB, scoreArgs.divideByGenomeLength);
+        while (taxScores.hasNext()) {
+            final Tuple2<Integer, PSPathogenTaxonScore> taxScore = taxScores.next();
+            taxScoresMap.put(taxScore._1, taxScore._2);
+        }
+        taxScoresMap = computeNormalizedScores(taxScoresMap, taxDB.tree, scoreArgs.notNormalizedByKingdom);
+
+        //Write scores to file
+        writeScoresFile(taxScoresMap, taxDB.tree, scoreArgs.scoresPath);
+
+        final List<GATKRead> readsFinal = new ArrayList<>(pairedReads.size() + unpairedReads.size());
+        readsFinal.addAll(pairedReads);
+        readsFinal.addAll(unpairedReads);
+        return readsFinal;
+    }
+
     /**
      * Collects the second elements of all tuples in an RDD
      */
@@ -168,44 +213,51 @@ public final class PSScorer {
                                                                                             final double minIdentity,
                                                                                             final double identityMargin,
                                                                                             final Broadcast<PSTaxonomyDatabase> taxonomyDatabaseBroadcast) {
-        return pairs.map(readIter -> {
+        return pairs.map(readIter -> new Tuple2<>(readIter,
+                getAlignmentHit(readIter, minIdentity, identityMargin, taxonomyDatabaseBroadcast.value())));
+    }
 
-            //Number of reads in the pair (1 for unpaired reads)
-            final int numReads = (int) Utils.stream(readIter).count();
+    /**
+     * Gets the hits of a read or read pair for mapGroupedReadsToTax(), and sets their HITS_TAG.
+     */
+    static PSPathogenAlignmentHit getAlignmentHit(final Iterable<GATKRead> readIter,
+                                                  final double minIdentity,
+                                                  final double identityMargin,
+                                                  final PSTaxonomyDatabase taxonomyDatabase) {
+        //Number of reads in the pair (1 for unpaired reads)
+        final int numReads = (int) Utils.stream(readIter).count();
 
-            //Get tax IDs of all alignments in all reads that meet the coverage/identity criteria.
-            final Stream<Integer> taxIds = Utils.stream(readIter)
-                    .flatMap(read -> getValidHits(read, taxonomyDatabaseBroadcast.value(), minIdentity, identityMargin).stream());
+        //Get tax IDs of all alignments in all reads that meet the coverage/identity criteria.
+        final Stream<Integer> taxIds = Utils.stream(readIter)
+                .flatMap(read -> getValidHits(read, taxonomyDatabase, minIdentity, identityMargin).stream());
 
-            //Get list of tax IDs that are hits in all reads
-            final List<Integer> hitTaxIds;
-            if (numReads > 1) {
+        //Get list of tax IDs that are hits in all reads
+        final List<Integer> hitTaxIds;
+        if (numReads > 1) {
 
-                //Group the flattened stream by tax id, e.g. 3453 -> {3453, 3453}, 938 -> {938}, etc., so that the
-                // length of the list is the number of reads with that tax ID. Then map the lists to list lengths.
-                final Map<Integer, Long> taxIdCounts = taxIds.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+            //Group the flattened stream by tax id, e.g. 3453 -> {3453, 3453}, 938 -> {938}, etc., so that the
+            // length of the list is the number of reads with that tax ID. Then map the lists to list lengths.
+            final Map<Integer, Long> taxIdCounts = taxIds.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
 
-                //Filter hits that didn't occur in all reads
-                hitTaxIds = taxIdCounts.entrySet().stream().map(entry -> entry.getValue() == numReads ? entry.getKey() : null)
-                        .filter(Objects::nonNull).collect(Collectors.toList());
+            //Filter hits that didn't occur in all reads
+            hitTaxIds = taxIdCounts.entrySet().stream().map(entry -> entry.getValue() == numReads ? entry.getKey() : null)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
 
-            } else {
-                //Unpaired reads
-                hitTaxIds = taxIds.collect(Collectors.toList());
-            }
+        } else {
+            //Unpaired reads
+            hitTaxIds = taxIds.collect(Collectors.toList());
+        }
 
-            final PSPathogenAlignmentHit info = new PSPathogenAlignmentHit(hitTaxIds, numReads);
+        final PSPathogenAlignmentHit info = new PSPathogenAlignmentHit(hitTaxIds, numReads);
 
-            //If there was at least one hit, append a tag to each read with the list of hits
-            if (hitTaxIds.size() > 0) {
-                final String hitString = String.join(",", hitTaxIds.stream().map(String::valueOf).collect(Collectors.toList()));
-                Utils.stream(readIter).forEach(read -> read.setAttribute(HITS_TAG, hitString));
-            }
-            return new Tuple2<>(readIter, info);
-        });
+        //If there was at least one hit, append a tag to each read with the list of hits
+        if (hitTaxIds.size() > 0) {
+            final String hitString = String.join(",", hitTaxIds.stream().map(String::valueOf).collect(Collectors.toList()));
+            Utils.stream(readIter).forEach(read -> read.setAttribute(HITS_TAG, hitString));
+        }
+        return info;
     }
 
-
     /**
      * Gets set of sufficiently well-mapped hits
      */
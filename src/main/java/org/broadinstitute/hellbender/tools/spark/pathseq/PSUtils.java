@@ -20,7 +20,11 @@ public final class PSUtils {
     private static final Logger logger = LogManager.getLogger(PSUtils.class);
 
     public static JavaRDD<GATKRead> primaryReads(final JavaRDD<GATKRead> reads) {
-        return reads.filter(read -> !(read.isSecondaryAlignment() || read.isSupplementaryAlignment()));
+        return reads.filter(PSUtils::isPrimaryRead);
+    }
+
+    public static boolean isPrimaryRead(final GATKRead read) {
+        return !(read.isSecondaryAlignment() || read.isSupplementaryAlignment());
     }
 
     public static String[] parseCommaDelimitedArgList(final String arg) {
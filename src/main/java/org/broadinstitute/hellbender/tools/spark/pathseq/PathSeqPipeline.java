@@ -0,0 +1,356 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.metrics.MetricsFile;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.BetaFeature;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.cmdline.programgroups.MetagenomicsProgramGroup;
+import org.broadinstitute.hellbender.engine.GATKTool;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.spark.datasources.ReferenceWindowFunctions;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.metrics.MetricsUtils;
+import org.broadinstitute.hellbender.tools.spark.pathseq.loggers.PSFilterMetrics;
+import org.broadinstitute.hellbender.tools.spark.pathseq.loggers.PSScoreMetrics;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
+import org.broadinstitute.hellbender.transformers.StripMateNumberTransformer;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
+import scala.Tuple2;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Performs all PathSeq steps on a single machine, without Spark: read filtering, microbe reference alignment and
+ * abundance scoring
+ *
+ * <p>This tool runs the same pipeline as PathSeqPipelineSpark, and produces the same output, but as a multi-threaded
+ * process rather than a Spark job. It avoids Spark's scheduling and serialization overhead, which dominate the runtime
+ * of small samples, and is meant for running one sample per machine. See PathSeqPipelineSpark for a description of the
+ * pipeline and of the reference files it needs.</p>
+ *
+ * <p>Input reads are streamed through the quality, k-mer and host alignment filters in batches, several batches at a
+ * time. Only the reads that pass the filters (usually a small fraction of the input) are kept in memory for
+ * deduplication, microbe alignment and scoring.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>BAM containing input reads (either unaligned or aligned to a host reference)</li>
+ *     <li>Host k-mer file generated using PathSeqBuildKmers</li>
+ *     <li>Host BWA-MEM index image generated using BwaMemIndexImageCreator</li>
+ *     <li>Microbe BWA-MEM index image generated using BwaMemIndexImageCreator</li>
+ *     <li>Indexed microbe reference FASTA file</li>
+ *     <li>Taxonomy file generated using PathSeqBuildReferenceTaxonomy</li>
+ * </ul>
+ *
+ * <h3>Output</h3>
+ *
+ * <ul>
+ *     <li>Taxonomic scores table</li>
+ *     <li>Annotated BAM aligned to the microbe reference</li>
+ *     <li>Filter metrics file (optional)</li>
+ *     <li>Score metrics file (optional)</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk PathSeqPipeline  \
+ *   --input input_reads.bam \
+ *   --kmer-file host_kmers.bfi \
+ *   --filter-bwa-image host_reference.img \
+ *   --microbe-bwa-image microbe_reference.img \
+ *   --microbe-fasta reference.fa \
+ *   --taxonomy-file taxonomy.db \
+ *   --min-clipped-read-length 60 \
+ *   --min-score-identity 0.90 \
+ *   --identity-margin 0.02 \
+ *   --scores-output scores.txt \
+ *   --output output_reads.bam \
+ *   --filter-metrics filter_metrics.txt \
+ *   --score-metrics score_metrics.txt \
+ *   --pipeline-threads 8
+ * </pre>
+ */
+@CommandLineProgramProperties(summary = "Performs all PathSeq steps on a single machine, without Spark: read filtering, microbe reference alignment and abundance scoring",
+        oneLineSummary = "Performs all PathSeq steps on a single machine, without Spark",
+        programGroup = MetagenomicsProgramGroup.class)
+@DocumentedFeature
+@BetaFeature
+public final class PathSeqPipeline extends GATKTool {
+
+    public static final String THREADS_LONG_NAME = "pipeline-threads";
+    public static final String BATCH_SIZE_LONG_NAME = "pipeline-batch-size";
+
+    @ArgumentCollection
+    public PSFilterArgumentCollection filterArgs = new PSFilterArgumentCollection();
+
+    @ArgumentCollection
+    public PSBwaArgumentCollection bwaArgs = new PSBwaArgumentCollection();
+
+    @ArgumentCollection
+    public PSScoreArgumentCollection scoreArgs = new PSScoreArgumentCollection();
+
+    @Argument(doc = "Output BAM",
+            fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            optional = true)
+    public String outputPath = null;
+
+    @Argument(doc = "Number of threads used to filter and align batches of reads (0 for the number of available processors).",
+            fullName = THREADS_LONG_NAME,
+            optional = true,
+            minValue = 0)
+    public int nThreads = 0;
+
+    @Argument(doc = "Number of reads in each batch of reads filtered or aligned by a thread.",
+            fullName = BATCH_SIZE_LONG_NAME,
+            optional = true,
+            minValue = 100)
+    public int batchSize = 5000;
+
+    @Override
+    public boolean requiresReads() {
+        return true;
+    }
+
+    @Override
+    public void onTraversalStart() {
+        filterArgs.doReadFilterArgumentWarnings(getCommandLineParser().getPluginDescriptor(GATKReadFilterPluginDescriptor.class), logger);
+    }
+
+    @Override
+    public void traverse() {
+        SAMFileHeader header = PSUtils.checkAndClearHeaderSequences(getHeaderForReads(), filterArgs, logger);
+        final int nWorkers = nThreads > 0 ? nThreads : Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        try {
+            //Filter
+            final Tuple2<List<GATKRead>, List<GATKRead>> filterResult = filterReads(executor, nWorkers, header);
+            final List<GATKRead> pairedReads = filterResult._1;
+            final List<GATKRead> unpairedReads = filterResult._2;
+            logger.info("Filtering left " + pairedReads.size() + " paired and " + unpairedReads.size() + " unpaired reads.");
+
+            //Bwa pathogen alignment
+            //The host Bwa image and kmer filter were released by filterReads(), so the pathogen image can be loaded
+            PSBwaUtils.addReferenceSequencesToHeader(header, bwaArgs.referencePath, ReferenceWindowFunctions.IDENTITY_FUNCTION);
+            final List<GATKRead> alignedPairedReads;
+            final List<GATKRead> alignedUnpairedReads;
+            try (final PSBwaAligner pairedAligner = new PSBwaAligner(bwaArgs, true);
+                 final PSBwaAligner unpairedAligner = new PSBwaAligner(bwaArgs, false)) {
+                alignedPairedReads = alignReads(executor, pairedAligner, pairedReads, true, header);
+                alignedUnpairedReads = alignReads(executor, unpairedAligner, unpairedReads, false, header);
+            }
+
+            //Score pathogens
+            final List<GATKRead> readsFinal = new PSScorer(scoreArgs).scoreReads(alignedPairedReads, alignedUnpairedReads, header);
+
+            //Clean up header
+            header = PSBwaUtils.removeUnmappedHeaderSequences(header, readsFinal, logger);
+
+            //Log read counts
+            if (scoreArgs.scoreMetricsFileUri != null) {
+                final PSScoreMetrics scoreMetrics = new PSScoreMetrics();
+                scoreMetrics.MAPPED_READS = readsFinal.stream().filter(read -> read.hasAttribute(PSScorer.HITS_TAG)).count();
+                scoreMetrics.UNMAPPED_READS = readsFinal.size() - scoreMetrics.MAPPED_READS;
+                final MetricsFile<PSScoreMetrics, Long> metricsFile = getMetricsFile();
+                metricsFile.addMetric(scoreMetrics);
+                MetricsUtils.saveMetrics(metricsFile, scoreArgs.scoreMetricsFileUri);
+            }
+
+            //Write reads to BAM, if specified
+            if (outputPath != null) {
+                try (final SAMFileGATKReadWriter writer = new SAMFileGATKReadWriter(ReadUtils.createCommonSAMWriter(
+                        IOUtils.getPath(outputPath), null, header, false, createOutputBamIndex, createOutputBamMD5))) {
+                    readsFinal.forEach(writer::addRead);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Does the work of PSFilter.doFilter(), returning lists of the paired and unpaired reads that pass the filters.
+     * The per-read filters and host alignment are applied to batches of input reads on the executor's threads.
+     */
+    private Tuple2<List<GATKRead>, List<GATKRead>> filterReads(final ExecutorService executor, final int nWorkers,
+                                                               final SAMFileHeader header) {
+        final PSFilterMetrics metrics = new PSFilterMetrics();
+        metrics.PRIMARY_READS = 0L;
+        metrics.READS_AFTER_PREALIGNED_HOST_FILTER = 0L;
+        metrics.READS_AFTER_QUALITY_AND_COMPLEXITY_FILTER = 0L;
+
+        //Keep at most a couple of batches per thread in flight, so that we never hold much of the input in memory
+        List<GATKRead> reads = new ArrayList<>();
+        final Deque<Future<FilteredBatch>> pendingBatches = new ArrayDeque<>(2 * nWorkers);
+        final ContainsKmerReadFilter kmerFilter = filterArgs.kmerFilePath == null ? null :
+                new ContainsKmerReadFilter(filterArgs.kmerFilePath, filterArgs.hostKmerThresh);
+        final PSBwaFilter hostFilter = filterArgs.indexImageFile == null ? null :
+                new PSBwaFilter(filterArgs.indexImageFile, filterArgs.indexImageStagingDirectory, filterArgs.minIdentity,
+                        filterArgs.minSeedLength, filterArgs.bwaThreads, false);
+        try {
+            final Iterator<GATKRead> readItr = getTransformedReadStream(makeReadFilter()).iterator();
+            while (readItr.hasNext()) {
+                final List<GATKRead> batch = new ArrayList<>(batchSize);
+                while (readItr.hasNext() && batch.size() < batchSize) {
+                    batch.add(readItr.next());
+                }
+                if (pendingBatches.size() == 2 * nWorkers) {
+                    getResult(pendingBatches.removeFirst()).addTo(reads, metrics);
+                }
+                pendingBatches.addLast(executor.submit(() -> filterBatch(batch, filterArgs, header, kmerFilter, hostFilter)));
+            }
+            while (!pendingBatches.isEmpty()) {
+                getResult(pendingBatches.removeFirst()).addTo(reads, metrics);
+            }
+        } finally {
+            //If something went wrong, let any running batches finish before the index they're using is closed
+            for (final Future<FilteredBatch> pendingBatch : pendingBatches) {
+                try {
+                    pendingBatch.get();
+                } catch (final InterruptedException | ExecutionException e) {
+                    //We're already failing, and this is probably the same error
+                }
+            }
+            //Note the host Bwa image must be unloaded before trying to load the pathogen image
+            if (hostFilter != null) {
+                hostFilter.close();
+            }
+            ContainsKmerReadFilter.closeKmerLib();
+        }
+        metrics.READS_AFTER_HOST_FILTER = (long) reads.size();
+
+        //Filter duplicates
+        if (filterArgs.filterDuplicates) {
+            reads = PSFilter.filterDuplicateSequences(PSFilter.setPairFlags(reads));
+        }
+        metrics.READS_AFTER_DEDUPLICATION = (long) reads.size();
+
+        //Sets pairedness flags properly and splits the paired and unpaired reads
+        final Tuple2<List<GATKRead>, List<GATKRead>> lists = PSFilter.getPairedAndUnpairedLists(reads.iterator(), reads.size());
+        final List<GATKRead> pairedReads = new ArrayList<>(lists._1.size());
+        for (final GATKRead read : lists._1) {
+            pairedReads.add(PSFilter.clearReadAlignment(read, header));
+        }
+        final List<GATKRead> unpairedReads = new ArrayList<>(lists._2.size());
+        for (final GATKRead read : lists._2) {
+            read.setIsPaired(false);
+            unpairedReads.add(PSFilter.clearReadAlignment(read, header));
+        }
+        metrics.FINAL_PAIRED_READS = (long) pairedReads.size();
+
+        if (filterArgs.filterMetricsFileUri != null) {
+            metrics.computeDerivedMetrics();
+            final MetricsFile<PSFilterMetrics, Long> metricsFile = getMetricsFile();
+            metricsFile.addMetric(metrics);
+            MetricsUtils.saveMetrics(metricsFile, filterArgs.filterMetricsFileUri);
+        }
+        return new Tuple2<>(pairedReads, unpairedReads);
+    }
+
+    /**
+     * Applies the per-read filters and host alignment filter to a batch of input reads
+     */
+    private static FilteredBatch filterBatch(final List<GATKRead> batch, final PSFilterArgumentCollection filterArgs,
+                                             final SAMFileHeader header, final ContainsKmerReadFilter kmerFilter,
+                                             final PSBwaFilter hostFilter) {
+        final FilteredBatch result = new FilteredBatch();
+        final HostAlignmentReadFilter prealignedHostFilter = new HostAlignmentReadFilter(filterArgs.minIdentity);
+        final ReadTransformer stripMateNumber = new StripMateNumberTransformer();
+        final ReadTransformer qualityTransformer = PSFilter.makeQualityTransformer(filterArgs);
+        final ReadFilter qualityFilter = PSFilter.makeQualityFilter(filterArgs);
+        final List<GATKRead> reads = new ArrayList<>(batch.size());
+        for (final GATKRead inputRead : batch) {
+            if (!PSUtils.isPrimaryRead(inputRead)) continue;
+            result.nPrimaryReads += 1;
+            if (filterArgs.alignedInput && !prealignedHostFilter.test(inputRead)) continue;
+            result.nReadsAfterPrealignedHostFilter += 1;
+
+            //Clear alignment data from the read and remove /1 and /2 from its name
+            GATKRead read = stripMateNumber.apply(PSFilter.clearReadAlignment(inputRead, header));
+            if (!filterArgs.skipFilters) {
+                read = qualityTransformer.apply(read);
+                if (!qualityFilter.test(read)) continue;
+            }
+            result.nReadsAfterQualityFilter += 1;
+
+            if (kmerFilter == null || kmerFilter.test(read)) {
+                reads.add(read);
+            }
+        }
+        if (hostFilter == null) {
+            result.reads = reads;
+        } else {
+            result.reads = new ArrayList<>(reads.size());
+            hostFilter.apply(reads.iterator()).forEachRemaining(result.reads::add);
+        }
+        return result;
+    }
+
+    /**
+     * Aligns reads to the microbe reference in batches on the executor's threads, keeping the reads in order
+     */
+    private List<GATKRead> alignReads(final ExecutorService executor, final PSBwaAligner aligner, final List<GATKRead> reads,
+                                      final boolean paired, final SAMFileHeader header) {
+        //Keep pairs together
+        final int readsPerBatch = paired ? batchSize & ~1 : batchSize;
+        final List<Future<List<GATKRead>>> alignedBatches = new ArrayList<>(1 + reads.size() / readsPerBatch);
+        for (int start = 0; start < reads.size(); start += readsPerBatch) {
+            final List<GATKRead> batch = reads.subList(start, Math.min(reads.size(), start + readsPerBatch));
+            alignedBatches.add(executor.submit(() -> {
+                final List<GATKRead> alignedReads = new ArrayList<>(batch.size());
+                aligner.apply(batch.iterator(), header).forEachRemaining(alignedReads::add);
+                return alignedReads;
+            }));
+        }
+        final List<GATKRead> alignedReads = new ArrayList<>(reads.size());
+        for (final Future<List<GATKRead>> alignedBatch : alignedBatches) {
+            alignedReads.addAll(getResult(alignedBatch));
+        }
+        return alignedReads;
+    }
+
+    private static <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for PathSeq worker threads", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("PathSeq worker thread failed", e.getCause());
+        }
+    }
+
+    /**
+     * Reads in a batch that passed the filters, and the counts of reads that passed each step
+     */
+    private static final class FilteredBatch {
+        private List<GATKRead> reads;
+        private long nPrimaryReads;
+        private long nReadsAfterPrealignedHostFilter;
+        private long nReadsAfterQualityFilter;
+
+        private void addTo(final List<GATKRead> allReads, final PSFilterMetrics metrics) {
+            allReads.addAll(reads);
+            metrics.PRIMARY_READS += nPrimaryReads;
+            metrics.READS_AFTER_PREALIGNED_HOST_FILTER += nReadsAfterPrealignedHostFilter;
+            metrics.READS_AFTER_QUALITY_AND_COMPLEXITY_FILTER += nReadsAfterQualityFilter;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
@@ -20,9 +21,11 @@ import org.broadinstitute.hellbender.tools.walkers.bqsr.BaseRecalibrator;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationReport;
+import org.broadinstitute.hellbender.utils.spark.PipelineCheckpointer;
 import org.broadinstitute.hellbender.utils.variant.GATKVariant;
 import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -52,6 +55,10 @@ import java.util.List;
  *   --sparkRunner GCS \
  *   --cluster my-dataproc-cluster
  * </pre>
+ * <p>
+ * If --checkpoint-directory is given, the recalibration table is written to that directory once it has been computed,
+ * and a rerun of the same command reuses it rather than running BaseRecalibrator again.
+ * </p>
  */
 @CommandLineProgramProperties(
         summary = BQSRPipelineSpark.USAGE_SUMMARY,
@@ -94,6 +101,9 @@ public final class BQSRPipelineSpark extends GATKSparkTool {
     @ArgumentCollection
     public ApplyBQSRUniqueArgumentCollection applyBqsrArgs = new ApplyBQSRUniqueArgumentCollection();
 
+    @Argument(doc = PipelineCheckpointer.CHECKPOINT_DIRECTORY_DOC, fullName = PipelineCheckpointer.CHECKPOINT_DIRECTORY_LONG_NAME, optional = true)
+    public String checkpointDirectory = null;
+
     @Override
     protected void runTool(final JavaSparkContext ctx) {
         String referenceFileName = addReferenceFilesForSpark(ctx, referenceArguments.getReferenceFileName());
@@ -111,9 +121,20 @@ public final class BQSRPipelineSpark extends GATKSparkTool {
         final ReadFilter bqsrReadFilter = ReadFilter.fromList(BaseRecalibrator.getBQSRSpecificReadFilterList(), getHeaderForReads());
         final JavaRDD<GATKRead> filteredReadsForBQSR = initialReads.filter(read -> bqsrReadFilter.test(read));
 
-        JavaPairRDD<GATKRead, Iterable<GATKVariant>> readsWithVariants = JoinReadsWithVariants.join(filteredReadsForBQSR, localKnownSitesFilePaths);
-        //note: we use the reference dictionary from the reads themselves.
-        final RecalibrationReport bqsrReport = BaseRecalibratorSparkFn.apply(readsWithVariants, getHeaderForReads(), referenceFileName, bqsrArgs);
+        // only the recalibration table is checkpointed, since it is the only intermediate result of this pipeline
+        final List<String> checkpointInputs = new ArrayList<>(readArguments.getReadFilesNames());
+        checkpointInputs.add(referenceArguments.getReferenceFileName());
+        checkpointInputs.addAll(knownVariants);
+        final PipelineCheckpointer checkpointer = new PipelineCheckpointer(ctx, checkpointDirectory, referenceArguments.getReferenceFileName(), checkpointInputs);
+        // the read filters are fingerprinted by their classes and argument values
+        final List<ReadFilter> readFilters = getCommandLineParser().getPluginDescriptor(GATKReadFilterPluginDescriptor.class)
+                .getResolvedInstances();
+
+        final RecalibrationReport bqsrReport = checkpointer.checkpointRecalibrationReport("recalibrationTable", bqsrArgs, () -> {
+            JavaPairRDD<GATKRead, Iterable<GATKVariant>> readsWithVariants = JoinReadsWithVariants.join(filteredReadsForBQSR, localKnownSitesFilePaths);
+            //note: we use the reference dictionary from the reads themselves.
+            return BaseRecalibratorSparkFn.apply(readsWithVariants, getHeaderForReads(), referenceFileName, bqsrArgs);
+        }, bqsrArgs, readFilters);
 
         final Broadcast<RecalibrationReport> reportBroadcast = ctx.broadcast(bqsrReport);
         final JavaRDD<GATKRead> finalReads = ApplyBQSRSparkFn.apply(initialReads, reportBroadcast, getHeaderForReads(), applyBqsrArgs.toApplyBQSRArgumentCollection(bqsrArgs.PRESERVE_QSCORES_LESS_THAN));
@@ -11,6 +11,7 @@ import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.MarkDuplicatesSparkArgumentCollection;
 import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
@@ -38,10 +39,12 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationReport;
+import org.broadinstitute.hellbender.utils.spark.PipelineCheckpointer;
 import org.broadinstitute.hellbender.utils.spark.SparkUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariant;
 import picard.sam.markduplicates.util.OpticalDuplicateFinder;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -76,6 +79,11 @@ import java.util.stream.Collectors;
  *   --sparkRunner GCS \
  *   --cluster my-dataproc-cluster
  * </pre>
+ * <p>
+ * If --checkpoint-directory is given, the aligned reads, the duplicate-marked and sorted reads, and the recalibration
+ * table are written to that directory as each stage completes. Rerunning the same command after a failure skips the
+ * stages that have already been checkpointed.
+ * </p>
  */
 
 @CommandLineProgramProperties(
@@ -141,6 +149,12 @@ public class ReadsPipelineSpark extends GATKSparkTool {
     @Argument(doc = "whether to use the strict implementation or not (defaults to the faster implementation that doesn't strictly match the walker version)", fullName = "strict", optional = true)
     public boolean strict = false;
 
+    @Argument(doc = "Write variants partition by partition without a global sort, if the partitions are in coordinate order", fullName = HaplotypeCallerSpark.ORDERED_PARTITION_OUTPUT_LONG_NAME, optional = true)
+    public boolean orderedPartitionOutput = false;
+
+    @Argument(doc = PipelineCheckpointer.CHECKPOINT_DIRECTORY_DOC, fullName = PipelineCheckpointer.CHECKPOINT_DIRECTORY_LONG_NAME, optional = true)
+    public String checkpointDirectory = null;
+
     @Override
     public boolean useVariantAnnotations() { return true;}
 
@@ -167,31 +181,43 @@ public class ReadsPipelineSpark extends GATKSparkTool {
         String referenceFileName = addReferenceFilesForSpark(ctx, referenceArguments.getReferenceFileName());
         List<String> localKnownSitesFilePaths = addVCFsForSpark(ctx, knownVariants);
 
+        // the aligned, duplicate-marked and recalibration stages are only checkpointed if a checkpoint directory is given
+        final List<String> checkpointInputs = new ArrayList<>(readArguments.getReadFilesNames());
+        checkpointInputs.add(referenceArguments.getReferenceFileName());
+        checkpointInputs.addAll(knownVariants);
+        final PipelineCheckpointer checkpointer = new PipelineCheckpointer(ctx, checkpointDirectory, referenceArguments.getReferenceFileName(), checkpointInputs);
+        // the read filters are fingerprinted by their classes and argument values
+        final List<ReadFilter> readFilters = getCommandLineParser().getPluginDescriptor(GATKReadFilterPluginDescriptor.class)
+                .getResolvedInstances();
+
         final JavaRDD<GATKRead> alignedReads;
         final SAMFileHeader header;
         final BwaSparkEngine bwaEngine;
         if (align) {
-            bwaEngine = new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), bwaArgs.indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary());
-            if (bwaArgs.singleEndAlignment) {
-                alignedReads = bwaEngine.alignUnpaired(getReads());
-            } else {
-                // filter reads after alignment in the case of paired reads since filtering does not know about pairs
-                final ReadFilter filter = makeReadFilter(bwaEngine.getHeader());
-                alignedReads = bwaEngine.alignPaired(getUnfilteredReads()).filter(filter::test);
-            }
+            bwaEngine = new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), bwaArgs.indexImageFile, bwaArgs.indexImageStagingDirectory, getHeaderForReads(), getReferenceSequenceDictionary());
             header = bwaEngine.getHeader();
+            alignedReads = checkpointer.checkpointReads("aligned", header, () -> {
+                if (bwaArgs.singleEndAlignment) {
+                    return bwaEngine.alignUnpaired(getReads());
+                } else {
+                    // filter reads after alignment in the case of paired reads since filtering does not know about pairs
+                    final ReadFilter filter = makeReadFilter(bwaEngine.getHeader());
+                    return bwaEngine.alignPaired(getUnfilteredReads()).filter(filter::test);
+                }
+            }, bwaArgs, readFilters);
         } else {
             bwaEngine = null;
             alignedReads = getReads();
             header = getHeaderForReads();
         }
 
-        final JavaRDD<GATKRead> markedReads = MarkDuplicatesSpark.mark(alignedReads, header, new OpticalDuplicateFinder(), markDuplicatesSparkArgumentCollection, getRecommendedNumReducers());
-
         // always coordinate-sort reads so BQSR can use queryLookaheadBases in FeatureDataSource
         final SAMFileHeader readsHeader = header.clone();
         readsHeader.setSortOrder(SAMFileHeader.SortOrder.coordinate);
-        final JavaRDD<GATKRead> sortedMarkedReads = SparkUtils.sortReadsAccordingToHeader(markedReads, readsHeader, numReducers);
+        final JavaRDD<GATKRead> sortedMarkedReads = checkpointer.checkpointReads("markedAndSorted", readsHeader, () -> {
+            final JavaRDD<GATKRead> markedReads = MarkDuplicatesSpark.mark(alignedReads, header, new OpticalDuplicateFinder(), markDuplicatesSparkArgumentCollection, getRecommendedNumReducers());
+            return SparkUtils.sortReadsAccordingToHeader(markedReads, readsHeader, numReducers);
+        }, markDuplicatesSparkArgumentCollection, readFilters);
 
         // The markedReads have already had the WellformedReadFilter applied to them, which
         // is all the filtering that MarkDupes and ApplyBQSR want. BQSR itself wants additional
@@ -199,10 +225,12 @@ public class ReadsPipelineSpark extends GATKSparkTool {
         //NOTE: this doesn't honor enabled/disabled commandline filters
         final ReadFilter bqsrReadFilter = ReadFilter.fromList(BaseRecalibrator.getBQSRSpecificReadFilterList(), header);
 
-        JavaRDD<GATKRead> markedFilteredReadsForBQSR = sortedMarkedReads.filter(bqsrReadFilter::test);
+        final RecalibrationReport bqsrReport = checkpointer.checkpointRecalibrationReport("recalibrationTable", bqsrArgs, () -> {
+            JavaRDD<GATKRead> markedFilteredReadsForBQSR = sortedMarkedReads.filter(bqsrReadFilter::test);
 
-        JavaPairRDD<GATKRead, Iterable<GATKVariant>> readsWithVariants = JoinReadsWithVariants.join(markedFilteredReadsForBQSR, localKnownSitesFilePaths);
-        final RecalibrationReport bqsrReport = BaseRecalibratorSparkFn.apply(readsWithVariants, getHeaderForReads(), referenceFileName, bqsrArgs);
+            JavaPairRDD<GATKRead, Iterable<GATKVariant>> readsWithVariants = JoinReadsWithVariants.join(markedFilteredReadsForBQSR, localKnownSitesFilePaths);
+            return BaseRecalibratorSparkFn.apply(readsWithVariants, getHeaderForReads(), referenceFileName, bqsrArgs);
+        }, bqsrArgs);
 
         final Broadcast<RecalibrationReport> reportBroadcast = ctx.broadcast(bqsrReport);
         final JavaRDD<GATKRead> finalReads = ApplyBQSRSparkFn.apply(sortedMarkedReads, reportBroadcast, getHeaderForReads(), applyBqsrArgs.toApplyBQSRArgumentCollection(bqsrArgs.PRESERVE_QSCORES_LESS_THAN));
@@ -221,7 +249,7 @@ public class ReadsPipelineSpark extends GATKSparkTool {
                 .flatMap(interval -> Shard.divideIntervalIntoShards(interval, shardingArgs.readShardSize, shardingArgs.readShardPadding, sequenceDictionary).stream())
                 .collect(Collectors.toList());
 
-        HaplotypeCallerSpark.callVariantsWithHaplotypeCallerAndWriteOutput(ctx, filteredReadsForHC, readsHeader, sequenceDictionary, referenceArguments.getReferenceFileName(), intervalShards, hcArgs, shardingArgs, assemblyRegionArgs, true, output, makeVariantAnnotations(), logger, strict, createOutputVariantIndex);
+        HaplotypeCallerSpark.callVariantsWithHaplotypeCallerAndWriteOutput(ctx, filteredReadsForHC, readsHeader, sequenceDictionary, referenceArguments.getReferenceFileName(), intervalShards, hcArgs, shardingArgs, assemblyRegionArgs, true, output, makeVariantAnnotations(), logger, strict, createOutputVariantIndex, orderedPartitionOutput);
 
         if (bwaEngine != null) {
             bwaEngine.close();
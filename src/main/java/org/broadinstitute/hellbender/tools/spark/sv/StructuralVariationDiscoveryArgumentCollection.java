@@ -96,6 +96,12 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
         @Argument(doc = "Maximum total bases in FASTQs that can be assembled.", fullName = "max-fastq-size")
         public int maxFASTQSize = 3000000;
 
+        @Advanced
+        @Argument(doc = "Number of Spark partitions to spread the local assemblies over.  Assemblies are packed into " +
+                "partitions by their estimated FASTQ size, and unusually large ones get a partition of their own.  " +
+                "0 means give each assembly a partition of its own.", fullName = "assembly-partitions", optional = true)
+        public int assemblyPartitions = 0;
+
         @Argument(doc = "Exclusion interval padding.", fullName = "exclusion-interval-padding")
         public int exclusionIntervalPadding = 0;
 
@@ -105,6 +111,13 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
         @Argument(doc = "Don't look for extra reads mapped outside the interval.", fullName = "interval-only-assembly")
         public boolean intervalOnlyAssembly = false;
 
+        @Advanced
+        @Argument(doc = "Keep a serialized copy of the primary reads (in memory, spilling to disk) after breakpoint intervals " +
+                "have been found, so that the kmer and template-gathering passes read it rather than decoding the input again.  " +
+                "This needs executor storage (memory plus local disk) about the size of the input BAM, since every primary read is kept.",
+                fullName = "persist-assembly-reads", optional = true)
+        public boolean persistAssemblyReads = false;
+
         @Argument(doc = "Weight to give external evidence.", fullName = "external-evidence-weight")
         public int externalEvidenceWeight = 10;
 
@@ -3,7 +3,6 @@ package org.broadinstitute.hellbender.tools.spark.sv.discovery.alignment;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import htsjdk.samtools.SAMFileHeader;
 import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaPairRDD;
@@ -48,14 +47,6 @@ public class AssemblyContigAlignmentsConfigPicker {
      */
     static final int ALIGNMENT_MQ_THRESHOLD = 20;
 
-    /**
-     * A filter to boost configuration scoring implemented here:
-     * if the configuration has more than 10 mappings, then
-     * any mappings in such configuration with MQ
-     * not strictly above this threshold is classified as bad and filtered.
-     */
-    static final int ALIGNMENT_MQ_THRESHOLD_FOR_SPEED_BOOST = 10;
-
     /**
      * Default value to be passed to
      * {@link #filterSecondaryConfigurationsByMappingQualityThreshold(List, int)}
@@ -68,6 +59,13 @@ public class AssemblyContigAlignmentsConfigPicker {
      */
     public static final int ALIGNMENT_LOW_READ_UNIQUENESS_THRESHOLD = 10;
 
+    /**
+     * The most candidate configurations that {@link #searchForNearOptimalConfigurations(List, Set, int, double)}
+     * will return for one contig.
+     */
+    @VisibleForTesting
+    static final int MAX_CANDIDATE_CONFIGURATIONS = 1000;
+
     /**
      * Filters input alignments of single-ended long reads, e.g. local assembly contigs,
      * with the objective of
@@ -83,7 +81,8 @@ public class AssemblyContigAlignmentsConfigPicker {
      *             first group the alignments of each local assembly contig together
      *         </li>
      *         <li>
-     *             then exhaustively iterate through all possible combinations (named configuration) of the alignments,
+     *             then search through all possible combinations (named configuration) of the alignments
+     *             (see {@link #searchForNearOptimalConfigurations(List, Set, int, double)}),
      *             score them, and pick the best ones with the "optimal coverage"; note that sometimes
      *             there are multiple "optimal" configurations, and when this happens, all of them are returned,
      *             with each of them having the field {@link AssemblyContigWithFineTunedAlignments#hasEquallyGoodAlnConfigurations}
@@ -158,9 +157,7 @@ public class AssemblyContigAlignmentsConfigPicker {
      * Note that we are not simply filtering out contigs with only 1 alignment because
      * they might contain large (> 50) gaps hence should be kept.
      *
-     * a point that could use improvements:
-     *   the current implementation exhaustively checks the power set of all possible alignments of each assembly contig,
-     *   which is computationally impossible for contigs having many-but-barely-any-good alignments, yet bringing in no value,
+     * Contigs having many-but-barely-any-good alignments bring in no value,
      *   hence this primitive filtering step to get rid of these bad assembly contigs.
      */
     @VisibleForTesting
@@ -292,8 +289,9 @@ public class AssemblyContigAlignmentsConfigPicker {
      * {@link #computeScoreOfConfiguration(List, Set, int)}.
      *
      * <p>
-     *     This step itself has its own hard-filtering steps done
-     *     via {@link #heuristicSpeedUpWhenFacingManyMappings(AlignedContig, Set, int)}.
+     *     All alignments of the contig are considered, however many there are:
+     *     {@link #searchForNearOptimalConfigurations(List, Set, int, double)} doesn't enumerate the power set of the
+     *     alignments, so there's no need to drop low-MQ alignments of contigs with many alignments up front.
      * </p>
      *
      * <p>
@@ -316,67 +314,24 @@ public class AssemblyContigAlignmentsConfigPicker {
             );
         }
 
-        // step 1: get max aligner score of mappings to canonical chromosomes and speed up in case of too many mappings
-        final int maxCanonicalChrAlignerScore = alignedContig.getAlignments().stream()
-                .filter(alignmentInterval -> canonicalChromosomes.contains(alignmentInterval.referenceSpan.getContig()))
-                .mapToInt(ai -> ai.alnScore).max().orElse(0); // possible that no mapping to canonical chromosomes
-
-        final GoodAndBadMappings preFilteredAlignments =
-                heuristicSpeedUpWhenFacingManyMappings(alignedContig, canonicalChromosomes, maxCanonicalChrAlignerScore);
-        final List<AlignmentInterval> goodMappings = preFilteredAlignments.goodMappings;
-        final List<AlignmentInterval> badMappings = preFilteredAlignments.badMappings;
+        // step 1: get max aligner score of mappings to canonical chromosomes
+        final List<AlignmentInterval> goodMappings = new ArrayList<>(alignedContig.getAlignments());
+        final List<AlignmentInterval> badMappings = Collections.emptyList();
 
-        final int newMaxCanonicalChrAlignerScore = goodMappings.stream()
+        final int maxCanonicalChrAlignerScore = goodMappings.stream()
                 .filter(alignmentInterval -> canonicalChromosomes.contains(alignmentInterval.referenceSpan.getContig()))
                 .mapToInt(ai -> ai.alnScore).max().orElse(0); // possible that no mapping to canonical chromosomes
 
         // annotate contig if a good mapping to non-canonical chromosome exists
         final AlignmentInterval goodMappingToNonCanonicalChromosome =
-                getBetterNonCanonicalMapping(canonicalChromosomes, goodMappings, newMaxCanonicalChrAlignerScore);
+                getBetterNonCanonicalMapping(canonicalChromosomes, goodMappings, maxCanonicalChrAlignerScore);
         if (goodMappingToNonCanonicalChromosome != null) { // take it out of consideration
             goodMappings.remove(goodMappingToNonCanonicalChromosome);
         }
 
         // step 2: generate, score, and pick configurations
         return generateScoreAndPickConfigurations(goodMappings, badMappings, goodMappingToNonCanonicalChromosome, canonicalChromosomes,
-                newMaxCanonicalChrAlignerScore, scoreDiffTolerance, alignedContig.getContigName());
-    }
-
-    /**
-     * Speed up if number of alignments is too high (>10):
-     * <ul>
-     *     <li>if mapped to canonical chromosomes, MQ must be >10;</li>
-     *     <li>otherwise, must have AS higher than max canonical aligner score</li>
-     * </ul>
-     *
-     * @param alignedContig                 input contig whose alignments to be studied
-     * @param canonicalChromosomes          a set of chromosome names that are defined as canonical, e.g. for Human, chr1-chr22, and chrX and chrY
-     * @param maxCanonicalChrAlignerScore   among the mappings of {@code alignedContig} that map to canonical chromosomes, the maximum of the aligner scores
-     * @return                              {@link GoodAndBadMappings} with bad mappings defined as those failing hard filters mentioned above.
-     */
-    @VisibleForTesting
-    static GoodAndBadMappings heuristicSpeedUpWhenFacingManyMappings(final AlignedContig alignedContig,
-                                                                     final Set<String> canonicalChromosomes,
-                                                                     final int maxCanonicalChrAlignerScore) {
-
-        final List<AlignmentInterval> goods;
-        final List<AlignmentInterval> bads;
-        if (alignedContig.getAlignments().size() > 10) {
-            goods = new ArrayList<>();
-            bads = new ArrayList<>();
-            for(final AlignmentInterval alignment : alignedContig.getAlignments()) {
-                final boolean isGood = (!canonicalChromosomes.contains(alignment.referenceSpan.getContig()) && alignment.alnScore > maxCanonicalChrAlignerScore)
-                        || alignment.mapQual > ALIGNMENT_MQ_THRESHOLD_FOR_SPEED_BOOST;
-                if (isGood)
-                    goods.add(alignment);
-                else
-                    bads.add(alignment);
-            }
-        } else {
-            goods = alignedContig.getAlignments();
-            bads = Collections.emptyList();
-        }
-        return new GoodAndBadMappings(goods, bads);
+                maxCanonicalChrAlignerScore, scoreDiffTolerance, alignedContig.getContigName());
     }
 
     /**
@@ -430,21 +385,21 @@ public class AssemblyContigAlignmentsConfigPicker {
                                                                                final int maxCanonicalChrAlignerScore,
                                                                                final Double scoreDiffTolerance,
                                                                                final String contigName) {
-        final List<List<AlignmentInterval>> allConfigurations = Sets.powerSet(new HashSet<>(goodMappings))
-                .stream().map(ArrayList::new)
-                // make sure within each configuration, alignments would be sorted as they would be in a corresponding AlignedContig
-                .map(ls -> ls.stream().sorted(AlignedContig.getAlignmentIntervalComparator()).collect(Collectors.toList()))
-                .collect(Collectors.toList());
+        // make sure within each configuration, alignments would be sorted as they would be in a corresponding AlignedContig
+        final List<AlignmentInterval> sortedMappings = new LinkedHashSet<>(goodMappings).stream()
+                .sorted(AlignedContig.getAlignmentIntervalComparator()).collect(Collectors.toList());
+        final List<List<AlignmentInterval>> candidateConfigurations =
+                searchForNearOptimalConfigurations(sortedMappings, canonicalChromosomes, maxCanonicalChrAlignerScore, scoreDiffTolerance);
 
-        final List<Double> scores = allConfigurations.stream()
+        final List<Double> scores = candidateConfigurations.stream()
                 .map(configuration -> computeScoreOfConfiguration(configuration, canonicalChromosomes, maxCanonicalChrAlignerScore))
-                .collect(SVUtils.arrayListCollector(allConfigurations.size()));
+                .collect(SVUtils.arrayListCollector(candidateConfigurations.size()));
 
         // step 3: pick the best-scored configuration(s) (if multiple configurations have equally good scores, return all of them)
         final double maxScore = scores.stream().mapToDouble(Double::doubleValue).max()
                 .orElseThrow(() -> new GATKException("Cannot find best-scoring configuration on alignments of contig: " + contigName));
 
-        return IntStream.range(0, allConfigurations.size())
+        return IntStream.range(0, candidateConfigurations.size())
                 .filter(i -> {
                     final Double s = scores.get(i);
                     // two configurations with would-be-same-scores can differ by a tolerance due to the sin of comparing
@@ -455,7 +410,7 @@ public class AssemblyContigAlignmentsConfigPicker {
                 })
                 .mapToObj(p -> {
                     final ArrayList<AlignmentInterval> copy = new ArrayList<>(goodMappings);
-                    final List<AlignmentInterval> pickedAlignments = allConfigurations.get(p);
+                    final List<AlignmentInterval> pickedAlignments = candidateConfigurations.get(p);
                     copy.removeAll(pickedAlignments); // remove picked, left are bad
                     copy.addAll(badMappings); // add original bad mappings
                     return new GoodAndBadMappings(pickedAlignments, copy, goodMappingToNonCanonicalChromosome);
@@ -463,6 +418,223 @@ public class AssemblyContigAlignmentsConfigPicker {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Finds every configuration whose score, as computed by {@link #computeScoreOfConfiguration(List, Set, int)},
+     * could be within {@code scoreDiffTolerance} of the best score, without enumerating the power set of the alignments.
+     *
+     * <p>
+     *     The score of a configuration is the sum of the MQ-weighted lengths of its alignments, less the sum of the
+     *     overlaps on the contig of each pair of its alignments.
+     *     Taking the alignments in order of their start on the contig, whether an alignment pays off depends only on
+     *     which of the alignments picked before it overlap it, and once the start on the contig has moved past the
+     *     end of a picked alignment, that alignment can't overlap anything else.
+     *     So the best score that can be had from the alignments that remain depends only on the position in the list
+     *     and on the set of picked alignments that are still "open", and is computed by dynamic programming over
+     *     these states.
+     *     The number of states is at most the number of alignments times 2 to the power of the largest number of
+     *     alignments covering any one base of the contig, and it's far smaller in practice, because an alignment that
+     *     would add nothing to the score given the open alignments is never worth picking.
+     * </p>
+     *
+     * <p>
+     *     The best configurations are then enumerated by a search that uses the dynamic programming results as an
+     *     exact bound, so it never explores a partial configuration that can't be completed to a best one.
+     *     Scores are accumulated in a different order than in {@link #computeScoreOfConfiguration(List, Set, int)},
+     *     so this is done with a little extra slack, and the returned candidates (which always include a best
+     *     configuration) are expected to be re-scored by the caller.
+     *     When many configurations tie for the best score their number can grow exponentially with the number of
+     *     alignments, so no more than {@link #MAX_CANDIDATE_CONFIGURATIONS} are returned.
+     * </p>
+     *
+     * @param sortedMappings    alignments sorted by {@link AlignedContig#getAlignmentIntervalComparator()}, without duplicates
+     * @return                  configurations, each sorted in the same order as {@code sortedMappings}
+     */
+    @VisibleForTesting
+    static List<List<AlignmentInterval>> searchForNearOptimalConfigurations(final List<AlignmentInterval> sortedMappings,
+                                                                            final Set<String> canonicalChromosomes,
+                                                                            final int maxCanonicalChrAlignerScore,
+                                                                            final double scoreDiffTolerance) {
+        final int nAlignments = sortedMappings.size();
+        final double[] gains = new double[nAlignments];
+        double totalScore = 0.;
+        for (int i = 0; i < nAlignments; ++i) {
+            gains[i] = computeTigExplainQualOfOneConfiguration(Collections.singletonList(sortedMappings.get(i)),
+                    canonicalChromosomes, maxCanonicalChrAlignerScore);
+            totalScore += Math.abs(gains[i]) + sortedMappings.get(i).getSizeOnRead();
+        }
+
+        final ConfigurationSearch search = new ConfigurationSearch(sortedMappings, gains,
+                Math.max(scoreDiffTolerance, 0.) + 1.e-9 * (1. + totalScore));
+        final List<List<AlignmentInterval>> configurations = new ArrayList<>();
+        for (final boolean[] picked : search.enumerateBestConfigurations()) {
+            final List<AlignmentInterval> configuration = new ArrayList<>();
+            for (int i = 0; i < nAlignments; ++i) {
+                if (picked[i]) configuration.add(sortedMappings.get(i));
+            }
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+    /**
+     * Dynamic programming state for {@link #searchForNearOptimalConfigurations(List, Set, int, double)}.
+     * A state is an index into the sorted alignments, and the set of picked alignments before that index
+     * that might overlap the alignment at that index or any later one.
+     * Neither the dynamic programming nor the search recurses, so the number of alignments isn't limited by the stack.
+     */
+    private static final class ConfigurationSearch {
+        private final List<AlignmentInterval> sortedMappings;
+        private final double[] gains;
+        private final double slack;
+        // for each index, the best score that can be added by the alignments from that index on, given the open alignments
+        private final List<Map<BitSet, Double>> bestCompletions;
+
+        ConfigurationSearch(final List<AlignmentInterval> sortedMappings, final double[] gains, final double slack) {
+            this.sortedMappings = sortedMappings;
+            this.gains = gains;
+            this.slack = slack;
+            this.bestCompletions = new ArrayList<>(gains.length);
+            for (int i = 0; i < gains.length; ++i) {
+                bestCompletions.add(new HashMap<>());
+            }
+            computeBestCompletions();
+        }
+
+        /**
+         * Returns the configurations within the slack of the best score, at most {@link #MAX_CANDIDATE_CONFIGURATIONS}
+         * of them.  The search always follows the most promising choice first, so the first candidate is a best one.
+         */
+        List<boolean[]> enumerateBestConfigurations() {
+            final List<boolean[]> candidates = new ArrayList<>();
+            final BitSet noneOpen = new BitSet();
+            final double minScore = getBestCompletion(0, noneOpen) - slack;
+            final Deque<SearchNode> stack = new ArrayDeque<>();
+            stack.push(new SearchNode(0, noneOpen, 0., null));
+            while (!stack.isEmpty() && candidates.size() < MAX_CANDIDATE_CONFIGURATIONS) {
+                final SearchNode node = stack.pop();
+                final int idx = node.idx;
+                if (idx == gains.length) {
+                    final boolean[] picked = new boolean[gains.length];
+                    for (PickedAlignment pick = node.lastPick; pick != null; pick = pick.previous) {
+                        picked[pick.idx] = true;
+                    }
+                    candidates.add(picked);
+                    continue;
+                }
+                SearchNode pickNode = null;
+                double pickBound = Double.NEGATIVE_INFINITY;
+                final double marginalScore = getMarginalScore(idx, node.open);
+                if (marginalScore > -slack) {
+                    final BitSet openIfPicked = getNextOpen(idx, node.open, true);
+                    pickBound = node.score + marginalScore + getBestCompletion(idx + 1, openIfPicked);
+                    if (pickBound >= minScore) {
+                        pickNode = new SearchNode(idx + 1, openIfPicked, node.score + marginalScore,
+                                                  new PickedAlignment(idx, node.lastPick));
+                    }
+                }
+                SearchNode skipNode = null;
+                final BitSet openIfSkipped = getNextOpen(idx, node.open, false);
+                final double skipBound = node.score + getBestCompletion(idx + 1, openIfSkipped);
+                if (skipBound >= minScore) {
+                    skipNode = new SearchNode(idx + 1, openIfSkipped, node.score, node.lastPick);
+                }
+                // push the more promising choice last, so that it's explored first
+                if (pickNode != null && skipNode != null) {
+                    stack.push(pickBound > skipBound ? skipNode : pickNode);
+                    stack.push(pickBound > skipBound ? pickNode : skipNode);
+                } else if (pickNode != null) {
+                    stack.push(pickNode);
+                } else if (skipNode != null) {
+                    stack.push(skipNode);
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * Finds the states that the search can reach, working forward from the first alignment, and then fills in
+         * their best completions, working backward from the last one.
+         */
+        private void computeBestCompletions() {
+            if (gains.length == 0) return;
+            bestCompletions.get(0).put(new BitSet(), null);
+            for (int idx = 0; idx < gains.length - 1; ++idx) {
+                final Map<BitSet, Double> nextStates = bestCompletions.get(idx + 1);
+                for (final BitSet open : bestCompletions.get(idx).keySet()) {
+                    nextStates.put(getNextOpen(idx, open, false), null);
+                    if (getMarginalScore(idx, open) > -slack) {
+                        nextStates.put(getNextOpen(idx, open, true), null);
+                    }
+                }
+            }
+            for (int idx = gains.length - 1; idx >= 0; --idx) {
+                for (final Map.Entry<BitSet, Double> entry : bestCompletions.get(idx).entrySet()) {
+                    final BitSet open = entry.getKey();
+                    double best = getBestCompletion(idx + 1, getNextOpen(idx, open, false));
+                    // picking an alignment that adds nothing now can only cost something later
+                    final double marginalScore = getMarginalScore(idx, open);
+                    if (marginalScore > 0.) {
+                        best = Math.max(best, marginalScore + getBestCompletion(idx + 1, getNextOpen(idx, open, true)));
+                    }
+                    entry.setValue(best);
+                }
+            }
+        }
+
+        private double getBestCompletion(final int idx, final BitSet open) {
+            if (idx == gains.length) return 0.;
+            return bestCompletions.get(idx).get(open);
+        }
+
+        /** What the alignment at idx would add to the score, given the open alignments. */
+        private double getMarginalScore(final int idx, final BitSet open) {
+            final AlignmentInterval alignment = sortedMappings.get(idx);
+            double marginalScore = gains[idx];
+            for (int i = open.nextSetBit(0); i >= 0; i = open.nextSetBit(i + 1)) {
+                marginalScore -= AlignmentInterval.overlapOnContig(sortedMappings.get(i), alignment);
+            }
+            return marginalScore;
+        }
+
+        /** The alignments that are open at idx + 1, after deciding whether to pick the alignment at idx. */
+        private BitSet getNextOpen(final int idx, final BitSet open, final boolean pickIdx) {
+            final BitSet nextOpen = new BitSet();
+            if (idx + 1 == gains.length) return nextOpen;
+            final int nextStart = sortedMappings.get(idx + 1).startInAssembledContig;
+            for (int i = open.nextSetBit(0); i >= 0; i = open.nextSetBit(i + 1)) {
+                if (sortedMappings.get(i).endInAssembledContig >= nextStart) nextOpen.set(i);
+            }
+            if (pickIdx && sortedMappings.get(idx).endInAssembledContig >= nextStart) nextOpen.set(idx);
+            return nextOpen;
+        }
+
+        /** A partial configuration: the choices made for the alignments before idx, and their score. */
+        private static final class SearchNode {
+            final int idx;
+            final BitSet open;
+            final double score;
+            final PickedAlignment lastPick;
+
+            SearchNode(final int idx, final BitSet open, final double score, final PickedAlignment lastPick) {
+                this.idx = idx;
+                this.open = open;
+                this.score = score;
+                this.lastPick = lastPick;
+            }
+        }
+
+        /** The picked alignments of a partial configuration, latest first, shared with the configurations it leads to. */
+        private static final class PickedAlignment {
+            final int idx;
+            final PickedAlignment previous;
+
+            PickedAlignment(final int idx, final PickedAlignment previous) {
+                this.idx = idx;
+                this.previous = previous;
+            }
+        }
+    }
+
     /**
      * Computing score of given configuration of alignments.
      * No assumption on the ordering of input alignments.
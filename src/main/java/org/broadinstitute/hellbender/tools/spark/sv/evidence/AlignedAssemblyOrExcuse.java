@@ -37,10 +37,18 @@ public final class AlignedAssemblyOrExcuse {
     private final String errorMessage;
     private final FermiLiteAssembly assembly;
     private final List<List<BwaMemAlignment>> contigAlignments;
+    private final int fastqSize;
     private final int secondsInAssembly;
+    private final int secondsInAlignment;
+
+    /** Total number of bases in the reads given to the assembler (or 0, if unknown). */
+    public int getFastqSize() { return fastqSize; }
 
     public int getSecondsInAssembly() { return secondsInAssembly; }
 
+    /** Time spent aligning the assembled contigs to the reference. */
+    public int getSecondsInAlignment() { return secondsInAlignment; }
+
     public int getAssemblyId() {
         return assemblyId;
     }
@@ -68,15 +76,27 @@ public final class AlignedAssemblyOrExcuse {
     }
 
     public AlignedAssemblyOrExcuse( final int assemblyId, final String errorMessage ) {
+        this(assemblyId, errorMessage, 0);
+    }
+
+    public AlignedAssemblyOrExcuse( final int assemblyId, final String errorMessage, final int fastqSize ) {
         this.assemblyId = assemblyId;
         this.errorMessage = errorMessage;
         this.assembly = null;
         this.contigAlignments = null;
+        this.fastqSize = fastqSize;
         this.secondsInAssembly = 0;
+        this.secondsInAlignment = 0;
     }
 
     public AlignedAssemblyOrExcuse( final int assemblyId, final FermiLiteAssembly assembly, final int secondsInAssembly,
                                     final List<List<BwaMemAlignment>> contigAlignments ) {
+        this(assemblyId, assembly, 0, secondsInAssembly, 0, contigAlignments);
+    }
+
+    public AlignedAssemblyOrExcuse( final int assemblyId, final FermiLiteAssembly assembly, final int fastqSize,
+                                    final int secondsInAssembly, final int secondsInAlignment,
+                                    final List<List<BwaMemAlignment>> contigAlignments ) {
         Utils.validate(assembly.getNContigs()==contigAlignments.size(),
                 "Number of contigs in assembly doesn't match length of list of alignments.");
         Utils.validateArg(assembly.getContigs().stream().noneMatch(contig -> contig.getConnections()==null),
@@ -85,13 +105,17 @@ public final class AlignedAssemblyOrExcuse {
         this.errorMessage = null;
         this.assembly = assembly;
         this.contigAlignments = contigAlignments;
+        this.fastqSize = fastqSize;
         this.secondsInAssembly = secondsInAssembly;
+        this.secondsInAlignment = secondsInAlignment;
     }
 
     private AlignedAssemblyOrExcuse( final Kryo kryo, final Input input ) {
         this.assemblyId = input.readInt();
         this.errorMessage = input.readString();
+        this.fastqSize = input.readInt();
         this.secondsInAssembly = input.readInt();
+        this.secondsInAlignment = input.readInt();
         if ( errorMessage != null ) {
             this.assembly = null;
             this.contigAlignments = null;
@@ -208,7 +232,9 @@ public final class AlignedAssemblyOrExcuse {
     private void serialize( final Kryo kryo, final Output output ) {
         output.writeInt(assemblyId);
         output.writeString(errorMessage);
+        output.writeInt(fastqSize);
         output.writeInt(secondsInAssembly);
+        output.writeInt(secondsInAlignment);
         if ( errorMessage == null ) {
             final int nContigs = assembly.getNContigs();
             final Map<Contig, Integer> contigMap = new HashMap<>();
@@ -300,7 +326,9 @@ public final class AlignedAssemblyOrExcuse {
                     disposition = alignedAssemblyOrExcuse.getErrorMessage();
                 } else {
                     disposition = "produced " + alignedAssemblyOrExcuse.getAssembly().getNContigs() +
-                            " contigs in " + alignedAssemblyOrExcuse.getSecondsInAssembly() + " secs.";
+                            " contigs from " + alignedAssemblyOrExcuse.getFastqSize() + " FASTQ bases in " +
+                            alignedAssemblyOrExcuse.getSecondsInAssembly() + " secs, and aligned them in " +
+                            alignedAssemblyOrExcuse.getSecondsInAlignment() + " secs.";
                 }
                 writer.write(intervalIdx + "\t" +
                         seqName + ":" + interval.getStart() + "-" + interval.getEnd() + "\t" +
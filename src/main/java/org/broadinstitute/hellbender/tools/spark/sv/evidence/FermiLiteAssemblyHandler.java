@@ -57,7 +57,7 @@ public final class FermiLiteAssemblyHandler implements FindBreakpointEvidenceSpa
         // bail if the assembly will be too large
         final int fastqSize = readsList.stream().mapToInt(FastqRead -> FastqRead.getBases().length).sum();
         if ( fastqSize > maxFastqSize ) {
-            return new AlignedAssemblyOrExcuse(intervalID, "no assembly -- too big (" + fastqSize + " bytes).");
+            return new AlignedAssemblyOrExcuse(intervalID, "no assembly -- too big (" + fastqSize + " bytes).", fastqSize);
         }
 
         // record the reads in the assembly as a FASTQ, if requested
@@ -81,7 +81,7 @@ public final class FermiLiteAssemblyHandler implements FindBreakpointEvidenceSpa
         final FermiLiteAssembly initialAssembly = assembler.createAssembly(readsList);
         final int secondsInAssembly = (int)((System.currentTimeMillis() - timeStart + 500)/1000);
         if ( initialAssembly.getNContigs() == 0 ) {
-            return new AlignedAssemblyOrExcuse(intervalID, "no assembly -- no contigs produced by assembler.");
+            return new AlignedAssemblyOrExcuse(intervalID, "no assembly -- no contigs produced by assembler.", fastqSize);
         }
 
         // patch up the assembly to improve contiguity
@@ -106,8 +106,11 @@ public final class FermiLiteAssemblyHandler implements FindBreakpointEvidenceSpa
                     assembly.getContigs().stream()
                             .map(Contig::getSequence)
                             .collect(SVUtils.arrayListCollector(assembly.getNContigs()));
+            final long alignmentStart = System.currentTimeMillis();
             final List<List<BwaMemAlignment>> alignments = aligner.alignSeqs(sequences);
-            return new AlignedAssemblyOrExcuse(intervalID, assembly, secondsInAssembly, alignments);
+            final int secondsInAlignment = (int)((System.currentTimeMillis() - alignmentStart + 500)/1000);
+            return new AlignedAssemblyOrExcuse(intervalID, assembly, fastqSize,
+                                                secondsInAssembly, secondsInAlignment, alignments);
         }
     }
 
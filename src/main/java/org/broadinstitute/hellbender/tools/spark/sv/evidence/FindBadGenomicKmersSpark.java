@@ -3,7 +3,9 @@ package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
 import org.apache.spark.HashPartitioner;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -18,11 +20,13 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchMap;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import scala.Tuple2;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -37,6 +41,11 @@ import java.util.List;
  * input file by the StructuralVariationDiscoveryPipelineSpark tool, which will ignore these kmers when trying
  * to produce candidate reads for local assemblies.</p>
  *
+ * <p>For large references (big, polyploid plant genomes, e.g.) the kmer counts may not fit in executor memory.
+ * Specifying --kmer-spill-partitions counts kmers out of core, in that many hash-partitioned spill files per Spark
+ * partition.  Adding --count-kmers-locally counts all the kmers in the driver process (still out of core) rather
+ * than on Spark executors.  Either way, the output is the same.</p>
+ *
  * <h3>Inputs</h3>
  * <ul>
  *     <li>A reference.</li>
@@ -91,11 +100,34 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
             fullName = "high-copy-fasta", optional = true)
     private String highCopyFastaFilename;
 
+    @Argument(doc = "number of spill files per partition for out-of-core kmer counting (0 counts kmers in memory)",
+            fullName = "kmer-spill-partitions", optional = true)
+    private int kmerSpillPartitions = 0;
+
+    @Argument(doc = "directory for the spill files of out-of-core kmer counting (default is the system temp directory)",
+            fullName = "kmer-spill-dir", optional = true)
+    private String kmerSpillDir;
+
+    @Argument(doc = "count kmers out of core in the driver rather than on Spark executors (requires --kmer-spill-partitions)",
+            fullName = "count-kmers-locally", optional = true)
+    private boolean countKmersLocally = false;
+
     @Override
     public boolean requiresReference() {
         return true;
     }
 
+    @Override
+    protected String[] customCommandLineValidation() {
+        if ( kmerSpillPartitions < 0 ) {
+            return new String[]{"--kmer-spill-partitions must not be negative"};
+        }
+        if ( countKmersLocally && kmerSpillPartitions == 0 ) {
+            return new String[]{"--count-kmers-locally requires a positive value for --kmer-spill-partitions"};
+        }
+        return null;
+    }
+
     /** Get the list of high copy number kmers in the reference, and write them to a file. */
     @Override
     protected void runTool( final JavaSparkContext ctx ) {
@@ -103,7 +135,9 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
         SAMSequenceDictionary dict = null;
         if ( hdr != null ) dict = hdr.getSequenceDictionary();
         final ReferenceMultiSparkSource referenceMultiSource = getReference();
-        Collection<SVKmer> killList = findBadGenomicKmers(ctx, kSize, maxDUSTScore, referenceMultiSource, dict);
+        Collection<SVKmer> killList = countKmersLocally ?
+                findBadGenomicKmersLocally(kSize, maxDUSTScore, referenceMultiSource, dict, kmerSpillPartitions, kmerSpillDir) :
+                findBadGenomicKmers(ctx, kSize, maxDUSTScore, referenceMultiSource, dict, kmerSpillPartitions, kmerSpillDir);
         if ( highCopyFastaFilename != null ) {
             killList = SVUtils.uniquify(killList, processFasta(kSize, maxDUSTScore, highCopyFastaFilename));
         }
@@ -118,6 +152,21 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
                                              final int maxDUSTScore,
                                              final ReferenceMultiSparkSource ref,
                                              final SAMSequenceDictionary readsDict ) {
+        return findBadGenomicKmers(ctx, kSize, maxDUSTScore, ref, readsDict, 0, null);
+    }
+
+    /**
+     * Find high copy number kmers in the reference sequence, counting kmers out of core if kmerSpillPartitions
+     * is positive
+     */
+    @VisibleForTesting
+    static List<SVKmer> findBadGenomicKmers( final JavaSparkContext ctx,
+                                             final int kSize,
+                                             final int maxDUSTScore,
+                                             final ReferenceMultiSparkSource ref,
+                                             final SAMSequenceDictionary readsDict,
+                                             final int kmerSpillPartitions,
+                                             final String kmerSpillDir ) {
         // Generate reference sequence RDD.
         final SAMSequenceDictionary dict = ref.getReferenceSequenceDictionary(readsDict);
         if ( dict == null ) throw new GATKException("No reference dictionary available");
@@ -125,9 +174,49 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
                                                         REF_RECORD_LEN, REF_RECORDS_PER_PARTITION);
 
         // Find the high copy number kmers
+        if ( kmerSpillPartitions > 0 ) {
+            return collectUbiquitousKmersInReferenceOutOfCore(kSize, maxDUSTScore, MAX_KMER_FREQ, refRDD,
+                                                                kmerSpillPartitions, kmerSpillDir);
+        }
         return collectUbiquitousKmersInReference(kSize, maxDUSTScore, MAX_KMER_FREQ, refRDD);
     }
 
+    /**
+     * Find high copy number kmers in the reference sequence without using Spark:  each contig is kmerized in turn
+     * into a SpillingKmerCounter.
+     */
+    @VisibleForTesting
+    static List<SVKmer> findBadGenomicKmersLocally( final int kSize,
+                                                    final int maxDUSTScore,
+                                                    final ReferenceMultiSparkSource ref,
+                                                    final SAMSequenceDictionary readsDict,
+                                                    final int kmerSpillPartitions,
+                                                    final String kmerSpillDir ) {
+        final SAMSequenceDictionary dict = ref.getReferenceSequenceDictionary(readsDict);
+        if ( dict == null ) throw new GATKException("No reference dictionary available");
+        try ( final SpillingKmerCounter kmerCounter =
+                      new SpillingKmerCounter(getSpillDir(kmerSpillDir), kmerSpillPartitions) ) {
+            for ( final SAMSequenceRecord rec : dict.getSequences() ) {
+                final SimpleInterval interval = new SimpleInterval(rec.getSequenceName(), 1, rec.getSequenceLength());
+                final byte[] bases;
+                try {
+                    bases = ref.getReferenceBases(interval).getBases();
+                } catch ( final IOException ioe ) {
+                    throw new GATKException("Can't get reference sequence bases for " + interval, ioe);
+                }
+                SVPrimitiveKmerizer.forEachCanonicalKmer(bases, kSize, maxDUSTScore, (valHigh, valLow) -> {
+                    kmerCounter.add(valHigh, valLow);
+                    return true;
+                });
+            }
+            return kmerCounter.getKmersWithCountAbove(MAX_KMER_FREQ);
+        }
+    }
+
+    private static File getSpillDir( final String kmerSpillDir ) {
+        return new File(kmerSpillDir != null ? kmerSpillDir : System.getProperty("java.io.tmpdir"));
+    }
+
     /**
      * Do a map/reduce on an RDD of genomic sequences:
      * Kmerize, mapping to a pair <kmer,1>, reduce by summing values by key, filter out <kmer,N> where
@@ -143,24 +232,8 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
         Utils.validateArg(maxDUSTScore > 0, "provided DUST filter score is non positive");
         Utils.validateArg(maxKmerFreq > 0, "provided kmer frequency is non positive");
 
-        final int nPartitions = refRDD.getNumPartitions();
         final int hashSize = 2*REF_RECORDS_PER_PARTITION;
-        return refRDD
-                .mapPartitions(seqItr -> {
-                    final HopscotchMap<SVKmer, Integer, KmerAndCount> kmerCounts = new HopscotchMap<>(hashSize);
-                    while ( seqItr.hasNext() ) {
-                        final byte[] seq = seqItr.next();
-                        SVDUSTFilteredKmerizer.canonicalStream(seq, kSize, maxDUSTScore, new SVKmerLong())
-                                .forEach(kmer -> {
-                                    final KmerAndCount entry = kmerCounts.find(kmer);
-                                    if ( entry == null ) kmerCounts.add(new KmerAndCount((SVKmerLong)kmer));
-                                    else entry.bumpCount();
-                                });
-                    }
-                    return kmerCounts.iterator();
-                })
-                .mapToPair(entry -> new Tuple2<>(entry.getKey(), entry.getValue()))
-                .partitionBy(new HashPartitioner(nPartitions))
+        return countKmersAndShuffle(kSize, maxDUSTScore, refRDD)
                 .mapPartitions(pairItr -> {
                     final HopscotchMap<SVKmer, Integer, KmerAndCount> kmerCounts = new HopscotchMap<>(hashSize);
                     while ( pairItr.hasNext() ) {
@@ -178,6 +251,67 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
                 .collect();
     }
 
+    /**
+     * Kmerize each partition of the reference, counting kmers in memory, and shuffle the <kmer,count> pairs so that
+     * each kmer's partial counts end up in the same partition.
+     */
+    private static JavaPairRDD<SVKmer, Integer> countKmersAndShuffle( final int kSize,
+                                                                      final int maxDUSTScore,
+                                                                      final JavaRDD<byte[]> refRDD ) {
+        final int nPartitions = refRDD.getNumPartitions();
+        final int hashSize = 2*REF_RECORDS_PER_PARTITION;
+        return refRDD
+                .mapPartitions(seqItr -> {
+                    final HopscotchMap<SVKmer, Integer, KmerAndCount> kmerCounts = new HopscotchMap<>(hashSize);
+                    while ( seqItr.hasNext() ) {
+                        final byte[] seq = seqItr.next();
+                        SVPrimitiveKmerizer.forEachCanonicalKmer(seq, kSize, maxDUSTScore, (valHigh, valLow) -> {
+                            final SVKmerLong kmer = new SVKmerLong(valHigh, valLow);
+                            final KmerAndCount entry = kmerCounts.find(kmer);
+                            if ( entry == null ) kmerCounts.add(new KmerAndCount(kmer));
+                            else entry.bumpCount();
+                            return true;
+                        });
+                    }
+                    return kmerCounts.iterator();
+                })
+                .mapToPair(entry -> new Tuple2<>(entry.getKey(), entry.getValue()))
+                .partitionBy(new HashPartitioner(nPartitions));
+    }
+
+    /**
+     * Like collectUbiquitousKmersInReference, but the summing of counts by key after the shuffle is done out of core,
+     * by a SpillingKmerCounter with kmerSpillPartitions spill files.  Kmers are first counted within each
+     * reference partition in memory, as before, since that's bounded by the size of the partition.
+     */
+    @VisibleForTesting
+    static List<SVKmer> collectUbiquitousKmersInReferenceOutOfCore( final int kSize,
+                                                                    final int maxDUSTScore,
+                                                                    final int maxKmerFreq,
+                                                                    final JavaRDD<byte[]> refRDD,
+                                                                    final int kmerSpillPartitions,
+                                                                    final String kmerSpillDir ) {
+        Utils.nonNull(refRDD, "reference bases RDD is null");
+        Utils.validateArg(kSize > 0, "provided kmer size is non positive");
+        Utils.validateArg(maxDUSTScore > 0, "provided DUST filter score is non positive");
+        Utils.validateArg(maxKmerFreq > 0, "provided kmer frequency is non positive");
+        Utils.validateArg(kmerSpillPartitions > 0, "provided number of spill partitions is non positive");
+
+        return countKmersAndShuffle(kSize, maxDUSTScore, refRDD)
+                .mapPartitions(pairItr -> {
+                    try ( final SpillingKmerCounter kmerCounter =
+                                  new SpillingKmerCounter(getSpillDir(kmerSpillDir), kmerSpillPartitions) ) {
+                        while ( pairItr.hasNext() ) {
+                            final Tuple2<SVKmer, Integer> pair = pairItr.next();
+                            final SVKmerLong kmer = (SVKmerLong)pair._1();
+                            kmerCounter.add(kmer.getValHigh(), kmer.getValLow(), pair._2());
+                        }
+                        return kmerCounter.getKmersWithCountAbove(maxKmerFreq).iterator();
+                    }
+                })
+                .collect();
+    }
+
     @VisibleForTesting static List<SVKmer> processFasta( final int kSize,
                                                          final int maxDUSTScore,
                                                          final String fastaFilename) {
@@ -9,6 +9,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
@@ -28,6 +29,7 @@ import org.broadinstitute.hellbender.tools.spark.sv.evidence.BreakpointEvidence.
 import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
 import org.broadinstitute.hellbender.tools.spark.utils.FlatMapGluer;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.utils.LongPairIntMultiMap;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
@@ -168,13 +170,17 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
 
         final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
 
+        final boolean persistAssemblyReads = params.persistAssemblyReads && !params.intervalOnlyAssembly;
+        final JavaRDD<GATKRead> assemblyReads = persistAssemblyReads ?
+                persistAssemblyReads(unfilteredReads, filter) : unfilteredReads;
+
         // supplement the template names with other reads that share kmers
         final List<AlignedAssemblyOrExcuse> alignedAssemblyOrExcuseList;
         if ( params.intervalOnlyAssembly ) {
             alignedAssemblyOrExcuseList = new ArrayList<>();
         } else {
             alignedAssemblyOrExcuseList = addAssemblyQNames(params, readMetadata, ctx, qNamesMultiMap, intervals.size(),
-                    unfilteredReads, filter, logger);
+                    assemblyReads, filter, logger);
         }
 
         // write a FASTQ file for each interval
@@ -184,8 +190,12 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                                 params.popVariantBubbles, params.removeShadowedContigs,
                                                 params.expandAssemblyGraph, params.zDropoff);
         alignedAssemblyOrExcuseList.addAll(
-                handleAssemblies(ctx, qNamesMultiMap, unfilteredReads, filter, intervals.size(),
-                        params.includeMappingLocation, fermiLiteAssemblyHandler));
+                handleAssemblies(ctx, qNamesMultiMap, assemblyReads, filter, intervals.size(),
+                        readMetadata.getAvgReadLen(), params.assemblyPartitions,
+                        params.includeMappingLocation, fermiLiteAssemblyHandler, logger));
+        if ( persistAssemblyReads ) {
+            assemblyReads.unpersist(false);
+        }
 
         alignedAssemblyOrExcuseList.sort(Comparator.comparingInt(AlignedAssemblyOrExcuse::getAssemblyId));
 
@@ -204,6 +214,18 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                             evidenceScanResults.evidenceTargetLinks);
     }
 
+    /**
+     * The kmer passes and the template-gathering pass for assembly only look at primary reads, so they can share one
+     * serialized copy of them rather than each decoding the input again.  No narrower subset will do:  the kmer passes
+     * look for kmers shared with the breakpoint intervals in every primary read in the genome, and the FASTQs include
+     * primary reads that the kmer passes consider junk.
+     * The copy is about as large as the input, less its secondary and supplementary alignments.
+     */
+    @VisibleForTesting static JavaRDD<GATKRead> persistAssemblyReads( final JavaRDD<GATKRead> unfilteredReads,
+                                                                      final SVReadFilter filter ) {
+        return unfilteredReads.filter(filter::isPrimaryLine).persist(StorageLevel.MEMORY_AND_DISK_SER());
+    }
+
     private void validateParams() {
         if( !(outputAssemblyAlignments.endsWith(".bam") || outputAssemblyAlignments.endsWith(".sam")) )
                 throw new UserException("Output assembly alignments does not end with \".bam\" or \".sam\": " + outputAssemblyAlignments);
@@ -285,10 +307,10 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                         params.externalEvidenceWeight, params.externalEvidenceUncertainty);
         log("External evidence retrieved.", logger);
 
-        final SVIntervalTree<SVInterval> highCoverageSubintervalTree =
+        final SVIntervalIndex highCoverageSubintervals =
                 findGenomewideHighCoverageIntervalsToIgnore(params, readMetadata, ctx, header, unfilteredReads, filter, logger, broadcastMetadata);
 
-        final Broadcast<SVIntervalTree<SVInterval>> broadcastHighCoverageSubIntervals = ctx.broadcast(highCoverageSubintervalTree);
+        final Broadcast<SVIntervalIndex> broadcastHighCoverageSubIntervals = ctx.broadcast(highCoverageSubintervals);
 
         final Broadcast<List<List<BreakpointEvidence>>> broadcastExternalEvidence = ctx.broadcast(externalEvidence);
         final Tuple2<List<SVInterval>, List<EvidenceTargetLink>> intervalsAndEvidenceTargetLinks =
@@ -313,14 +335,8 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         // remove any intervals that happen to be completely contained in a high-depth region
         final Iterator<SVInterval> intervalIterator = intervals.iterator();
         while (intervalIterator.hasNext()) {
-            final SVInterval interval = intervalIterator.next();
-            final Iterator<SVIntervalTree.Entry<SVInterval>> overlappers = highCoverageSubintervalTree.overlappers(interval);
-            while (overlappers.hasNext()) {
-                final SVIntervalTree.Entry<SVInterval> next = overlappers.next();
-                if (next.getInterval().overlapLen(interval) == interval.getLength()) {
-                    intervalIterator.remove();
-                    break;
-                }
+            if (highCoverageSubintervals.hasContainer(intervalIterator.next())) {
+                intervalIterator.remove();
             }
         }
 
@@ -341,14 +357,14 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         return new EvidenceScanResults(readMetadata, intervals, intervalsAndEvidenceTargetLinks._2(), qNamesMultiMap);
     }
 
-    static SVIntervalTree<SVInterval> findGenomewideHighCoverageIntervalsToIgnore(final FindBreakpointEvidenceSparkArgumentCollection params,
-                                                                                  final ReadMetadata readMetadata,
-                                                                                  final JavaSparkContext ctx,
-                                                                                  final SAMFileHeader header,
-                                                                                  final JavaRDD<GATKRead> unfilteredReads,
-                                                                                  final SVReadFilter filter,
-                                                                                  final Logger logger,
-                                                                                  final Broadcast<ReadMetadata> broadcastMetadata) {
+    static SVIntervalIndex findGenomewideHighCoverageIntervalsToIgnore(final FindBreakpointEvidenceSparkArgumentCollection params,
+                                                                       final ReadMetadata readMetadata,
+                                                                       final JavaSparkContext ctx,
+                                                                       final SAMFileHeader header,
+                                                                       final JavaRDD<GATKRead> unfilteredReads,
+                                                                       final SVReadFilter filter,
+                                                                       final Logger logger,
+                                                                       final Broadcast<ReadMetadata> broadcastMetadata) {
         final int capacity = header.getSequenceDictionary().getSequences().stream()
                 .mapToInt(seqRec -> (seqRec.getSequenceLength() + DEPTH_WINDOW_SIZE - 1)/DEPTH_WINDOW_SIZE).sum();
         final List<SVInterval> depthIntervals = new ArrayList<>(capacity);
@@ -362,10 +378,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
 
         final List<SVInterval> highCoverageSubintervals = findHighCoverageSubintervalsAndLog(
                 params, ctx, broadcastMetadata, depthIntervals, unfilteredReads, filter, logger);
-        final SVIntervalTree<SVInterval> highCoverageSubintervalTree = new SVIntervalTree<>();
-        highCoverageSubintervals.forEach(i -> highCoverageSubintervalTree.put(i, i));
-
-        return highCoverageSubintervalTree;
+        return SVIntervalIndex.fromIntervals(highCoverageSubintervals);
     }
 
     static final class EvidenceScanResults {
@@ -499,11 +512,11 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final SVReadFilter filter,
             final Logger logger)
     {
-        final Tuple2<List<AlignedAssemblyOrExcuse>, HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval>> kmerIntervalsAndDispositions =
+        final Tuple2<List<AlignedAssemblyOrExcuse>, LongPairIntMultiMap> kmerIntervalsAndDispositions =
                 getKmerAndIntervalsSet(params, readMetadata, ctx, qNamesMultiMap, nIntervals,
                                         unfilteredReads, filter, logger);
 
-        final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmersAndIntervals =
+        final LongPairIntMultiMap kmersAndIntervals =
                 removeUbiquitousKmers(params, readMetadata, ctx, kmerIntervalsAndDispositions._2(), unfilteredReads, filter, logger);
 
         qNamesMultiMap.addAll(getAssemblyQNames(params, ctx, kmersAndIntervals, unfilteredReads, filter));
@@ -524,7 +537,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
      * _1 describes the intervals that have been killed for having too few kmers (as a map from intervalId onto an explanatory string),
      * and _2 describes the good kmers that we want to use in local assemblies (as a multimap from kmer onto intervalId).
      */
-    private static Tuple2<List<AlignedAssemblyOrExcuse>, HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval>> getKmerAndIntervalsSet(
+    private static Tuple2<List<AlignedAssemblyOrExcuse>, LongPairIntMultiMap> getKmerAndIntervalsSet(
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final ReadMetadata readMetadata,
             final JavaSparkContext ctx,
@@ -545,8 +558,11 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         final Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> kmerIntervalsAndDispositions =
                 getKmerIntervals(params, readMetadata, ctx, qNamesMultiMap, nIntervals, kmerKillSet,
                                     unfilteredReads, filter, logger);
-        final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMultiMap =
-                new HopscotchUniqueMultiMap<>(kmerIntervalsAndDispositions._2());
+        final List<KmerAndInterval> kmerIntervals = kmerIntervalsAndDispositions._2();
+        final LongPairIntMultiMap kmerMultiMap = new LongPairIntMultiMap(kmerIntervals.size());
+        for ( final KmerAndInterval kmerAndInterval : kmerIntervals ) {
+            kmerMultiMap.add(kmerAndInterval.getValHigh(), kmerAndInterval.getValLow(), kmerAndInterval.getIntervalId());
+        }
         log("Discovered " + kmerMultiMap.size() + " kmers.", logger);
 
         return new Tuple2<>(kmerIntervalsAndDispositions._1(), kmerMultiMap);
@@ -563,6 +579,10 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     /**
      * Transform all the reads for a supplied set of template names in each interval into FASTQ records
      * for each interval, and do something with the list of FASTQ records for each interval (like write it to a file).
+     * The time it takes to assemble an interval varies enormously with the number of reads, so the intervals are
+     * scheduled by their estimated FASTQ size:  they're bin-packed into nAssemblyPartitions partitions, and any
+     * interval that's too big to share is isolated in a partition of its own.  If nAssemblyPartitions is 0, each
+     * interval gets a partition of its own, and the partitions are ordered biggest first.
      */
     @VisibleForTesting static List<AlignedAssemblyOrExcuse> handleAssemblies(
             final JavaSparkContext ctx,
@@ -570,14 +590,25 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
             final int nIntervals,
+            final int avgReadLen,
+            final int nAssemblyPartitions,
             final boolean includeMappingLocation,
-            final LocalAssemblyHandler localAssemblyHandler ) {
+            final LocalAssemblyHandler localAssemblyHandler,
+            final Logger logger ) {
 
-        final int[] counts = new int[nIntervals];
+        final long[] estimatedFastqSizes = new long[nIntervals];
         for ( final QNameAndInterval qNameAndInterval : qNamesMultiMap ) {
-            counts[qNameAndInterval.getIntervalId()] += 1;
+            estimatedFastqSizes[qNameAndInterval.getIntervalId()] += 1;
+        }
+        // each template name will usually contribute a pair of reads
+        for ( int intervalId = 0; intervalId != nIntervals; ++intervalId ) {
+            estimatedFastqSizes[intervalId] *= 2L * avgReadLen;
         }
-        final ComplexityPartitioner partitioner = new ComplexityPartitioner(counts);
+        final int nPartitions = nAssemblyPartitions > 0 ? nAssemblyPartitions : nIntervals;
+        final WorkSizePartitioner partitioner = new WorkSizePartitioner(estimatedFastqSizes, nPartitions);
+        log("Scheduled " + nIntervals + " assemblies in " + partitioner.numPartitions() + " partitions (" +
+                partitioner.getNIsolatedTasks() + " isolated); largest partition has about " +
+                partitioner.getPartitionWorkSize(0) + " FASTQ bases.", logger);
 
         final Broadcast<HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>> broadcastQNamesMultiMap =
                 ctx.broadcast(qNamesMultiMap);
@@ -620,15 +651,15 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
      * For a set of interesting kmers, count occurrences of each over all reads, and remove those
      * that appear too frequently from the set.
      */
-    private static HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> removeUbiquitousKmers(
+    private static LongPairIntMultiMap removeUbiquitousKmers(
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final ReadMetadata readMetadata,
             final JavaSparkContext ctx,
-            final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmersAndIntervals,
+            final LongPairIntMultiMap kmersAndIntervals,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
             final Logger logger ) {
-        final Broadcast<HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval>> broadcastKmersAndIntervals =
+        final Broadcast<LongPairIntMultiMap> broadcastKmersAndIntervals =
                 ctx.broadcast(kmersAndIntervals);
 
         final int kmersPerPartition = kmersAndIntervals.size();
@@ -660,11 +691,8 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                         .collect();
 
         for ( final SVKmer kmer : ubiquitousKmers ) {
-            final Iterator<KmerAndInterval> entryItr = kmersAndIntervals.findEach(kmer);
-            while ( entryItr.hasNext() ) {
-                entryItr.next();
-                entryItr.remove();
-            }
+            final SVKmerLong kmerLong = (SVKmerLong)kmer;
+            kmersAndIntervals.removeEach(kmerLong.getValHigh(), kmerLong.getValLow());
         }
 
         SparkUtils.destroyBroadcast(broadcastKmersAndIntervals, "kmers and intervals");
@@ -680,10 +708,10 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     @VisibleForTesting static List<QNameAndInterval> getAssemblyQNames(
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final JavaSparkContext ctx,
-            final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMultiMap,
+            final LongPairIntMultiMap kmerMultiMap,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter ) {
-        final Broadcast<HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval>> broadcastKmersAndIntervals =
+        final Broadcast<LongPairIntMultiMap> broadcastKmersAndIntervals =
                 ctx.broadcast(kmerMultiMap);
 
         final int kSize = params.kSize;
@@ -951,7 +979,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final List<SVInterval> intervals,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
-            final Broadcast<SVIntervalTree<SVInterval>> broadcastHighCoverageSubIntervals) {
+            final Broadcast<SVIntervalIndex> broadcastHighCoverageSubIntervals) {
         final Broadcast<List<SVInterval>> broadcastIntervals = ctx.broadcast(intervals);
         final List<QNameAndInterval> qNameAndIntervalList =
                 unfilteredReads
@@ -981,7 +1009,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final SAMFileHeader header,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
-            final Logger logger, final Broadcast<SVIntervalTree<SVInterval>> highCoverageSubintervalTree) {
+            final Logger logger, final Broadcast<SVIntervalIndex> highCoverageSubintervals) {
         // find all breakpoint evidence, then filter for pile-ups
         final int nContigs = header.getSequenceDictionary().getSequences().size();
         final int allowedOverhang = params.allowedShortFragmentOverhang;
@@ -995,7 +1023,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                 .mapPartitions(readItr -> {
                     final GATKRead sentinel = new SAMRecordToGATKReadAdapter(null);
                     return FlatMapGluer.applyMapFunc(
-                            new ReadClassifier(broadcastMetadata.value(), sentinel, allowedOverhang, filter, highCoverageSubintervalTree.getValue()),
+                            new ReadClassifier(broadcastMetadata.value(), sentinel, allowedOverhang, filter, highCoverageSubintervals.getValue()),
                             readItr, sentinel);
                 }, true);
         evidenceRDD.cache();
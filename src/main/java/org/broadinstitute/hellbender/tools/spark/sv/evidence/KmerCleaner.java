@@ -1,43 +1,56 @@
 package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchSet;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
+import org.broadinstitute.hellbender.tools.spark.utils.LongPairIntMultiMap;
 import scala.Tuple2;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Eliminates dups, and removes over-represented kmers.
  */
 public final class KmerCleaner implements Iterable<KmerAndInterval> {
 
-    private final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMultiMap;
+    private final LongPairIntMultiMap kmerMultiMap;
 
     public KmerCleaner( final Iterator<Tuple2<KmerAndInterval, Integer>> kmerCountItr,
                         final int kmersPerPartitionGuess,
                         final int minKmerCount,
                         final int maxKmerCount,
                         final int maxIntervalsPerKmer ) {
-        kmerMultiMap = new HopscotchUniqueMultiMap<>(kmersPerPartitionGuess);
+        kmerMultiMap = new LongPairIntMultiMap(kmersPerPartitionGuess);
 
         // remove kmers with extreme counts that won't help in building a local assembly
         while ( kmerCountItr.hasNext() ) {
             final Tuple2<KmerAndInterval, Integer> kmerCount = kmerCountItr.next();
             final int count = kmerCount._2;
-            if ( count >= minKmerCount && count <= maxKmerCount ) kmerMultiMap.add(kmerCount._1);
+            if ( count >= minKmerCount && count <= maxKmerCount ) {
+                final KmerAndInterval kmerAndInterval = kmerCount._1;
+                kmerMultiMap.add(kmerAndInterval.getValHigh(), kmerAndInterval.getValLow(), kmerAndInterval.getIntervalId());
+            }
         }
 
-        final HopscotchSet<SVKmer> uniqueKmers = new HopscotchSet<>(kmerMultiMap.size());
-        kmerMultiMap.stream().map(KmerAndInterval::getKey).forEach(uniqueKmers::add);
-        uniqueKmers.stream()
-                .filter(kmer -> SVUtils.iteratorSize(kmerMultiMap.findEach(kmer)) > maxIntervalsPerKmer)
-                .forEach(kmerMultiMap::removeEach);
+        // find the kmers that occur in too many intervals, and remove all their entries at once
+        final Set<SVKmerLong> promiscuousKmers = new HashSet<>();
+        kmerMultiMap.forEach(( keyHigh, keyLow, intervalId ) -> {
+            if ( kmerMultiMap.count(keyHigh, keyLow) > maxIntervalsPerKmer ) {
+                promiscuousKmers.add(new SVKmerLong(keyHigh, keyLow));
+            }
+        });
+        for ( final SVKmerLong kmer : promiscuousKmers ) {
+            kmerMultiMap.removeEach(kmer.getValHigh(), kmer.getValLow());
+        }
     }
 
     @Override
     public Iterator<KmerAndInterval> iterator() {
-        return kmerMultiMap.iterator();
+        final List<KmerAndInterval> kmerAndIntervals = new ArrayList<>(kmerMultiMap.size());
+        kmerMultiMap.forEach(( keyHigh, keyLow, intervalId ) ->
+                kmerAndIntervals.add(new KmerAndInterval(new SVKmerLong(keyHigh, keyLow), intervalId)));
+        return kmerAndIntervals.iterator();
     }
 }
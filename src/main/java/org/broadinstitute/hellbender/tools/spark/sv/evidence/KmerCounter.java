@@ -5,7 +5,7 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchMap;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.utils.LongPairIntMultiMap;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.Iterator;
@@ -17,10 +17,10 @@ import java.util.Iterator;
 public final class KmerCounter {
     private final int kSize;
     private final int kmersPerPartitionGuess;
-    private final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMap;
+    private final LongPairIntMultiMap kmerMap;
 
     public KmerCounter( final int kSize, final int kmersPerPartitionGuess,
-                        final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMap ) {
+                        final LongPairIntMultiMap kmerMap ) {
         this.kSize = kSize;
         this.kmerMap = kmerMap;
         this.kmersPerPartitionGuess = kmersPerPartitionGuess;
@@ -32,10 +32,11 @@ public final class KmerCounter {
             final GATKRead read = readItr.next();
             SVKmerizer.canonicalStream(read.getBases(), kSize, new SVKmerLong())
                     .forEach(kmer -> {
-                        if ( kmerMap.contains(kmer) ) {
+                        final SVKmerLong kmerLong = (SVKmerLong)kmer;
+                        if ( kmerMap.contains(kmerLong.getValHigh(), kmerLong.getValLow()) ) {
                             final KmerAndCount kmerAndCount = counts.find(kmer);
                             if ( kmerAndCount != null ) kmerAndCount.bumpCount();
-                            else counts.add(new KmerAndCount((SVKmerLong)kmer));
+                            else counts.add(new KmerAndCount(kmerLong));
                         }
                     });
         }
@@ -1,8 +1,8 @@
 package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVDUSTFilteredKmerizer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVPrimitiveKmerizer;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import scala.Tuple2;
@@ -43,10 +43,13 @@ public final class QNameKmerizer implements Function<GATKRead, Iterator<Tuple2<K
         tupleList.clear();
         while ( names.hasNext() ) {
             final int intervalId = names.next().getIntervalId();
-            SVDUSTFilteredKmerizer.canonicalStream(read.getBases(), kSize, maxDUSTScore, new SVKmerLong())
-                    .filter(kmer -> !kmersToIgnore.contains(kmer))
-                    .map(kmer -> new KmerAndInterval(kmer, intervalId))
-                    .forEach(kmerCountAndInterval -> tupleList.add(new Tuple2<>(kmerCountAndInterval, 1)));
+            SVPrimitiveKmerizer.forEachCanonicalKmer(read.getBases(), kSize, maxDUSTScore, (valHigh, valLow) -> {
+                final SVKmer kmer = new SVKmerLong(valHigh, valLow);
+                if ( !kmersToIgnore.contains(kmer) ) {
+                    tupleList.add(new Tuple2<>(new KmerAndInterval(kmer, intervalId), 1));
+                }
+                return true;
+            });
         }
         return tupleList.iterator();
     }
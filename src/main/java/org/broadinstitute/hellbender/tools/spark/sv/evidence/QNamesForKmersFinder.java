@@ -3,7 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.utils.LongPairIntMultiMap;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import scala.Tuple2;
 
@@ -20,10 +20,10 @@ import java.util.function.Function;
 public final class QNamesForKmersFinder implements Function<GATKRead, Iterator<Tuple2<SVKmer, String>>> {
     private final int kSize;
     private final SVReadFilter filter;
-    private final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMultiMap;
+    private final LongPairIntMultiMap kmerMultiMap;
 
     public QNamesForKmersFinder( final int kSize,
-                                 final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMultiMap,
+                                 final LongPairIntMultiMap kmerMultiMap,
                                  final SVReadFilter filter ) {
         this.kSize = kSize;
         this.kmerMultiMap = kmerMultiMap;
@@ -37,7 +37,8 @@ public final class QNamesForKmersFinder implements Function<GATKRead, Iterator<T
         final List<Tuple2<SVKmer, String>> results = new ArrayList<>();
         SVKmerizer.canonicalStream(read.getBases(), kSize, new SVKmerLong())
                 .forEach(kmer -> {
-                    if ( kmerMultiMap.contains(kmer) ) {
+                    final SVKmerLong kmerLong = (SVKmerLong)kmer;
+                    if ( kmerMultiMap.contains(kmerLong.getValHigh(), kmerLong.getValLow()) ) {
                         results.add(new Tuple2<>(kmer, read.getName()));
                     }
                 });
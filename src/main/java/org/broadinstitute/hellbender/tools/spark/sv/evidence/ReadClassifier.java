@@ -4,7 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.CigarElement;
 import htsjdk.samtools.CigarOperator;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalTree;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalIndex;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.*;
@@ -24,13 +24,13 @@ public class ReadClassifier implements Function<GATKRead, Iterator<BreakpointEvi
     private final int allowedShortFragmentOverhang;
     private final SVReadFilter filter;
     private final KSWindowFinder smallIndelFinder;
-    private final SVIntervalTree<SVInterval> regionsToIgnore;
+    private final SVIntervalIndex regionsToIgnore;
 
     public ReadClassifier(final ReadMetadata readMetadata,
                           GATKRead sentinel,
                           final int allowedShortFragmentOverhang,
                           SVReadFilter filter,
-                          final SVIntervalTree<SVInterval> regionsToIgnore) {
+                          final SVIntervalIndex regionsToIgnore) {
         this.readMetadata = readMetadata;
         this.sentinel = sentinel;
         this.allowedShortFragmentOverhang = allowedShortFragmentOverhang;
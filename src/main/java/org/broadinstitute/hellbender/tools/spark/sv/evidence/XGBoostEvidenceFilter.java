@@ -28,6 +28,11 @@ import java.util.*;
  * Features are calculated according to evidence type, overlap information, mapping quality, etc.
  * A trained classifier scores the probability the evidence overlaps a breakpoint interval, and passes evidence above
  * the specified threshold.
+ * The evidence at each location is scored one piece at a time, into a single reused feature vector, and scoring stops
+ * as soon as one piece passes.  Features are kept as doubles throughout, exactly as {@link #getFeatures} computes them,
+ * so the filter makes the same decisions as {@link #predictProbability}.
+ * Features that depend only on the location (overlap with genome gaps and mappability tracks) are looked up once
+ * per location, and template-size CDFs are looked up once per read group.
  */
 public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence> {
     // use fast math exp for logistic function in XGBoost?
@@ -44,12 +49,15 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
     private static final int DEFAULT_GOOD_MAPPING_QUALITY = 60;
     private static final double NON_READ_MAPPING_QUALITY = DEFAULT_GOOD_MAPPING_QUALITY; // alternatively could be Double.NaN
     private static final double NON_READ_CIGAR_LENGTHS = 0.0; // alternatively could be Double.NaN
+    private static final int NUM_FEATURES = 17;
 
     private final PartitionCrossingChecker partitionCrossingChecker;
 
     private final Predictor predictor;
     private final double thresholdProbability;
     private final ReadMetadata readMetadata;
+    private final double coverage;
+    private final Map<String, IntHistogram.CDF> readGroupToTemplateSizeCDF;
 
     private final EvidenceOverlapChecker evidenceOverlapChecker;
     private final Map<BreakpointEvidence, UnscaledOverlapInfo> rawFeatureCache;
@@ -59,6 +67,9 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
     private final FeatureDataSource<BEDFeature> genomeGaps;
     private final FeatureDataSource<BEDFeature> umapS100Mappability;
 
+    // scratch space for scoring: the features of the evidence being scored
+    private final EvidenceFeatures rowFeatures;
+
     XGBoostEvidenceFilter(
             final Iterator<BreakpointEvidence> evidenceItr,
             final ReadMetadata readMetadata,
@@ -88,6 +99,10 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
         this.partitionCrossingChecker = partitionCrossingChecker;
         thresholdProbability = params.svEvidenceFilterThresholdProbability;
         this.readMetadata = readMetadata;
+        coverage = readMetadata.getCoverage();
+        readGroupToTemplateSizeCDF = new HashMap<>();
+
+        rowFeatures = new EvidenceFeatures(NUM_FEATURES);
 
         evidenceOverlapChecker = new EvidenceOverlapChecker(evidenceItr, readMetadata, params.minEvidenceMapQ);
         rawFeatureCache = new HashMap<>();
@@ -167,8 +182,9 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
     }
 
     private boolean anyPassesFilter(final List<BreakpointEvidence> evidenceList) {
+        final LocationFeatures locationFeatures = new LocationFeatures();
         for(final BreakpointEvidence evidence : evidenceList) {
-            if(predictProbability(evidence) > thresholdProbability) {
+            if(predictProbability(evidence, locationFeatures) > thresholdProbability) {
                 return true;
             }
         }
@@ -180,11 +196,76 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
         return predictor.predictSingle(getFeatures(evidence));
     }
 
+    /**
+     * Predict probabilities one piece of evidence at a time the way the filter does, reusing the scratch feature
+     * vector and the location-dependent features from one piece of evidence to the next
+     */
+    @VisibleForTesting
+    double[] predictProbabilitiesAsFilter(final List<BreakpointEvidence> evidenceList) {
+        final LocationFeatures locationFeatures = new LocationFeatures();
+        final double[] probabilities = new double[evidenceList.size()];
+        for(int row = 0; row < probabilities.length; ++row) {
+            probabilities[row] = predictProbability(evidenceList.get(row), locationFeatures);
+        }
+        return probabilities;
+    }
+
+    /**
+     * Predict the probability for a piece of BreakpointEvidence, using the scratch feature vector.
+     */
+    private double predictProbability(final BreakpointEvidence evidence, final LocationFeatures locationFeatures) {
+        locationFeatures.setLocation(evidence.getLocation());
+        computeFeatures(evidence, locationFeatures.referenceGapOverlap, locationFeatures.umapS100,
+                        rowFeatures.getValues());
+        return predictor.predictSingle(rowFeatures);
+    }
+
     /**
      * Compute features vector for a piece of BreakpointEvidence
      */
     @VisibleForTesting
     EvidenceFeatures getFeatures(final BreakpointEvidence evidence) {
+        final SVInterval location = evidence.getLocation();
+        final double[] features = new double[NUM_FEATURES];
+        computeFeatures(evidence, getReferenceGapOverlap(location), getUmapS100(location), features);
+        return new EvidenceFeatures(features);
+    }
+
+    /**
+     * The location-dependent features of the evidence being scored.  These are only looked up when the location
+     * changes (which, for the evidence list of a tree entry, is never).
+     */
+    private final class LocationFeatures {
+        private SVInterval location = null;
+        private double referenceGapOverlap = DEFAULT_GOOD_GAP_OVERLAP;
+        private double umapS100 = DEFAULT_GOOD_MAPPABILITY;
+
+        void setLocation(final SVInterval newLocation) {
+            if(!newLocation.equals(location)) {
+                location = newLocation;
+                referenceGapOverlap = getReferenceGapOverlap(location);
+                umapS100 = getUmapS100(location);
+            }
+        }
+    }
+
+    private double getReferenceGapOverlap(final SVInterval location) {
+        return genomeGaps == null ?
+                DEFAULT_GOOD_GAP_OVERLAP
+                : getGenomeIntervalsOverlap(location, genomeGaps, readMetadata);
+    }
+
+    private double getUmapS100(final SVInterval location) {
+        return umapS100Mappability == null ?
+                DEFAULT_GOOD_MAPPABILITY
+                : getGenomeIntervalsOverlap(location, umapS100Mappability, readMetadata);
+    }
+
+    /**
+     * Compute the features of a piece of BreakpointEvidence into an array, given its location-dependent features
+     */
+    private void computeFeatures(final BreakpointEvidence evidence, final double referenceGapOverlap,
+                                 final double umapS100, final double[] features) {
         // create new struct for these two, use CigarOperator to update if it's ReadEvidence
         final CigarQualityInfo cigarQualityInfo = new CigarQualityInfo(evidence);
         final double evidenceType = evidenceTypeMap.get(evidence.getClass());
@@ -194,28 +275,26 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
         final CoverageScaledOverlapInfo individualOverlapInfo = getIndividualOverlapInfo(evidence);
         final CoverageScaledOverlapInfo clusterOverlapInfo = getClusterOverlapInfo(evidence);
 
-        // calculate properties related to overlap of intervals on the reference genome
-        final double referenceGapOverlap = genomeGaps == null ?
-                DEFAULT_GOOD_GAP_OVERLAP
-                : getGenomeIntervalsOverlap(evidence, genomeGaps, readMetadata);
-        final double umapS100 = umapS100Mappability == null ?
-                DEFAULT_GOOD_MAPPABILITY
-                : getGenomeIntervalsOverlap(evidence, umapS100Mappability, readMetadata);
-
         // either templateSize is defined (for ReadEvidence) or readCount (for TemplateSizeAnomaly).
         final double templateSizeOrReadCount = getTemplateSizeOrReadCount(evidence);
-        return new EvidenceFeatures(
-                new double[]{
-                        cigarQualityInfo.basesMatched, cigarQualityInfo.referenceLength, evidenceType, mappingQuality, templateSizeOrReadCount,
-                        individualOverlapInfo.numOverlap, individualOverlapInfo.totalOverlapMappingQuality,
-                        individualOverlapInfo.meanOverlapMappingQuality, individualOverlapInfo.numCoherent,
-                        individualOverlapInfo.totalCoherentMappingQuality,
-                        clusterOverlapInfo.numOverlap, clusterOverlapInfo.totalOverlapMappingQuality,
-                        clusterOverlapInfo.meanOverlapMappingQuality, clusterOverlapInfo.numCoherent,
-                        clusterOverlapInfo.totalCoherentMappingQuality,
-                        referenceGapOverlap, umapS100
-                }
-        );
+
+        features[0] = cigarQualityInfo.basesMatched;
+        features[1] = cigarQualityInfo.referenceLength;
+        features[2] = evidenceType;
+        features[3] = mappingQuality;
+        features[4] = templateSizeOrReadCount;
+        features[5] = individualOverlapInfo.numOverlap;
+        features[6] = individualOverlapInfo.totalOverlapMappingQuality;
+        features[7] = individualOverlapInfo.meanOverlapMappingQuality;
+        features[8] = individualOverlapInfo.numCoherent;
+        features[9] = individualOverlapInfo.totalCoherentMappingQuality;
+        features[10] = clusterOverlapInfo.numOverlap;
+        features[11] = clusterOverlapInfo.totalOverlapMappingQuality;
+        features[12] = clusterOverlapInfo.meanOverlapMappingQuality;
+        features[13] = clusterOverlapInfo.numCoherent;
+        features[14] = clusterOverlapInfo.totalCoherentMappingQuality;
+        features[15] = referenceGapOverlap;
+        features[16] = umapS100;
     }
 
     /**
@@ -256,10 +335,8 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
     private double getTemplateSize(final ReadEvidence readEvidence) {
 
         final int templateSize = readEvidence.getTemplateSize();
-        final String readGroup = readEvidence.getReadGroup();
-        final String library = readMetadata.getReadGroupToLibraryMap().get(readGroup);
-        final LibraryStatistics libraryStatistics = readMetadata.getLibraryStatistics(library);
-        final IntHistogram.CDF templateSizeCDF = libraryStatistics.getCDF();
+        final IntHistogram.CDF templateSizeCDF = readGroupToTemplateSizeCDF.computeIfAbsent(readEvidence.getReadGroup(),
+                readGroup -> readMetadata.getLibraryStatistics(readMetadata.getReadGroupToLibraryMap().get(readGroup)).getCDF());
         final int cdfBin = Integer.min(Math.abs(templateSize), templateSizeCDF.size() - 1);
         return templateSizeCDF.getFraction(cdfBin);
     }
@@ -267,7 +344,7 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
     /** for TemplateSizeAnomaly, return readCounts scaled by average genome coverage */
     private double getReadCounts(final TemplateSizeAnomaly templateSizeAnomaly) {
         final Integer readCounts = templateSizeAnomaly.getReadCount();
-        return (double)(readCounts) / readMetadata.getCoverage();
+        return (double)(readCounts) / coverage;
     }
 
     private CoverageScaledOverlapInfo getIndividualOverlapInfo(final BreakpointEvidence evidence) {
@@ -281,7 +358,7 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
         return new CoverageScaledOverlapInfo(
                 evidenceFeatureCache.numOverlap, evidenceFeatureCache.numCoherent,
                 evidenceFeatureCache.totalOverlapMappingQuality, evidenceFeatureCache.totalCoherentMappingQuality,
-                evidenceFeatureCache.meanOverlapMappingQuality, readMetadata.getCoverage()
+                evidenceFeatureCache.meanOverlapMappingQuality, coverage
         );
     }
 
@@ -308,7 +385,7 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
         }
 
         return new CoverageScaledOverlapInfo(clusterNumOverlap, clusterNumCoherent, clusterOverlapMappingQuality,
-                clusterCoherentMappingQuality, clusterMeanOverlapMappingQuality, readMetadata.getCoverage());
+                clusterCoherentMappingQuality, clusterMeanOverlapMappingQuality, coverage);
     }
 
     /**
@@ -409,15 +486,14 @@ public final class XGBoostEvidenceFilter implements Iterator<BreakpointEvidence>
     }
 
     /**
-     * Calculate fractional overlap of BreakpointEvidence with genome tract data.
+     * Calculate fractional overlap of a BreakpointEvidence location with genome tract data.
      * Separately sum the number of base pairs in genomeIntervals that overlap evidence (allowing base pairs to
      * count multiple times if there is overlap in genomeIntervals) then divide by length of evidence. returned
      * value will be double >= 0, but may be larger than 1 if any genomeIntervals overlap each other.
      */
-    private static double getGenomeIntervalsOverlap(final BreakpointEvidence evidence,
+    private static double getGenomeIntervalsOverlap(final SVInterval location,
                                                     final FeatureDataSource<BEDFeature> genomeIntervals,
                                                     final ReadMetadata readMetadata) {
-        final SVInterval location = evidence.getLocation();
         final SimpleInterval simpleInterval = new SimpleInterval(readMetadata.getContigName(location.getContig()),
                 location.getStart(),
                 location.getEnd() - 1); // "end - 1" because SimpleIntervals are closed on both ends
@@ -0,0 +1,270 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * An immutable set of intervals that can be queried for overlappers.
+ * It's a static alternative to SVIntervalTree for sets of intervals that are built once and queried many times
+ * (and, perhaps, broadcast):  there's no object per interval, just a few primitive arrays, and queries report
+ * the overlapping intervals by their index rather than by allocating entries.
+ * <p>
+ * Intervals are kept in sorted order (SVInterval's natural order), and an interval's index is its position in that
+ * order, so you can keep values associated with the intervals in a parallel array or list.  Duplicate intervals are
+ * allowed, and each gets its own index.
+ * <p>
+ * The search structure is an implicit interval tree (as in Heng Li's cgranges):  the sorted array is viewed as the
+ * in-order layout of a complete binary tree (the node at index i is at the level given by the number of trailing 1s
+ * in i), and each node is augmented with the maximum end of the intervals in its subtree.  Overlap queries descend
+ * the tree skipping subtrees that end before the query starts, so they take time proportional to the log of the
+ * number of intervals plus the number of overlappers.  Overlappers are reported in sorted order.
+ * <p>
+ * Like SVInterval, overlap is judged on half-open intervals.  To handle contigs, each coordinate is packed into a
+ * long with the contig in the high 32 bits, so intervals on different contigs can never overlap.
+ */
+@DefaultSerializer(SVIntervalIndex.Serializer.class)
+public final class SVIntervalIndex {
+    // subtrees of this height or less are scanned linearly rather than searched
+    private static final int LINEAR_SCAN_LEVEL = 3;
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final int rootLevel;
+
+    private SVIntervalIndex( final long[] starts, final long[] ends ) {
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[starts.length];
+        this.rootLevel = buildMaxEnds(ends, maxEnds);
+    }
+
+    private SVIntervalIndex( final Kryo kryo, final Input input ) {
+        final int size = input.readInt();
+        starts = new long[size];
+        ends = new long[size];
+        long start = 0;
+        for ( int idx = 0; idx != size; ++idx ) {
+            start += input.readVarLong(true);
+            starts[idx] = start;
+            ends[idx] = start + input.readVarLong(false);
+        }
+        maxEnds = new long[size];
+        rootLevel = buildMaxEnds(ends, maxEnds);
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        // starts are written as (non-negative) deltas from the previous start, and ends as (signed) lengths,
+        // so that most values fit into a byte or two
+        output.writeInt(starts.length);
+        long prevStart = 0;
+        for ( int idx = 0; idx != starts.length; ++idx ) {
+            output.writeVarLong(starts[idx] - prevStart, true);
+            output.writeVarLong(ends[idx] - starts[idx], false);
+            prevStart = starts[idx];
+        }
+    }
+
+    /**
+     * Builds an index from intervals supplied in sorted order (i.e., in SVInterval's natural order), as they might
+     * come from a coordinate-sorted source.
+     * @throws IllegalArgumentException if the intervals are out of order
+     */
+    public static SVIntervalIndex fromSortedIntervals( final Iterator<SVInterval> sortedIntervals ) {
+        Utils.nonNull(sortedIntervals, "iterator of sorted intervals is null");
+        long[] starts = new long[16];
+        long[] ends = new long[16];
+        int size = 0;
+        while ( sortedIntervals.hasNext() ) {
+            final SVInterval interval = sortedIntervals.next();
+            final long start = packCoordinate(interval.getContig(), interval.getStart());
+            final long end = packCoordinate(interval.getContig(), interval.getEnd());
+            if ( size > 0 ) {
+                final int cmp = Long.compare(starts[size - 1], start);
+                Utils.validateArg(cmp < 0 || (cmp == 0 && ends[size - 1] <= end),
+                        "intervals are not in sorted order at " + interval);
+            }
+            if ( size == starts.length ) {
+                starts = Arrays.copyOf(starts, 2 * size);
+                ends = Arrays.copyOf(ends, 2 * size);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size += 1;
+        }
+        return new SVIntervalIndex(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    /** Builds an index from intervals in any order. */
+    public static SVIntervalIndex fromIntervals( final Collection<SVInterval> intervals ) {
+        Utils.nonNull(intervals, "collection of intervals is null");
+        final List<SVInterval> sortedIntervals = new ArrayList<>(intervals);
+        Collections.sort(sortedIntervals);
+        return fromSortedIntervals(sortedIntervals.iterator());
+    }
+
+    public int size() { return starts.length; }
+
+    public boolean isEmpty() { return starts.length == 0; }
+
+    /** Returns the interval at some index (i.e., the idx'th interval in sorted order). */
+    public SVInterval getInterval( final int idx ) {
+        return new SVInterval(getContig(idx), getStart(idx), getEnd(idx), SVInterval.SVIntervalConstructorArgsValidator.ACCEPTS_ALL);
+    }
+
+    public int getContig( final int idx ) { return (int)(starts[idx] >> 32); }
+    public int getStart( final int idx ) { return unpackPosition(starts[idx]); }
+    public int getEnd( final int idx ) { return unpackPosition(ends[idx]); }
+
+    /**
+     * Visits the indices of the intervals that overlap a query interval, in sorted order.
+     * @param visitor is handed the index of each overlapper, and returns false to stop the search
+     * @return false if the visitor stopped the search
+     */
+    public boolean forEachOverlapper( final SVInterval interval, final IntPredicate visitor ) {
+        if ( starts.length == 0 ) return true;
+        final long queryStart = packCoordinate(interval.getContig(), interval.getStart());
+        final long queryEnd = packCoordinate(interval.getContig(), interval.getEnd());
+        final int size = starts.length;
+
+        // each stack entry is a node index and its level, and whether its left subtree has been searched yet
+        final int[] nodeStack = new int[2 * (rootLevel + 1)];
+        final int[] levelStack = new int[2 * (rootLevel + 1)];
+        final boolean[] leftDoneStack = new boolean[2 * (rootLevel + 1)];
+        int depth = 0;
+        nodeStack[0] = (1 << rootLevel) - 1;
+        levelStack[0] = rootLevel;
+        leftDoneStack[0] = false;
+        depth += 1;
+
+        while ( depth > 0 ) {
+            depth -= 1;
+            final int node = nodeStack[depth];
+            final int level = levelStack[depth];
+            if ( level <= LINEAR_SCAN_LEVEL ) {
+                // scan the whole subtree, which is a contiguous range of the array
+                final int firstIdx = node >> level << level;
+                final int endIdx = Math.min(size, firstIdx + (1 << (level + 1)) - 1);
+                for ( int idx = firstIdx; idx < endIdx && starts[idx] < queryEnd; ++idx ) {
+                    if ( queryStart < ends[idx] && !visitor.test(idx) ) return false;
+                }
+            } else if ( !leftDoneStack[depth] ) {
+                // come back to this node after searching its left subtree
+                leftDoneStack[depth] = true;
+                depth += 1;
+                final int leftChild = node - (1 << (level - 1));
+                // nodes beyond the end of the array have no max end, so their subtrees are always searched
+                if ( leftChild >= size || maxEnds[leftChild] > queryStart ) {
+                    nodeStack[depth] = leftChild;
+                    levelStack[depth] = level - 1;
+                    leftDoneStack[depth] = false;
+                    depth += 1;
+                }
+            } else if ( node < size && starts[node] < queryEnd ) {
+                if ( queryStart < ends[node] && !visitor.test(node) ) return false;
+                nodeStack[depth] = node + (1 << (level - 1));
+                levelStack[depth] = level - 1;
+                leftDoneStack[depth] = false;
+                depth += 1;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the indices of the intervals that overlap a query interval, in sorted order. */
+    public int[] getOverlappers( final SVInterval interval ) {
+        final int[][] overlappers = { new int[4] };
+        final int[] nOverlappers = { 0 };
+        forEachOverlapper(interval, idx -> {
+            if ( nOverlappers[0] == overlappers[0].length ) {
+                overlappers[0] = Arrays.copyOf(overlappers[0], 2 * nOverlappers[0]);
+            }
+            overlappers[0][nOverlappers[0]++] = idx;
+            return true;
+        });
+        return Arrays.copyOf(overlappers[0], nOverlappers[0]);
+    }
+
+    public boolean hasOverlapper( final SVInterval interval ) {
+        return !forEachOverlapper(interval, idx -> false);
+    }
+
+    /** Returns true if some interval in the index completely contains the query interval (which must not be empty). */
+    public boolean hasContainer( final SVInterval interval ) {
+        final long queryStart = packCoordinate(interval.getContig(), interval.getStart());
+        final long queryEnd = packCoordinate(interval.getContig(), interval.getEnd());
+        return !forEachOverlapper(interval, idx -> starts[idx] > queryStart || ends[idx] < queryEnd);
+    }
+
+    // flipping the sign bit of the position makes the packed coordinates sort in the same order as SVIntervals,
+    // even if some positions are negative
+    private static long packCoordinate( final int contig, final int position ) {
+        return ((long)contig << 32) | ((position ^ Integer.MIN_VALUE) & 0xffffffffL);
+    }
+
+    private static int unpackPosition( final long coordinate ) {
+        return (int)coordinate ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Fills in the max end of each subtree of the implicit tree, and returns the level of the root.
+     * Nodes beyond the end of the array don't exist, but the right spine of the tree can pass through them:  the max
+     * end of such a missing node's subtree is taken to be that of the last (existing) node at the previous level.
+     */
+    private static int buildMaxEnds( final long[] ends, final long[] maxEnds ) {
+        final int size = ends.length;
+        if ( size == 0 ) return 0;
+        int lastIdx = 0;
+        for ( int idx = 0; idx < size; idx += 2 ) {
+            maxEnds[idx] = ends[idx];
+            lastIdx = idx;
+        }
+        long lastMaxEnd = maxEnds[lastIdx];
+        int level = 1;
+        for ( ; 1L << level <= size; ++level ) {
+            final int halfSpan = 1 << (level - 1);
+            for ( int idx = 2 * halfSpan - 1; idx < size; idx += 4 * halfSpan ) {
+                final long leftMaxEnd = maxEnds[idx - halfSpan];
+                final long rightMaxEnd = idx + halfSpan < size ? maxEnds[idx + halfSpan] : lastMaxEnd;
+                maxEnds[idx] = Math.max(ends[idx], Math.max(leftMaxEnd, rightMaxEnd));
+            }
+            // move up to the parent of the last node
+            lastIdx = ((lastIdx >> level) & 1) != 0 ? lastIdx - halfSpan : lastIdx + halfSpan;
+            if ( lastIdx < size && maxEnds[lastIdx] > lastMaxEnd ) {
+                lastMaxEnd = maxEnds[lastIdx];
+            }
+        }
+        return level - 1;
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        if ( this == obj ) return true;
+        if ( !(obj instanceof SVIntervalIndex) ) return false;
+        final SVIntervalIndex that = (SVIntervalIndex)obj;
+        return Arrays.equals(starts, that.starts) && Arrays.equals(ends, that.ends);
+    }
+
+    @Override
+    public int hashCode() {
+        return 47 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<SVIntervalIndex> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final SVIntervalIndex index ) {
+            index.serialize(kryo, output);
+        }
+
+        @Override
+        public SVIntervalIndex read( final Kryo kryo, final Input input, final Class<SVIntervalIndex> klass ) {
+            return new SVIntervalIndex(kryo, input);
+        }
+    }
+}
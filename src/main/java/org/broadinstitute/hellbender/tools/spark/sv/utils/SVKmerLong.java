@@ -38,7 +38,10 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
         this.valLow = thatLong.valLow;
     }
 
-    private SVKmerLong( final long valHigh, final long valLow ) { this.valHigh = valHigh; this.valLow = valLow; }
+    /**
+     * Makes an SVKmerLong from the values returned by {@link #getValHigh()} and {@link #getValLow()}.
+     */
+    public SVKmerLong( final long valHigh, final long valLow ) { this.valHigh = valHigh; this.valLow = valLow; }
 
     protected SVKmerLong( final Kryo kryo, final Input input ) {
         valHigh = input.readLong();
@@ -119,6 +122,11 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
         return reverseComplement(kSize);
     }
 
+    /** The most significant K bits, for use as half of a primitive key. */
+    public final long getValHigh() { return valHigh; }
+    /** The least significant K bits, for use as half of a primitive key. */
+    public final long getValLow() { return valLow; }
+
     public final Base firstBase( final int kSize ) { return Base.values()[(int)(valHigh >> (kSize-2))]; }
     public final Base lastBase() { return Base.values()[(int)(valLow & 3)]; }
     public final int firstTrimer(final int kSize ) { return (int)(valHigh >>> (kSize-6)); }
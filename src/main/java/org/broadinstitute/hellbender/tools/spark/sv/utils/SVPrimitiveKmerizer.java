@@ -0,0 +1,143 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Kmerizes a sequence of ASCII bases without allocating anything per kmer.
+ * Rather than returning a new SVKmer object for each position (as SVKmerizer does), kmers are handed to a visitor
+ * as primitive longs that have the same bit layout as an SVKmerShort (one long) or an SVKmerLong (two longs).
+ * Like SVKmerizer, parts of the sequence that have characters other than A, C, G, or T are silently skipped.
+ *
+ * The canonical kmer is computed on the fly by rolling the reverse-complement along with the forward kmer, so there's
+ * no per-kmer reverse-complementing either.  The DUST-filtered method scores kmers in exactly the same way as
+ * SVDUSTFilteredKmerizer, so it produces the same kmers as SVDUSTFilteredKmerizer.canonicalStream.
+ */
+public final class SVPrimitiveKmerizer {
+    // maps an ASCII character to its 2-bit base value, or to -1 if it's not a base
+    private static final byte[] BASE_VALUES = new byte[256];
+    static {
+        Arrays.fill(BASE_VALUES, (byte)-1);
+        BASE_VALUES['a'] = BASE_VALUES['A'] = (byte)SVKmer.Base.A.value;
+        BASE_VALUES['c'] = BASE_VALUES['C'] = (byte)SVKmer.Base.C.value;
+        BASE_VALUES['g'] = BASE_VALUES['G'] = (byte)SVKmer.Base.G.value;
+        BASE_VALUES['t'] = BASE_VALUES['T'] = (byte)SVKmer.Base.T.value;
+    }
+
+    /** Receives kmers that fit into a single long (K < 32), with the same bits as SVKmerShort.getLong(). */
+    @FunctionalInterface
+    public interface ShortKmerVisitor {
+        /** @return true to continue kmerizing, false to stop */
+        boolean visit( long kmer );
+    }
+
+    /** Receives kmers that need two longs (K < 64), with the same bits as SVKmerLong.getValHigh() and getValLow(). */
+    @FunctionalInterface
+    public interface LongKmerVisitor {
+        /** @return true to continue kmerizing, false to stop */
+        boolean visit( long valHigh, long valLow );
+    }
+
+    private SVPrimitiveKmerizer() {}
+
+    /**
+     * Visit each kmer in the sequence, as it appears in the sequence.
+     * @return false if the visitor stopped the kmerization early
+     */
+    public static boolean forEachKmer( final byte[] seq, final int kSize, final ShortKmerVisitor visitor ) {
+        Utils.validateArg(kSize >= 1 && kSize < 32, "Kmer length must be between 1 and 31.");
+        final long mask = (1L << kSize * 2) - 1L;
+        long kmer = 0;
+        int validBaseCount = 0;
+        for ( final byte chr : seq ) {
+            final int baseValue = BASE_VALUES[chr & 0xff];
+            if ( baseValue < 0 ) {
+                validBaseCount = 0;
+                continue;
+            }
+            kmer = ((kmer << 2) | baseValue) & mask;
+            if ( ++validBaseCount >= kSize && !visitor.visit(kmer) ) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Visit the canonical form (see SVKmerShort.canonical) of each kmer in the sequence.
+     * @return false if the visitor stopped the kmerization early
+     */
+    public static boolean forEachCanonicalKmer( final byte[] seq, final int kSize, final ShortKmerVisitor visitor ) {
+        Utils.validateArg(kSize >= 1 && kSize < 32, "Kmer length must be between 1 and 31.");
+        Utils.validateArg((kSize & 1) != 0, "Kmer length must be odd to canonicalize.");
+        final long mask = (1L << kSize * 2) - 1L;
+        final int leadingBaseShift = kSize * 2 - 2;
+        long kmer = 0;
+        long rcKmer = 0;
+        int validBaseCount = 0;
+        for ( final byte chr : seq ) {
+            final int baseValue = BASE_VALUES[chr & 0xff];
+            if ( baseValue < 0 ) {
+                validBaseCount = 0;
+                continue;
+            }
+            kmer = ((kmer << 2) | baseValue) & mask;
+            // the reverse-complement gets the complement of the new base at its leading end
+            rcKmer = (rcKmer >>> 2) | ((3L - baseValue) << leadingBaseShift);
+            if ( ++validBaseCount >= kSize ) {
+                // the kmer is canonical if its middle base is A or C
+                final long canonicalKmer = ((kmer >> kSize) & 1L) == 0 ? kmer : rcKmer;
+                if ( !visitor.visit(canonicalKmer) ) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit the canonical form (see SVKmerLong.canonical) of each kmer in the sequence that has a DUST-like score no
+     * larger than maxDUSTScore.  (See SVDUSTFilteredKmerizer for a description of the score.)
+     * @return false if the visitor stopped the kmerization early
+     */
+    public static boolean forEachCanonicalKmer( final byte[] seq, final int kSize, final int maxDUSTScore,
+                                                final LongKmerVisitor visitor ) {
+        // the leading trimer must fit entirely within valHigh
+        Utils.validateArg(kSize >= 7 && kSize < 64, "Kmer length must be between 7 and 63.");
+        Utils.validateArg((kSize & 1) != 0, "Kmer length must be odd to canonicalize.");
+        final long mask = (1L << kSize) - 1L;
+        final int trimerShift = kSize - 6;
+        final int carryShift = kSize - 2;
+
+        // the kmer starts out as poly-A, so trimer 0 (AAA) has kSize-2 counts
+        final int[] trimerCounts = new int[64];
+        final int polyACount = kSize - 2;
+        trimerCounts[0] = polyACount;
+        int curDUSTScore = polyACount * (polyACount - 1) / 2;
+
+        long valHigh = 0, valLow = 0;
+        long rcHigh = 0, rcLow = 0;
+        int validBaseCount = 0;
+        for ( final byte chr : seq ) {
+            // adjust score for the contribution of the lead trimer, which is disappearing
+            curDUSTScore -= --trimerCounts[(int)(valHigh >>> trimerShift)];
+            int baseValue = BASE_VALUES[chr & 0xff];
+            if ( baseValue < 0 ) {
+                // like SVDUSTFilteredKmerizer, roll in an A so that the trimer counts stay consistent
+                baseValue = 0;
+                validBaseCount = -1;
+            }
+            valHigh = ((valHigh << 2) | (valLow >> carryShift)) & mask;
+            valLow = ((valLow << 2) | baseValue) & mask;
+            rcLow = ((rcLow >> 2) | (rcHigh << carryShift)) & mask;
+            rcHigh = ((rcHigh >> 2) | ((3L - baseValue) << carryShift)) & mask;
+            // adjust score for the new trailing trimer that just got rolled in
+            curDUSTScore += trimerCounts[(int)valLow & 0x3F]++;
+
+            if ( ++validBaseCount >= kSize && curDUSTScore <= maxDUSTScore ) {
+                // for odd K, the high bit of the middle base is the least significant bit of valHigh
+                final boolean keepGoing = (valHigh & 1L) == 0 ?
+                        visitor.visit(valHigh, valLow) : visitor.visit(rcHigh, rcLow);
+                if ( !keepGoing ) return false;
+            }
+        }
+        return true;
+    }
+}
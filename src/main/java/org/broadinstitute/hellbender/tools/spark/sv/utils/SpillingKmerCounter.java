@@ -0,0 +1,212 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts kmers without holding them all in memory at once.
+ * Kmers (as the primitive longs of an SVKmerLong, along with a count) are hash-partitioned into spill files as they
+ * are added.  When the counts are wanted, each spill file is read back in turn, radix-sorted, and run-length counted,
+ * so the memory required is proportional to the size of the largest partition rather than to the number of distinct
+ * kmers.  Choose enough partitions that each holds a comfortable number of kmers:  each record takes 20 bytes on
+ * disk, and about twice that in memory while it's being sorted.
+ * <p>
+ * You can add kmers until you call forEachKmerCount, after which the counter is read-only.
+ * Close the counter to delete its spill files.
+ */
+public final class SpillingKmerCounter implements Closeable {
+    private static final int RECORD_SIZE = 2 * Long.BYTES + Integer.BYTES;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    private final File[] spillFiles;
+    private final DataOutputStream[] spillStreams;
+    private boolean acceptingKmers;
+
+    /** Receives each distinct kmer and its total count. */
+    @FunctionalInterface
+    public interface KmerCountVisitor {
+        void visit( long valHigh, long valLow, long count );
+    }
+
+    public SpillingKmerCounter( final File spillDir, final int nPartitions ) {
+        Utils.nonNull(spillDir, "spill directory is null");
+        Utils.validateArg(nPartitions > 0, "number of partitions must be positive");
+        spillFiles = new File[nPartitions];
+        spillStreams = new DataOutputStream[nPartitions];
+        try {
+            for ( int partition = 0; partition != nPartitions; ++partition ) {
+                spillFiles[partition] = File.createTempFile("kmers", ".spill", spillDir);
+                spillStreams[partition] = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(spillFiles[partition]), STREAM_BUFFER_SIZE));
+            }
+        } catch ( final IOException ioe ) {
+            close();
+            throw new GATKException("Can't create kmer spill files in " + spillDir, ioe);
+        }
+        acceptingKmers = true;
+    }
+
+    public int getNPartitions() { return spillFiles.length; }
+
+    /** Count one occurrence of a kmer. */
+    public void add( final long valHigh, final long valLow ) {
+        add(valHigh, valLow, 1);
+    }
+
+    /** Count several occurrences of a kmer. */
+    public void add( final long valHigh, final long valLow, final int count ) {
+        Utils.validate(acceptingKmers, "kmers can't be added after the counts have been read");
+        // SVKmerLong.hashCode uses the low half of this hash, which may already have been used to partition the kmers
+        // (by Spark, e.g.), so we use the high half
+        final long hash = SVUtils.fnvLong64(SVUtils.fnvLong64(valHigh), valLow);
+        final int partition = (int)((hash >>> 33) % spillFiles.length);
+        try {
+            final DataOutputStream stream = spillStreams[partition];
+            stream.writeLong(valHigh);
+            stream.writeLong(valLow);
+            stream.writeInt(count);
+        } catch ( final IOException ioe ) {
+            throw new GATKException("Can't write kmer spill file " + spillFiles[partition], ioe);
+        }
+    }
+
+    /**
+     * Visit each distinct kmer with its total count.  Kmers are visited partition by partition, and in sorted order
+     * within each partition.
+     */
+    public void forEachKmerCount( final KmerCountVisitor visitor ) {
+        finishSpilling();
+        for ( final File spillFile : spillFiles ) {
+            final int nRecords = (int)(spillFile.length() / RECORD_SIZE);
+            final long[] highs = new long[nRecords];
+            final long[] lows = new long[nRecords];
+            final int[] counts = new int[nRecords];
+            try ( final DataInputStream stream = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(spillFile), STREAM_BUFFER_SIZE)) ) {
+                for ( int idx = 0; idx != nRecords; ++idx ) {
+                    highs[idx] = stream.readLong();
+                    lows[idx] = stream.readLong();
+                    counts[idx] = stream.readInt();
+                }
+            } catch ( final IOException ioe ) {
+                throw new GATKException("Can't read kmer spill file " + spillFile, ioe);
+            }
+
+            radixSort(highs, lows, counts);
+
+            int idx = 0;
+            while ( idx < nRecords ) {
+                final long valHigh = highs[idx];
+                final long valLow = lows[idx];
+                long count = 0;
+                do {
+                    count += counts[idx++];
+                } while ( idx < nRecords && highs[idx] == valHigh && lows[idx] == valLow );
+                visitor.visit(valHigh, valLow, count);
+            }
+        }
+    }
+
+    /** Returns the kmers that occur more than maxCount times. */
+    public List<SVKmer> getKmersWithCountAbove( final long maxCount ) {
+        final List<SVKmer> kmers = new ArrayList<>();
+        forEachKmerCount((valHigh, valLow, count) -> {
+            if ( count > maxCount ) kmers.add(new SVKmerLong(valHigh, valLow));
+        });
+        return kmers;
+    }
+
+    /** Deletes the spill files. */
+    @Override
+    public void close() {
+        acceptingKmers = false;
+        for ( int partition = 0; partition != spillFiles.length; ++partition ) {
+            if ( spillStreams[partition] != null ) {
+                try {
+                    spillStreams[partition].close();
+                } catch ( final IOException ioe ) {
+                    // we're about to delete the file anyway
+                }
+                spillStreams[partition] = null;
+            }
+            if ( spillFiles[partition] != null ) {
+                spillFiles[partition].delete();
+            }
+        }
+    }
+
+    private void finishSpilling() {
+        if ( !acceptingKmers ) return;
+        acceptingKmers = false;
+        for ( int partition = 0; partition != spillFiles.length; ++partition ) {
+            try {
+                spillStreams[partition].close();
+            } catch ( final IOException ioe ) {
+                throw new GATKException("Can't write kmer spill file " + spillFiles[partition], ioe);
+            }
+            spillStreams[partition] = null;
+        }
+    }
+
+    /**
+     * Least-significant-digit radix sort of kmers (and their counts) by valHigh, then valLow, treating the values as
+     * unsigned.  Passes for digits that are zero in every kmer (like the high-order bits of short kmers) are skipped.
+     */
+    private static void radixSort( final long[] highs, final long[] lows, final int[] counts ) {
+        final int nRecords = highs.length;
+        long usedHighBits = 0;
+        long usedLowBits = 0;
+        for ( int idx = 0; idx != nRecords; ++idx ) {
+            usedHighBits |= highs[idx];
+            usedLowBits |= lows[idx];
+        }
+
+        long[] srcHighs = highs, srcLows = lows;
+        int[] srcCounts = counts;
+        long[] dstHighs = new long[nRecords], dstLows = new long[nRecords];
+        int[] dstCounts = new int[nRecords];
+        final int[] bucketStarts = new int[RADIX];
+        for ( int keyNo = 0; keyNo != 2; ++keyNo ) {
+            final boolean sortByLow = keyNo == 0;
+            final long usedBits = sortByLow ? usedLowBits : usedHighBits;
+            for ( int shift = 0; shift < Long.SIZE; shift += RADIX_BITS ) {
+                if ( ((usedBits >>> shift) & RADIX_MASK) == 0 ) continue;
+                final long[] keys = sortByLow ? srcLows : srcHighs;
+
+                Arrays.fill(bucketStarts, 0);
+                for ( int idx = 0; idx != nRecords; ++idx ) {
+                    bucketStarts[(int)(keys[idx] >>> shift) & RADIX_MASK] += 1;
+                }
+                int start = 0;
+                for ( int bucket = 0; bucket != RADIX; ++bucket ) {
+                    final int bucketSize = bucketStarts[bucket];
+                    bucketStarts[bucket] = start;
+                    start += bucketSize;
+                }
+                for ( int idx = 0; idx != nRecords; ++idx ) {
+                    final int dstIdx = bucketStarts[(int)(keys[idx] >>> shift) & RADIX_MASK]++;
+                    dstHighs[dstIdx] = srcHighs[idx];
+                    dstLows[dstIdx] = srcLows[idx];
+                    dstCounts[dstIdx] = srcCounts[idx];
+                }
+
+                final long[] tmpHighs = srcHighs; srcHighs = dstHighs; dstHighs = tmpHighs;
+                final long[] tmpLows = srcLows; srcLows = dstLows; dstLows = tmpLows;
+                final int[] tmpCounts = srcCounts; srcCounts = dstCounts; dstCounts = tmpCounts;
+            }
+        }
+        if ( srcHighs != highs ) {
+            System.arraycopy(srcHighs, 0, highs, 0, nRecords);
+            System.arraycopy(srcLows, 0, lows, 0, nRecords);
+            System.arraycopy(srcCounts, 0, counts, 0, nRecords);
+        }
+    }
+}
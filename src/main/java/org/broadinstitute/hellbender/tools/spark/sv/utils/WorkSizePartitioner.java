@@ -0,0 +1,95 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.apache.spark.Partitioner;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * A Spark Partitioner that bin-packs tasks of varying sizes into a limited number of partitions so that each
+ * partition has roughly the same amount of work.
+ * Keys are task ids (Integers from 0 to the number of tasks - 1), and each task has an estimated work size.
+ *
+ * Tasks are placed largest first, each into the partition that has the least work so far (the "LPT" heuristic).
+ * A task that is bigger than an even share of the work that remains to be packed is an outlier: it gets a partition
+ * all to itself, so that it doesn't make the other tasks sharing its partition wait.
+ * Partitions are numbered in order of decreasing work, so that the biggest ones are started first.
+ */
+public final class WorkSizePartitioner extends Partitioner {
+    private static final long serialVersionUID = 1L;
+    private final int[] partitions;
+    private final long[] partitionWorkSizes;
+    private final int nIsolatedTasks;
+
+    public WorkSizePartitioner( final long[] workSizes, final int targetNPartitions ) {
+        Utils.nonNull(workSizes, "work sizes array is null");
+        Utils.validateArg(targetNPartitions > 0, "target number of partitions must be positive");
+        final int nTasks = workSizes.length;
+        final Integer[] tags = new Integer[nTasks];
+        long totalWork = 0;
+        for ( int idx = 0; idx != nTasks; ++idx ) {
+            Utils.validateArg(workSizes[idx] >= 0, "work sizes must be non-negative");
+            tags[idx] = idx;
+            totalWork += workSizes[idx];
+        }
+        Arrays.sort(tags, (a, b) -> Long.compare(workSizes[b], workSizes[a]));
+
+        final int nPartitions = Math.max(1, Math.min(targetNPartitions, nTasks));
+        final int[] unsortedPartitions = new int[nTasks];
+        final long[] unsortedWorkSizes = new long[nPartitions];
+
+        // isolate the outliers, largest first
+        int tagIdx = 0;
+        long remainingWork = totalWork;
+        while ( tagIdx < nTasks && nPartitions - tagIdx > 1 ) {
+            final long workSize = workSizes[tags[tagIdx]];
+            if ( workSize * (nPartitions - tagIdx) <= remainingWork ) break;
+            unsortedPartitions[tags[tagIdx]] = tagIdx;
+            unsortedWorkSizes[tagIdx] = workSize;
+            remainingWork -= workSize;
+            tagIdx += 1;
+        }
+        nIsolatedTasks = tagIdx;
+
+        // pack the rest into the least loaded of the remaining partitions
+        final PriorityQueue<Integer> bins = new PriorityQueue<>(nPartitions,
+                Comparator.comparingLong((Integer binIdx) -> unsortedWorkSizes[binIdx]).thenComparingInt(binIdx -> binIdx));
+        for ( int binIdx = nIsolatedTasks; binIdx != nPartitions; ++binIdx ) {
+            bins.add(binIdx);
+        }
+        for ( ; tagIdx != nTasks; ++tagIdx ) {
+            final int binIdx = bins.poll();
+            unsortedPartitions[tags[tagIdx]] = binIdx;
+            unsortedWorkSizes[binIdx] += workSizes[tags[tagIdx]];
+            bins.add(binIdx);
+        }
+
+        // renumber the partitions so that the one with the most work comes first
+        final Integer[] binTags = new Integer[nPartitions];
+        for ( int idx = 0; idx != nPartitions; ++idx ) {
+            binTags[idx] = idx;
+        }
+        Arrays.sort(binTags, (a, b) -> Long.compare(unsortedWorkSizes[b], unsortedWorkSizes[a]));
+        final int[] binRanks = new int[nPartitions];
+        partitionWorkSizes = new long[nPartitions];
+        for ( int rank = 0; rank != nPartitions; ++rank ) {
+            binRanks[binTags[rank]] = rank;
+            partitionWorkSizes[rank] = unsortedWorkSizes[binTags[rank]];
+        }
+        partitions = new int[nTasks];
+        for ( int idx = 0; idx != nTasks; ++idx ) {
+            partitions[idx] = binRanks[unsortedPartitions[idx]];
+        }
+    }
+
+    /** The estimated amount of work assigned to a partition. */
+    public long getPartitionWorkSize( final int partition ) { return partitionWorkSizes[partition]; }
+
+    /** The number of outlier tasks that were given partitions of their own. */
+    public int getNIsolatedTasks() { return nIsolatedTasks; }
+
+    @Override public int numPartitions() { return partitionWorkSizes.length; }
+    @Override public int getPartition( final Object key ) { return partitions[(Integer)key]; }
+}
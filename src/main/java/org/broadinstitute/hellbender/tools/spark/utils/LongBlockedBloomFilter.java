@@ -0,0 +1,242 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.annotations.VisibleForTesting;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Blocked Bloom filter for primitive longs. Like LongBloomFilter, but all of the bits for a given key lie within a
+ * single 512-bit block (one 64-byte cache line), so a lookup costs at most one cache miss no matter how large the
+ * filter is, rather than one cache miss per hash function.
+ * <p>
+ * The first hash of a key picks its block. Each block is 8 longs, and the second hash supplies 6 bits for each of
+ * those 8 words to pick the single bit that's set in that word (a "split block" layout). A lookup is then 8
+ * independent AND-and-test operations on adjacent words with no data-dependent branching, which the JIT can
+ * unroll and vectorize.
+ * <p>
+ * The price is a somewhat higher false positive rate for a given number of bits, because keys aren't spread
+ * perfectly evenly over the blocks. The filter is sized so that the theoretical false positive probability,
+ * accounting for this, is no greater than the requested one.
+ */
+@DefaultSerializer(LongBlockedBloomFilter.Serializer.class)
+public final class LongBlockedBloomFilter {
+
+    public static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_WORD = 64;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * BITS_PER_WORD;
+    private static final int PROBE_BITS = 6; //Bits of the second hash used to pick the bit in each word
+
+    //Blocks are stored in pages of 2^24 blocks (1GB), so the filter isn't limited by the maximum array size
+    private static final int BLOCKS_PER_PAGE_SHIFT = 24;
+    private static final long BLOCKS_PER_PAGE = 1L << BLOCKS_PER_PAGE_SHIFT;
+
+    private static final long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
+
+    private final long numBlocks;
+    private final long[][] pages;
+
+    public LongBlockedBloomFilter(final long numElements, final double fpp) {
+        Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
+        Utils.validateArg(fpp > 0 && fpp < 1, "False positive probability must be between 0 and 1");
+        numBlocks = getNumberOfBlocks(numElements, fpp);
+        pages = allocatePages(numBlocks);
+    }
+
+    private LongBlockedBloomFilter(final Kryo kryo, final Input input) {
+        numBlocks = input.readLong();
+        pages = allocatePages(numBlocks);
+        for (final long[] page : pages) {
+            for (int i = 0; i < page.length; i++) {
+                page[i] = input.readLong();
+            }
+        }
+    }
+
+    private void serialize(final Kryo kryo, final Output output) {
+        output.writeLong(numBlocks);
+        for (final long[] page : pages) {
+            for (final long word : page) {
+                output.writeLong(word);
+            }
+        }
+    }
+
+    private static long[][] allocatePages(final long numBlocks) {
+        final int numPages = (int) ((numBlocks + BLOCKS_PER_PAGE - 1) >>> BLOCKS_PER_PAGE_SHIFT);
+        final long[][] pages = new long[numPages][];
+        for (int i = 0; i < numPages; i++) {
+            final long blocksInPage = Math.min(BLOCKS_PER_PAGE, numBlocks - i * BLOCKS_PER_PAGE);
+            pages[i] = new long[(int) blocksInPage * WORDS_PER_BLOCK];
+        }
+        return pages;
+    }
+
+    /**
+     * Returns the smallest number of blocks for which the theoretical false positive probability is no greater than fpp.
+     */
+    @VisibleForTesting
+    static long getNumberOfBlocks(final long numElements, final double fpp) {
+        //Start from the size of an ordinary Bloom filter, which is a lower bound, and grow it by 1% at a time
+        long numBlocks = Math.max(1L, LongBloomFilter.getOptimalNumberOfBits(numElements, fpp) / BITS_PER_BLOCK);
+        while (getTheoreticalFPP(numElements, numBlocks) > fpp) {
+            numBlocks = Math.max(numBlocks + 1, (long) (numBlocks * 1.01));
+        }
+        if (numBlocks >> BLOCKS_PER_PAGE_SHIFT >= Integer.MAX_VALUE) {
+            throw new GATKException("Could not create blocked Bloom filter with " + numBlocks + " blocks");
+        }
+        return numBlocks;
+    }
+
+    public double getTheoreticalFPP(final long numElements) {
+        return getTheoreticalFPP(numElements, numBlocks);
+    }
+
+    /**
+     * The number of keys in a block is approximately Poisson-distributed with mean numElements / numBlocks. A block
+     * holding j keys gives a false positive when all 8 probed bits are set, each of which is set with probability
+     * 1 - (1 - 1/64)^j, so the overall false positive probability is the Poisson-weighted sum over j.
+     */
+    @VisibleForTesting
+    static double getTheoreticalFPP(final long numElements, final long numBlocks) {
+        final double lambda = numElements / (double) numBlocks;
+        final int maxLoad = (int) Math.ceil(lambda + 10 * Math.sqrt(lambda) + 10);
+        final double logBitClearProbability = Math.log1p(-1.0 / BITS_PER_WORD);
+        double fpp = 0;
+        double logPoisson = -lambda; //log of P(load = 0)
+        for (int load = 0; load <= maxLoad; load++) {
+            if (load > 0) {
+                logPoisson += Math.log(lambda) - Math.log(load);
+            }
+            final double bitSetProbability = -Math.expm1(load * logBitClearProbability);
+            fpp += Math.exp(logPoisson) * Math.pow(bitSetProbability, WORDS_PER_BLOCK);
+        }
+        return fpp;
+    }
+
+    /**
+     * Size of the filter in bits
+     */
+    public long getNumberOfBits() {
+        return numBlocks * BITS_PER_BLOCK;
+    }
+
+    public boolean add(final long entryValue) {
+        final long block = blockIndex(entryValue);
+        final long[] page = pages[(int) (block >>> BLOCKS_PER_PAGE_SHIFT)];
+        final int offset = (int) (block & (BLOCKS_PER_PAGE - 1)) * WORDS_PER_BLOCK;
+        final long hash2 = probeHash(entryValue);
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            page[offset + i] |= probeMask(hash2, i);
+        }
+        return true;
+    }
+
+    public boolean contains(final long key) {
+        final long block = blockIndex(key);
+        final long[] page = pages[(int) (block >>> BLOCKS_PER_PAGE_SHIFT)];
+        final int offset = (int) (block & (BLOCKS_PER_PAGE - 1)) * WORDS_PER_BLOCK;
+        final long hash2 = probeHash(key);
+        //Accumulate the missing bits rather than returning early, so there are no branches in the loop
+        long missingBits = 0;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            missingBits |= probeMask(hash2, i) & ~page[offset + i];
+        }
+        return missingBits == 0;
+    }
+
+    public void addAll(final long[] entryValues) {
+        for (final long val : entryValues) {
+            add(val);
+        }
+    }
+
+    public boolean containsAll(final long[] vals) {
+        for (final long val : vals) {
+            if (!contains(val))
+                return false;
+        }
+        return true;
+    }
+
+    private long blockIndex(final long key) {
+        return Long.remainderUnsigned(SVUtils.fnvLong64(key), numBlocks);
+    }
+
+    /**
+     * The low bits of an FNV hash only depend on the low bits of each byte of the key, so we finish the hash that
+     * supplies the probe bits with the 64-bit mixer from MurmurHash3 to get bits that depend on the whole key.
+     */
+    private static long probeHash(final long key) {
+        long hash = SVUtils.fnvLong64(HASH_SEED_2, key);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the mask with the single bit to set or test in word i of the block
+     */
+    private static long probeMask(final long hash2, final int i) {
+        return 1L << ((hash2 >>> (i * PROBE_BITS)) & (BITS_PER_WORD - 1));
+    }
+
+    public void clear() {
+        for (final long[] page : pages) {
+            Arrays.fill(page, 0L);
+        }
+    }
+
+    public boolean isEmpty() {
+        for (final long[] page : pages) {
+            for (final long word : page) {
+                if (word != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongBlockedBloomFilter)) return false;
+
+        final LongBlockedBloomFilter that = (LongBlockedBloomFilter) o;
+
+        if (numBlocks != that.numBlocks) return false;
+        for (int i = 0; i < pages.length; i++) {
+            if (!Arrays.equals(pages[i], that.pages[i])) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (numBlocks ^ (numBlocks >>> 32));
+        for (final long[] page : pages) {
+            result = 31 * result + Arrays.hashCode(page);
+        }
+        return result;
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<LongBlockedBloomFilter> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final LongBlockedBloomFilter bloomFilter) {
+            bloomFilter.serialize(kryo, output);
+        }
+
+        @Override
+        public LongBlockedBloomFilter read(final Kryo kryo, final Input input, final Class<LongBlockedBloomFilter> klass) {
+            return new LongBlockedBloomFilter(kryo, input);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.annotations.VisibleForTesting;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A multimap from a key made of a pair of longs (e.g., the two halves of an SVKmerLong) onto non-negative ints.
+ * Like HopscotchUniqueMultiMap, each key may have many values, but a given key/value pair is present at most once.
+ * <p>
+ * This class exists to save the memory used by object headers and references in a HopscotchUniqueMultiMap of
+ * boxed entries: each entry costs 20 bytes of primitive arrays (plus the unused capacity), and the whole map is
+ * broadcast as three primitive arrays.  Collisions are resolved by linear probing, so all the entries for a key lie
+ * in the run of occupied buckets that starts at the key's hash bucket.
+ * <p>
+ * Non-negative values only!  We use a negative value to mark an empty bucket.
+ */
+@DefaultSerializer(LongPairIntMultiMap.Serializer.class)
+public final class LongPairIntMultiMap implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @VisibleForTesting
+    static final double LOAD_FACTOR = .75;
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private int size;
+    private int capacity; // always a power of 2
+    private long[] keysHigh;
+    private long[] keysLow;
+    private int[] values;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept( long keyHigh, long keyLow, int value );
+    }
+
+    /**
+     * make a small LongPairIntMultiMap
+     */
+    public LongPairIntMultiMap() {
+        this(12000);
+    }
+
+    /**
+     * make a LongPairIntMultiMap that will hold a specified number of entries without resizing
+     */
+    public LongPairIntMultiMap( final int nEntries ) {
+        Utils.validateArg(nEntries >= 0, "number of entries must be non-negative");
+        allocate(capacityFor(nEntries));
+    }
+
+    private LongPairIntMultiMap( final Kryo kryo, final Input input ) {
+        final int nEntries = input.readInt();
+        allocate(capacityFor(nEntries));
+        for ( int idx = 0; idx != nEntries; ++idx ) {
+            final long keyHigh = input.readLong();
+            final long keyLow = input.readLong();
+            add(keyHigh, keyLow, input.readInt());
+        }
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        output.writeInt(size);
+        for ( int idx = 0; idx != capacity; ++idx ) {
+            if ( values[idx] != EMPTY ) {
+                output.writeLong(keysHigh[idx]);
+                output.writeLong(keysLow[idx]);
+                output.writeInt(values[idx]);
+            }
+        }
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Add a key/value pair.
+     * @return false if the pair was already present
+     */
+    public boolean add( final long keyHigh, final long keyLow, final int value ) {
+        Utils.validateArg(value >= 0, "Tried to add a negative value to a LongPairIntMultiMap");
+        int idx = bucket(keyHigh, keyLow);
+        while ( values[idx] != EMPTY ) {
+            if ( values[idx] == value && keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) return false;
+            idx = (idx + 1) & (capacity - 1);
+        }
+        keysHigh[idx] = keyHigh;
+        keysLow[idx] = keyLow;
+        values[idx] = value;
+        if ( ++size > LOAD_FACTOR * capacity ) resize();
+        return true;
+    }
+
+    public boolean contains( final long keyHigh, final long keyLow ) {
+        for ( int idx = bucket(keyHigh, keyLow); values[idx] != EMPTY; idx = (idx + 1) & (capacity - 1) ) {
+            if ( keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) return true;
+        }
+        return false;
+    }
+
+    public boolean contains( final long keyHigh, final long keyLow, final int value ) {
+        for ( int idx = bucket(keyHigh, keyLow); values[idx] != EMPTY; idx = (idx + 1) & (capacity - 1) ) {
+            if ( values[idx] == value && keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Pass each value associated with a key to a consumer.  The map must not be modified by the consumer.
+     */
+    public void forEachValue( final long keyHigh, final long keyLow, final IntConsumer consumer ) {
+        for ( int idx = bucket(keyHigh, keyLow); values[idx] != EMPTY; idx = (idx + 1) & (capacity - 1) ) {
+            if ( keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) consumer.accept(values[idx]);
+        }
+    }
+
+    /**
+     * The number of values associated with a key.
+     */
+    public int count( final long keyHigh, final long keyLow ) {
+        int count = 0;
+        for ( int idx = bucket(keyHigh, keyLow); values[idx] != EMPTY; idx = (idx + 1) & (capacity - 1) ) {
+            if ( keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) count += 1;
+        }
+        return count;
+    }
+
+    /**
+     * Pass each entry to a consumer.  The map must not be modified by the consumer.
+     */
+    public void forEach( final EntryConsumer consumer ) {
+        for ( int idx = 0; idx != capacity; ++idx ) {
+            if ( values[idx] != EMPTY ) consumer.accept(keysHigh[idx], keysLow[idx], values[idx]);
+        }
+    }
+
+    /**
+     * Remove a single key/value pair.
+     * @return true if the pair was present
+     */
+    public boolean remove( final long keyHigh, final long keyLow, final int value ) {
+        for ( int idx = bucket(keyHigh, keyLow); values[idx] != EMPTY; idx = (idx + 1) & (capacity - 1) ) {
+            if ( values[idx] == value && keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) {
+                removeAtIndex(idx);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove all the values associated with a key.
+     * @return the number of entries removed
+     */
+    public int removeEach( final long keyHigh, final long keyLow ) {
+        int nRemoved = 0;
+        int idx = bucket(keyHigh, keyLow);
+        while ( values[idx] != EMPTY ) {
+            if ( keysHigh[idx] == keyHigh && keysLow[idx] == keyLow ) {
+                // removal may shift a later entry into this bucket, so look at the same bucket again
+                removeAtIndex(idx);
+                nRemoved += 1;
+            } else {
+                idx = (idx + 1) & (capacity - 1);
+            }
+        }
+        return nRemoved;
+    }
+
+    public void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        if ( this == obj ) return true;
+        if ( !(obj instanceof LongPairIntMultiMap) ) return false;
+        final LongPairIntMultiMap that = (LongPairIntMultiMap)obj;
+        if ( size != that.size ) return false;
+        for ( int idx = 0; idx != capacity; ++idx ) {
+            if ( values[idx] != EMPTY && !that.contains(keysHigh[idx], keysLow[idx], values[idx]) ) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for ( int idx = 0; idx != capacity; ++idx ) {
+            if ( values[idx] != EMPTY ) hash += hashKey(keysHigh[idx], keysLow[idx]) ^ values[idx];
+        }
+        return hash;
+    }
+
+    @VisibleForTesting
+    int capacity() { return capacity; }
+
+    private static int hashKey( final long keyHigh, final long keyLow ) {
+        // same hash as SVKmerLong.hashCode
+        return (int)SVUtils.fnvLong64(SVUtils.fnvLong64(keyHigh), keyLow);
+    }
+
+    private int bucket( final long keyHigh, final long keyLow ) {
+        final int hash = hashKey(keyHigh, keyLow);
+        // fold the high bits down, since the mask only looks at the low bits
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+
+    private static int capacityFor( final int nEntries ) {
+        final long minCapacity = Math.max(MIN_CAPACITY, (long)Math.ceil(nEntries / LOAD_FACTOR) + 1);
+        final long capacity = Long.highestOneBit(minCapacity - 1) << 1;
+        if ( capacity > (1 << 30) ) {
+            throw new IllegalStateException("LongPairIntMultiMap can't hold " + nEntries + " entries.");
+        }
+        return (int)capacity;
+    }
+
+    private void allocate( final int newCapacity ) {
+        capacity = newCapacity;
+        size = 0;
+        keysHigh = new long[capacity];
+        keysLow = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+    }
+
+    // backward-shift deletion: close the hole by moving up any later entry in the run that may legally occupy it
+    private void removeAtIndex( int holeIndex ) {
+        final int mask = capacity - 1;
+        int idx = holeIndex;
+        while ( true ) {
+            idx = (idx + 1) & mask;
+            if ( values[idx] == EMPTY ) break;
+            final int home = bucket(keysHigh[idx], keysLow[idx]);
+            // the entry at idx can move into the hole unless its home bucket lies cyclically in (holeIndex, idx]
+            final boolean homeBetween = holeIndex <= idx ?
+                    (home > holeIndex && home <= idx) :
+                    (home > holeIndex || home <= idx);
+            if ( !homeBetween ) {
+                keysHigh[holeIndex] = keysHigh[idx];
+                keysLow[holeIndex] = keysLow[idx];
+                values[holeIndex] = values[idx];
+                holeIndex = idx;
+            }
+        }
+        values[holeIndex] = EMPTY;
+        size -= 1;
+    }
+
+    private void resize() {
+        final long[] oldKeysHigh = keysHigh;
+        final long[] oldKeysLow = keysLow;
+        final int[] oldValues = values;
+        final int oldSize = size;
+        allocate(capacity << 1);
+        for ( int idx = 0; idx != oldValues.length; ++idx ) {
+            if ( oldValues[idx] != EMPTY ) add(oldKeysHigh[idx], oldKeysLow[idx], oldValues[idx]);
+        }
+        if ( size != oldSize ) {
+            // this should never happen, period.
+            throw new IllegalStateException("Lost some elements during resizing.");
+        }
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<LongPairIntMultiMap> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final LongPairIntMultiMap multiMap ) {
+            multiMap.serialize(kryo, output);
+        }
+
+        @Override
+        public LongPairIntMultiMap read( final Kryo kryo, final Input input, final Class<LongPairIntMultiMap> klass ) {
+            return new LongPairIntMultiMap(kryo, input);
+        }
+    }
+}
@@ -2,16 +2,43 @@ package org.broadinstitute.hellbender.utils.bwa;
 
 import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
  * Manage a global collection of {@link BwaMemIndex} instances.
+ * <p>
+ *     The native index loader maps the image file read-only into memory, so all processes on a host that open the
+ *     same local image file share a single copy of it in the page cache. To take advantage of this when the image
+ *     lives on a shared or remote file system (HDFS, GCS, NFS), an instance may be obtained with a node-local
+ *     staging directory, see {@link #acquireInstance(String, String)}: the image is copied there once per host,
+ *     and every executor on the host maps the same local copy.
+ * </p>
+ * <p>
+ *     Instances obtained with {@link #acquireInstance(String, String)} are reference counted, and the native index
+ *     is closed when the last reference is released with {@link #releaseInstance(String)}.  Instances obtained with
+ *     {@link #getInstance} are not counted:  once an instance has been obtained that way, it stays open until it is
+ *     closed explicitly (by {@link #closeInstance}, {@link #closeInstances()}, or
+ *     {@link #closeAllDistributedInstances}), whatever its reference count.
+ * </p>
  */
 public class BwaMemIndexCache {
 
     private final static Map<String, BwaMemIndex> instances = new HashMap<>();
+    private final static Map<String, Integer> referenceCounts = new HashMap<>();
+    private final static Set<String> uncountedInstances = new HashSet<>();
+
+    private final static String STAGING_LOCK_SUFFIX = ".lock";
 
     /**
      * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file.
@@ -19,13 +46,128 @@ public class BwaMemIndexCache {
      * @return never {@code null}.
      */
     public static synchronized BwaMemIndex getInstance( final String indexImageFile ) {
+        return getInstance(indexImageFile, null);
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance that corresponds to given index image file, without counting a reference
+     * to it. The instance stays open until it is closed explicitly, even if its reference count drops to zero.
+     * @param indexImageFile the target image file.
+     * @param localStagingDirectory if not {@code null}, a directory on node-local disk that the image file is copied
+     *                              to before it is opened (see {@link #acquireInstance(String, String)}).
+     * @return never {@code null}.
+     */
+    public static synchronized BwaMemIndex getInstance( final String indexImageFile, final String localStagingDirectory ) {
+        final BwaMemIndex instance = loadInstance(indexImageFile, localStagingDirectory);
+        uncountedInstances.add(indexImageFile);
+        return instance;
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance that corresponds to given index image file, and increments its reference
+     * count. Each call must be paired with a call to {@link #releaseInstance(String)} with the same file name.
+     * @param indexImageFile the target image file.
+     * @param localStagingDirectory if not {@code null}, a directory on node-local disk that the image file is copied
+     *                              to (if it is not already there) before it is opened, so that it is shared by all
+     *                              processes on the node.
+     * @return never {@code null}.
+     */
+    public static synchronized BwaMemIndex acquireInstance( final String indexImageFile, final String localStagingDirectory ) {
+        final BwaMemIndex instance = loadInstance(indexImageFile, localStagingDirectory);
+        referenceCounts.merge(indexImageFile, 1, Integer::sum);
+        return instance;
+    }
+
+    private static BwaMemIndex loadInstance( final String indexImageFile, final String localStagingDirectory ) {
         Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
         if (!instances.containsKey(indexImageFile)) {
-            instances.put(indexImageFile, new BwaMemIndex(indexImageFile));
+            final String localImageFile = localStagingDirectory == null ? indexImageFile :
+                    stageImage(indexImageFile, IOUtils.getPath(localStagingDirectory)).toString();
+            instances.put(indexImageFile, new BwaMemIndex(localImageFile));
         }
         return instances.get(indexImageFile);
     }
 
+    /**
+     * Releases a reference to an index instance obtained with {@link #acquireInstance(String, String)}, and closes
+     * the instance if it was the last reference, unless the instance has also been obtained with {@link #getInstance}.
+     * <p>
+     *     An attempt to release an instance that has no outstanding references won't have any effect.
+     * </p>
+     * @param indexImageFile the index file name of the instance to release.
+     */
+    public static synchronized void releaseInstance( final String indexImageFile ) {
+        Utils.nonNull(indexImageFile, "the input image file cannot be null");
+        final Integer count = referenceCounts.get(indexImageFile);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            referenceCounts.put(indexImageFile, count - 1);
+        } else if (uncountedInstances.contains(indexImageFile)) {
+            referenceCounts.remove(indexImageFile);
+        } else {
+            closeInstance(indexImageFile);
+        }
+    }
+
+    /**
+     * Returns the number of outstanding references to the instance for the given index image file.
+     * @param indexImageFile the index image file.
+     * @return 0 or greater.
+     */
+    public static synchronized int getReferenceCount( final String indexImageFile ) {
+        return referenceCounts.getOrDefault(indexImageFile, 0);
+    }
+
+    /**
+     * Copies an index image file into a node-local staging directory, unless an up-to-date copy is already there.
+     * <p>
+     *     Staging is safe across processes on the same host: a file lock serializes processes that stage the same
+     *     image, and the copy only becomes visible under its final name once it is complete.
+     * </p>
+     * @param indexImageFile the image file to stage, which may be on any file system supported by {@link IOUtils#getPath}.
+     * @param stagingDirectory the node-local directory to stage the image into.
+     * @return the path of the local copy of the image.
+     */
+    static Path stageImage( final String indexImageFile, final Path stagingDirectory ) {
+        final Path source = IOUtils.getPath(indexImageFile);
+        if (source.getParent() != null && source.getFileSystem().equals(stagingDirectory.getFileSystem())
+                && source.getParent().toAbsolutePath().equals(stagingDirectory.toAbsolutePath())) {
+            return source; // already staged
+        }
+        try {
+            final long size = Files.size(source);
+            final long lastModified = Files.getLastModifiedTime(source).toMillis();
+            // the name of the local copy identifies the source, its size, and its modification time, so a changed or
+            // different image with the same file name is not mistaken for the local copy
+            final String localName = String.format("%s.%08x.%d.%x", source.getFileName(), source.toUri().toString().hashCode(), size, lastModified);
+            final Path target = stagingDirectory.resolve(localName);
+            if (Files.exists(target) && Files.size(target) == size) {
+                return target;
+            }
+            Files.createDirectories(stagingDirectory);
+            try ( final FileChannel lockChannel = FileChannel.open(stagingDirectory.resolve(localName + STAGING_LOCK_SUFFIX),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                  final FileLock lock = lockChannel.lock() ) {
+                // another process may have staged the image while we were waiting for the lock
+                if (Files.exists(target) && Files.size(target) == size) {
+                    return target;
+                }
+                final Path partial = Files.createTempFile(stagingDirectory, localName, ".partial");
+                try {
+                    Files.copy(source, partial, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(partial);
+                }
+            }
+            return target;
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(source, "could not stage the index image to " + stagingDirectory, e);
+        }
+    }
+
     /**
      * Closes an index instance in the cache given its index file name.
      * <p>
@@ -42,6 +184,8 @@ public class BwaMemIndexCache {
         if (instances.containsKey(indexImageFile)) {
             instances.get(indexImageFile).close();
             instances.remove(indexImageFile);
+            referenceCounts.remove(indexImageFile);
+            uncountedInstances.remove(indexImageFile);
         }
     }
 
@@ -57,7 +201,14 @@ public class BwaMemIndexCache {
         Utils.nonNull(instance, "the input index cannot be null");
         if (instances.values().contains(instance)) {
             instance.close();
-            instances.values().remove(instance);
+            instances.entrySet().removeIf(entry -> {
+                if (entry.getValue() == instance) {
+                    referenceCounts.remove(entry.getKey());
+                    uncountedInstances.remove(entry.getKey());
+                    return true;
+                }
+                return false;
+            });
         }
     }
 
@@ -70,6 +221,8 @@ public class BwaMemIndexCache {
             it.next().close();
             it.remove();
         }
+        referenceCounts.clear();
+        uncountedInstances.clear();
     }
 
     /**
@@ -28,6 +28,8 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -59,6 +61,11 @@ import java.util.stream.Stream;
  *
  * contig, start, and end can be specified as a comma-separated list.
  *
+ * The configuration file may also contain the optional key `xsv_output_columns`: a comma-separated list of the names of
+ * the columns to keep in each {@link XsvTableFeature}.  If given, all other columns (except for the location columns) are
+ * dropped when each line is decoded.  This keeps the memory used by features from wide tables low when only a few of
+ * their columns are needed.
+ *
  * Created by jonn on 12/4/17.
  */
 public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeature> {
@@ -79,6 +86,9 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
     @VisibleForTesting
     public static final String CONFIG_FILE_EXTENSION = ".config";
 
+    /** Characters that give a delimiter a meaning as a regular expression different from its literal value. */
+    private static final String REGEX_SPECIAL_CHARACTERS = ".$|()[]{}^?*+\\";
+
     //==================================================================================================================
     // Private Members:
 
@@ -103,6 +113,12 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
     /** Delimiter for entries in this XSV Table. */
     private String delimiter;
 
+    /** {@link #delimiter} as a {@link Pattern}, or {@code null} if {@link #delimiter} has no special regex characters and can be found with {@link String#indexOf}. */
+    private Pattern delimiterPattern;
+
+    /** Names of the columns to keep in each {@link XsvTableFeature}, as specified in the input.  {@code null} to keep all columns. */
+    private List<String> inputOutputColumns;
+
     /** The name of the data source that is associated with this {@link XsvLocatableTableCodec}. */
     private String dataSourceName;
 
@@ -118,6 +134,20 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
     /** The locatable columns, once determined, in contig, start, end order. */
     private List<String> locatableColumns;
 
+    /** The columns of {@link #header} that are kept in each {@link XsvTableFeature}. */
+    private List<String> outputHeader;
+
+    /** The indices in {@link #header} of the columns in {@link #outputHeader}.  {@code null} if all columns are kept. */
+    private int[] outputColumnIndices;
+
+    /** The indices in {@link #outputHeader} of the contig, start, and end columns. */
+    private int outputContigColumn;
+    private int outputStartColumn;
+    private int outputEndColumn;
+
+    /** Start and end offsets of the fields in the line being decoded, reused across lines. */
+    private int[] fieldBoundaries = new int[0];
+
     /** The current position in the file that is being read. */
     private long currentLine = 0;
 
@@ -283,29 +313,98 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
             return null;
         }
 
-        final List<String> split = new ArrayList<>(Arrays.asList(s.split(delimiter)));
-        if (split.size() < 1) {
+        final int numFields = findFieldBoundaries(s);
+        if (numFields < 1) {
             throw new UserException.BadInput("XSV file has a line with no delimiter at line number: " + currentLine);
         }
-        else if ( split.size() < header.size() ) {
-            while (split.size() < header.size() ) {
-                split.add("");
-            }
-        }
-        else if ( split.size() > header.size() ) {
-            logger.warn("WARNING: Line " + currentLine + " does not have the same number of fields as header (" + split.size() + " > " + header.size() + ")!  Truncating fields from end...");
-            while (split.size() > header.size() ) {
-                split.remove( split.size() - 1 );
-            }
+        else if ( numFields > header.size() ) {
+            logger.warn("WARNING: Line " + currentLine + " does not have the same number of fields as header (" + numFields + " > " + header.size() + ")!  Truncating fields from end...");
         }
         // HACK: For tribble to work properly, we need to know the position (in bytes) of the file pointer.  Currently, that cannot be ascertained.
         // HACK:  this code will just detect if the header is being read again and ignore it.
-        else if (!hasFirstRecordBeenRead && ( IntStream.range(0, split.size()).allMatch(i -> header.get(i).equals(split.get(i))))) {
+        else if (!hasFirstRecordBeenRead && ( numFields == header.size() ) && IntStream.range(0, numFields).allMatch(i -> fieldEquals(s, i, header.get(i)))) {
             return null;
         }
         hasFirstRecordBeenRead = true;
-        return new XsvTableFeature(headerToIndex.get(finalContigColumn), headerToIndex.get(finalStartColumn),
-                headerToIndex.get(finalEndColumn), header, split, dataSourceName);
+
+        // Missing fields at the end of the line are empty:
+        final int[] valueStarts = new int[outputHeader.size()];
+        final int[] valueEnds = new int[outputHeader.size()];
+        if ( outputColumnIndices == null ) {
+            for ( int i = 0; i < Math.min(numFields, valueStarts.length); ++i ) {
+                valueStarts[i] = fieldBoundaries[2 * i];
+                valueEnds[i] = fieldBoundaries[2 * i + 1];
+            }
+            return new XsvTableFeature(outputContigColumn, outputStartColumn, outputEndColumn, outputHeader, s, valueStarts, valueEnds, dataSourceName);
+        }
+        else {
+            // Copy only the kept columns, so the feature does not hold on to the rest of the line:
+            final StringBuilder outputLine = new StringBuilder();
+            for ( int i = 0; i < outputColumnIndices.length; ++i ) {
+                final int column = outputColumnIndices[i];
+                valueStarts[i] = outputLine.length();
+                if ( column < numFields ) {
+                    outputLine.append(s, fieldBoundaries[2 * column], fieldBoundaries[2 * column + 1]);
+                }
+                valueEnds[i] = outputLine.length();
+            }
+            return new XsvTableFeature(outputContigColumn, outputStartColumn, outputEndColumn, outputHeader, outputLine.toString(), valueStarts, valueEnds, dataSourceName);
+        }
+    }
+
+    /**
+     * Find the start and end offsets of the fields of the given line and put them into {@link #fieldBoundaries}.
+     * Fields are found the same way as by {@link String#split(String)} with {@link #delimiter}:  empty fields at the end
+     * of the line are dropped.
+     * @param s The line to split into fields.
+     * @return The number of fields in the given line.
+     */
+    private int findFieldBoundaries(final String s) {
+        int numFields = 0;
+        int fieldStart = 0;
+        if ( delimiterPattern == null ) {
+            for ( int i = s.indexOf(delimiter); i >= 0; i = s.indexOf(delimiter, fieldStart) ) {
+                numFields = addFieldBoundaries(numFields, fieldStart, i);
+                fieldStart = i + delimiter.length();
+            }
+        }
+        else {
+            final Matcher matcher = delimiterPattern.matcher(s);
+            while ( matcher.find() ) {
+                // As in String::split, a zero-width match at the beginning of the line does not start a field:
+                if ( matcher.end() == 0 ) {
+                    continue;
+                }
+                numFields = addFieldBoundaries(numFields, fieldStart, matcher.start());
+                fieldStart = matcher.end();
+            }
+        }
+
+        // No delimiter found - the whole line is one field:
+        if ( numFields == 0 ) {
+            return addFieldBoundaries(0, 0, s.length());
+        }
+
+        numFields = addFieldBoundaries(numFields, fieldStart, s.length());
+        while ( (numFields > 0) && (fieldBoundaries[2 * numFields - 2] == fieldBoundaries[2 * numFields - 1]) ) {
+            --numFields;
+        }
+        return numFields;
+    }
+
+    private int addFieldBoundaries(final int fieldIndex, final int start, final int end) {
+        if ( fieldBoundaries.length < 2 * (fieldIndex + 1) ) {
+            fieldBoundaries = Arrays.copyOf(fieldBoundaries, Math.max(2 * (fieldIndex + 1), 2 * fieldBoundaries.length));
+        }
+        fieldBoundaries[2 * fieldIndex] = start;
+        fieldBoundaries[2 * fieldIndex + 1] = end;
+        return fieldIndex + 1;
+    }
+
+    private boolean fieldEquals(final String s, final int fieldIndex, final String value) {
+        final int start = fieldBoundaries[2 * fieldIndex];
+        final int end = fieldBoundaries[2 * fieldIndex + 1];
+        return (end - start == value.length()) && s.startsWith(value, start);
     }
 
     /**
@@ -350,7 +449,9 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
 
                 assertLocatableColumnsInHeaderToIndex(locatableColumns, headerToIndex);
 
-                return header;
+                determineOutputColumns();
+
+                return outputHeader;
 
             } else {
                 preamble.add(line.substring(preambleLineStart.length()));
@@ -360,6 +461,38 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
         throw new UserException.BadInput("Given file is malformed - does not contain a header!");
     }
 
+    /**
+     * Determine the columns to keep in each {@link XsvTableFeature} from {@link #inputOutputColumns}.
+     * The location columns are always kept, and the kept columns stay in the order of {@link #header}.
+     */
+    private void determineOutputColumns() {
+        if ( inputOutputColumns == null ) {
+            outputHeader = header;
+            outputColumnIndices = null;
+        }
+        else {
+            final List<String> rawHeaders = getRawHeaders();
+            final List<String> missingColumns = inputOutputColumns.stream().filter(c -> !rawHeaders.contains(c)).collect(Collectors.toList());
+            if ( !missingColumns.isEmpty() ) {
+                throw new UserException.BadInput("Error in input file: cannot find the output column(s): " + StringUtil.join(", ", missingColumns) + ", though these were specified in the parsing configuration (" + DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_OUTPUT_COLUMNS + ").");
+            }
+
+            outputHeader = new ArrayList<>();
+            final List<Integer> outputIndices = new ArrayList<>();
+            for ( int i = 0; i < header.size(); ++i ) {
+                if ( locatableColumns.contains(header.get(i)) || inputOutputColumns.contains(rawHeaders.get(i)) ) {
+                    outputHeader.add(header.get(i));
+                    outputIndices.add(i);
+                }
+            }
+            outputColumnIndices = outputIndices.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        outputContigColumn = outputHeader.indexOf(finalContigColumn);
+        outputStartColumn = outputHeader.indexOf(finalStartColumn);
+        outputEndColumn = outputHeader.indexOf(finalEndColumn);
+    }
+
     private void validateFinalColumns() {
         if (finalContigColumn.equals(finalStartColumn) || finalContigColumn.equals(finalEndColumn)) {
             throw new UserException.BadInput("Contig column: " + finalContigColumn +
@@ -529,6 +662,14 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
         if ( delimiter.equals("\\t") ) {
             delimiter = "\t";
         }
+
+        // The delimiter is a regular expression, but most delimiters can be found without one:
+        delimiterPattern = (delimiter.isEmpty() || StringUtils.containsAny(delimiter, REGEX_SPECIAL_CHARACTERS)) ? Pattern.compile(delimiter) : null;
+
+        // Get the optional columns to keep:
+        final String outputColumns = configProperties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_OUTPUT_COLUMNS);
+        inputOutputColumns = (outputColumns == null) ? null :
+                Arrays.stream(StringUtils.split(outputColumns, ",")).map(String::trim).filter(c -> !c.isEmpty()).collect(Collectors.toList());
     }
 
     /**
@@ -555,7 +696,7 @@ public final class XsvLocatableTableCodec extends AsciiFeatureCodec<XsvTableFeat
      */
     public List<String> getHeaderWithoutLocationColumns() {
         assertHeaderInitialized();
-        return header.stream().filter(h -> !locatableColumns.contains(h))
+        return outputHeader.stream().filter(h -> !locatableColumns.contains(h))
                 .collect(Collectors.toList());
     }
 
@@ -11,6 +11,10 @@ import java.util.List;
 
 /**
  * A feature to represent a line in an arbitrarily delimited (XSV) file (i.e. TSV, CSV, etc.).
+ *
+ * When created by {@link XsvLocatableTableCodec}, an {@link XsvTableFeature} holds the raw line and the offsets of each
+ * column in it.  Only the location columns are parsed up front - the other values are cut out of the line when they
+ * are requested, so decoding lines of wide tables does not create a {@link String} for every column.
  * Created by jonn on 12/4/17.
  */
 public class XsvTableFeature implements Feature {
@@ -42,8 +46,17 @@ public class XsvTableFeature implements Feature {
     private final int end;
     /** The names of the columns in this {@link XsvTableFeature}. */
     private final List<String> columnNames;
-    /** The values for each of the columns in this {@link XsvTableFeature}. */
-    private final List<String> columnValues;
+    /**
+     * The values for each of the columns in this {@link XsvTableFeature}.
+     * For features created from a raw line, this is {@code null} until {@link #getValues()} is called.
+     */
+    private volatile List<String> columnValues;
+    /** The raw line holding the values of this {@link XsvTableFeature}, or {@code null} if the values were given as a {@link List}. */
+    private final String line;
+    /** The start offset in {@link #line} of the value of each column. */
+    private final int[] valueStarts;
+    /** The end offset (exclusive) in {@link #line} of the value of each column. */
+    private final int[] valueEnds;
 
     //==================================================================================================================
     // Constructors:
@@ -66,13 +79,8 @@ public class XsvTableFeature implements Feature {
         this.dataSourceName = dataSourceName;
 
         contig = columnValues.get(contigColumn);
-        try {
-            start = Integer.valueOf(columnValues.get(startColumn));
-            end = Integer.valueOf(columnValues.get(endColumn));
-        }
-        catch ( final NumberFormatException ex ) {
-            throw new UserException.MalformedFile("Could not convert value (" + ex.getMessage() + ") from input file into a number for Data Source: " + dataSourceName);
-        }
+        start = parsePosition(columnValues.get(startColumn), dataSourceName);
+        end = parsePosition(columnValues.get(endColumn), dataSourceName);
 
         if ( columnNames.size() != columnValues.size() ) {
             throw new UserException.BadInput("Number of columns in given header and data do not match: " + columnNames.size() + " != " + columnValues.size());
@@ -80,17 +88,47 @@ public class XsvTableFeature implements Feature {
 
         this.columnNames = columnNames;
         this.columnValues = columnValues;
+        this.line = null;
+        this.valueStarts = null;
+        this.valueEnds = null;
 
-        // Create our list of indices to remove:
-        if ( startColumn == endColumn ) {
-            // Don't add the same column more than once:
-            locationColumnRemoveIndiciesInOrder = new ArrayList<>(Arrays.asList(contigColumn, startColumn));
-        }
-        else {
-            locationColumnRemoveIndiciesInOrder = new ArrayList<>(Arrays.asList(contigColumn, startColumn, endColumn));
+        locationColumnRemoveIndiciesInOrder = createLocationColumnRemoveIndices(contigColumn, startColumn, endColumn);
+    }
+
+    /**
+     * Create an {@link XsvTableFeature} whose values are held in a raw line.  Only the location columns are parsed here.
+     * @param contigColumn The column index from which to read the contig for this {@link XsvTableFeature}.
+     * @param startColumn The column index from which to read the start position for this {@link XsvTableFeature}.
+     * @param endColumn The column index from which to read the end position for this {@link XsvTableFeature}.
+     * @param columnNames The names of the columns in this {@link XsvTableFeature}.  Must have same number of entries as {@code valueStarts} and {@code valueEnds}.
+     * @param line The raw line containing the values of the columns in this {@link XsvTableFeature}.
+     * @param valueStarts The start offset in {@code line} of the value of each column.
+     * @param valueEnds The end offset (exclusive) in {@code line} of the value of each column.
+     * @param dataSourceName The name of the source from which this {@link XsvTableFeature} was derived.
+     */
+    XsvTableFeature(final int contigColumn, final int startColumn, final int endColumn,
+                    final List<String> columnNames, final String line, final int[] valueStarts, final int[] valueEnds,
+                    final String dataSourceName) {
+
+        if ( (columnNames.size() != valueStarts.length) || (columnNames.size() != valueEnds.length) ) {
+            throw new UserException.BadInput("Number of columns in given header and data do not match: " + columnNames.size() + " != " + valueStarts.length);
         }
-        
-        locationColumnRemoveIndiciesInOrder.sort(Collections.reverseOrder());
+
+        this.contigColumn = contigColumn;
+        this.startColumn = startColumn;
+        this.endColumn = endColumn;
+        this.dataSourceName = dataSourceName;
+        this.columnNames = columnNames;
+        this.columnValues = null;
+        this.line = line;
+        this.valueStarts = valueStarts;
+        this.valueEnds = valueEnds;
+
+        contig = getValue(contigColumn);
+        start = parsePosition(getValue(startColumn), dataSourceName);
+        end = parsePosition(getValue(endColumn), dataSourceName);
+
+        locationColumnRemoveIndiciesInOrder = createLocationColumnRemoveIndices(contigColumn, startColumn, endColumn);
     }
 
     //==================================================================================================================
@@ -129,7 +167,7 @@ public class XsvTableFeature implements Feature {
             return false;
         if ( contig != null ? !contig.equals(that.contig) : that.contig != null ) return false;
         if ( columnNames != null ? !columnNames.equals(that.columnNames) : that.columnNames != null ) return false;
-        return columnValues != null ? columnValues.equals(that.columnValues) : that.columnValues == null;
+        return getValues().equals(that.getValues());
     }
 
     @Override
@@ -143,7 +181,7 @@ public class XsvTableFeature implements Feature {
         result = 31 * result + start;
         result = 31 * result + end;
         result = 31 * result + (columnNames != null ? columnNames.hashCode() : 0);
-        result = 31 * result + (columnValues != null ? columnValues.hashCode() : 0);
+        result = 31 * result + getValues().hashCode();
         return result;
     }
 
@@ -159,16 +197,53 @@ public class XsvTableFeature implements Feature {
                 ", start=" + start +
                 ", end=" + end +
                 ", columnNames=" + columnNames +
-                ", columnValues=" + columnValues +
+                ", columnValues=" + getValues() +
                 '}';
     }
 
     //==================================================================================================================
     // Static Methods:
 
+    private static int parsePosition(final String position, final String dataSourceName) {
+        try {
+            return Integer.valueOf(position);
+        }
+        catch ( final NumberFormatException ex ) {
+            throw new UserException.MalformedFile("Could not convert value (" + ex.getMessage() + ") from input file into a number for Data Source: " + dataSourceName);
+        }
+    }
+
+    private static List<Integer> createLocationColumnRemoveIndices(final int contigColumn, final int startColumn, final int endColumn) {
+        final List<Integer> locationColumnRemoveIndicies;
+
+        // Create our list of indices to remove:
+        if ( startColumn == endColumn ) {
+            // Don't add the same column more than once:
+            locationColumnRemoveIndicies = new ArrayList<>(Arrays.asList(contigColumn, startColumn));
+        }
+        else {
+            locationColumnRemoveIndicies = new ArrayList<>(Arrays.asList(contigColumn, startColumn, endColumn));
+        }
+
+        locationColumnRemoveIndicies.sort(Collections.reverseOrder());
+        return locationColumnRemoveIndicies;
+    }
+
     //==================================================================================================================
     // Instance Methods:
 
+    /**
+     * @param index The index of a column in this {@link XsvTableFeature}.
+     * @return The value of the column at the given {@code index}, cut out of {@link #line} if the values have not been split yet.
+     */
+    private String getValue(final int index) {
+        final List<String> values = columnValues;
+        if ( values != null ) {
+            return values.get(index);
+        }
+        return line.substring(valueStarts[index], valueEnds[index]);
+    }
+
     /**
      * @return The name of the data source from which this {@link XsvTableFeature} was derived.
      */
@@ -186,7 +261,7 @@ public class XsvTableFeature implements Feature {
         if ( position < 0 ) {
             return null;
         }
-        return columnValues.get(position);
+        return getValue(position);
     }
 
     /**
@@ -196,7 +271,7 @@ public class XsvTableFeature implements Feature {
      */
     public String get(final int index) {
         ParamUtils.inRange(index, 0, columnNames.size()-1, "Index out of range: " + index);
-        return columnValues.get(index);
+        return getValue(index);
     }
 
     /**
@@ -228,7 +303,15 @@ public class XsvTableFeature implements Feature {
      * @return The data for this {@link XsvTableFeature}.
      */
     public List<String> getValues() {
-        return columnValues;
+        List<String> values = columnValues;
+        if ( values == null ) {
+            values = new ArrayList<>(columnNames.size());
+            for ( int i = 0; i < columnNames.size(); ++i ) {
+                values.add(getValue(i));
+            }
+            columnValues = values;
+        }
+        return values;
     }
 
     /**
@@ -240,9 +323,11 @@ public class XsvTableFeature implements Feature {
      * @return The data for this {@link XsvTableFeature} without location columns.
      */
     public List<String> getValuesWithoutLocationColumns() {
-        final List<String> outList = new ArrayList<>(columnValues);
-        for ( final int indx : locationColumnRemoveIndiciesInOrder ) {
-            outList.remove(indx);
+        final List<String> outList = new ArrayList<>(columnNames.size() - locationColumnRemoveIndiciesInOrder.size());
+        for ( int i = 0; i < columnNames.size(); ++i ) {
+            if ( !locationColumnRemoveIndiciesInOrder.contains(i) ) {
+                outList.add(getValue(i));
+            }
         }
         return outList;
     }
@@ -251,7 +336,7 @@ public class XsvTableFeature implements Feature {
      * @return The number of entries in this {@link XsvTableFeature}.
      */
     public int size() {
-        return columnValues.size();
+        return columnNames.size();
     }
 
     //==================================================================================================================
@@ -0,0 +1,296 @@
+package org.broadinstitute.hellbender.utils.spark;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.hellbender.engine.spark.datasources.ReadsSparkSink;
+import org.broadinstitute.hellbender.engine.spark.datasources.ReadsSparkSource;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadsWriteFormat;
+import org.broadinstitute.hellbender.utils.recalibration.RecalUtils;
+import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
+import org.broadinstitute.hellbender.utils.recalibration.RecalibrationReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Persists the output of the expensive stages of a Spark pipeline to a checkpoint directory, so that a pipeline that
+ * is rerun after a failure can resume from the last stage that completed rather than starting from scratch.
+ *
+ * <p>Each stage is keyed by a fingerprint of the pipeline inputs, the stage name, the arguments that affect the stage,
+ * and the fingerprint of the stage before it, so a checkpoint is only reused when rerunning the stage would produce the
+ * same result. Stages must therefore be checkpointed in the order that the pipeline runs them. A checkpoint is only
+ * considered complete once a marker file has been written after its data, so a run that fails part way through writing
+ * a checkpoint will recompute that stage on the next attempt.</p>
+ *
+ * <p>Reads are checkpointed as BAM, and recalibration tables in the standard BQSR report format. If no checkpoint
+ * directory is given every stage is simply run, so callers do not need to handle the two cases separately.</p>
+ */
+public final class PipelineCheckpointer {
+    private static final Logger logger = LogManager.getLogger(PipelineCheckpointer.class);
+
+    public static final String CHECKPOINT_DIRECTORY_LONG_NAME = "checkpoint-directory";
+    public static final String CHECKPOINT_DIRECTORY_DOC = "Directory in which to checkpoint the output of each pipeline stage. " +
+            "If the pipeline is rerun with the same inputs, arguments and checkpoint directory, stages that completed in a previous run are skipped.";
+
+    public static final String COMPLETE_MARKER_EXTENSION = ".done";
+    public static final String READS_EXTENSION = ".bam";
+    public static final String RECALIBRATION_TABLE_EXTENSION = ".recal.table";
+
+    // the number of hex digits of the fingerprint used in checkpoint file names
+    private static final int FINGERPRINT_NAME_LENGTH = 16;
+
+    private final JavaSparkContext ctx;
+    private final String checkpointDirectory;
+    private final String referencePath;
+    private String fingerprint;
+
+    /**
+     * @param ctx the Spark context
+     * @param checkpointDirectory the directory in which to write checkpoints, or null to disable checkpointing
+     * @param referencePath the reference, which is needed to reload reads (may be null if the reads are not CRAM)
+     * @param inputs the paths of all of the pipeline inputs (reads, reference, known sites, etc.)
+     */
+    public PipelineCheckpointer(final JavaSparkContext ctx, final String checkpointDirectory, final String referencePath,
+                                final List<String> inputs) {
+        this.ctx = Utils.nonNull(ctx);
+        this.checkpointDirectory = checkpointDirectory;
+        this.referencePath = referencePath;
+        final List<String> descriptions = new ArrayList<>(inputs.size());
+        for (final String input : inputs) {
+            descriptions.add(describeInput(input));
+        }
+        this.fingerprint = fingerprint("", "inputs", descriptions);
+    }
+
+    public boolean isEnabled() {
+        return checkpointDirectory != null;
+    }
+
+    /**
+     * Run a stage that produces reads, or reload its output from a previous run.
+     * @param stageName a name for the stage, used in checkpoint file names
+     * @param header the header for the reads produced by the stage
+     * @param stage computes the reads if there is no checkpoint
+     * @param stageArguments the argument values or argument collections that affect the output of the stage
+     * @return the reads, which are loaded from the checkpoint if checkpointing is enabled
+     */
+    public JavaRDD<GATKRead> checkpointReads(final String stageName, final SAMFileHeader header,
+                                             final Supplier<JavaRDD<GATKRead>> stage, final Object... stageArguments) {
+        Utils.nonNull(header);
+        if (!isEnabled()) {
+            return stage.get();
+        }
+        final String path = advance(stageName, stageArguments) + READS_EXTENSION;
+        if (!isComplete(path)) {
+            logger.info("Running stage " + stageName + " and writing checkpoint to " + path);
+            try {
+                // don't sort, since the stage's output may be deliberately query grouped rather than coordinate sorted
+                ReadsSparkSink.writeReads(ctx, path, referencePath, stage.get(), header, ReadsWriteFormat.SINGLE,
+                        0, null, false, true, false);
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(path, "writing checkpoint for stage " + stageName, e);
+            }
+            markComplete(path);
+        } else {
+            logger.info("Skipping stage " + stageName + " and reading reads from checkpoint " + path);
+        }
+        return new ReadsSparkSource(ctx).getParallelReads(path, referencePath);
+    }
+
+    /**
+     * Run a stage that produces a recalibration report, or reload its output from a previous run.
+     * @param stageName a name for the stage, used in checkpoint file names
+     * @param bqsrArgs the arguments used to compute the report, which are written to the report's argument table
+     * @param stage computes the report if there is no checkpoint
+     * @param stageArguments the argument values or argument collections that affect the output of the stage
+     * @return the recalibration report
+     */
+    public RecalibrationReport checkpointRecalibrationReport(final String stageName,
+                                                             final RecalibrationArgumentCollection bqsrArgs,
+                                                             final Supplier<RecalibrationReport> stage,
+                                                             final Object... stageArguments) {
+        if (!isEnabled()) {
+            return stage.get();
+        }
+        final String path = advance(stageName, stageArguments) + RECALIBRATION_TABLE_EXTENSION;
+        if (!isComplete(path)) {
+            logger.info("Running stage " + stageName + " and writing checkpoint to " + path);
+            final RecalibrationReport report = stage.get();
+            createParentDirectories(path);
+            try (final PrintStream out = new PrintStream(BucketUtils.createFile(path))) {
+                RecalUtils.outputRecalibrationReport(out, bqsrArgs, report.getQuantizationInfo(),
+                        report.getRecalibrationTables(), report.getCovariates());
+            }
+            markComplete(path);
+            return report;
+        }
+        logger.info("Skipping stage " + stageName + " and reading recalibration table from checkpoint " + path);
+        return new RecalibrationReport(BucketUtils.openFile(path));
+    }
+
+    /**
+     * Fold the stage into the running fingerprint, and return the checkpoint path (without extension) for the stage.
+     */
+    private String advance(final String stageName, final Object... stageArguments) {
+        Utils.nonEmpty(stageName);
+        final List<String> descriptions = new ArrayList<>(stageArguments.length);
+        for (final Object argument : stageArguments) {
+            descriptions.add(describeArgument(argument));
+        }
+        fingerprint = fingerprint(fingerprint, stageName, descriptions);
+        return checkpointDirectory + "/" + stageName + "." + fingerprint.substring(0, FINGERPRINT_NAME_LENGTH);
+    }
+
+    private static boolean isComplete(final String path) {
+        return BucketUtils.fileExists(path + COMPLETE_MARKER_EXTENSION) && BucketUtils.fileExists(path);
+    }
+
+    private void markComplete(final String path) {
+        createParentDirectories(path + COMPLETE_MARKER_EXTENSION);
+        try (final OutputStream out = BucketUtils.createFile(path + COMPLETE_MARKER_EXTENSION)) {
+            out.write(fingerprint.getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path + COMPLETE_MARKER_EXTENSION, "writing checkpoint marker", e);
+        }
+    }
+
+    /**
+     * Create the directories containing a local checkpoint file, which {@link BucketUtils#createFile} does not do.
+     * Object stores have no directories, and Hadoop creates them itself.
+     */
+    private static void createParentDirectories(final String path) {
+        if (BucketUtils.isRemoteStorageUrl(path)) {
+            return;
+        }
+        final Path parent = IOUtils.getPath(path).toAbsolutePath().getParent();
+        try {
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path, "creating checkpoint directory " + parent, e);
+        }
+    }
+
+    /**
+     * @return a hex-encoded SHA-1 digest of the previous fingerprint, the stage name and the descriptions
+     */
+    static String fingerprint(final String previous, final String stageName, final List<String> descriptions) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new GATKException("SHA-1 is not available", e);
+        }
+        digest.update(previous.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(stageName.getBytes(StandardCharsets.UTF_8));
+        for (final String description : descriptions) {
+            digest.update((byte) 0);
+            digest.update(description.getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Describe an input by its path and, where it can be determined, its size and modification time, so that
+     * checkpoints are not reused if an input is replaced in place.
+     */
+    static String describeInput(final String input) {
+        if (input == null) {
+            return "null";
+        }
+        try {
+            final Path path = IOUtils.getPath(input);
+            return input + ":" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+        } catch (final IOException | RuntimeException e) {
+            // fall back to the path alone for inputs on file systems without NIO support
+            return input;
+        }
+    }
+
+    /**
+     * Describe an argument value by its command-line values.  Argument collections, read filters and other objects
+     * with {@link Argument} or {@link ArgumentCollection} fields are described by their class and the values of those
+     * fields (recursively), so fields that are not command-line arguments do not affect the description.  Other
+     * values are described by their string form, as on the command line, or by their class if they have none.
+     */
+    static String describeArgument(final Object argument) {
+        if (argument == null) {
+            return "null";
+        } else if (argument instanceof Object[]) {
+            return describeElements(Arrays.asList((Object[]) argument));
+        } else if (argument instanceof Iterable) {
+            return describeElements((Iterable<?>) argument);
+        }
+
+        final Map<String, String> argumentValues = new TreeMap<>();
+        for (Class<?> clazz = argument.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            for (final Field field : clazz.getDeclaredFields()) {
+                final Argument argumentAnnotation = field.getAnnotation(Argument.class);
+                if (Modifier.isStatic(field.getModifiers()) ||
+                        (argumentAnnotation == null && !field.isAnnotationPresent(ArgumentCollection.class))) {
+                    continue;
+                }
+                final String name = (argumentAnnotation == null || argumentAnnotation.fullName().isEmpty()) ?
+                        clazz.getName() + "." + field.getName() : argumentAnnotation.fullName();
+                try {
+                    field.setAccessible(true);
+                    argumentValues.put(name, describeArgument(field.get(argument)));
+                } catch (final IllegalAccessException | RuntimeException e) {
+                    throw new GATKException("Unable to read argument " + name + " of " + clazz.getName(), e);
+                }
+            }
+        }
+        if (!argumentValues.isEmpty()) {
+            return argument.getClass().getName() + argumentValues;
+        }
+        // Object.toString() includes the identity hash code, which differs from run to run
+        return hasOwnToString(argument) ? argument.toString() : argument.getClass().getName();
+    }
+
+    private static boolean hasOwnToString(final Object argument) {
+        try {
+            return argument.getClass().getMethod("toString").getDeclaringClass() != Object.class;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String describeElements(final Iterable<?> elements) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final Object element : elements) {
+            descriptions.add(describeArgument(element));
+        }
+        return descriptions.toString();
+    }
+}
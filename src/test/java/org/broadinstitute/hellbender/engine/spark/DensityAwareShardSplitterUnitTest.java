@@ -0,0 +1,109 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import com.google.common.collect.ImmutableList;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ShardBoundary;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class DensityAwareShardSplitterUnitTest extends GATKBaseTest {
+
+    private static final SAMSequenceDictionary DICTIONARY = new SAMSequenceDictionary(
+            ImmutableList.of(new SAMSequenceRecord("1", 1000), new SAMSequenceRecord("2", 500)));
+
+    private static List<ShardBoundary> fixedShards() {
+        return ImmutableList.of(
+                new ShardBoundary(new SimpleInterval("1", 1, 400), new SimpleInterval("1", 1, 410)),
+                new ShardBoundary(new SimpleInterval("1", 401, 800), new SimpleInterval("1", 391, 810)),
+                new ShardBoundary(new SimpleInterval("1", 801, 1000), new SimpleInterval("1", 791, 1000)),
+                new ShardBoundary(new SimpleInterval("2", 1, 400), new SimpleInterval("2", 1, 410)));
+    }
+
+    @Test
+    public void testEstimateWork() {
+        final Map<Long, Long> binCounts = new HashMap<>();
+        binCounts.put(DensityAwareShardSplitter.binKey(0, 0), 10L); // 1:1-100
+        binCounts.put(DensityAwareShardSplitter.binKey(0, 1), 20L); // 1:101-200
+        binCounts.put(DensityAwareShardSplitter.binKey(1, 0), 5L);  // 2:1-100
+
+        Assert.assertEquals(DensityAwareShardSplitter.estimateWork(new SimpleInterval("1", 1, 200), binCounts, 0.5, 100, DICTIONARY), 60.0, 1e-9);
+        Assert.assertEquals(DensityAwareShardSplitter.estimateWork(new SimpleInterval("1", 51, 150), binCounts, 1.0, 100, DICTIONARY), 15.0, 1e-9);
+        Assert.assertEquals(DensityAwareShardSplitter.estimateWork(new SimpleInterval("1", 201, 400), binCounts, 1.0, 100, DICTIONARY), 0.0, 1e-9);
+        Assert.assertEquals(DensityAwareShardSplitter.estimateWork(new SimpleInterval("2", 1, 100), binCounts, 1.0, 100, DICTIONARY), 5.0, 1e-9);
+    }
+
+    @Test
+    public void testNoHotShards() {
+        final Map<Long, Long> binCounts = new HashMap<>();
+        for (int bin = 0; bin < 10; bin++) {
+            binCounts.put(DensityAwareShardSplitter.binKey(0, bin), 10L);
+        }
+        final List<ShardBoundary> shards = fixedShards();
+        Assert.assertEquals(DensityAwareShardSplitter.splitHotShards(shards, binCounts, 1.0, 100, 2.0, 10, DICTIONARY), shards);
+    }
+
+    @Test
+    public void testNoReads() {
+        final List<ShardBoundary> shards = fixedShards();
+        Assert.assertEquals(DensityAwareShardSplitter.splitHotShards(shards, new HashMap<>(), 1.0, 100, 2.0, 10, DICTIONARY), shards);
+    }
+
+    @Test
+    public void testSplitHotShard() {
+        // the second shard on contig 1 (401-800) has 100 times the reads of the other shards
+        final Map<Long, Long> binCounts = new HashMap<>();
+        for (int bin = 0; bin < 10; bin++) {
+            binCounts.put(DensityAwareShardSplitter.binKey(0, bin), bin >= 4 && bin < 8 ? 1000L : 10L);
+        }
+        for (int bin = 0; bin < 4; bin++) {
+            binCounts.put(DensityAwareShardSplitter.binKey(1, bin), 10L);
+        }
+        final List<ShardBoundary> split = DensityAwareShardSplitter.splitHotShards(fixedShards(), binCounts, 1.0, 100, 2.0, 10, DICTIONARY);
+
+        final List<SimpleInterval> intervals = split.stream().map(ShardBoundary::getInterval).collect(Collectors.toList());
+        Assert.assertEquals(intervals, ImmutableList.of(
+                new SimpleInterval("1", 1, 400),
+                new SimpleInterval("1", 401, 500),
+                new SimpleInterval("1", 501, 600),
+                new SimpleInterval("1", 601, 700),
+                new SimpleInterval("1", 701, 800),
+                new SimpleInterval("1", 801, 1000),
+                new SimpleInterval("2", 1, 400)));
+
+        // the new shards are padded in the same way as the original shards
+        Assert.assertEquals(split.get(1).getPaddedInterval(), new SimpleInterval("1", 391, 510));
+        Assert.assertEquals(split.get(4).getPaddedInterval(), new SimpleInterval("1", 691, 810));
+    }
+
+    @Test
+    public void testSplitRespectsMinimumShardSize() {
+        // all of the reads in the hot shard start in a single bin, so it cannot be split below the bin size
+        final Map<Long, Long> binCounts = new HashMap<>();
+        binCounts.put(DensityAwareShardSplitter.binKey(0, 0), 10L);
+        binCounts.put(DensityAwareShardSplitter.binKey(0, 5), 10000L);
+        binCounts.put(DensityAwareShardSplitter.binKey(0, 8), 10L);
+        binCounts.put(DensityAwareShardSplitter.binKey(1, 0), 10L);
+        final List<ShardBoundary> split = DensityAwareShardSplitter.splitHotShards(fixedShards(), binCounts, 1.0, 100, 2.0, 0, DICTIONARY);
+
+        final List<SimpleInterval> intervals = split.stream().map(ShardBoundary::getInterval).collect(Collectors.toList());
+        Assert.assertEquals(intervals, ImmutableList.of(
+                new SimpleInterval("1", 1, 400),
+                new SimpleInterval("1", 401, 600),
+                new SimpleInterval("1", 601, 800),
+                new SimpleInterval("1", 801, 1000),
+                new SimpleInterval("2", 1, 400)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidHotShardFactor() {
+        DensityAwareShardSplitter.splitHotShards(fixedShards(), new HashMap<>(), 1.0, 100, 0.5, 10, DICTIONARY);
+    }
+}
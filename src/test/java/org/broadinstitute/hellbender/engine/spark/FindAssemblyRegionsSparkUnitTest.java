@@ -0,0 +1,93 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import com.google.common.collect.Iterables;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFHeader;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.Shard;
+import org.broadinstitute.hellbender.engine.ShardBoundary;
+import org.broadinstitute.hellbender.engine.spark.datasources.VariantsSparkSink;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FindAssemblyRegionsSparkUnitTest extends GATKBaseTest {
+
+    private static final int READ_LENGTH = 50;
+
+    @Test
+    public void testDensityShardsAreDistributedInOrder() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 10000);
+        final SAMSequenceDictionary dictionary = header.getSequenceDictionary();
+
+        // one read every 100 bases, and two reads starting at every base of 1:4001-5000
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int start = 1; start <= 10000 - READ_LENGTH; start++) {
+            final int n = (start > 4000 && start <= 5000 ? 2 : 0) + (start % 100 == 1 ? 1 : 0);
+            for (int i = 0; i < n; i++) {
+                reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + reads.size(), 0, start, READ_LENGTH));
+            }
+        }
+        final JavaRDD<GATKRead> readsRDD = ctx.parallelize(reads, 4);
+
+        final List<ShardBoundary> fixedShards = new ArrayList<>();
+        for (int start = 1; start <= 10000; start += 1000) {
+            final SimpleInterval interval = new SimpleInterval("1", start, start + 999);
+            fixedShards.add(new ShardBoundary(interval, interval.expandWithinContig(100, dictionary)));
+        }
+        final AssemblyRegionReadShardArgumentCollection shardingArgs = new AssemblyRegionReadShardArgumentCollection();
+        shardingArgs.adaptiveReadShards = true;
+        shardingArgs.adaptiveReadShardSampleFraction = 1.0;
+        shardingArgs.adaptiveReadShardMinSize = 100;
+        final List<ShardBoundary> readShards = DensityAwareShardSplitter.splitHotShards(readsRDD, fixedShards, dictionary, shardingArgs);
+        Assert.assertTrue(readShards.size() > fixedShards.size());
+
+        final JavaRDD<Shard<GATKRead>> shardedReads = SparkSharder.shard(ctx, readsRDD, GATKRead.class, dictionary, readShards, READ_LENGTH, false);
+        final JavaRDD<Shard<GATKRead>> distributed = FindAssemblyRegionsSpark.distributeShardsInOrder(shardedReads, readShards, dictionary);
+        Assert.assertEquals(distributed.getNumPartitions(), shardedReads.getNumPartitions());
+
+        // every shard is kept, with all its reads, and the shards are in coordinate order within and across partitions
+        final List<List<Shard<GATKRead>>> partitions = distributed.glom().collect();
+        final List<Shard<GATKRead>> shards = partitions.stream().flatMap(List::stream).collect(Collectors.toList());
+        Assert.assertEquals(shards.stream().map(Shard::getInterval).collect(Collectors.toList()),
+                readShards.stream().map(ShardBoundary::getInterval).collect(Collectors.toList()));
+        Assert.assertEquals(shards.stream().mapToInt(shard -> Iterables.size(shard)).sum(),
+                shardedReads.map(shard -> Iterables.size(shard)).reduce(Integer::sum).intValue());
+
+        // the pieces of the hot shard are spread over more than one partition
+        final SimpleInterval hotShard = new SimpleInterval("1", 4001, 5000);
+        final long hotPartitions = partitions.stream()
+                .filter(partition -> partition.stream().anyMatch(shard -> hotShard.contains(shard.getInterval())))
+                .count();
+        Assert.assertTrue(hotPartitions > 1, "hot shard pieces are in " + hotPartitions + " partition(s)");
+
+        // and variants found in each shard in its partition can be written without a global sort
+        final VCFHeader vcfHeader = new VCFHeader();
+        vcfHeader.setSequenceDictionary(dictionary);
+        final JavaRDD<VariantContext> variants = distributed.mapPartitions(
+                (FlatMapFunction<Iterator<Shard<GATKRead>>, VariantContext>) it -> {
+                    final List<VariantContext> partitionVariants = new ArrayList<>();
+                    it.forEachRemaining(shard -> partitionVariants.add(
+                            new VariantContextBuilder("test", shard.getContig(), shard.getStart(), shard.getStart(),
+                                    Collections.singletonList(Allele.create("A", true))).make()));
+                    return partitionVariants.iterator();
+                }, true);
+        Assert.assertTrue(VariantsSparkSink.partitionsAreOrdered(variants, vcfHeader));
+    }
+}
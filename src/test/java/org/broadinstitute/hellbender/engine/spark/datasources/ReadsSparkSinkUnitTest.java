@@ -192,6 +192,41 @@ public class ReadsSparkSinkUnitTest extends GATKBaseTest {
         Assert.assertEquals(rddParallelReads.count(), rddParallelReads2.count());
     }
 
+    @Test(groups = "spark")
+    public void testMergedIndexMatchesSeriallyBuiltIndex() throws IOException {
+        final String inputBam = testDataDir + "tools/BQSR/CEUTrio.HiSeq.WGS.b37.ch20.1m-1m1k.NA12878.bam";
+        final File outputFile = createTempFile("ReadsSparkSinkMergedIndex", ".bam");
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+
+        ReadsSparkSource readSource = new ReadsSparkSource(ctx);
+        // use several partitions, so that index fragments from several parts have to be merged
+        JavaRDD<GATKRead> rddParallelReads = readSource.getParallelReads(inputBam, null).repartition(4);
+        SAMFileHeader header = readSource.getHeader(inputBam, null);
+        ReadsSparkSink.writeReads(ctx, outputFile.getAbsolutePath(), null, rddParallelReads, header, ReadsWriteFormat.SINGLE, 0, null, true, true, true);
+
+        final File serialIndex = createTempFile("ReadsSparkSinkSerialIndex", BAMIndex.BAI_INDEX_SUFFIX);
+        try (SamReader reader = SamReaderFactory.makeDefault().enable(SamReaderFactory.Option.INCLUDE_SOURCE_IN_RECORDS).open(outputFile)) {
+            BAMIndexer.createIndex(reader, serialIndex);
+        }
+
+        try (SamReader mergedIndexReader = SamReaderFactory.makeDefault().open(outputFile);
+             SamReader serialIndexReader = SamReaderFactory.makeDefault().open(SamInputResource.of(outputFile).index(serialIndex))) {
+            Assert.assertTrue(mergedIndexReader.hasIndex());
+            for (int start = 999_000; start < 1_002_000; start += 250) {
+                Assert.assertEquals(queryReadNames(mergedIndexReader, "20", start, start + 499),
+                        queryReadNames(serialIndexReader, "20", start, start + 499), "query 20:" + start);
+            }
+        }
+    }
+
+    private static List<String> queryReadNames(final SamReader reader, final String contig, final int start, final int end) {
+        final List<String> names = new ArrayList<>();
+        try (SAMRecordIterator it = reader.queryOverlapping(contig, start, end)) {
+            it.forEachRemaining(read -> names.add(read.getReadName()));
+        }
+        return names;
+    }
+
     private static void assertReadsAreSorted(SAMFileHeader header, List<GATKRead> writtenReads) {
         final SAMRecordCoordinateComparator comparator = new SAMRecordCoordinateComparator();
         // Assert that the reads are sorted.
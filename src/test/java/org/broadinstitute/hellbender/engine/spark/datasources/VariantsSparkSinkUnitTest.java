@@ -43,6 +43,7 @@ import org.testng.annotations.Test;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 
 public final class VariantsSparkSinkUnitTest extends GATKBaseTest {
@@ -161,6 +162,53 @@ public final class VariantsSparkSinkUnitTest extends GATKBaseTest {
 
     }
 
+    @DataProvider
+    public Object[][] orderedPartitionCases(){
+        return new Object[][]{
+                {false, false, ".vcf.gz"},
+                {false, true, ".vcf.gz"},
+                {true, false, ".g.vcf.gz"},
+                {true, true, ".g.vcf.gz"}
+        };
+    }
+
+    @Test(dataProvider = "orderedPartitionCases")
+    public void testOrderedPartitionWriting(boolean writeGvcf, boolean overlappingPartitions, String extension) throws IOException {
+        final Allele A = Allele.create("A", true);
+        final List<VariantContext> vcs = new ArrayList<>();
+        for(int i = 1; i <= 30; i++) {
+            vcs.add(new VariantContextBuilder("hand crafted", "1", i, i, Arrays.asList(A, Allele.NON_REF_ALLELE))
+                    .genotypes(new GenotypeBuilder(SAMPLE).alleles(Arrays.asList(A, A)).DP(10).GQ(10).PL(new int[]{0, 60, 10}).make())
+                    .make());
+        }
+        // three partitions in coordinate order, each of which is unsorted internally, or if overlappingPartitions
+        // is set, with the variants dealt out round-robin so that the partitions overlap
+        final List<VariantContext> input = new ArrayList<>();
+        for (int p = 0; p < 3; p++) {
+            for (int i = 9; i >= 0; i--) {
+                input.add(overlappingPartitions ? vcs.get(i * 3 + p) : vcs.get(p * 10 + i));
+            }
+        }
+
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final File output = createTempFile(outputFileName, extension);
+        VariantsSparkSink.writeVariants(ctx, output.toString(), ctx.parallelize(input, 3), getHeader(), writeGvcf, Arrays.asList(100), 2, 1, true, true);
+
+        checkFileExtensionConsistentWithContents(output.toString(), true);
+
+        final List<VariantContext> writtenVcs = readVariants(output.toString());
+        if (writeGvcf) {
+            // blocks are not merged across partitions, but must be in order and must not overlap
+            for (int i = 1; i < writtenVcs.size(); i++) {
+                Assert.assertTrue(writtenVcs.get(i - 1).getEnd() < writtenVcs.get(i).getStart());
+            }
+            Assert.assertEquals(writtenVcs.stream().mapToInt(vc -> vc.getEnd() - vc.getStart() + 1).sum(), 30);
+        } else {
+            Assert.assertEquals(writtenVcs.stream().map(VariantContext::getStart).collect(Collectors.toList()),
+                                vcs.stream().map(VariantContext::getStart).collect(Collectors.toList()));
+        }
+    }
+
     private static VCFHeader getHeader() {
         final Set<VCFHeaderLine> headerlines = new LinkedHashSet<>();
         VCFStandardHeaderLines.addStandardFormatLines(headerlines, true,
@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.testutils.FuncotatorReferenceTestUtils;
 import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.metadata.VcfFuncotationMetadata;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.test.FuncotatorTestUtils;
@@ -19,6 +20,8 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -82,4 +85,69 @@ public class FuncotatorEngineUnitTest extends GATKBaseTest {
             }
         }
     }
+
+    @Test
+    public void testDataSourceThreadsMatchSingleThreaded() throws IOException {
+        // Several non-GENCODE data sources, so that several are annotated at once:
+        final File xsvFile = createTempFile("pik3caGeneKeyed", ".csv");
+        Files.write(xsvFile.toPath(), Arrays.asList("gene,a,b", "PIK3CA,a1,b1", "OTHER,a2,b2"));
+
+        final Pair<VCFHeader, List<VariantContext>> entireVcf = VariantContextTestUtils.readEntireVCFIntoMemory(INPUT_VCF);
+        final FuncotatorEngine singleThreadedEngine = createEngineWithXsvDataSources(entireVcf.getLeft(), xsvFile, 1);
+        final FuncotatorEngine multiThreadedEngine = createEngineWithXsvDataSources(entireVcf.getLeft(), xsvFile, 4);
+        try {
+            for ( final VariantContext vc : entireVcf.getRight() ) {
+                final FuncotationMap expected = createFuncotationMap(singleThreadedEngine, vc);
+                final FuncotationMap actual = createFuncotationMap(multiThreadedEngine, vc);
+                Assert.assertFalse(expected.getTranscriptList().isEmpty());
+                Assert.assertEquals(actual.getTranscriptList(), expected.getTranscriptList());
+                for ( final String txId : expected.getTranscriptList() ) {
+                    Assert.assertEquals(actual.get(txId), expected.get(txId));
+                    Assert.assertEquals(actual.getFieldValue(txId, "XSV_2_a", vc.getAlternateAllele(0)), "a1");
+                }
+            }
+        }
+        finally {
+            singleThreadedEngine.close();
+            multiThreadedEngine.close();
+        }
+    }
+
+    private static FuncotatorEngine createEngineWithXsvDataSources(final VCFHeader header, final File xsvFile, final int dataSourceThreads) {
+        final Map<Path, Properties> configData = DataSourceUtils.getAndValidateDataSourcesFromPaths("hg19", Collections.singletonList(DS_PIK3CA_DIR));
+
+        final FuncotatorArgumentCollection funcotatorArguments = new FuncotatorArgumentCollection();
+        funcotatorArguments.referenceVersion = FuncotatorArgumentDefinitions.HG19_REFERENCE_VERSION_STRING;
+        funcotatorArguments.transcriptSelectionMode = TranscriptSelectionMode.CANONICAL;
+        funcotatorArguments.lookaheadFeatureCachingInBp = FuncotatorArgumentDefinitions.LOOKAHEAD_CACHE_IN_BP_DEFAULT_VALUE;
+        funcotatorArguments.dataSourceThreads = dataSourceThreads;
+
+        final List<DataSourceFuncotationFactory> funcotationFactories = new ArrayList<>(
+                DataSourceUtils.createDataSourceFuncotationFactoriesForDataSources(
+                        configData,
+                        new LinkedHashMap<>(),
+                        TranscriptSelectionMode.CANONICAL,
+                        new HashSet<>(),
+                        new DummyPlaceholderGatkTool(),
+                        FuncotatorArgumentDefinitions.LOOKAHEAD_CACHE_IN_BP_DEFAULT_VALUE,
+                        new FlankSettings(0, 0)));
+        for ( int i = 1; i <= 3; ++i ) {
+            funcotationFactories.add(new SimpleKeyXsvFuncotationFactory("XSV_" + i, xsvFile.toPath(), "VERSION", ",", 0,
+                    SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME));
+        }
+
+        return new FuncotatorEngine(
+                funcotatorArguments,
+                header.getSequenceDictionary(),
+                VcfFuncotationMetadata.create(new ArrayList<>(header.getInfoHeaderLines())),
+                funcotationFactories);
+    }
+
+    private static FuncotationMap createFuncotationMap(final FuncotatorEngine funcotatorEngine, final VariantContext vc) {
+        final SimpleInterval variantInterval = new SimpleInterval(vc.getContig(), vc.getStart(), vc.getEnd());
+        final ReferenceContext referenceContext = new ReferenceContext(ReferenceDataSource.of(Paths.get(FuncotatorReferenceTestUtils.retrieveHg19Chr3Ref())), variantInterval);
+        final FeatureContext featureContext = FuncotatorTestUtils.createFeatureContext(funcotatorEngine.getFuncotationFactories(), "TEST", variantInterval,
+                0,0,0, null);
+        return funcotatorEngine.createFuncotationMapForVariant(vc, referenceContext, featureContext);
+    }
 }
@@ -6,6 +6,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -22,6 +23,7 @@ import org.broadinstitute.hellbender.tools.copynumber.utils.annotatedinterval.An
 import org.broadinstitute.hellbender.tools.copynumber.utils.annotatedinterval.AnnotatedIntervalCollection;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeTranscriptStore;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
 import org.broadinstitute.hellbender.tools.funcotator.mafOutput.CustomMafFuncotationCreator;
 import org.broadinstitute.hellbender.tools.funcotator.mafOutput.MafOutputRenderer;
@@ -36,6 +38,7 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -1456,6 +1459,162 @@ public class FuncotatorIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(Sets.intersection(funcotationKeys, PIK3CA_VCF_HG19_INPUT_FIELDS).size(), 0);
     }
 
+    @Test
+    public void testMultiThreadedAnnotationMatchesSingleThreaded() {
+        final List<VariantContext> singleThreadedVariants = runPik3caHg19VcfToVcf(1);
+        final List<VariantContext> multiThreadedVariants = runPik3caHg19VcfToVcf(3);
+        assertSameVariantsAndAnnotations(multiThreadedVariants, singleThreadedVariants);
+    }
+
+    @Test
+    public void testDataSourceThreadsMatchSingleThreaded() {
+        final List<VariantContext> singleThreadedVariants = runPik3caHg19VcfToVcf(1);
+        assertSameVariantsAndAnnotations(runPik3caHg19VcfToVcf(1, 4), singleThreadedVariants);
+        assertSameVariantsAndAnnotations(runPik3caHg19VcfToVcf(3, 4), singleThreadedVariants);
+    }
+
+    @Test
+    public void testCompiledTranscriptStoreMatchesGtfAndFasta() throws IOException {
+        // Copy the data sources and compile a transcript store for the hg19 GENCODE data source:
+        final File dataSourcesDir = createTempDir("funcotatorTranscriptStoreDataSources");
+        FileUtils.copyDirectory(new File(DS_PIK3CA_DIR), dataSourcesDir);
+        final File gencodeDir = new File(dataSourcesDir, "gencode_pik3ca" + File.separator + "hg19");
+        final String transcriptStoreFileName = "gencode.v19.PIK3CA.transcripts.bin";
+        GencodeTranscriptStore.compile(
+                new File(gencodeDir, "gencode.v19.PIK3CA.gtf").getAbsolutePath(),
+                new File(gencodeDir, "gencode.v19.PIK3CA_transcript.fasta").toPath(),
+                new File(gencodeDir, transcriptStoreFileName).toPath());
+        Files.write(new File(gencodeDir, "gencode.config").toPath(),
+                Collections.singletonList(DataSourceUtils.CONFIG_FILE_FIELD_NAME_GENCODE_TRANSCRIPT_STORE_PATH + " = " + transcriptStoreFileName),
+                StandardOpenOption.APPEND);
+
+        // VCF output must have the same variants with the same annotations:
+        final File expectedVcf = runPik3caHg19(DS_PIK3CA_DIR, FuncotatorArgumentDefinitions.OutputFormatType.VCF);
+        final File actualVcf = runPik3caHg19(dataSourcesDir.getAbsolutePath(), FuncotatorArgumentDefinitions.OutputFormatType.VCF);
+        assertSameVariantsAndAnnotations(
+                VariantContextTestUtils.readEntireVCFIntoMemory(actualVcf.getAbsolutePath()).getRight(),
+                VariantContextTestUtils.readEntireVCFIntoMemory(expectedVcf.getAbsolutePath()).getRight());
+
+        // MAF output must have the same records (the comment lines hold the command line and the date, so skip them):
+        final File expectedMaf = runPik3caHg19(DS_PIK3CA_DIR, FuncotatorArgumentDefinitions.OutputFormatType.MAF);
+        final File actualMaf = runPik3caHg19(dataSourcesDir.getAbsolutePath(), FuncotatorArgumentDefinitions.OutputFormatType.MAF);
+        final List<String> expectedMafLines = Files.readAllLines(expectedMaf.toPath()).stream()
+                .filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+        final List<String> actualMafLines = Files.readAllLines(actualMaf.toPath()).stream()
+                .filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+        Assert.assertTrue(expectedMafLines.size() > 1);
+        Assert.assertEquals(actualMafLines, expectedMafLines);
+    }
+
+    private File runPik3caHg19(final String dataSourcesPath, final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType) {
+        final File outputFile = getOutputFile(outputFormatType);
+
+        final ArgumentsBuilder arguments = createBaselineArgumentsForFuncotator(
+                PIK3CA_VCF_HG19,
+                outputFile,
+                b37Chr3Ref,
+                dataSourcesPath,
+                FuncotatorTestConstants.REFERENCE_VERSION_HG19,
+                outputFormatType,
+                false);
+
+        arguments.addArgument(FuncotatorArgumentDefinitions.TRANSCRIPT_SELECTION_MODE_LONG_NAME, TranscriptSelectionMode.CANONICAL.toString());
+
+        // We need this argument since we are testing on a subset of b37
+        arguments.addBooleanArgument(FuncotatorArgumentDefinitions.FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION, true);
+
+        runCommandLine(arguments);
+
+        return outputFile;
+    }
+
+    private static void assertSameVariantsAndAnnotations(final List<VariantContext> actualVariants, final List<VariantContext> expectedVariants) {
+        Assert.assertTrue(expectedVariants.size() > 0);
+        Assert.assertEquals(actualVariants.size(), expectedVariants.size());
+        for ( int i = 0; i < expectedVariants.size(); ++i ) {
+            final VariantContext expected = expectedVariants.get(i);
+            final VariantContext actual = actualVariants.get(i);
+
+            // Variants must come out in the same order, with the same annotations:
+            Assert.assertEquals(actual.getContig(), expected.getContig());
+            Assert.assertEquals(actual.getStart(), expected.getStart());
+            Assert.assertEquals(actual.getAlleles(), expected.getAlleles());
+            Assert.assertEquals(actual.getAttributeAsString(VcfOutputRenderer.FUNCOTATOR_VCF_FIELD_NAME, ""),
+                    expected.getAttributeAsString(VcfOutputRenderer.FUNCOTATOR_VCF_FIELD_NAME, ""));
+        }
+    }
+
+    private List<VariantContext> runPik3caHg19VcfToVcf(final int annotationThreads) {
+        return runPik3caHg19VcfToVcf(annotationThreads, FuncotatorArgumentDefinitions.DATA_SOURCE_THREADS_DEFAULT_VALUE);
+    }
+
+    private List<VariantContext> runPik3caHg19VcfToVcf(final int annotationThreads, final int dataSourceThreads) {
+        final File outputFile = getOutputFile(FuncotatorArgumentDefinitions.OutputFormatType.VCF);
+
+        final ArgumentsBuilder arguments = createBaselineArgumentsForFuncotator(
+                PIK3CA_VCF_HG19,
+                outputFile,
+                b37Chr3Ref,
+                DS_PIK3CA_DIR,
+                FuncotatorTestConstants.REFERENCE_VERSION_HG19,
+                FuncotatorArgumentDefinitions.OutputFormatType.VCF,
+                false);
+
+        arguments.addArgument(FuncotatorArgumentDefinitions.TRANSCRIPT_SELECTION_MODE_LONG_NAME, TranscriptSelectionMode.CANONICAL.toString());
+        arguments.addArgument(FuncotatorArgumentDefinitions.ANNOTATION_THREADS_NAME, String.valueOf(annotationThreads));
+        arguments.addArgument(FuncotatorArgumentDefinitions.DATA_SOURCE_THREADS_NAME, String.valueOf(dataSourceThreads));
+
+        // Use small batches so that several batches are in flight at once:
+        arguments.addArgument(FuncotatorArgumentDefinitions.ANNOTATION_BATCH_SIZE_NAME, "7");
+
+        // We need this argument since we are testing on a subset of b37
+        arguments.addBooleanArgument(FuncotatorArgumentDefinitions.FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION, true);
+
+        runCommandLine(arguments);
+
+        return VariantContextTestUtils.readEntireVCFIntoMemory(outputFile.getAbsolutePath()).getRight();
+    }
+
+    @Test
+    public void testFuncotatorServerMatchesFuncotator() throws IOException {
+        final List<VariantContext> expectedVariants = runPik3caHg19VcfToVcf(1);
+
+        final File jobDirectory = createTempDir("funcotatorServerJobs");
+        final File outputDirectory = createTempDir("funcotatorServerOutput");
+        Files.write(new File(jobDirectory, "job1" + FuncotatorServer.JOB_FILE_EXTENSION).toPath(), Collections.singletonList(PIK3CA_VCF_HG19));
+        Files.write(new File(jobDirectory, "job2" + FuncotatorServer.JOB_FILE_EXTENSION).toPath(), Collections.singletonList("DOES_NOT_EXIST.vcf"));
+        Files.write(new File(jobDirectory, "job3" + FuncotatorServer.JOB_FILE_EXTENSION).toPath(), Collections.singletonList(PIK3CA_VCF_HG19));
+
+        final ArgumentsBuilder arguments = new ArgumentsBuilder();
+        arguments.addOutput(outputDirectory);
+        arguments.addReference(new File(b37Chr3Ref));
+        arguments.addArgument(FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME, DS_PIK3CA_DIR);
+        arguments.addArgument(FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME, FuncotatorTestConstants.REFERENCE_VERSION_HG19);
+        arguments.addArgument(FuncotatorArgumentDefinitions.OUTPUT_FORMAT_LONG_NAME, FuncotatorArgumentDefinitions.OutputFormatType.VCF.toString());
+        arguments.addArgument(FuncotatorArgumentDefinitions.TRANSCRIPT_SELECTION_MODE_LONG_NAME, TranscriptSelectionMode.CANONICAL.toString());
+        arguments.addBooleanArgument(FuncotatorArgumentDefinitions.FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION, true);
+        arguments.addArgument(FuncotatorServer.JOB_DIRECTORY_LONG_NAME, jobDirectory.getAbsolutePath());
+        arguments.addBooleanArgument(FuncotatorServer.EXIT_WHEN_IDLE_LONG_NAME, true);
+
+        runCommandLine(arguments.getArgsList(), FuncotatorServer.class.getSimpleName());
+
+        // A failed job must not stop the jobs after it:
+        Assert.assertTrue(new File(jobDirectory, "job1" + FuncotatorServer.DONE_FILE_EXTENSION).exists());
+        Assert.assertTrue(new File(jobDirectory, "job2" + FuncotatorServer.FAILED_FILE_EXTENSION).exists());
+        Assert.assertTrue(new File(jobDirectory, "job3" + FuncotatorServer.DONE_FILE_EXTENSION).exists());
+
+        for ( final String jobName : Arrays.asList("job1", "job3") ) {
+            final List<VariantContext> actualVariants = VariantContextTestUtils.readEntireVCFIntoMemory(new File(outputDirectory, jobName + ".vcf").getAbsolutePath()).getRight();
+            Assert.assertEquals(actualVariants.size(), expectedVariants.size());
+            for ( int i = 0; i < expectedVariants.size(); ++i ) {
+                Assert.assertEquals(actualVariants.get(i).getStart(), expectedVariants.get(i).getStart());
+                Assert.assertEquals(actualVariants.get(i).getAlleles(), expectedVariants.get(i).getAlleles());
+                Assert.assertEquals(actualVariants.get(i).getAttributeAsString(VcfOutputRenderer.FUNCOTATOR_VCF_FIELD_NAME, ""),
+                        expectedVariants.get(i).getAttributeAsString(VcfOutputRenderer.FUNCOTATOR_VCF_FIELD_NAME, ""));
+            }
+        }
+    }
+
     @DataProvider
     public Object[][] provideTNVcfs() {
         // These two VCFs are exactly the same, except how the sample names are handled.
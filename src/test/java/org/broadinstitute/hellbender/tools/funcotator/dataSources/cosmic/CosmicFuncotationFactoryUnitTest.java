@@ -285,4 +285,34 @@ public class CosmicFuncotationFactoryUnitTest extends GATKBaseTest {
             expected
         );
     }
+
+    @Test
+    public void testGeneRecordsAreCached() {
+        final CosmicFuncotationFactory cosmicFuncotationFactory = new CosmicFuncotationFactory(PATH_TO_TEST_DB);
+
+        final List<GencodeFuncotation> gencodeFuncotations = Collections.singletonList(
+                new GencodeFuncotationBuilder().setHugoSymbol("PIK3CA").setChromosome("chr3").setStart(178936091).setEnd(178936091).setProteinChange("p.E545K").build()
+        );
+        final List<Funcotation> expected = Collections.singletonList(
+                TableFuncotation.create(Collections.singletonList("Cosmic_overlapping_mutations"), Collections.singletonList("p.E545K(2)"), Allele.create("A"), "Cosmic", null)
+        );
+
+        for ( int i = 0; i < 3; ++i ) {
+            Assert.assertEquals(
+                    cosmicFuncotationFactory.createFuncotationsOnVariant(
+                            createVariantContext("chr3", 178936091, 178936091, "G", "A"),
+                            new ReferenceContext(PIK3CA_REF_DATA_SOURCE, new SimpleInterval("chr3", 178936091, 178936091)),
+                            Collections.emptyList(),
+                            gencodeFuncotations
+                    ),
+                    expected
+            );
+        }
+
+        // The gene is queried once, then found in the cache:
+        Assert.assertEquals(cosmicFuncotationFactory.cacheMisses, 1);
+        Assert.assertEquals(cosmicFuncotationFactory.cacheHits, 2);
+
+        cosmicFuncotationFactory.close();
+    }
 }
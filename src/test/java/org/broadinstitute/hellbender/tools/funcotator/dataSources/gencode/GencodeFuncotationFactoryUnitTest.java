@@ -11,11 +11,13 @@ import htsjdk.tribble.readers.LineIterator;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.apache.commons.io.FileUtils;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.testutils.FuncotatorReferenceTestUtils;
 import org.broadinstitute.hellbender.tools.funcotator.*;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.codecs.gencode.*;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
@@ -30,6 +32,9 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -1220,8 +1225,13 @@ public class GencodeFuncotationFactoryUnitTest extends GATKBaseTest {
     @Test ( dataProvider = "provideTranscriptForGetSortedCdsAndStartStopPositions")
     void testGetSortedExonAndStartStopPositions(final GencodeGtfTranscriptFeature transcript, final List<? extends Locatable> expected) {
 
+        final List<GencodeGtfExonFeature> originalExons = new ArrayList<>(transcript.getExons());
+
         final List<? extends Locatable> exons = GencodeFuncotationFactory.getSortedCdsAndStartStopPositions(transcript);
 
+        // The transcript itself must not be modified, since it can be shared between threads:
+        Assert.assertEquals(transcript.getExons(), originalExons);
+
         Assert.assertEquals(exons.size(), expected.size());
 
         for( int i = 0; i < exons.size() ; ++i ) {
@@ -2508,4 +2518,78 @@ public class GencodeFuncotationFactoryUnitTest extends GATKBaseTest {
     public void testRequiresFeatures() {
         Assert.assertTrue(testMuc16SnpCreateFuncotationsFuncotationFactory.requiresFeatures());
     }
+
+    @Test
+    public void testDefaultTranscriptStoreDecodesOnlyOverlappingTranscripts() throws IOException {
+        // Copy the hg19 GENCODE data source, whose config file doesn't name a transcript store:
+        final File gencodeDir = createTempDir("gencodeDefaultTranscriptStore");
+        FileUtils.copyDirectory(new File(FuncotatorTestConstants.GENCODE_DATA_SOURCE_GTF_PATH_HG19).getParentFile(), gencodeDir);
+        final Path configPath = gencodeDir.toPath().resolve("gencode.config");
+        final Properties properties = new Properties();
+        try ( final InputStream inputStream = Files.newInputStream(configPath) ) {
+            properties.load(inputStream);
+        }
+        Assert.assertNull(properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_GENCODE_TRANSCRIPT_STORE_PATH));
+        Assert.assertNull(DataSourceUtils.getGencodeTranscriptStorePath(configPath, properties));
+
+        // Compile a store next to the GTF file, where the data source uses it without being configured to:
+        final Path gtfPath = DataSourceUtils.resolveFilePathStringFromKnownPath(
+                properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_SRC_FILE), configPath);
+        final Path fastaPath = DataSourceUtils.resolveFilePathStringFromKnownPath(
+                properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_GENCODE_FASTA_PATH), configPath);
+        GencodeTranscriptStore.compile(gtfPath.toString(), fastaPath, GencodeTranscriptStore.getDefaultStorePath(gtfPath));
+        final Path transcriptStorePath = DataSourceUtils.getGencodeTranscriptStorePath(configPath, properties);
+        Assert.assertEquals(transcriptStorePath, GencodeTranscriptStore.getDefaultStorePath(gtfPath));
+
+        // Find a position inside an exon of a gene with several transcripts, which some of those transcripts don't cover:
+        final List<GencodeGtfGeneFeature> gtfGenes = new ArrayList<>();
+        try ( final FeatureDataSource<GencodeGtfFeature> gtfSource = new FeatureDataSource<>(gtfPath.toString()) ) {
+            for ( final GencodeGtfFeature feature : gtfSource ) {
+                gtfGenes.add((GencodeGtfGeneFeature)feature);
+            }
+        }
+        GencodeGtfGeneFeature gtfGene = null;
+        SimpleInterval query = null;
+        findQuery:
+        for ( final GencodeGtfGeneFeature gene : gtfGenes ) {
+            for ( final GencodeGtfTranscriptFeature transcript : gene.getTranscripts() ) {
+                for ( final GencodeGtfExonFeature exon : transcript.getExons() ) {
+                    final SimpleInterval position = new SimpleInterval(exon.getContig(), exon.getStart(), exon.getStart());
+                    if ( gene.getTranscripts().stream().anyMatch(other -> !other.overlaps(position)) ) {
+                        gtfGene = gene;
+                        query = position;
+                        break findQuery;
+                    }
+                }
+            }
+        }
+        Assert.assertNotNull(query, "No gene with an exon that some of its transcripts don't cover");
+        final SimpleInterval exonPosition = query;
+        final List<GencodeGtfTranscriptFeature> expectedTranscripts = gtfGene.getTranscripts().stream()
+                .filter(transcript -> transcript.overlaps(exonPosition))
+                .collect(Collectors.toList());
+
+        try (final GencodeFuncotationFactory funcotationFactory = new GencodeFuncotationFactory(
+                fastaPath,
+                "VERSION",
+                GencodeFuncotationFactory.DEFAULT_NAME,
+                FuncotatorArgumentDefinitions.TRANSCRIPT_SELECTION_MODE_DEFAULT_VALUE,
+                new HashSet<>(),
+                new LinkedHashMap<>(),
+                null,
+                new FlankSettings(0, 0),
+                false,
+                "TEST",
+                transcriptStorePath)) {
+
+            final String geneId = gtfGene.getGeneId();
+            final Optional<GencodeGtfGeneFeature> storeGene = funcotationFactory.queryFeatures(null, query).stream()
+                    .map(feature -> (GencodeGtfGeneFeature)feature)
+                    .filter(gene -> gene.getGeneId().equals(geneId))
+                    .findFirst();
+            Assert.assertTrue(storeGene.isPresent(), "gene " + geneId + " not found for query " + query);
+            Assert.assertEquals(storeGene.get().getTranscripts(), expectedTranscripts, "for query " + query);
+            Assert.assertTrue(storeGene.get().getTranscripts().size() < gtfGene.getTranscripts().size());
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorTestConstants;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfFeature;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfGeneFeature;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfTranscriptFeature;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Unit test class for the {@link GencodeTranscriptStore} class.
+ */
+public class GencodeTranscriptStoreUnitTest extends GATKBaseTest {
+
+    private final List<GencodeGtfGeneFeature> gtfGenes = new ArrayList<>();
+    private GencodeTranscriptStore store;
+
+    @BeforeClass
+    public void compileStore() {
+        try ( final FeatureDataSource<GencodeGtfFeature> gtfSource =
+                      new FeatureDataSource<>(FuncotatorTestConstants.GENCODE_DATA_SOURCE_GTF_PATH_HG19) ) {
+            for ( final GencodeGtfFeature feature : gtfSource ) {
+                gtfGenes.add((GencodeGtfGeneFeature)feature);
+            }
+        }
+
+        final File storeFile = createTempFile("gencodeTranscriptStore", ".bin");
+        GencodeTranscriptStore.compile(FuncotatorTestConstants.GENCODE_DATA_SOURCE_GTF_PATH_HG19,
+                IOUtils.getPath(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19), storeFile.toPath());
+        store = GencodeTranscriptStore.open(storeFile.toPath());
+    }
+
+    @AfterClass
+    public void closeStore() {
+        store.close();
+    }
+
+    @Test
+    public void testGenesMatchGtf() {
+        Assert.assertFalse(gtfGenes.isEmpty());
+        for ( final GencodeGtfGeneFeature gtfGene : gtfGenes ) {
+            final List<GencodeGtfGeneFeature> storeGenes = store.getOverlappingGenes(gtfGene);
+            final Optional<GencodeGtfGeneFeature> storeGene =
+                    storeGenes.stream().filter(gene -> gene.getGeneId().equals(gtfGene.getGeneId())).findFirst();
+            Assert.assertTrue(storeGene.isPresent(), "gene not found in store: " + gtfGene.getGeneId());
+            Assert.assertEquals(storeGene.get(), gtfGene);
+            Assert.assertEquals(storeGene.get().getUcscGenomeVersion(), gtfGene.getUcscGenomeVersion());
+            Assert.assertEquals(storeGene.get().serializeToString(), gtfGene.serializeToString());
+        }
+    }
+
+    @Test
+    public void testOverlapQueries() {
+        final Random random = new Random(13L);
+        for ( final GencodeGtfGeneFeature gtfGene : gtfGenes ) {
+            for ( int queryNum = 0; queryNum != 10; ++queryNum ) {
+                // queries around the gene, some of which overlap it and some of which don't:
+                final int start = Math.max(1, gtfGene.getStart() - 50000 + random.nextInt(100000));
+                final SimpleInterval query = new SimpleInterval(gtfGene.getContig(), start, start + random.nextInt(20000));
+
+                final List<String> expectedGeneIds = gtfGenes.stream()
+                        .filter(gene -> gene.overlaps(query))
+                        .map(GencodeGtfFeature::getGeneId)
+                        .sorted()
+                        .collect(Collectors.toList());
+                final List<String> actualGeneIds = store.getOverlappingGenes(query).stream()
+                        .map(GencodeGtfFeature::getGeneId)
+                        .sorted()
+                        .collect(Collectors.toList());
+                Assert.assertEquals(actualGeneIds, expectedGeneIds, "for query " + query);
+            }
+        }
+        Assert.assertTrue(store.getOverlappingGenes(new SimpleInterval("noSuchContig", 1, 1000000)).isEmpty());
+    }
+
+    @Test
+    public void testOnlyOverlappingTranscriptsAreDecoded() {
+        final Random random = new Random(17L);
+        for ( final GencodeGtfGeneFeature gtfGene : gtfGenes ) {
+            for ( int queryNum = 0; queryNum != 10; ++queryNum ) {
+                // queries within the gene, which overlap some of its transcripts:
+                final int start = gtfGene.getStart() + random.nextInt(gtfGene.getEnd() - gtfGene.getStart() + 1);
+                final SimpleInterval query = new SimpleInterval(gtfGene.getContig(), start, Math.min(gtfGene.getEnd(), start + random.nextInt(1000)));
+
+                final List<GencodeGtfTranscriptFeature> expectedTranscripts = gtfGene.getTranscripts().stream()
+                        .filter(transcript -> transcript.overlaps(query))
+                        .collect(Collectors.toList());
+                final Optional<GencodeGtfGeneFeature> storeGene = store.getOverlappingGenes(query).stream()
+                        .filter(gene -> gene.getGeneId().equals(gtfGene.getGeneId()))
+                        .findFirst();
+                Assert.assertTrue(storeGene.isPresent(), "gene " + gtfGene.getGeneId() + " not found for query " + query);
+                Assert.assertEquals(storeGene.get().getTranscripts(), expectedTranscripts, "for query " + query);
+            }
+        }
+    }
+
+    @Test
+    public void testSequencesMatchTranscriptFasta() {
+        try ( final ReferenceDataSource transcriptFasta =
+                      ReferenceDataSource.of(IOUtils.getPath(FuncotatorTestConstants.GENCODE_DATA_SOURCE_FASTA_PATH_HG19)) ) {
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap =
+                    GencodeFuncotationFactory.createTranscriptIdMap(transcriptFasta);
+
+            int nTranscriptsWithSequence = 0;
+            for ( final GencodeGtfGeneFeature gene : gtfGenes ) {
+                for ( final GencodeGtfTranscriptFeature transcript : gene.getTranscripts() ) {
+                    final String transcriptId = transcript.getTranscriptId();
+                    final GencodeFuncotationFactory.MappedTranscriptIdInfo info = transcriptIdMap.get(transcriptId);
+                    Assert.assertEquals(store.hasTranscriptSequence(transcriptId), info != null);
+                    if ( info == null ) {
+                        continue;
+                    }
+                    nTranscriptsWithSequence += 1;
+
+                    Assert.assertEquals(store.getCodingSequence(transcriptId),
+                            transcriptFasta.queryAndPrefetch(info.mapKey, info.codingSequenceStart, info.codingSequenceEnd).getBaseString());
+                    if ( info.has5pUtr ) {
+                        Assert.assertEquals(store.getFivePrimeUtrSequence(transcriptId, 3),
+                                transcriptFasta.queryAndPrefetch(info.mapKey, info.fivePrimeUtrStart, info.fivePrimeUtrEnd + 3).getBaseString());
+                    }
+                    else {
+                        Assert.assertEquals(store.getFivePrimeUtrSequence(transcriptId, 3), "");
+                    }
+                }
+            }
+            Assert.assertTrue(nTranscriptsWithSequence > 0);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testMissingTranscript() {
+        store.getCodingSequence("ENST_NOT_A_TRANSCRIPT.1");
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAStore() throws IOException {
+        final File notAStore = createTempFile("notAGencodeTranscriptStore", ".bin");
+        Files.write(notAStore.toPath(), "This is not a GENCODE transcript store.".getBytes());
+        GencodeTranscriptStore.open(notAStore.toPath());
+    }
+}
@@ -0,0 +1,121 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorTestConstants;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
+import org.broadinstitute.hellbender.tools.funcotator.ProteinChangeInfo;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfFeature;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfGeneFeature;
+import org.broadinstitute.hellbender.utils.codecs.gencode.GencodeGtfTranscriptFeature;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test class for the {@link TranscriptCodingSequenceCache} class.
+ */
+public class TranscriptCodingSequenceCacheUnitTest extends GATKBaseTest {
+
+    private final List<GencodeGtfTranscriptFeature> transcripts = new ArrayList<>();
+
+    @BeforeClass
+    public void readTranscripts() {
+        try ( final FeatureDataSource<GencodeGtfFeature> gtfSource =
+                      new FeatureDataSource<>(FuncotatorTestConstants.GENCODE_DATA_SOURCE_GTF_PATH_HG19) ) {
+            for ( final GencodeGtfFeature feature : gtfSource ) {
+                transcripts.addAll(((GencodeGtfGeneFeature)feature).getTranscripts());
+            }
+        }
+    }
+
+    @Test
+    public void testStartPositionInCodingSequence() {
+        Assert.assertFalse(transcripts.isEmpty());
+        final TranscriptCodingSequenceCache cache = new TranscriptCodingSequenceCache(new CountingSequenceSource());
+
+        for ( final GencodeGtfTranscriptFeature transcript : transcripts ) {
+            final TranscriptCodingSequenceCache.CachedTranscript cachedTranscript = cache.get(transcript, transcript);
+            for ( int start = transcript.getStart(); start <= transcript.getEnd(); start += 7 ) {
+                final SimpleInterval variant = new SimpleInterval(transcript.getContig(), start, Math.min(start + 2, transcript.getEnd()));
+                Assert.assertEquals(cachedTranscript.getStartPositionInCodingSequence(variant),
+                        FuncotatorUtils.getStartPositionInTranscript(variant, GencodeFuncotationFactory.getSortedCdsAndStartStopPositions(transcript), transcript.getGenomicStrand()),
+                        "for variant " + variant + " in transcript " + transcript.getTranscriptId());
+            }
+        }
+    }
+
+    @Test
+    public void testSequencesAreReadOnce() {
+        final CountingSequenceSource sequenceSource = new CountingSequenceSource();
+        final TranscriptCodingSequenceCache cache = new TranscriptCodingSequenceCache(sequenceSource);
+        final GencodeGtfTranscriptFeature transcript = transcripts.get(0);
+
+        for ( int i = 0; i < 5; ++i ) {
+            final TranscriptCodingSequenceCache.CachedTranscript cachedTranscript = cache.get(transcript, transcript);
+            Assert.assertEquals(cachedTranscript.getCodingSequence(), CountingSequenceSource.CODING_SEQUENCE);
+            Assert.assertEquals(cachedTranscript.getReferenceProteinSequence(false),
+                    ProteinChangeInfo.createReferenceProteinSequence(CountingSequenceSource.CODING_SEQUENCE, false));
+        }
+        Assert.assertEquals(sequenceSource.nCodingSequenceReads, 1);
+    }
+
+    @Test
+    public void testEviction() {
+        final TranscriptCodingSequenceCache cache = new TranscriptCodingSequenceCache(new CountingSequenceSource());
+        final GencodeGtfTranscriptFeature transcript = transcripts.get(0);
+
+        cache.get(transcript, transcript);
+        Assert.assertEquals(cache.size(), 1);
+
+        // A variant inside the transcript keeps it:
+        cache.get(transcript, new SimpleInterval(transcript.getContig(), transcript.getEnd(), transcript.getEnd()));
+        Assert.assertEquals(cache.size(), 1);
+
+        // A variant past the end of the transcript evicts it (the transcript is then cached again for the new variant):
+        final TranscriptCodingSequenceCache.CachedTranscript first = cache.get(transcript, transcript);
+        final TranscriptCodingSequenceCache.CachedTranscript second =
+                cache.get(transcript, new SimpleInterval(transcript.getContig(), transcript.getEnd() + 1, transcript.getEnd() + 1));
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(cache.size(), 1);
+
+        // A variant on a different contig evicts everything:
+        final TranscriptCodingSequenceCache.CachedTranscript third =
+                cache.get(transcript, new SimpleInterval(transcript.getContig() + "_other", 1, 1));
+        Assert.assertNotSame(third, second);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    /**
+     * A {@link TranscriptSequenceSource} that has the same coding sequence for every transcript, and counts how often it is read.
+     */
+    private static final class CountingSequenceSource implements TranscriptSequenceSource {
+        static final String CODING_SEQUENCE = "ATGGCCAAGTTTTAA";
+
+        int nCodingSequenceReads = 0;
+
+        @Override
+        public boolean hasTranscriptSequence( final String transcriptId ) {
+            return true;
+        }
+
+        @Override
+        public String getCodingSequence( final String transcriptId ) {
+            ++nCodingSequenceReads;
+            return CODING_SEQUENCE;
+        }
+
+        @Override
+        public String getFivePrimeUtrSequence( final String transcriptId, final int extraBases ) {
+            return "";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.Funcotation;
+import org.broadinstitute.hellbender.tools.funcotator.FuncotatorTestConstants;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotationBuilder;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Unit test class for {@link SimpleKeyXsvIndex}.
+ */
+public class SimpleKeyXsvIndexUnitTest extends GATKBaseTest {
+
+    private static final String NAME = "XSVINDEX";
+
+    private static final VariantContext variant = new VariantContextBuilder(
+            "test", "chr3", 178921337, 178921337,
+            Arrays.asList(Allele.create("A", true), Allele.create("T"))
+    ).make();
+
+    @DataProvider
+    public Object[][] provideXsvFiles() {
+        return new Object[][] {
+                { FuncotatorTestConstants.XSV_CSV_FILE_PATH, "," },
+                { FuncotatorTestConstants.XSV_TSV_FILE_PATH, "\t" },
+                { FuncotatorTestConstants.XSV_DEADBEEFSV_FILE_PATH, "DEADBEEF" },
+                { FuncotatorTestConstants.XSV_PIPESV_FILE_PATH, "|" },
+        };
+    }
+
+    @Test(dataProvider = "provideXsvFiles")
+    public void testIndexMatchesXsvFile(final String xsvFilePath, final String delimiter) throws IOException {
+        final Path xsvPath = IOUtils.getPath(xsvFilePath);
+        final File indexFile = createTempFile("simpleKeyXsvIndex", ".idx");
+        SimpleKeyXsvIndex.compile(xsvPath, delimiter, 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, false, indexFile.toPath());
+
+        final List<String> lines = Files.readAllLines(xsvPath);
+        try ( final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexFile.toPath()) ) {
+            Assert.assertEquals(index.getColumnNames(), Utils.split(lines.get(0), delimiter).subList(1, Utils.split(lines.get(0), delimiter).size()));
+            Assert.assertEquals(index.getNKeys(), lines.size() - 1);
+            for ( final String line : lines.subList(1, lines.size()) ) {
+                final List<String> row = Utils.split(line, delimiter);
+                Assert.assertEquals(index.get(row.get(0)), row.subList(1, row.size()));
+            }
+            Assert.assertNull(index.get("NOT A KEY"));
+        }
+
+        final SimpleKeyXsvFuncotationFactory fileFactory = new SimpleKeyXsvFuncotationFactory(
+                NAME, xsvPath, "VERSION", delimiter, 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, false, false);
+        final SimpleKeyXsvFuncotationFactory indexFactory = new SimpleKeyXsvFuncotationFactory(
+                NAME, xsvPath, "VERSION", delimiter, 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, false, false, indexFile.toPath());
+
+        Assert.assertEquals(indexFactory.getSupportedFuncotationFields(), fileFactory.getSupportedFuncotationFields());
+
+        final List<String> keys = new ArrayList<>();
+        for ( final String line : lines.subList(1, lines.size()) ) {
+            keys.add(Utils.split(line, delimiter).get(0));
+        }
+        keys.add("NOT A KEY");
+        for ( final String key : keys ) {
+            final List<GencodeFuncotation> gencodeFuncotations =
+                    Collections.singletonList(new GencodeFuncotationBuilder().setHugoSymbol(key).build());
+            final List<Funcotation> expected = fileFactory.createFuncotationsFromFeatures(variant, new ReferenceContext(), Collections.emptyList(), gencodeFuncotations);
+            final List<Funcotation> actual = indexFactory.createFuncotationsFromFeatures(variant, new ReferenceContext(), Collections.emptyList(), gencodeFuncotations);
+            Assert.assertEquals(actual, expected, "for key " + key);
+        }
+    }
+
+    @Test
+    public void testTranscriptIdKeysIgnoreVersion() throws IOException {
+        final File xsvFile = createTempFile("transcriptKeyed", ".csv");
+        Files.write(xsvFile.toPath(), Arrays.asList("id,a,b", "ENST00000001.3,a1,b1", "ENST00000002,a2,b2", "ENST00000001.4,a3,b3"));
+        final File indexFile = createTempFile("simpleKeyXsvIndex", ".idx");
+        SimpleKeyXsvIndex.compile(xsvFile.toPath(), ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.TRANSCRIPT_ID, false, indexFile.toPath());
+
+        try ( final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexFile.toPath()) ) {
+            Assert.assertEquals(index.getNKeys(), 2);
+            // The last row with a key wins, as in SimpleKeyXsvFuncotationFactory:
+            Assert.assertEquals(index.get("ENST00000001"), Arrays.asList("a3", "b3"));
+            Assert.assertEquals(index.get("ENST00000002"), Arrays.asList("a2", "b2"));
+            Assert.assertNull(index.get("ENST00000001.4"));
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testIndexWithDifferentSettings() {
+        final Path xsvPath = IOUtils.getPath(FuncotatorTestConstants.XSV_CSV_FILE_PATH);
+        final File indexFile = createTempFile("simpleKeyXsvIndex", ".idx");
+        SimpleKeyXsvIndex.compile(xsvPath, ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, false, indexFile.toPath());
+
+        new SimpleKeyXsvFuncotationFactory(
+                NAME, xsvPath, "VERSION", ",", 1, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, false, false, indexFile.toPath());
+    }
+
+    @Test
+    public void testPermissiveColumnsMatchXsvFile() throws IOException {
+        final File xsvFile = createTempFile("ragged", ".csv");
+        Files.write(xsvFile.toPath(), Arrays.asList("gene,a,b", "GENE1,a1", "GENE2,a2,b2,c2", "GENE3,a3,b3"));
+        final File indexFile = createTempFile("simpleKeyXsvIndex", ".idx");
+        SimpleKeyXsvIndex.compile(xsvFile.toPath(), ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, true, indexFile.toPath());
+
+        final SimpleKeyXsvFuncotationFactory fileFactory = new SimpleKeyXsvFuncotationFactory(
+                NAME, xsvFile.toPath(), "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, true, false);
+        final SimpleKeyXsvFuncotationFactory indexFactory = new SimpleKeyXsvFuncotationFactory(
+                NAME, xsvFile.toPath(), "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, true, false, indexFile.toPath());
+
+        try ( final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.open(indexFile.toPath()) ) {
+            Assert.assertTrue(index.isPermissiveColumns());
+            Assert.assertEquals(index.get("GENE1"), Arrays.asList("a1", ""));
+            Assert.assertEquals(index.get("GENE2"), Arrays.asList("a2", "b2"));
+        }
+        for ( final String key : Arrays.asList("GENE1", "GENE2", "GENE3") ) {
+            final List<GencodeFuncotation> gencodeFuncotations =
+                    Collections.singletonList(new GencodeFuncotationBuilder().setHugoSymbol(key).build());
+            Assert.assertEquals(indexFactory.createFuncotationsFromFeatures(variant, new ReferenceContext(), Collections.emptyList(), gencodeFuncotations),
+                    fileFactory.createFuncotationsFromFeatures(variant, new ReferenceContext(), Collections.emptyList(), gencodeFuncotations),
+                    "for key " + key);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testIndexWithDifferentPermissiveColumns() {
+        final Path xsvPath = IOUtils.getPath(FuncotatorTestConstants.XSV_CSV_FILE_PATH);
+        final File indexFile = createTempFile("simpleKeyXsvIndex", ".idx");
+        SimpleKeyXsvIndex.compile(xsvPath, ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, false, indexFile.toPath());
+
+        new SimpleKeyXsvFuncotationFactory(
+                NAME, xsvPath, "VERSION", ",", 0, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, true, false, indexFile.toPath());
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAnIndex() throws IOException {
+        final File notAnIndex = createTempFile("notASimpleKeyXsvIndex", ".idx");
+        Files.write(notAnIndex.toPath(), "This is not a simple key XSV index.".getBytes());
+        SimpleKeyXsvIndex.open(notAnIndex.toPath());
+    }
+}
@@ -26,6 +26,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
@@ -1193,6 +1194,58 @@ public class MafOutputRendererUnitTest extends GATKBaseTest {
         maf.getRecords().forEach(r -> Assert.assertTrue(r.hasAnnotation("FAKEDATA_BAR")));
     }
 
+    /**
+     * Write rows with different funcotation fields (and so different row layouts) and check
+     * that each row is the same as the one given by {@link MafOutputRenderer#createMafCompliantOutputMap}.
+     */
+    @Test
+    public void testWriteMatchesCreateMafCompliantOutputMap() throws IOException {
+        final File outFile = getSafeNonExistentFile("TestMafOutputRowLayouts.maf");
+        final String dummyTranscriptName = "FAKE00001.1";
+        final VariantContext snp = FuncotatorTestUtils.createSimpleVariantContext(FuncotatorReferenceTestUtils.retrieveHg19Chr3Ref(),"3", 1000000, 1000000, "C", "T");
+        final VariantContext insertion = FuncotatorTestUtils.createSimpleVariantContext(FuncotatorReferenceTestUtils.retrieveHg19Chr3Ref(),"3", 1000010, 1000010, "C", "CAT");
+        final Funcotation insertionFuncotation = FuncotatorTestUtils.createGencodeFuncotation("GENE","b37", insertion.getContig(), insertion.getStart(), insertion.getEnd(),
+                GencodeFuncotation.VariantClassification.FRAME_SHIFT_INS, null, GencodeFuncotation.VariantType.INS,
+                "C", "CAT", "g.1000010_1000011insAT", dummyTranscriptName, Strand.FORWARD,
+                1, 1500, 1500, " ", " ", "p.L300fs", 0.5, "ACTGATCGATCGA", Collections.singletonList("FAKE00002.5"), "27");
+
+        final List<VariantContext> variants = Arrays.asList(snp, snp, insertion, snp);
+        final List<FuncotationMap> funcotationMaps = new ArrayList<>();
+        for ( final VariantContext variant : variants ) {
+            final Funcotation gencodeFuncotation = (variant == insertion) ? insertionFuncotation : createDummyGencodeFuncotation(dummyTranscriptName, variant);
+            final FuncotationMap funcotationMap = FuncotationMap.createFromGencodeFuncotations(Collections.singletonList((GencodeFuncotation) gencodeFuncotation));
+            if ( funcotationMaps.size() % 2 == 1 ) {
+                funcotationMap.add(dummyTranscriptName, createDummyTableFuncotation());
+            }
+            funcotationMaps.add(funcotationMap);
+        }
+
+        final List<LinkedHashMap<String, String>> expectedRows = new ArrayList<>();
+        try ( final MafOutputRenderer mafOutputRenderer = createMafOutputRenderer( outFile, FuncotatorTestConstants.REFERENCE_VERSION_HG19, Collections.singleton("FAKEDATA_FOO")) ) {
+            for ( int i = 0; i < variants.size(); ++i ) {
+                mafOutputRenderer.write(variants.get(i), funcotationMaps.get(i));
+                // The renderer adds its own funcotations to the map while writing, so these must be created afterwards:
+                expectedRows.add(mafOutputRenderer.createMafCompliantOutputMap(variants.get(i).getAlternateAllele(0), funcotationMaps.get(i).get(dummyTranscriptName)));
+            }
+        }
+
+        final List<String> lines = new ArrayList<>();
+        for ( final String line : Files.readAllLines(outFile.toPath()) ) {
+            if ( !line.startsWith("#") ) {
+                lines.add(line);
+            }
+        }
+        Assert.assertEquals(lines.size(), expectedRows.size() + 1);
+        Assert.assertEquals(lines.get(0).split(MafOutputRendererConstants.FIELD_DELIMITER)[0], expectedRows.get(0).keySet().iterator().next());
+        for ( int i = 0; i < expectedRows.size(); ++i ) {
+            final StringBuilder expectedLine = new StringBuilder();
+            for ( final String value : expectedRows.get(i).values() ) {
+                expectedLine.append(value).append(MafOutputRendererConstants.FIELD_DELIMITER);
+            }
+            Assert.assertEquals(lines.get(i + 1), expectedLine.toString(), "row " + i);
+        }
+    }
+
     private static Funcotation createDummyGencodeFuncotation(final String dummyTranscriptName, final VariantContext dummyVariantContext) {
         return FuncotatorTestUtils.createGencodeFuncotation("GENE","b37", dummyVariantContext.getContig(), dummyVariantContext.getStart(),dummyVariantContext.getEnd(),
                 GencodeFuncotation.VariantClassification.DE_NOVO_START_IN_FRAME, null, GencodeFuncotation.VariantType.SNP,
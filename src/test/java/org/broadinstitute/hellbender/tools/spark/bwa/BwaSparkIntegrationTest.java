@@ -39,6 +39,37 @@ public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
         SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
     }
 
+    @Test
+    public void testPairedEndWithStagedImage() throws Exception {
+        final File expectedSam = getTestFile("bwa.sam");
+
+        final File ref = getTestFile("ref.fa");
+        final File input = getTestFile("R.bam"); // this is a queryname sorted, paired, and unaligned input
+        final File image = getTestFile("ref.fa.img");
+        final File stagingDir = createTempDir("bwaImageStaging");
+
+        final File output = createTempFile("bwa", ".bam");
+        Assert.assertTrue(output.delete());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, ref);
+        args.addFileArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, input);
+        args.addBooleanArgument(GATKSparkTool.SHARDED_OUTPUT_LONG_NAME, true);
+        args.addArgument(GATKSparkTool.NUM_REDUCERS_LONG_NAME,"1");
+        args.addOutput(output);
+        args.addFileArgument(BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_FULL_NAME, image);
+        args.addFileArgument(BwaArgumentCollection.BWA_MEM_INDEX_IMAGE_STAGING_DIR_FULL_NAME, stagingDir);
+        this.runCommandLine(args.getArgsArray());
+
+        SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
+
+        // the image was copied into the staging directory, under a name that identifies its size and modification time
+        final File[] stagedImages = stagingDir.listFiles((dir, name) -> name.startsWith(image.getName()) && name.contains("." + image.length() + "."));
+        Assert.assertNotNull(stagedImages);
+        Assert.assertEquals(stagedImages.length, 1);
+        Assert.assertEquals(stagedImages[0].length(), image.length());
+    }
+
     @Test
     public void testSingleEnd() throws Exception {
         final File expectedSam = getTestFile("seBwa.bam");
@@ -90,6 +90,43 @@ public class PathSeqBuildKmersSparkIntegrationTest extends CommandLineProgramTes
         Assert.assertTrue(numFP < 1.2 * NUM_FPP_TRIALS * BLOOM_FPP);
     }
 
+    @Test
+    public void testBlockedBloomFilterFromFasta() throws Exception {
+
+        final String libraryPath = publicTestDir + PathSeqBuildKmers.class.getPackage().getName().replace(".", "/") + "/hg19mini.hss";
+        final File ref = new File(hg19MiniReference);
+        final File output = createTempFile("test", ".bfi");
+        if (!output.delete()) {
+            Assert.fail();
+        }
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(PathSeqBuildKmers.REFERENCE_LONG_NAME, ref);
+        args.addArgument(PathSeqBuildKmers.BLOOM_FILTER_FALSE_POSITIVE_P_LONG_NAME, Double.toString(BLOOM_FPP));
+        args.addBooleanArgument(PathSeqBuildKmers.BLOCKED_BLOOM_FILTER_LONG_NAME, true);
+        args.addOutput(output);
+        this.runCommandLine(args.getArgsArray());
+
+        final PSKmerCollection expectedKmerLib = PSKmerUtils.readKmerFilter(libraryPath);
+        final PSKmerCollection testKmerLib = PSKmerUtils.readKmerFilter(output.getAbsolutePath());
+        Assert.assertTrue(testKmerLib instanceof PSKmerBlockedBloomFilter);
+        Assert.assertTrue(testKmerLib.getFalsePositiveProbability() <= BLOOM_FPP);
+
+        final LongIterator itr = ((PSKmerSet) expectedKmerLib).iterator();
+        while (itr.hasNext()) {
+            Assert.assertTrue(testKmerLib.contains(new SVKmerShort(itr.next())));
+        }
+
+        final Random rand = new Random(72939);
+        int numFP = 0;
+        for (int i = 0; i < NUM_FPP_TRIALS; i++) {
+            final long randomValue = rand.nextLong() >>> 2;
+            if (testKmerLib.contains(new SVKmerShort(randomValue)) && !expectedKmerLib.contains(new SVKmerShort(randomValue))) {
+                numFP++;
+            }
+        }
+        Assert.assertTrue(numFP < 1.2 * NUM_FPP_TRIALS * BLOOM_FPP);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testMaskedHopscotchSetFromFasta() throws Exception {
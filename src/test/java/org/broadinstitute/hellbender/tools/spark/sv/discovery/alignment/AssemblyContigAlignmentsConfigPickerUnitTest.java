@@ -74,22 +74,6 @@ public class AssemblyContigAlignmentsConfigPickerUnitTest extends GATKBaseTest {
 
     // step 2: score possible configurations and pick the best ones ====================================================
 
-    @Test(groups = "sv")
-    public void testHeuristicSpeedUpWhenFacingManyMappings() {
-        final AlignedContig alignedContig = fromPrimarySAMRecordString("asm010147:tig00010\t16\tchr6\t31427489\t43\t4S54M2I26M7D22M4I33M4I70M2I109M2I103M1525S\t*\t0\t0\tATTCTATATATATATTCTATATATATATTCTATATATATATTCTATATATATATTCTATGTATGTATTCTATATATATATTTTATATATTTATTCTATGTATATATTCTACATATATATTCTATATATATATTCGATATATGTTCGATATATATATTTGATATATATATTCTATATATATATTCTATATATATATTCTATATATATTCTATATATATTCTATATATATATATTCTATATATATTCTATATATATATTCTATATATATATTCTATATATATTCTATATATATTCTATATATATATTCTATATATATTCCATATATATATTCTATATATATATTCCATATATATTCCATATATATATTCTATATATATTCCATATATATATTCCACATATATATTCCATATATATATTCCACACATATATTCTATATATATATTCCATACATATATTCTATATATATATATTCCATACATATATTCTATATATATATTCCATACATATATTCTATATATATATATTCCATACATATATTCTATATATATATATTCCATACATATATTCTATATATATATATTCCATACATATATTCTATATATGTATATTCCATACATATATTCCATATATATATTCCATACATATATTCCATATATGTATATTCCATATATATATTCCATATATATATATTCCATATATATATTCCATATATATATTCCATATATATGTTCCATATATATATTCCATATATATGTTCCATATATATATTCTATATATATGTAACATATATATATTCCATATATATGGAACATATATATATTCTATATATATGGAACATATATATATTCTATATATATGGAACATATATATATTCTATATATCTGTTCCATATATATATTCTATATATCTGTTCCATATATATATTCTATATATCTGTTCCATATATATGTTCTATATATCTGTTCCATATATATATTCTATATATCTGTTCCATATATATATTCTATATATCTGTTCCATATATATATTCTATATATATATTCTATACATTCTATATATAATATATATATTCTATATATTCTATATATAATATATATATTCTATGTATATATTCTATATATAATATATATATTCTATGTATATATTCTATATATATTCTATATATATTCTATGTATATATTCTATATATATTCTATATATATTCCATATATATTCTATATATATTCTATGTATATTCGATATATATATTCTATATATATTCTATATATTCGATATATATATTCTATATATATTCTATATATTCGATACATATATTCTATATATAATCTATATATTATATATATTCTATATATATATCCTATATATATTCTATATATTCTATATATATCCCATATATATTCTATATATTCTATATATACATCCCATATATATCCTGTATATCCTATATATATATCCTATATATATCCTGTATATCCTATATATATATCCTATATATATATCCTGTATATCCTATATATATATATCCTATATATATCCTATATATCCTATATATATCCTATATATGTATCCTATATATACATCCTTTATATCCTATACATATATCCTATATGTCCTATACATATATCCTATATATATCCTATATATCCTATATATATATCCTATATATATATTCGATATATATCCTATATATCCTATATATATATCCCATATATATCCTATATATCCCATATATATCCTATATATCCTATATATCCTATATATATATCCTATATATATCCTATATATATCCTATATATATATCCTGTATATATATCCTATATATATATATCCTGTATATATATCCTATATATATATCCTGTATATATATCCTATATATATATATCCTGTATATATATCCTATATATATATATCCTGTATATATATCCTATATATATATATCCTGTATATATATCCTATATATA\t*\tSA:Z:chr6,31428609,-,1753H65M9D61M4I77M,17,22,113;chr6,31428242,-,883H188M4D95M794H,43,36,103;chr3,152694227,+,1245H26M2I118M569H,17,9,91;chr7,15531019,-,1172H147M7I62M2D28M544H,19,31,86;chr6,31428246,-,679H125M1156H,31,9,80;chr4,12386256,-,780H100M1080H,0,7,65;chrX,50228609,+,739H24M2D22M4I49M1122H,16,7,52;chr3,151030799,+,150H24M2D35M2D57M1694H,43,10,50;chr3,151030872,+,399H47M1514H,10,0,47;chr6,31428687,-,1467H40M453H,43,1,35;chr6_GL000253v2_alt,2736084,-,215M4I26M4I142M1569H,7,38,193;chr6_GL000256v2_alt,2730310,-,1017H129M13D57M15D57M2D38M9I134M2I58M459H,30,76,177;chrUn_JTFH01001202v1_decoy,266,-,306H38M6D23M6D89M4I24M1D139M2D64M1273H,34,45,148;chrUn_JTFH01001628v1_decoy,267,+,918H273M4I24M2I33M4D28M2D55M623H,60,52,137;\tMD:Z:57A17C4^TCTATTC3A8A3C21C5T18C0T34T0C1A92A0T1C22T23T10T23T12T1T10T12T1T1T13\tRG:Z:GATKSVContigAlignments\tNM:i:46\tAS:i:175\tXS:i:138",
-                true);
-
-        final GoodAndBadMappings goodAndBadMappings =
-                heuristicSpeedUpWhenFacingManyMappings(alignedContig, hg38CanonicalChromosomes, 175);
-
-        final List<AlignmentInterval> alignments = alignedContig.getAlignments();
-        final List<AlignmentInterval> expectedBad = Arrays.asList(new AlignmentInterval("chr3,151030872,+,399H47M1514H,10,0,47"),
-                new AlignmentInterval("chr4,12386256,-,780H100M1080H,0,7,65"));
-        alignments.removeAll(expectedBad);
-        Assert.assertEquals(goodAndBadMappings.getGoodMappings(), alignments);
-        Assert.assertEquals(goodAndBadMappings.getBadMappings(), expectedBad);
-    }
-
     @DataProvider
     private Object[][] forGetBetterNonCanonicalMapping() {
         final List<Object[]> data = new ArrayList<>(20);
@@ -246,6 +230,178 @@ public class AssemblyContigAlignmentsConfigPickerUnitTest extends GATKBaseTest {
         }
     }
 
+    private static List<AlignmentInterval> makeRandomAlignments(final Random random, final int nAlignments,
+                                                                final int contigLength) {
+        final String[] chromosomes = {"chr1", "chr2", "chrUn_KI270519v1"};
+        final List<AlignmentInterval> alignments = new ArrayList<>(nAlignments);
+        for (int i = 0; i < nAlignments; ++i) {
+            final int start = 1 + random.nextInt(contigLength - 50);
+            final int end = Math.min(contigLength, start + 20 + random.nextInt(150));
+            final int len = end - start + 1;
+            final String cigar = (start > 1 ? (start - 1) + "S" : "") + len + "M" +
+                    (end < contigLength ? (contigLength - end) + "S" : "");
+            final int refStart = 1000000 + random.nextInt(1000000);
+            alignments.add(new AlignmentInterval(
+                    new SimpleInterval(chromosomes[random.nextInt(chromosomes.length)], refStart, refStart + len - 1),
+                    start, end, TextCigarCodec.decode(cigar), true,
+                    1 + random.nextInt(60), random.nextInt(5), len - random.nextInt(20), ContigAlignmentsModifier.AlnModType.NONE));
+        }
+        return alignments.stream().sorted(AlignedContig.getAlignmentIntervalComparator()).collect(Collectors.toList());
+    }
+
+    @Test(groups = "sv")
+    public void testConfigurationSearchAgreesWithExhaustiveSearch() {
+        final Set<String> canonicalChromosomes = new HashSet<>(Arrays.asList("chr1", "chr2"));
+        final Random random = new Random(13L);
+        for (int trial = 0; trial < 200; ++trial) {
+            final List<AlignmentInterval> alignments = makeRandomAlignments(random, 1 + random.nextInt(10), 400);
+            final int maxCanonicalChrAlignerScore = 100;
+
+            // the best configurations, as found by scoring every subset of the alignments
+            final List<List<AlignmentInterval>> allConfigurations = new ArrayList<>();
+            for (int mask = 0; mask < 1 << alignments.size(); ++mask) {
+                final List<AlignmentInterval> configuration = new ArrayList<>();
+                for (int i = 0; i < alignments.size(); ++i) {
+                    if ((mask & (1 << i)) != 0) configuration.add(alignments.get(i));
+                }
+                allConfigurations.add(configuration);
+            }
+            final double maxScore = allConfigurations.stream()
+                    .mapToDouble(conf -> computeScoreOfConfiguration(conf, canonicalChromosomes, maxCanonicalChrAlignerScore))
+                    .max().getAsDouble();
+            final Set<List<AlignmentInterval>> expected = allConfigurations.stream()
+                    .filter(conf -> maxScore - computeScoreOfConfiguration(conf, canonicalChromosomes, maxCanonicalChrAlignerScore) <= Math.ulp(maxScore))
+                    .collect(Collectors.toSet());
+
+            final List<List<AlignmentInterval>> candidates =
+                    searchForNearOptimalConfigurations(alignments, canonicalChromosomes, maxCanonicalChrAlignerScore, 0.);
+            final Set<List<AlignmentInterval>> actual = candidates.stream()
+                    .filter(conf -> maxScore - computeScoreOfConfiguration(conf, canonicalChromosomes, maxCanonicalChrAlignerScore) <= Math.ulp(maxScore))
+                    .collect(Collectors.toSet());
+            Assert.assertEquals(actual, expected);
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testConfigurationSearchWithManyAlignments() {
+        // far too many alignments to score every subset
+        final List<AlignmentInterval> alignments = makeRandomAlignments(new Random(17L), 500, 20000);
+        final Set<String> canonicalChromosomes = new HashSet<>(Arrays.asList("chr1", "chr2"));
+        final List<List<AlignmentInterval>> candidates =
+                searchForNearOptimalConfigurations(alignments, canonicalChromosomes, 100, 0.);
+        Assert.assertFalse(candidates.isEmpty());
+        final double bestScore = candidates.stream()
+                .mapToDouble(conf -> computeScoreOfConfiguration(conf, canonicalChromosomes, 100)).max().getAsDouble();
+        // no single alignment can do better than the best configuration
+        for (final AlignmentInterval alignment : alignments) {
+            Assert.assertTrue(computeScoreOfConfiguration(Collections.singletonList(alignment), canonicalChromosomes, 100)
+                    <= bestScore + Math.ulp(bestScore));
+        }
+    }
+
+    private static AlignmentInterval makeAlignment(final int start, final int len, final int contigLength,
+                                                   final int refStart) {
+        return makeAlignment(start, len, contigLength, refStart, 60);
+    }
+
+    private static AlignmentInterval makeAlignment(final int start, final int len, final int contigLength,
+                                                   final int refStart, final int mapQual) {
+        final int end = start + len - 1;
+        final String cigar = (start > 1 ? (start - 1) + "S" : "") + len + "M" +
+                (end < contigLength ? (contigLength - end) + "S" : "");
+        return new AlignmentInterval(new SimpleInterval("chr1", refStart, refStart + len - 1),
+                start, end, TextCigarCodec.decode(cigar), true,
+                mapQual, 0, len, ContigAlignmentsModifier.AlnModType.NONE);
+    }
+
+    @Test(groups = "sv")
+    public void testPickBestConfigurationsKeepsLowMQAlignmentsOfContigWithManyAlignments() {
+        // 12 abutting alignments, every other one with a low MQ: each adds to the score, so all are picked
+        final int nAlignments = 12;
+        final int len = 50;
+        final int contigLength = nAlignments * len;
+        final List<AlignmentInterval> alignments = new ArrayList<>(nAlignments);
+        for (int i = 0; i < nAlignments; ++i) {
+            alignments.add(makeAlignment(1 + i * len, len, contigLength, 1000000 + i * len, i % 2 == 0 ? 60 : 5));
+        }
+        final AlignedContig contig = new AlignedContig("asm000001:tig00001", new byte[contigLength], alignments);
+
+        final List<GoodAndBadMappings> configurations =
+                pickBestConfigurations(contig, Collections.singleton("chr1"), 0.0);
+        Assert.assertEquals(configurations.size(), 1);
+        Assert.assertEquals(configurations.get(0).getGoodMappings(), alignments);
+        Assert.assertTrue(configurations.get(0).getBadMappings().isEmpty());
+        // the contig's own alignments are left alone
+        Assert.assertEquals(contig.getAlignments(), alignments);
+    }
+
+    @Test(groups = "sv")
+    public void testConfigurationSearchDoesNotRecursePerAlignment() {
+        // a chain of abutting alignments far longer than a recursive search could follow
+        final int nAlignments = 100000;
+        final int len = 20;
+        final int contigLength = nAlignments * len;
+        final List<AlignmentInterval> alignments = new ArrayList<>(nAlignments);
+        for (int i = 0; i < nAlignments; ++i) {
+            alignments.add(makeAlignment(1 + i * len, len, contigLength, 1000000 + i * len));
+        }
+        final List<List<AlignmentInterval>> candidates =
+                searchForNearOptimalConfigurations(alignments, Collections.singleton("chr1"), 100, 0.);
+        Assert.assertEquals(candidates, Collections.singletonList(alignments));
+    }
+
+    @Test(groups = "sv")
+    public void testConfigurationSearchCapsTiedCandidates() {
+        // 20 spots on the contig, each covered equally well by either of two alignments (or by both, as the overlap
+        // is charged in full): 3^20 best configurations
+        final int nSpots = 20;
+        final int len = 50;
+        final int contigLength = nSpots * len;
+        final List<AlignmentInterval> alignments = new ArrayList<>(2 * nSpots);
+        for (int i = 0; i < nSpots; ++i) {
+            alignments.add(makeAlignment(1 + i * len, len, contigLength, 1000000 + i * len));
+            alignments.add(makeAlignment(1 + i * len, len, contigLength, 2000000 + i * len));
+        }
+        alignments.sort(AlignedContig.getAlignmentIntervalComparator());
+        final Set<String> canonicalChromosomes = Collections.singleton("chr1");
+        final List<List<AlignmentInterval>> candidates =
+                searchForNearOptimalConfigurations(alignments, canonicalChromosomes, 100, 0.);
+        Assert.assertEquals(candidates.size(), MAX_CANDIDATE_CONFIGURATIONS);
+        Assert.assertEquals(new HashSet<>(candidates).size(), MAX_CANDIDATE_CONFIGURATIONS);
+        for (final List<AlignmentInterval> configuration : candidates) {
+            Assert.assertEquals(computeScoreOfConfiguration(configuration, canonicalChromosomes, 100), (double)contigLength);
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testConfigurationSearchReturnsBestCandidateFirstWhenCapped() {
+        // 20 spots on the contig, each covered by an MQ 60 alignment and a slightly worse MQ 59 one:
+        // the best configuration is unique, but with a large tolerance far more than the cap are near it
+        final int nSpots = 20;
+        final int len = 50;
+        final int contigLength = nSpots * len;
+        final List<AlignmentInterval> alignments = new ArrayList<>(2 * nSpots);
+        final List<AlignmentInterval> expectedBest = new ArrayList<>(nSpots);
+        for (int i = 0; i < nSpots; ++i) {
+            final AlignmentInterval better = makeAlignment(1 + i * len, len, contigLength, 1000000 + i * len, 60);
+            alignments.add(better);
+            alignments.add(makeAlignment(1 + i * len, len, contigLength, 2000000 + i * len, 59));
+            expectedBest.add(better);
+        }
+        alignments.sort(AlignedContig.getAlignmentIntervalComparator());
+        expectedBest.sort(AlignedContig.getAlignmentIntervalComparator());
+        final Set<String> canonicalChromosomes = Collections.singleton("chr1");
+        final List<List<AlignmentInterval>> candidates =
+                searchForNearOptimalConfigurations(alignments, canonicalChromosomes, 100, 100.);
+        Assert.assertEquals(candidates.size(), MAX_CANDIDATE_CONFIGURATIONS);
+        Assert.assertEquals(candidates.get(0), expectedBest);
+        final double bestScore = computeScoreOfConfiguration(expectedBest, canonicalChromosomes, 100);
+        for (final List<AlignmentInterval> configuration : candidates) {
+            Assert.assertTrue(computeScoreOfConfiguration(configuration, canonicalChromosomes, 100) < bestScore
+                    || configuration.equals(expectedBest));
+        }
+    }
+
     // step 3: reconstruction from the picked configurations ===========================================================
 
     // functionality group 3.1: split gaps
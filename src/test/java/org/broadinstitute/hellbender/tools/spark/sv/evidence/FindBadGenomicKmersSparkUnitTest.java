@@ -77,4 +77,24 @@ public class FindBadGenomicKmersSparkUnitTest extends GATKBaseTest {
         Assert.assertEquals(badKmers.size(), badKmerSet.size());
         Assert.assertEquals(badKmerSet, kmerMap.keySet());
     }
+
+    @Test(groups = "sv")
+    public void outOfCoreMiniRefTest() throws IOException {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final ReferenceMultiSparkSource ref = new ReferenceMultiSparkSource(
+                REFERENCE_FILE_NAME, ReferenceWindowFunctions.IDENTITY_FUNCTION);
+        final Set<SVKmer> expectedKmers =
+                new HashSet<>(FindBadGenomicKmersSpark.findBadGenomicKmers(ctx, KMER_SIZE, Integer.MAX_VALUE, ref, null));
+        final String spillDir = createTempDir("findBadGenomicKmersSpill").getAbsolutePath();
+
+        final List<SVKmer> sparkKmers =
+                FindBadGenomicKmersSpark.findBadGenomicKmers(ctx, KMER_SIZE, Integer.MAX_VALUE, ref, null, 3, spillDir);
+        Assert.assertEquals(sparkKmers.size(), expectedKmers.size());
+        Assert.assertEquals(new HashSet<>(sparkKmers), expectedKmers);
+
+        final List<SVKmer> localKmers =
+                FindBadGenomicKmersSpark.findBadGenomicKmersLocally(KMER_SIZE, Integer.MAX_VALUE, ref, null, 3, spillDir);
+        Assert.assertEquals(localKmers.size(), expectedKmers.size());
+        Assert.assertEquals(new HashSet<>(localKmers), expectedKmers);
+    }
 }
@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
 import org.broadinstitute.hellbender.tools.spark.utils.IntHistogram;
+import org.broadinstitute.hellbender.tools.spark.utils.LongPairIntMultiMap;
 import org.broadinstitute.hellbender.utils.IntHistogramTest;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.GATKBaseTest;
@@ -50,7 +51,8 @@ public final class FindBreakpointEvidenceSparkUnitTest extends GATKBaseTest {
                         { new ReadMetadata.PartitionBounds(0, 1, 1, 10000, 9999)},
                     100, 10, 30);
     private final Broadcast<ReadMetadata> broadcastMetadata = ctx.broadcast(readMetadataExpected);
-    private final Broadcast<SVIntervalTree<SVInterval>> broadcastRegionsToIgnore = ctx.broadcast(new SVIntervalTree<>());
+    private final Broadcast<SVIntervalIndex> broadcastRegionsToIgnore =
+            ctx.broadcast(SVIntervalIndex.fromIntervals(Collections.emptyList()));
     private final List<List<BreakpointEvidence>> externalEvidence =
             FindBreakpointEvidenceSpark.readExternalEvidence(null, readMetadataExpected,
                                                     params.externalEvidenceWeight, params.externalEvidenceUncertainty);
@@ -124,11 +126,10 @@ public final class FindBreakpointEvidenceSparkUnitTest extends GATKBaseTest {
     @Test(groups = "sv")
     public void getAssemblyQNamesTest() {
         final Set<SVKmer> expectedKmers = SVFileUtils.readKmersFile(kmersFile, params.kSize);
-        final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerAndIntervalSet =
-                new HopscotchUniqueMultiMap<>(expectedKmers.size());
-        expectedKmers.stream().
-                map(kmer -> new KmerAndInterval(kmer, 0))
-                .forEach(kmerAndIntervalSet::add);
+        final LongPairIntMultiMap kmerAndIntervalSet = new LongPairIntMultiMap(expectedKmers.size());
+        expectedKmers.stream()
+                .map(kmer -> (SVKmerLong)kmer)
+                .forEach(kmer -> kmerAndIntervalSet.add(kmer.getValHigh(), kmer.getValLow(), 0));
         final Set<String> actualAssemblyQNames = new HashSet<>();
         FindBreakpointEvidenceSpark.getAssemblyQNames(params, ctx, kmerAndIntervalSet, reads, filter)
                 .stream()
@@ -144,7 +145,37 @@ public final class FindBreakpointEvidenceSparkUnitTest extends GATKBaseTest {
         expectedAssemblyQNames.stream()
                 .map(qName -> new QNameAndInterval(qName, 0))
                 .forEach(qNameMultiMap::add);
-        FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,reads,filter,2,true,new LocalAssemblyComparator(fastqFile));
+        FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,reads,filter,2,
+                readMetadataExpected.getAvgReadLen(),0,true,new LocalAssemblyComparator(fastqFile),logger);
+    }
+
+    @Test(groups = "sv")
+    public void persistedAssemblyReadsTest() {
+        // the kmer and template-gathering passes give the same results from the persisted primary reads
+        final JavaRDD<GATKRead> assemblyReads = FindBreakpointEvidenceSpark.persistAssemblyReads(reads, filter);
+        try {
+            final Set<SVKmer> expectedKmers = SVFileUtils.readKmersFile(kmersFile, params.kSize);
+            final LongPairIntMultiMap kmerAndIntervalSet = new LongPairIntMultiMap(expectedKmers.size());
+            expectedKmers.stream()
+                    .map(kmer -> (SVKmerLong)kmer)
+                    .forEach(kmer -> kmerAndIntervalSet.add(kmer.getValHigh(), kmer.getValLow(), 0));
+            final Set<String> actualAssemblyQNames =
+                    FindBreakpointEvidenceSpark.getAssemblyQNames(params, ctx, kmerAndIntervalSet, assemblyReads, filter)
+                            .stream()
+                            .map(QNameAndInterval::getKey)
+                            .collect(Collectors.toSet());
+            Assert.assertEquals(actualAssemblyQNames, expectedAssemblyQNames);
+
+            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameMultiMap =
+                    new HopscotchUniqueMultiMap<>(expectedAssemblyQNames.size());
+            expectedAssemblyQNames.stream()
+                    .map(qName -> new QNameAndInterval(qName, 0))
+                    .forEach(qNameMultiMap::add);
+            FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,assemblyReads,filter,2,
+                    readMetadataExpected.getAvgReadLen(),0,true,new LocalAssemblyComparator(fastqFile),logger);
+        } finally {
+            assemblyReads.unpersist(false);
+        }
     }
 
     @Test(groups = "sv")
@@ -4,7 +4,7 @@ import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalTree;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalIndex;
 import org.broadinstitute.hellbender.utils.IntHistogramTest;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -13,6 +13,8 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -43,11 +45,10 @@ public class QNameFinderTest extends GATKBaseTest {
                 ArtificialReadUtils.createRandomReadQuals(151),
                 "99M52S");
 
-        final SVIntervalTree<SVInterval> highDepthIntervals = new SVIntervalTree<>();
         final SVInterval highDepthInterval1 = new SVInterval(0, 11010, 11590);
         final SVInterval highDepthInterval2 = new SVInterval(0, 115732072, 115733072);
-        highDepthIntervals.put(highDepthInterval1, highDepthInterval1);
-        highDepthIntervals.put(highDepthInterval2, highDepthInterval2);
+        final SVIntervalIndex highDepthIntervals =
+                SVIntervalIndex.fromIntervals(Arrays.asList(highDepthInterval1, highDepthInterval2));
 
         final QNameFinder qNameFinder = new QNameFinder(readMetadata, intervals, new SVReadFilter(params), highDepthIntervals);
 
@@ -79,7 +80,7 @@ public class QNameFinderTest extends GATKBaseTest {
                 ArtificialReadUtils.createRandomReadQuals(151),
                 "40S111M");
 
-        final SVIntervalTree<SVInterval> highDepthIntervals = new SVIntervalTree<>();
+        final SVIntervalIndex highDepthIntervals = SVIntervalIndex.fromIntervals(Collections.emptyList());
 
         final QNameFinder qNameFinder = new QNameFinder(readMetadata, intervals, new SVReadFilter(params), highDepthIntervals);
 
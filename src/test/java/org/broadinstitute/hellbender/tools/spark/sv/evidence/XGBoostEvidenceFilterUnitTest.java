@@ -171,6 +171,23 @@ public class XGBoostEvidenceFilterUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(groups = "sv")
+    protected void testFilterScoringMatchesSingleEvidenceScoring() {
+        final XGBoostEvidenceFilter evidenceFilter = new XGBoostEvidenceFilter(
+                evidenceList.iterator(), readMetadata, params, emptyCrossingChecker
+        );
+        // the filter computes features with the same precision as getFeatures, so the probabilities are identical
+        final double[] filterProbabilities = evidenceFilter.predictProbabilitiesAsFilter(evidenceList);
+        final double[] singleProbabilities = evidenceList.stream().mapToDouble(evidenceFilter::predictProbability).toArray();
+        assertArrayEquals(filterProbabilities, singleProbabilities, 0.0,
+                "Probabilities calculated by XGBoostEvidenceFilter while filtering don't match single-evidence probabilities");
+        for(int index = 0; index < filterProbabilities.length; ++index) {
+            Assert.assertEquals(filterProbabilities[index] > params.svEvidenceFilterThresholdProbability,
+                    singleProbabilities[index] > params.svEvidenceFilterThresholdProbability,
+                    "Filter decision differs from single-evidence decision at index=" + index);
+        }
+    }
+
     @Test(groups = "sv")
     protected void testFilter() {
         final XGBoostEvidenceFilter evidenceFilter = new XGBoostEvidenceFilter(
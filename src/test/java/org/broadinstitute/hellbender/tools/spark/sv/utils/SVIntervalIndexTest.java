@@ -0,0 +1,101 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+public class SVIntervalIndexTest extends GATKBaseTest {
+    private static final int N_CONTIGS = 3;
+    private static final int CONTIG_LENGTH = 100000;
+
+    private static List<SVInterval> makeRandomIntervals( final Random random, final int nIntervals, final int maxLength ) {
+        final List<SVInterval> intervals = new ArrayList<>(nIntervals);
+        for ( int idx = 0; idx != nIntervals; ++idx ) {
+            final int start = random.nextInt(CONTIG_LENGTH);
+            intervals.add(new SVInterval(random.nextInt(N_CONTIGS), start, start + random.nextInt(maxLength)));
+        }
+        return intervals;
+    }
+
+    @Test(groups = "sv")
+    public void testQueriesAgainstBruteForce() {
+        final Random random = new Random(47L);
+        for ( final int nIntervals : new int[]{0, 1, 2, 20, 1000} ) {
+            for ( final int maxLength : new int[]{100, 20000} ) {
+                final List<SVInterval> intervals = makeRandomIntervals(random, nIntervals, maxLength);
+                final SVIntervalIndex index = SVIntervalIndex.fromIntervals(intervals);
+                Collections.sort(intervals);
+                Assert.assertEquals(index.size(), nIntervals);
+                for ( int idx = 0; idx != nIntervals; ++idx ) {
+                    Assert.assertEquals(index.getInterval(idx), intervals.get(idx));
+                }
+
+                for ( int queryNo = 0; queryNo != 200; ++queryNo ) {
+                    final int start = random.nextInt(CONTIG_LENGTH);
+                    final SVInterval query =
+                            new SVInterval(random.nextInt(N_CONTIGS), start, start + 1 + random.nextInt(1000));
+                    final List<Integer> expectedOverlappers = new ArrayList<>();
+                    boolean expectedContainer = false;
+                    for ( int idx = 0; idx != nIntervals; ++idx ) {
+                        final SVInterval interval = intervals.get(idx);
+                        if ( interval.overlaps(query) ) {
+                            expectedOverlappers.add(idx);
+                            expectedContainer |= interval.getStart() <= query.getStart() &&
+                                                    interval.getEnd() >= query.getEnd();
+                        }
+                    }
+                    final int[] overlappers = index.getOverlappers(query);
+                    Assert.assertEquals(overlappers.length, expectedOverlappers.size());
+                    for ( int idx = 0; idx != overlappers.length; ++idx ) {
+                        Assert.assertEquals(overlappers[idx], (int)expectedOverlappers.get(idx));
+                    }
+                    Assert.assertEquals(index.hasOverlapper(query), !expectedOverlappers.isEmpty());
+                    Assert.assertEquals(index.hasContainer(query), expectedContainer);
+                }
+            }
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testEarlyStop() {
+        final SVIntervalIndex index = SVIntervalIndex.fromIntervals(Arrays.asList(
+                new SVInterval(0, 100, 200), new SVInterval(0, 150, 250), new SVInterval(0, 175, 300)));
+        final List<Integer> visited = new ArrayList<>();
+        Assert.assertFalse(index.forEachOverlapper(new SVInterval(0, 180, 190), idx -> visited.add(idx) && idx < 1));
+        Assert.assertEquals(visited, Arrays.asList(0, 1));
+        Assert.assertTrue(index.forEachOverlapper(new SVInterval(1, 180, 190), idx -> false));
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalArgumentException.class)
+    public void testUnsortedInput() {
+        SVIntervalIndex.fromSortedIntervals(Arrays.asList(
+                new SVInterval(0, 100, 200), new SVInterval(1, 0, 100), new SVInterval(0, 300, 400)).iterator());
+    }
+
+    @Test(groups = "sv")
+    public void testSerialization() {
+        final SVIntervalIndex index = SVIntervalIndex.fromIntervals(makeRandomIntervals(new Random(17L), 1000, 5000));
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Output out = new Output(bos);
+        final Kryo kryo = new Kryo();
+        kryo.writeObject(out, index);
+        out.flush();
+
+        final ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+        final Input in = new Input(bis);
+        final SVIntervalIndex index2 = kryo.readObject(in, SVIntervalIndex.class);
+
+        Assert.assertEquals(index2, index);
+        Assert.assertEquals(index2.hashCode(), index.hashCode());
+        final SVInterval query = new SVInterval(1, 50000, 51000);
+        Assert.assertEquals(index2.getOverlappers(query), index.getOverlappers(query));
+    }
+}
@@ -0,0 +1,80 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.RandomDNA;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection.FindBreakpointEvidenceSparkArgumentCollection.KMER_SIZE;
+import static org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection.FindBreakpointEvidenceSparkArgumentCollection.MAX_DUST_SCORE;
+
+/**
+ * Unit tests for SVPrimitiveKmerizer, which should produce the same kmers as SVKmerizer and SVDUSTFilteredKmerizer.
+ */
+public class SVPrimitiveKmerizerUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "sequences")
+    public Object[][] getSequences() {
+        final RandomDNA randomDNA = new RandomDNA(0x5eed);
+        final byte[] withNs = randomDNA.nextBases(500);
+        for ( int idx = 17; idx < withNs.length; idx += 71 ) withNs[idx] = 'N';
+        final byte[] lowerCase = new String(randomDNA.nextBases(300)).toLowerCase().getBytes();
+        return new Object[][]{
+                {randomDNA.nextBases(1000)}, {withNs}, {lowerCase}, {"ACGTNACGT".getBytes()},
+                {"CTAACCCTAACCCTAACCCTAACCCTAACCCTAACCCTAACCCTAACCCTAACCCTAACCCTAACCCCACCCCTAACCCTAACCCAAACCC".getBytes()}
+        };
+    }
+
+    @Test(dataProvider = "sequences", groups = "sv")
+    public void testShortKmers( final byte[] seq ) {
+        final int kSize = 11;
+        final List<Long> expected = SVKmerizer.stream(seq, kSize, new SVKmerShort(kSize))
+                .map(kmer -> ((SVKmerShort)kmer).getLong()).collect(Collectors.toList());
+        final List<Long> actual = new ArrayList<>();
+        Assert.assertTrue(SVPrimitiveKmerizer.forEachKmer(seq, kSize, actual::add));
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test(dataProvider = "sequences", groups = "sv")
+    public void testCanonicalShortKmers( final byte[] seq ) {
+        for ( final int kSize : new int[]{1, 11, 31} ) {
+            final List<Long> expected = SVKmerizer.stream(seq, kSize, new SVKmerShort(kSize))
+                    .map(kmer -> ((SVKmerShort)kmer).canonical(kSize).getLong()).collect(Collectors.toList());
+            final List<Long> actual = new ArrayList<>();
+            Assert.assertTrue(SVPrimitiveKmerizer.forEachCanonicalKmer(seq, kSize, actual::add));
+            Assert.assertEquals(actual, expected);
+        }
+    }
+
+    @Test(dataProvider = "sequences", groups = "sv")
+    public void testCanonicalDUSTFilteredLongKmers( final byte[] seq ) {
+        for ( final int kSize : new int[]{7, KMER_SIZE, 63} ) {
+            final List<SVKmer> expected = SVDUSTFilteredKmerizer.canonicalStream(seq, kSize, MAX_DUST_SCORE, new SVKmerLong())
+                    .collect(Collectors.toList());
+            final List<SVKmer> actual = new ArrayList<>();
+            Assert.assertTrue(SVPrimitiveKmerizer.forEachCanonicalKmer(seq, kSize, MAX_DUST_SCORE, (valHigh, valLow) -> {
+                actual.add(new SVKmerLong(valHigh, valLow));
+                return true;
+            }));
+            Assert.assertEquals(actual, expected);
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testEarlyStop() {
+        final byte[] seq = "ACGTACGTACGTACGT".getBytes();
+        final List<Long> visited = new ArrayList<>();
+        Assert.assertFalse(SVPrimitiveKmerizer.forEachCanonicalKmer(seq, 5, kmer -> visited.add(kmer) && visited.size() < 3));
+        Assert.assertEquals(visited.size(), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, groups = "sv")
+    public void testEvenKCanonicalization() {
+        SVPrimitiveKmerizer.forEachCanonicalKmer("ACGT".getBytes(), 10, kmer -> true);
+    }
+}
@@ -0,0 +1,56 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.*;
+
+public class SpillingKmerCounterTest extends GATKBaseTest {
+
+    @Test(groups = "sv")
+    public void testCountsAgainstMap() {
+        final Random random = new Random(47L);
+        final int kSize = 51;
+        final long mask = (1L << kSize) - 1L;
+        final File spillDir = createTempDir("spillingKmerCounterTest");
+        final Map<SVKmerLong, Long> expectedCounts = new HashMap<>();
+        try ( final SpillingKmerCounter kmerCounter = new SpillingKmerCounter(spillDir, 7) ) {
+            // a limited vocabulary of kmers, so that there are lots of repeats
+            final long[][] vocabulary = new long[1000][];
+            for ( int idx = 0; idx != vocabulary.length; ++idx ) {
+                vocabulary[idx] = new long[]{random.nextLong() & mask, random.nextLong() & mask};
+            }
+            for ( int idx = 0; idx != 20000; ++idx ) {
+                final long[] kmer = vocabulary[random.nextInt(vocabulary.length)];
+                final int count = 1 + random.nextInt(3);
+                kmerCounter.add(kmer[0], kmer[1], count);
+                expectedCounts.merge(new SVKmerLong(kmer[0], kmer[1]), (long)count, Long::sum);
+            }
+
+            final Map<SVKmerLong, Long> counts = new HashMap<>();
+            kmerCounter.forEachKmerCount((valHigh, valLow, count) ->
+                    Assert.assertNull(counts.put(new SVKmerLong(valHigh, valLow), count)));
+            Assert.assertEquals(counts, expectedCounts);
+
+            final long maxCount = 60;
+            final Set<SVKmer> expectedKmers = new HashSet<>();
+            expectedCounts.forEach((kmer, count) -> { if ( count > maxCount ) expectedKmers.add(kmer); });
+            final List<SVKmer> kmers = kmerCounter.getKmersWithCountAbove(maxCount);
+            Assert.assertEquals(new HashSet<>(kmers), expectedKmers);
+            Assert.assertEquals(kmers.size(), expectedKmers.size());
+        }
+        Assert.assertEquals(spillDir.listFiles().length, 0);
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalStateException.class)
+    public void testNoAddsAfterCounting() {
+        try ( final SpillingKmerCounter kmerCounter =
+                      new SpillingKmerCounter(createTempDir("spillingKmerCounterTest"), 2) ) {
+            kmerCounter.add(1L, 2L);
+            kmerCounter.forEachKmerCount((valHigh, valLow, count) -> {});
+            kmerCounter.add(1L, 2L);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class WorkSizePartitionerUnitTest extends GATKBaseTest {
+
+    @Test(groups = "sv")
+    public void testOutlierIsolation() {
+        // task 3 is bigger than all the others put together, and task 6 is bigger than its share of the rest
+        final long[] workSizes = {10, 20, 30, 1000, 10, 20, 200, 30, 10};
+        final WorkSizePartitioner partitioner = new WorkSizePartitioner(workSizes, 4);
+        Assert.assertEquals(partitioner.numPartitions(), 4);
+        Assert.assertEquals(partitioner.getNIsolatedTasks(), 2);
+        Assert.assertEquals(partitioner.getPartition(3), 0);
+        Assert.assertEquals(partitioner.getPartition(6), 1);
+        for ( int taskId = 0; taskId != workSizes.length; ++taskId ) {
+            if ( taskId != 3 && taskId != 6 ) {
+                Assert.assertTrue(partitioner.getPartition(taskId) >= 2);
+            }
+        }
+        Assert.assertEquals(partitioner.getPartitionWorkSize(0), 1000);
+        Assert.assertEquals(partitioner.getPartitionWorkSize(1), 200);
+        Assert.assertEquals(partitioner.getPartitionWorkSize(2), 70);
+        Assert.assertEquals(partitioner.getPartitionWorkSize(3), 60);
+    }
+
+    @Test(groups = "sv")
+    public void testBalancedPacking() {
+        final Random random = new Random(47L);
+        final int nTasks = 1000;
+        final int nPartitions = 16;
+        final long[] workSizes = new long[nTasks];
+        long maxWorkSize = 0;
+        for ( int taskId = 0; taskId != nTasks; ++taskId ) {
+            workSizes[taskId] = random.nextInt(100000);
+            maxWorkSize = Math.max(maxWorkSize, workSizes[taskId]);
+        }
+        final WorkSizePartitioner partitioner = new WorkSizePartitioner(workSizes, nPartitions);
+        Assert.assertEquals(partitioner.numPartitions(), nPartitions);
+        Assert.assertEquals(partitioner.getNIsolatedTasks(), 0);
+
+        final long[] partitionWorkSizes = new long[nPartitions];
+        for ( int taskId = 0; taskId != nTasks; ++taskId ) {
+            partitionWorkSizes[partitioner.getPartition(taskId)] += workSizes[taskId];
+        }
+        for ( int partition = 0; partition != nPartitions; ++partition ) {
+            Assert.assertEquals(partitionWorkSizes[partition], partitioner.getPartitionWorkSize(partition));
+            if ( partition > 0 ) {
+                Assert.assertTrue(partitionWorkSizes[partition] <= partitionWorkSizes[partition - 1]);
+            }
+        }
+        // largest-first packing leaves the partitions no further apart than the size of the biggest task
+        Assert.assertTrue(partitionWorkSizes[0] - partitionWorkSizes[nPartitions - 1] <= maxWorkSize);
+    }
+
+    @Test(groups = "sv")
+    public void testFewerTasksThanPartitions() {
+        final long[] workSizes = {5, 0, 7};
+        final WorkSizePartitioner partitioner = new WorkSizePartitioner(workSizes, 10);
+        Assert.assertEquals(partitioner.numPartitions(), 3);
+        Assert.assertEquals(partitioner.getPartition(2), 0);
+        Assert.assertEquals(partitioner.getPartition(0), 1);
+        Assert.assertEquals(partitioner.getPartition(1), 2);
+    }
+}
@@ -0,0 +1,130 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Random;
+
+public final class LongBlockedBloomFilterTest {
+
+    private static final long[] testVals = {0, 1, 2, 8, 16, 42, 97, 100, 2894765};
+    private static final long[] notAllTestVals = {0, 1, 2, 3, 7, 22, 61};
+    private static final long notInTestVals = 6;
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int HHASH_NVALS = 1000000;
+    private static final int FPR_NVALS = 1000000;
+    private static final float FPP = 0.01F;
+
+    private static long randomLong(Random rng) {
+        return (((long) rng.nextInt()) | (((long) rng.nextInt()) << 31)) & ~Long.MIN_VALUE;
+    }
+
+    @Test
+    void addAndContainsTest() {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(testVals.length, FPP);
+        Assert.assertTrue(bloomFilter.isEmpty());
+        bloomFilter.addAll(testVals);
+        Assert.assertTrue(bloomFilter.containsAll(testVals));
+        Assert.assertFalse(bloomFilter.contains(notInTestVals));
+        Assert.assertFalse(bloomFilter.containsAll(notAllTestVals));
+    }
+
+    @Test
+    void clearTest() {
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(testVals.length, FPP);
+        bloomFilter.addAll(testVals);
+        bloomFilter.clear();
+        Assert.assertFalse(bloomFilter.contains(1L));
+        Assert.assertTrue(bloomFilter.isEmpty());
+    }
+
+    @Test
+    void equalsAndHashcodeTest() {
+        final LongBlockedBloomFilter bloomFilter1 = new LongBlockedBloomFilter(testVals.length, FPP);
+        final LongBlockedBloomFilter bloomFilter2 = new LongBlockedBloomFilter(testVals.length, FPP);
+        final LongBlockedBloomFilter bloomFilter3 = new LongBlockedBloomFilter(testVals.length, FPP);
+        bloomFilter1.addAll(testVals);
+        bloomFilter2.addAll(testVals);
+        bloomFilter3.addAll(notAllTestVals);
+        Assert.assertEquals(bloomFilter1.hashCode(), bloomFilter2.hashCode());
+        Assert.assertEquals(bloomFilter1, bloomFilter2);
+        Assert.assertNotEquals(bloomFilter1.hashCode(), bloomFilter3.hashCode());
+        Assert.assertNotEquals(bloomFilter1, bloomFilter3);
+    }
+
+    @Test
+    void sizingTest() {
+        for (final double fpp : new double[]{0.1, 0.01, 0.001, 0.0001}) {
+            final long numBlocks = LongBlockedBloomFilter.getNumberOfBlocks(HHASH_NVALS, fpp);
+            Assert.assertTrue(LongBlockedBloomFilter.getTheoreticalFPP(HHASH_NVALS, numBlocks) <= fpp);
+            // never smaller than an ordinary Bloom filter, and not absurdly larger
+            final long bits = numBlocks * LongBlockedBloomFilter.WORDS_PER_BLOCK * Long.SIZE;
+            final long optimalBits = LongBloomFilter.getOptimalNumberOfBits(HHASH_NVALS, fpp);
+            Assert.assertTrue(bits >= optimalBits);
+            Assert.assertTrue(bits <= 1.5 * optimalBits);
+        }
+    }
+
+    @Test
+    void testRandomLongs() {
+        final Random rng = new Random(RAND_SEED);
+        final HashSet<Long> hashSet = new HashSet<>();
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(HHASH_NVALS, FPP);
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            final long randLong = randomLong(rng);
+            hashSet.add(randLong);
+            bloomFilter.add(randLong);
+        }
+        for (final Long val : hashSet) {
+            Assert.assertTrue(bloomFilter.contains(val), "testVal=" + val);
+        }
+        int num_false_pos = 0;
+        int num_total = 0;
+        for (int valNo = 0; valNo != FPR_NVALS; ++valNo) {
+            final long randLong = randomLong(rng);
+            if (!hashSet.contains(randLong)) {
+                num_total++;
+                if (bloomFilter.contains(randLong)) {
+                    num_false_pos++;
+                }
+            }
+        }
+        final double theoreticalFpp = bloomFilter.getTheoreticalFPP(HHASH_NVALS);
+        Assert.assertTrue(theoreticalFpp <= FPP);
+        Assert.assertTrue(num_false_pos >= num_total * theoreticalFpp * 0.9);
+        Assert.assertTrue(num_false_pos <= num_total * theoreticalFpp * 1.1);
+    }
+
+    @Test
+    void serializationTest() {
+        final Random rng = new Random(RAND_SEED);
+        final LongBlockedBloomFilter bloomFilter = new LongBlockedBloomFilter(HHASH_NVALS, FPP);
+        final HashSet<Long> hashSet = new HashSet<>(HHASH_NVALS);
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            final long randLong = randomLong(rng);
+            bloomFilter.add(randLong);
+            hashSet.add(randLong);
+        }
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Output out = new Output(bos);
+        final Kryo kryo = new Kryo();
+        kryo.writeObject(out, bloomFilter);
+        out.flush();
+
+        final ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+        final Input in = new Input(bis);
+        final LongBlockedBloomFilter bloomFilter2 = kryo.readObject(in, LongBlockedBloomFilter.class);
+
+        Assert.assertEquals(bloomFilter, bloomFilter2);
+        for (Long val : hashSet) {
+            Assert.assertTrue(bloomFilter2.contains(val));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public final class LongPairIntMultiMapTest extends GATKBaseTest {
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int N_VALS = 100000;
+
+    // a key/value triple, for checking the map against a java.util.Set
+    private static final class Entry {
+        final long keyHigh;
+        final long keyLow;
+        final int value;
+
+        Entry( final long keyHigh, final long keyLow, final int value ) {
+            this.keyHigh = keyHigh;
+            this.keyLow = keyLow;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals( final Object obj ) {
+            if ( !(obj instanceof Entry) ) return false;
+            final Entry that = (Entry)obj;
+            return keyHigh == that.keyHigh && keyLow == that.keyLow && value == that.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Long.hashCode(keyHigh) + Long.hashCode(keyLow)) + value;
+        }
+    }
+
+    // the low halves of the keys span the whole range of longs, but there are only a few of them
+    private static final long[] KEY_LOWS = { 0L, -1L, Long.MIN_VALUE, 0x0123456789abcdefL };
+
+    private static List<Entry> randomEntries( final Random rng, final int nEntries ) {
+        // use a small key space so that many keys have several values
+        final List<Entry> entries = new ArrayList<>(nEntries);
+        for ( int idx = 0; idx != nEntries; ++idx ) {
+            entries.add(new Entry(rng.nextInt(N_VALS / 8), KEY_LOWS[rng.nextInt(KEY_LOWS.length)], rng.nextInt(4)));
+        }
+        return entries;
+    }
+
+    @Test
+    void addAndFindTest() {
+        final LongPairIntMultiMap multiMap = new LongPairIntMultiMap(4);
+        Assert.assertTrue(multiMap.isEmpty());
+        Assert.assertTrue(multiMap.add(1L, 2L, 0));
+        Assert.assertTrue(multiMap.add(1L, 2L, 1));
+        Assert.assertFalse(multiMap.add(1L, 2L, 1));
+        Assert.assertTrue(multiMap.add(2L, 1L, 1));
+        Assert.assertEquals(multiMap.size(), 3);
+
+        Assert.assertTrue(multiMap.contains(1L, 2L));
+        Assert.assertTrue(multiMap.contains(1L, 2L, 1));
+        Assert.assertFalse(multiMap.contains(1L, 2L, 2));
+        Assert.assertFalse(multiMap.contains(1L, 1L));
+        Assert.assertEquals(multiMap.count(1L, 2L), 2);
+        Assert.assertEquals(multiMap.count(2L, 1L), 1);
+
+        final Set<Integer> values = new HashSet<>();
+        multiMap.forEachValue(1L, 2L, values::add);
+        Assert.assertEquals(values, new HashSet<>(java.util.Arrays.asList(0, 1)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    void negativeValueTest() {
+        new LongPairIntMultiMap().add(0L, 0L, -1);
+    }
+
+    @Test
+    void resizeTest() {
+        final Random rng = new Random(RAND_SEED);
+        final LongPairIntMultiMap multiMap = new LongPairIntMultiMap(1);
+        final Set<Entry> expected = new HashSet<>();
+        for ( final Entry entry : randomEntries(rng, N_VALS) ) {
+            Assert.assertEquals(multiMap.add(entry.keyHigh, entry.keyLow, entry.value), expected.add(entry));
+        }
+        Assert.assertEquals(multiMap.size(), expected.size());
+        Assert.assertTrue(multiMap.size() <= LongPairIntMultiMap.LOAD_FACTOR * multiMap.capacity());
+        for ( final Entry entry : expected ) {
+            Assert.assertTrue(multiMap.contains(entry.keyHigh, entry.keyLow, entry.value));
+        }
+    }
+
+    @Test
+    void removeTest() {
+        final Random rng = new Random(RAND_SEED);
+        final LongPairIntMultiMap multiMap = new LongPairIntMultiMap(N_VALS);
+        final Set<Entry> expected = new HashSet<>();
+        for ( final Entry entry : randomEntries(rng, N_VALS) ) {
+            multiMap.add(entry.keyHigh, entry.keyLow, entry.value);
+            expected.add(entry);
+        }
+
+        // remove single entries, and all the entries for some keys
+        final List<Entry> entries = new ArrayList<>(expected);
+        int nMultiValueRemovals = 0;
+        for ( int idx = 0; idx < entries.size(); idx += 3 ) {
+            final Entry entry = entries.get(idx);
+            if ( idx % 2 == 0 ) {
+                Assert.assertEquals(multiMap.remove(entry.keyHigh, entry.keyLow, entry.value), expected.remove(entry));
+            } else {
+                final int nExpected = (int)expected.stream()
+                        .filter(e -> e.keyHigh == entry.keyHigh && e.keyLow == entry.keyLow).count();
+                expected.removeIf(e -> e.keyHigh == entry.keyHigh && e.keyLow == entry.keyLow);
+                Assert.assertEquals(multiMap.removeEach(entry.keyHigh, entry.keyLow), nExpected);
+                if ( nExpected > 1 ) {
+                    nMultiValueRemovals += 1;
+                }
+            }
+        }
+        Assert.assertTrue(nMultiValueRemovals > 0, "no key with several values was removed");
+
+        Assert.assertEquals(multiMap.size(), expected.size());
+        final Set<Entry> actual = new HashSet<>();
+        multiMap.forEach((keyHigh, keyLow, value) -> actual.add(new Entry(keyHigh, keyLow, value)));
+        Assert.assertEquals(actual, expected);
+        for ( final Entry entry : entries ) {
+            Assert.assertEquals(multiMap.contains(entry.keyHigh, entry.keyLow, entry.value), expected.contains(entry));
+        }
+
+        multiMap.clear();
+        Assert.assertTrue(multiMap.isEmpty());
+        Assert.assertFalse(multiMap.contains(entries.get(1).keyHigh, entries.get(1).keyLow));
+    }
+
+    @Test
+    void equalsTest() {
+        final LongPairIntMultiMap multiMap1 = new LongPairIntMultiMap(10);
+        final LongPairIntMultiMap multiMap2 = new LongPairIntMultiMap(1000);
+        for ( int idx = 0; idx != 100; ++idx ) {
+            multiMap1.add(idx, -idx, idx % 3);
+            multiMap2.add(99 - idx, idx - 99, (99 - idx) % 3);
+        }
+        Assert.assertEquals(multiMap1, multiMap2);
+        Assert.assertEquals(multiMap1.hashCode(), multiMap2.hashCode());
+        multiMap2.remove(0L, 0L, 0);
+        multiMap2.add(0L, 0L, 1);
+        Assert.assertNotEquals(multiMap1, multiMap2);
+    }
+
+    @Test
+    void serializationTest() {
+        final Random rng = new Random(RAND_SEED);
+        final LongPairIntMultiMap multiMap = new LongPairIntMultiMap(N_VALS);
+        for ( final Entry entry : randomEntries(rng, N_VALS) ) {
+            multiMap.add(entry.keyHigh, entry.keyLow, entry.value);
+        }
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Output out = new Output(bos);
+        final Kryo kryo = new Kryo();
+        kryo.writeObject(out, multiMap);
+        out.flush();
+
+        final ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+        final Input in = new Input(bis);
+        final LongPairIntMultiMap multiMap2 = kryo.readObject(in, LongPairIntMultiMap.class);
+
+        Assert.assertEquals(multiMap2, multiMap);
+        // 20 bytes per entry, plus the entry count
+        Assert.assertEquals(bos.size(), 4 + 20 * multiMap.size());
+    }
+}
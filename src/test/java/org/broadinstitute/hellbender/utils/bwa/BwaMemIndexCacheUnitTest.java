@@ -0,0 +1,89 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class BwaMemIndexCacheUnitTest extends GATKBaseTest {
+
+    private static final String IMAGE_PATH = publicTestDir + "hg19mini.fasta.img";
+
+    @Test
+    public void testStageImage() throws IOException {
+        final File sourceDir = createTempDir("bwaImageSource");
+        final File stagingDir = new File(createTempDir("bwaImageStaging"), "images");
+        final Path image = sourceDir.toPath().resolve("test.img");
+        Files.write(image, new byte[]{1, 2, 3, 4, 5});
+
+        final Path staged = BwaMemIndexCache.stageImage(image.toString(), stagingDir.toPath());
+        Assert.assertEquals(staged.getParent(), stagingDir.toPath());
+        Assert.assertTrue(staged.getFileName().toString().startsWith("test.img."));
+        Assert.assertEquals(Files.readAllBytes(staged), Files.readAllBytes(image));
+
+        // staging again reuses the existing copy
+        final long lastModified = Files.getLastModifiedTime(staged).toMillis();
+        Assert.assertEquals(BwaMemIndexCache.stageImage(image.toString(), stagingDir.toPath()), staged);
+        Assert.assertEquals(Files.getLastModifiedTime(staged).toMillis(), lastModified);
+
+        // a changed image is staged to a new copy
+        Files.write(image, new byte[]{1, 2, 3, 4, 5, 6});
+        final Path restaged = BwaMemIndexCache.stageImage(image.toString(), stagingDir.toPath());
+        Assert.assertNotEquals(restaged, staged);
+        Assert.assertEquals(Files.readAllBytes(restaged), Files.readAllBytes(image));
+
+        // as is a rebuilt image of the same size
+        Files.write(image, new byte[]{6, 5, 4, 3, 2, 1});
+        Files.setLastModifiedTime(image, FileTime.fromMillis(Files.getLastModifiedTime(restaged).toMillis() + 60000L));
+        final Path rebuilt = BwaMemIndexCache.stageImage(image.toString(), stagingDir.toPath());
+        Assert.assertNotEquals(rebuilt, restaged);
+        Assert.assertEquals(Files.readAllBytes(rebuilt), Files.readAllBytes(image));
+
+        // an image that is already in the staging directory is used in place
+        Assert.assertEquals(BwaMemIndexCache.stageImage(restaged.toString(), stagingDir.toPath()), restaged);
+    }
+
+    @Test
+    public void testAcquireAndReleaseByTwoUsers() {
+        final BwaMemIndex first = BwaMemIndexCache.acquireInstance(IMAGE_PATH, null);
+        final BwaMemIndex second = BwaMemIndexCache.acquireInstance(IMAGE_PATH, null);
+        try {
+            Assert.assertSame(second, first);
+            Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_PATH), 2);
+
+            // the index stays open for the second user
+            BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+            Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_PATH), 1);
+            Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE_PATH), first);
+            Assert.assertFalse(first.getReferenceContigNames().isEmpty());
+
+            // the index has an uncounted user now, so it stays open when the last counted user releases it
+            BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+            Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_PATH), 0);
+            Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE_PATH, null), first);
+            BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+            Assert.assertFalse(first.getReferenceContigNames().isEmpty());
+        } finally {
+            BwaMemIndexCache.closeInstance(IMAGE_PATH);
+        }
+
+        // without an uncounted user, releasing the last reference closes the index
+        final BwaMemIndex third = BwaMemIndexCache.acquireInstance(IMAGE_PATH, null);
+        Assert.assertNotSame(third, first);
+        final BwaMemIndex fourth = BwaMemIndexCache.acquireInstance(IMAGE_PATH, null);
+        BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+        BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_PATH), 0);
+        Assert.assertNotSame(BwaMemIndexCache.acquireInstance(IMAGE_PATH, null), fourth);
+        BwaMemIndexCache.releaseInstance(IMAGE_PATH);
+
+        // releasing an image that was never acquired has no effect
+        BwaMemIndexCache.releaseInstance("no-such-image.img");
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount("no-such-image.img"), 0);
+    }
+}
@@ -38,6 +38,9 @@ public class XsvLocatableTableCodecUnitTest extends GATKBaseTest {
     /** Uses column names, instead of index */
     private static final String TEST_CONFIG_FILE3   = TEST_RESOURCE_DIR + "xsv_locatable_test3.config";
     private static final String TEST_CONFIG_FILE4   = TEST_RESOURCE_DIR + "xsv_locatable_test4.config";
+
+    /** Only keeps some of the columns */
+    private static final String TEST_CONFIG_FILE_OUTPUT_COLUMNS = TEST_RESOURCE_DIR + "xsv_locatable_test_output_columns.config";
     private static final String TEST_FILE_NO_CONFIG = TEST_RESOURCE_DIR + "xsv_locatable_test_no_config.csv";
 
     // Preambles of SAMFileHeaders or just plain ol' comments
@@ -58,6 +61,10 @@ public class XsvLocatableTableCodecUnitTest extends GATKBaseTest {
     private static final List<String> file1Line1 = Arrays.asList("Blofeld", "chr19", "test_val_chr19", "8959519", "9092018", "Connery");
     private static final List<String> file1Line2 = Arrays.asList("Largo", "chr3", "test_val_chr3", "178866310", "178957882", "Dalton");
 
+    private static final List<String> file1OutputColumnsHeaders = Arrays.asList("XSV_LOCATABLE_TEST_NAME_Villain", "XSV_LOCATABLE_TEST_NAME_chr", "XSV_LOCATABLE_TEST_NAME_start", "XSV_LOCATABLE_TEST_NAME_end", "XSV_LOCATABLE_TEST_NAME_Bond");
+    private static final List<String> file1OutputColumnsLine1 = Arrays.asList("Blofeld", "chr19", "8959519", "9092018", "Connery");
+    private static final List<String> file1OutputColumnsLine2 = Arrays.asList("Largo", "chr3", "178866310", "178957882", "Dalton");
+
     private static final List<String> file2Headers = Arrays.asList("SECOND_XSV_NAME_Car_Maker", "SECOND_XSV_NAME_chr", "SECOND_XSV_NAME_start", "SECOND_XSV_NAME_Tire_Maker", "SECOND_XSV_NAME_end", "SECOND_XSV_NAME_Parent_Company");
     private static final List<String> file2Line1 = Arrays.asList("Lamborghini", "chr3", "178866310", "Michelin", "178957882", "Audi");
     private static final List<String> file2Line2 = Arrays.asList("Ferrari", "chr19", "8959519", "Pirelli", "9092018", "Fiat");
@@ -116,6 +123,12 @@ public class XsvLocatableTableCodecUnitTest extends GATKBaseTest {
                             new XsvTableFeature(1, 3, 4, file1Headers, file1Line1, "XSV_LOCATABLE_TEST_NAME"),
                             new XsvTableFeature(1, 3, 4, file1Headers, file1Line2, "XSV_LOCATABLE_TEST_NAME")
                     )
+                },
+                { TEST_CONFIG_FILE_OUTPUT_COLUMNS,
+                    Arrays.asList(
+                            new XsvTableFeature(1, 2, 3, file1OutputColumnsHeaders, file1OutputColumnsLine1, "XSV_LOCATABLE_TEST_NAME"),
+                            new XsvTableFeature(1, 2, 3, file1OutputColumnsHeaders, file1OutputColumnsLine2, "XSV_LOCATABLE_TEST_NAME")
+                    )
                 }
         };
     }
@@ -127,6 +140,7 @@ public class XsvLocatableTableCodecUnitTest extends GATKBaseTest {
         return new Object[][] {
                 { TEST_CONFIG_FILE1, file1Headers },
                 { TEST_CONFIG_FILE2, file2Headers },
+                { TEST_CONFIG_FILE_OUTPUT_COLUMNS, file1OutputColumnsHeaders },
         };
     }
 
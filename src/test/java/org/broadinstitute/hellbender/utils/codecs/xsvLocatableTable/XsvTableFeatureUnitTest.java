@@ -110,5 +110,30 @@ public class XsvTableFeatureUnitTest extends GATKBaseTest {
         Assert.assertEquals(exampleFile1Feature.size(), 6);
     }
 
+    @Test
+    public void testFeatureFromRawLine() {
+        final String line = String.join(",", file1Line1);
+        final int[] valueStarts = new int[file1Line1.size()];
+        final int[] valueEnds = new int[file1Line1.size()];
+        int offset = 0;
+        for ( int i = 0; i < file1Line1.size(); ++i ) {
+            valueStarts[i] = offset;
+            valueEnds[i] = offset + file1Line1.get(i).length();
+            offset = valueEnds[i] + 1;
+        }
+
+        final XsvTableFeature rawLineFeature = new XsvTableFeature(1, 3, 4, file1Headers, line, valueStarts, valueEnds, "XSV_LOCATABLE_TEST_NAME");
+
+        Assert.assertEquals(rawLineFeature.getContig(), "chr19");
+        Assert.assertEquals(rawLineFeature.getStart(), 8959519);
+        Assert.assertEquals(rawLineFeature.getEnd(), 9092018);
+        Assert.assertEquals(rawLineFeature.get("XSV_LOCATABLE_TEST_NAME_Bond"), "Connery");
+        Assert.assertEquals(rawLineFeature.get(2), "test_val_chr19");
+        Assert.assertEquals(rawLineFeature.getValuesWithoutLocationColumns(), exampleFile1Feature.getValuesWithoutLocationColumns());
+        Assert.assertEquals(rawLineFeature.getValues(), file1Line1);
+        Assert.assertEquals(rawLineFeature, exampleFile1Feature);
+        Assert.assertEquals(rawLineFeature.hashCode(), exampleFile1Feature.hashCode());
+    }
+
 
 }
@@ -0,0 +1,146 @@
+package org.broadinstitute.hellbender.utils.spark;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
+import org.broadinstitute.hellbender.engine.filters.ReadLengthReadFilter;
+import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
+import org.broadinstitute.hellbender.utils.recalibration.RecalibrationReport;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PipelineCheckpointerUnitTest extends GATKBaseTest {
+
+    private static final String RECAL_TABLE = publicTestDir + "org/broadinstitute/hellbender/tools/BQSR/HiSeq.20mb.1RG.table.gz";
+
+    @Test
+    public void testFingerprintDependsOnEverything() {
+        final String base = PipelineCheckpointer.fingerprint("", "stage", Arrays.asList("a", "b"));
+        Assert.assertEquals(PipelineCheckpointer.fingerprint("", "stage", Arrays.asList("a", "b")), base);
+        Assert.assertNotEquals(PipelineCheckpointer.fingerprint("x", "stage", Arrays.asList("a", "b")), base);
+        Assert.assertNotEquals(PipelineCheckpointer.fingerprint("", "other", Arrays.asList("a", "b")), base);
+        Assert.assertNotEquals(PipelineCheckpointer.fingerprint("", "stage", Arrays.asList("a", "c")), base);
+        // descriptions are delimited, so they can't run into each other
+        Assert.assertNotEquals(PipelineCheckpointer.fingerprint("", "stage", Collections.singletonList("ab")), base);
+    }
+
+    @Test
+    public void testDescribeArgument() {
+        final RecalibrationArgumentCollection args = new RecalibrationArgumentCollection();
+        final String description = PipelineCheckpointer.describeArgument(args);
+        Assert.assertEquals(PipelineCheckpointer.describeArgument(new RecalibrationArgumentCollection()), description);
+        args.MISMATCHES_CONTEXT_SIZE++;
+        Assert.assertNotEquals(PipelineCheckpointer.describeArgument(args), description);
+        Assert.assertEquals(PipelineCheckpointer.describeArgument(Arrays.asList("x", "y")), "[x, y]");
+        Assert.assertEquals(PipelineCheckpointer.describeArgument(null), "null");
+    }
+
+    @Test
+    public void testDescribeReadFilters() {
+        final String description = PipelineCheckpointer.describeArgument(Collections.singletonList(new ReadLengthReadFilter(1, 100)));
+        Assert.assertEquals(PipelineCheckpointer.describeArgument(Collections.singletonList(new ReadLengthReadFilter(1, 100))), description);
+        // filters of the same class with different arguments are distinguished
+        Assert.assertNotEquals(PipelineCheckpointer.describeArgument(Collections.singletonList(new ReadLengthReadFilter(1, 101))), description);
+        // as are filters with the same simple class name
+        Assert.assertNotEquals(PipelineCheckpointer.describeArgument(new ReadFilterLibrary.MappedReadFilter()),
+                PipelineCheckpointer.describeArgument(new MappedReadFilter()));
+    }
+
+    @Test
+    public void testCheckpointDirectoryIsCreated() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final File checkpointDir = new File(createTempDir("checkpoints"), "not/yet/created");
+        final RecalibrationReport report = new RecalibrationReport(new File(RECAL_TABLE));
+
+        final PipelineCheckpointer checkpointer = new PipelineCheckpointer(ctx, checkpointDir.getAbsolutePath(), null, Collections.emptyList());
+        checkpointer.checkpointRecalibrationReport("recal", report.getRAC(), () -> report);
+        Assert.assertTrue(checkpointDir.isDirectory());
+        Assert.assertEquals(checkpointDir.list((dir, name) -> name.endsWith(PipelineCheckpointer.COMPLETE_MARKER_EXTENSION)).length, 1);
+    }
+
+    /** A read filter with the same simple class name as {@link ReadFilterLibrary.MappedReadFilter}. */
+    private static final class MappedReadFilter extends ReadFilter {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean test(final GATKRead read) {
+            return true;
+        }
+    }
+
+    @Test
+    public void testDisabledCheckpointerRunsStages() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final PipelineCheckpointer checkpointer = new PipelineCheckpointer(ctx, null, null, Collections.emptyList());
+        Assert.assertFalse(checkpointer.isEnabled());
+        final RecalibrationReport report = new RecalibrationReport(new File(RECAL_TABLE));
+        Assert.assertSame(checkpointer.checkpointRecalibrationReport("recal", report.getRAC(), () -> report), report);
+    }
+
+    @Test
+    public void testRecalibrationReportCheckpoint() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final String checkpointDir = createTempDir("checkpoints").getAbsolutePath();
+        final RecalibrationReport report = new RecalibrationReport(new File(RECAL_TABLE));
+
+        final PipelineCheckpointer first = new PipelineCheckpointer(ctx, checkpointDir, null, Collections.singletonList(RECAL_TABLE));
+        Assert.assertSame(first.checkpointRecalibrationReport("recal", report.getRAC(), () -> report, "arg"), report);
+
+        // a rerun with the same inputs and arguments reloads the report rather than running the stage
+        final PipelineCheckpointer second = new PipelineCheckpointer(ctx, checkpointDir, null, Collections.singletonList(RECAL_TABLE));
+        final RecalibrationReport reloaded = second.checkpointRecalibrationReport("recal", report.getRAC(), () -> {
+            throw new GATKException("stage should not be rerun");
+        }, "arg");
+        Assert.assertEquals(reloaded.getRecalibrationTables().numTables(), report.getRecalibrationTables().numTables());
+        Assert.assertEquals(reloaded.getCovariates().size(), report.getCovariates().size());
+
+        // changing a stage argument invalidates the checkpoint
+        final PipelineCheckpointer third = new PipelineCheckpointer(ctx, checkpointDir, null, Collections.singletonList(RECAL_TABLE));
+        final boolean[] ran = {false};
+        third.checkpointRecalibrationReport("recal", report.getRAC(), () -> {
+            ran[0] = true;
+            return report;
+        }, "other arg");
+        Assert.assertTrue(ran[0]);
+    }
+
+    @Test
+    public void testReadsCheckpoint() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final String checkpointDir = createTempDir("checkpoints").getAbsolutePath();
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, 100 + i * 10, 50));
+        }
+
+        final PipelineCheckpointer first = new PipelineCheckpointer(ctx, checkpointDir, null, Collections.emptyList());
+        final JavaRDD<GATKRead> written = first.checkpointReads("reads", header, () -> ctx.parallelize(reads, 2));
+        Assert.assertEquals(written.map(GATKRead::getName).collect(), names(reads));
+
+        final PipelineCheckpointer second = new PipelineCheckpointer(ctx, checkpointDir, null, Collections.emptyList());
+        final JavaRDD<GATKRead> reloaded = second.checkpointReads("reads", header, () -> {
+            throw new GATKException("stage should not be rerun");
+        });
+        Assert.assertEquals(reloaded.map(GATKRead::getName).collect(), names(reads));
+    }
+
+    private static List<String> names(final List<GATKRead> reads) {
+        return reads.stream().map(GATKRead::getName).collect(Collectors.toList());
+    }
+}